@@ -0,0 +1,134 @@
+package dev.mathops.fx.coursebuilder;
+
+import java.io.File;
+
+/**
+ * An immutable entry (a file or a directory) in a scanned course media directory tree.
+ */
+abstract class AbstractCourseEntry implements Comparable<AbstractCourseEntry> {
+
+    /** The file or directory. */
+    private final File file;
+
+    /** The entry name. */
+    private final String name;
+
+    /** The last modification date of the file or directory, in milliseconds since the epoch. */
+    private final long lastModified;
+
+    /**
+     * Constructs a new {@code AbstractCourseEntry}.
+     *
+     * @param theFile         the file or directory
+     * @param theLastModified the last modification date, in milliseconds since the epoch
+     */
+    AbstractCourseEntry(final File theFile, final long theLastModified) {
+
+        super();
+
+        this.file = theFile;
+        this.name = theFile.getName();
+        this.lastModified = theLastModified;
+    }
+
+    /**
+     * Gets the file or directory.
+     *
+     * @return the file
+     */
+    final File getFile() {
+
+        return this.file;
+    }
+
+    /**
+     * Gets the entry name.
+     *
+     * @return the name
+     */
+    final String getName() {
+
+        return this.name;
+    }
+
+    /**
+     * Gets the last modification date.
+     *
+     * @return the last modification date, in milliseconds since the epoch
+     */
+    final long getLastModified() {
+
+        return this.lastModified;
+    }
+
+    /**
+     * Tests whether this entry is a directory.
+     *
+     * @return true if a directory; false if a file
+     */
+    abstract boolean isDirectory();
+
+    /**
+     * Counts the files this entry represents.  A file counts as 1, and a directory counts as 1 plus the count of all
+     * its entries (as in {@code AppUtils.countFiles}).
+     *
+     * @return the number of files
+     */
+    abstract int countFiles();
+
+    /**
+     * Compares this entry to another by name.
+     *
+     * @param o the other entry
+     * @return a negative, zero, or positive value as this entry's name sorts before, with, or after the other
+     */
+    @Override
+    public final int compareTo(final AbstractCourseEntry o) {
+
+        return this.name.compareTo(o.name);
+    }
+
+    /**
+     * Generates a hash code for the object.
+     *
+     * @return the hash code
+     */
+    @Override
+    public final int hashCode() {
+
+        return this.file.hashCode();
+    }
+
+    /**
+     * Tests whether this object is equal to another.  Entries are equal if they represent the same file.
+     *
+     * @param obj the other object
+     * @return true if the objects are equal
+     */
+    @Override
+    public final boolean equals(final Object obj) {
+
+        final boolean equal;
+
+        if (obj == this) {
+            equal = true;
+        } else if (obj instanceof final AbstractCourseEntry entry) {
+            equal = entry.isDirectory() == isDirectory() && this.file.equals(entry.file);
+        } else {
+            equal = false;
+        }
+
+        return equal;
+    }
+
+    /**
+     * Generates a string representation of the entry.
+     *
+     * @return the string representation
+     */
+    @Override
+    public final String toString() {
+
+        return this.file.getPath();
+    }
+}
@@ -0,0 +1,164 @@
+package dev.mathops.fx.coursebuilder;
+
+import javafx.beans.value.ChangeListener;
+import javafx.beans.value.ObservableValue;
+import javafx.scene.Node;
+import javafx.scene.Parent;
+import javafx.scene.control.ScrollPane;
+import javafx.scene.control.TabPane;
+import javafx.scene.image.Image;
+import javafx.scene.image.ImageView;
+import javafx.scene.layout.BorderPane;
+import javafx.scene.media.MediaPlayer;
+import javafx.scene.media.MediaView;
+
+/**
+ * The base class for tab content that is built only when its tab is first selected.
+ *
+ * <p>
+ * Subclass constructors should do only the work needed to compute the tab title and warning count (which are shown on
+ * the tab itself), and should build child nodes (including any nested tab panes) in {@code build}.  A tab created by
+ * {@code AppUtils.makeLazyTab} will call {@code materialize} the first time the tab becomes selected.
+ */
+abstract class AbstractLazyTabContent extends BorderPane implements ChangeListener<Boolean> {
+
+    /** A rough estimate of the memory used by the controls of a materialized content, apart from images. */
+    private static final long CONTENT_OVERHEAD_BYTES = 64L * 1024L;
+
+    /** The number of bytes per pixel in a decoded image. */
+    private static final long BYTES_PER_PIXEL = 4L;
+
+    /** True once the content nodes have been built. */
+    private boolean materialized = false;
+
+    /**
+     * Constructs a new {@code AbstractLazyTabContent}.
+     */
+    AbstractLazyTabContent() {
+
+        super();
+    }
+
+    /**
+     * Gets the number of warnings found.
+     *
+     * @return the number of warnings
+     */
+    abstract int getNumWarnings();
+
+    /**
+     * Builds the child nodes for this content.  Called at most once, on the JavaFX application thread.
+     */
+    abstract void build();
+
+    /**
+     * Builds the child nodes for this content if they have not already been built.
+     */
+    final void materialize() {
+
+        if (!this.materialized) {
+            this.materialized = true;
+            build();
+        }
+    }
+
+    /**
+     * Called when the "selected" property of the tab that holds this content changes.
+     *
+     * @param observable the observable value
+     * @param oldValue   the old value
+     * @param newValue   the new value
+     */
+    @Override
+    public final void changed(final ObservableValue<? extends Boolean> observable, final Boolean oldValue,
+                              final Boolean newValue) {
+
+        if (Boolean.TRUE.equals(newValue)) {
+            materialize();
+        }
+    }
+
+    /**
+     * Estimates the memory used by this content's nodes, including decoded images.  Nested tab contents are not
+     * included (they are estimated separately).
+     *
+     * @return the estimated size, in bytes (0 if the content has not been materialized)
+     */
+    final long estimateBytes() {
+
+        return this.materialized ? CONTENT_OVERHEAD_BYTES + estimateImageBytes(this) : 0L;
+    }
+
+    /**
+     * Estimates the memory used by decoded images within a node and its descendants, not including the contents of
+     * nested tab panes.
+     *
+     * @param node the node
+     * @return the estimated size, in bytes
+     */
+    private static long estimateImageBytes(final Node node) {
+
+        long total = 0L;
+
+        if (node instanceof final ImageView view) {
+            final Image image = view.getImage();
+            if (image != null) {
+                total = (long) image.getWidth() * (long) image.getHeight() * BYTES_PER_PIXEL;
+            }
+        } else if (node instanceof final ScrollPane scroll) {
+            final Node content = scroll.getContent();
+            if (content != null) {
+                total = estimateImageBytes(content);
+            }
+        } else if (node instanceof final Parent parent && !(node instanceof TabPane)) {
+            for (final Node child : parent.getChildrenUnmodifiable()) {
+                total += estimateImageBytes(child);
+            }
+        }
+
+        return total;
+    }
+
+    /**
+     * Releases resources held by this content's nodes: media players are stopped and disposed, PDF previews are
+     * closed, and images are released.  Nested tab contents are not included (they are disposed separately).  Called
+     * when the content is being discarded, on the JavaFX application thread.
+     */
+    final void dispose() {
+
+        if (this.materialized) {
+            releaseResources(this);
+        }
+    }
+
+    /**
+     * Releases media players, PDF previews, and images within a node and its descendants, not including the contents
+     * of nested tab panes.
+     *
+     * @param node the node
+     */
+    private static void releaseResources(final Node node) {
+
+        if (node instanceof final MediaView mediaView) {
+            final MediaPlayer player = mediaView.getMediaPlayer();
+            if (player != null) {
+                player.stop();
+                player.dispose();
+                mediaView.setMediaPlayer(null);
+            }
+        } else if (node instanceof final ImageView view) {
+            view.setImage(null);
+        } else if (node instanceof final PdfPreview pdfPreview) {
+            pdfPreview.close();
+        } else if (node instanceof final ScrollPane scroll) {
+            final Node content = scroll.getContent();
+            if (content != null) {
+                releaseResources(content);
+            }
+        } else if (node instanceof final Parent parent && !(node instanceof TabPane)) {
+            for (final Node child : parent.getChildrenUnmodifiable()) {
+                releaseResources(child);
+            }
+        }
+    }
+}
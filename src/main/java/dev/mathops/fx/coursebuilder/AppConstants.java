@@ -100,6 +100,9 @@ public enum AppConstants {
     /** A common filename. */
     static final String METADATA_FILE = "metadata.json";
 
+    /** The name of the per-user cache directory (relative to the platform cache location). */
+    static final String CACHE_DIR_NAME = "mathops/coursebuilder";
+
     /** The filename of the Word icon. */
     static final String WORD_ICON = "docx24.png";
 
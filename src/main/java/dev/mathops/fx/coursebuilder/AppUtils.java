@@ -14,6 +14,7 @@ import javafx.geometry.Pos;
 import javafx.scene.Node;
 import javafx.scene.control.Hyperlink;
 import javafx.scene.control.Label;
+import javafx.scene.control.ProgressIndicator;
 import javafx.scene.control.Tab;
 import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
@@ -26,6 +27,7 @@ import javafx.scene.layout.CornerRadii;
 import javafx.scene.layout.FlowPane;
 import javafx.scene.layout.GridPane;
 import javafx.scene.layout.HBox;
+import javafx.scene.layout.StackPane;
 import javafx.scene.paint.Color;
 import javafx.scene.text.Font;
 import javafx.scene.text.FontWeight;
@@ -99,46 +101,107 @@ public enum AppUtils {
     }
 
     /**
-     * Creates a tab.
+     * Creates a tab whose content is built only when the tab is first selected.
      *
      * @param title       the tab title
-     * @param content     the content node
+     * @param content     the content (not yet materialized)
      * @param icon        the icon filename
      * @param numWarnings the number of warnings (if nonzero, an annotation is added to the tab graphic)
      * @return the constructed {@code Tab}
      */
-    static Tab makeTab(final String title, final Node content, final String icon, final int numWarnings) {
+    static Tab makeLazyTab(final String title, final AbstractLazyTabContent content, final String icon,
+                           final int numWarnings) {
 
-        final Tab tab = new Tab(title, content);
+        final Tab tab = new Tab();
+        tab.setClosable(false);
+
+        completeLazyTab(tab, title, content, icon, numWarnings);
+
+        return tab;
+    }
+
+    /**
+     * Creates a tab whose content is still being computed in the background.  The tab shows a progress indicator as
+     * its content and a "pending" annotation in place of a warning count until {@code completeLazyTab} is called.
+     *
+     * @param title the tab title
+     * @param icon  the icon filename
+     * @return the constructed {@code Tab}
+     */
+    static Tab makePendingTab(final String title, final String icon) {
+
+        final ProgressIndicator progress = new ProgressIndicator();
+        progress.setMaxSize(40.0, 40.0);
+        final StackPane placeholder = new StackPane(progress);
+
+        final Tab tab = new Tab(title, placeholder);
+        final Node graphic = makeTabGraphic(icon, makePendingAnnotation());
+        tab.setGraphic(graphic);
+        tab.setClosable(false);
+
+        return tab;
+    }
+
+    /**
+     * Completes a tab (typically one created by {@code makePendingTab}) by setting its title, graphic, and lazily
+     * built content.  If the tab is already selected, the content is built immediately; otherwise, it will be built
+     * when the tab is first selected.
+     *
+     * @param tab         the tab
+     * @param title       the tab title
+     * @param content     the content (not yet materialized)
+     * @param icon        the icon filename
+     * @param numWarnings the number of warnings (if nonzero, an annotation is added to the tab graphic)
+     */
+    static void completeLazyTab(final Tab tab, final String title, final AbstractLazyTabContent content,
+                                final String icon, final int numWarnings) {
+
+        tab.setText(title);
+        final Node annotation = numWarnings > 0 ? makeWarningAnnotation(numWarnings) : null;
+        final Node graphic = makeTabGraphic(icon, annotation);
+        tab.setGraphic(graphic);
+        tab.setContent(content);
+
+        if (tab.isSelected()) {
+            content.materialize();
+        } else {
+            tab.selectedProperty().addListener(content);
+        }
+    }
+
+    /**
+     * Creates the graphic for a tab, with an icon and an optional annotation.
+     *
+     * @param icon       the icon filename (null if none)
+     * @param annotation the annotation (null if none)
+     * @return the graphic (null if there is neither an icon nor an annotation)
+     */
+    private static Node makeTabGraphic(final String icon, final Node annotation) {
 
         final byte[] imgBytes = icon == null ? null : FileLoader.loadFileAsBytes(CourseBuilder.class, icon, true);
 
+        final Node graphic;
+
         if (imgBytes == null) {
-            if (numWarnings > 0) {
-                final Node annotation = makeWarningAnnotation(numWarnings);
-                tab.setGraphic(annotation);
-            }
+            graphic = annotation;
         } else {
             final Image image = new Image(new ByteArrayInputStream(imgBytes));
             final ImageView view = new ImageView(image);
-            if (numWarnings > 0) {
+            if (annotation == null) {
+                graphic = view;
+            } else {
                 final HBox box = new HBox();
                 box.setSpacing(2.0);
                 box.setFillHeight(false);
                 box.setAlignment(Pos.BASELINE_LEFT);
 
-                final Node annotation = makeWarningAnnotation(numWarnings);
                 final ObservableList<Node> boxChildren = box.getChildren();
                 boxChildren.addAll(view, annotation);
-                tab.setGraphic(box);
-            } else {
-                tab.setGraphic(view);
+                graphic = box;
             }
         }
 
-        tab.setClosable(false);
-
-        return tab;
+        return graphic;
     }
 
     /**
@@ -242,6 +305,32 @@ public enum AppUtils {
         return box;
     }
 
+    /**
+     * Creates a node that can be used in place of a warning annotation while warnings are still being counted.
+     *
+     * @return the node
+     */
+    static Node makePendingAnnotation() {
+
+        final HBox box = new HBox();
+
+        final CornerRadii radii = new CornerRadii(5.0);
+        final BackgroundFill grayFill = new BackgroundFill(Color.GRAY, radii, null);
+        final Background grayBackground = new Background(grayFill);
+        box.setBackground(grayBackground);
+        box.setPadding(new Insets(0.0, 2.0, 0.0, 2.0));
+
+        final Label label = new Label("\u2026");
+        label.setTextFill(AppConstants.WHITE);
+        final Font font = Font.font("System", FontWeight.BOLD, 10.0);
+        label.setFont(font);
+
+        final ObservableList<Node> children = box.getChildren();
+        children.add(label);
+
+        return box;
+    }
+
     /**
      * Adds a row of controls for a single documen t (without link or "open" button) to a grid pane.
      *
@@ -299,17 +388,7 @@ public enum AppUtils {
      */
     static boolean isIntroDir(final String name) {
 
-        boolean result = false;
-
-        if (name.length() == 10 && name.indexOf("_intro_") == 2) {
-            final int c0 = (int) name.charAt(0);
-            final int c1 = (int) name.charAt(1);
-            final int c9 = (int) name.charAt(9);
-
-            result = c0 == AppConstants.DIGIT_0 && isAsciiDigit(c1) && isAsciiDigit(c9);
-        }
-
-        return result;
+        return FileClassifier.classify(name) == EFileRole.INTRO_DIR;
     }
 
     /**
@@ -320,18 +399,7 @@ public enum AppUtils {
      */
     static boolean isLessonDir(final String name) {
 
-        boolean result = false;
-
-        if (name.length() == 11 && name.indexOf("_lesson_") == 2) {
-            final int c0 = (int) name.charAt(0);
-            final int c1 = (int) name.charAt(1);
-            final int c10 = (int) name.charAt(10);
-
-            result = (c0 == AppConstants.DIGIT_1 || c0 == AppConstants.DIGIT_2) && isAsciiDigit(c1)
-                     && isAsciiDigit(c10);
-        }
-
-        return result;
+        return FileClassifier.classify(name) == EFileRole.LESSON_DIR;
     }
 
     /**
@@ -342,18 +410,7 @@ public enum AppUtils {
      */
     static boolean isStandardDir(final String name) {
 
-        boolean result = false;
-
-        if (name.length() == 13 && name.indexOf("_standard_") == 2) {
-            final int c0 = (int) name.charAt(0);
-            final int c1 = (int) name.charAt(1);
-            final int c12 = (int) name.charAt(12);
-
-            result = (c0 == AppConstants.DIGIT_1 || c0 == AppConstants.DIGIT_2) && isAsciiDigit(c1)
-                     && isAsciiDigit(c12);
-        }
-
-        return result;
+        return FileClassifier.classify(name) == EFileRole.STANDARD_DIR;
     }
 
     /**
@@ -364,17 +421,7 @@ public enum AppUtils {
      */
     static boolean isConclusionDir(final String name) {
 
-        boolean result = false;
-
-        if (name.length() == 15 && name.indexOf("_conclusion_") == 2) {
-            final int c0 = (int) name.charAt(0);
-            final int c1 = (int) name.charAt(1);
-            final int c14 = (int) name.charAt(14);
-
-            result = c0 == AppConstants.DIGIT_9 && isAsciiDigit(c1) && isAsciiDigit(c14);
-        }
-
-        return result;
+        return FileClassifier.classify(name) == EFileRole.CONCLUSION_DIR;
     }
 
     /**
@@ -385,18 +432,7 @@ public enum AppUtils {
      */
     static boolean isObjectiveDir(final String name) {
 
-        boolean result = false;
-
-        if (name.length() == 14 && name.indexOf("_objective_") == 2) {
-            final int c0 = (int) name.charAt(0);
-            final int c1 = (int) name.charAt(1);
-            final int c13 = (int) name.charAt(13);
-
-            result = (c0 == AppConstants.DIGIT_1 || c0 == AppConstants.DIGIT_2) && isAsciiDigit(c1)
-                     && isAsciiLetter(c13);
-        }
-
-        return result;
+        return FileClassifier.classify(name) == EFileRole.OBJECTIVE_DIR;
     }
 
     /**
@@ -430,20 +466,86 @@ public enum AppUtils {
      */
     static int countFiles(final File dir) {
 
-        int count = 1;
+        return DirectoryReader.countFiles(dir);
+    }
 
-        final File[] list = dir.listFiles();
-        if (list != null) {
-            for (final File file : list) {
-                if (file.isDirectory()) {
-                    count += countFiles(file);
-                } else {
-                    ++count;
-                }
+    /**
+     * Formats a number of bytes for display.
+     *
+     * @param bytes the number of bytes
+     * @return the formatted string, like "1.2 MB"
+     */
+    static String formatBytes(final long bytes) {
+
+        final double kb = 1024.0;
+        final double mb = kb * 1024.0;
+        final double gb = mb * 1024.0;
+        final double value = (double) bytes;
+
+        final String result;
+
+        if (value >= gb) {
+            result = String.format("%.1f GB", Double.valueOf(value / gb));
+        } else if (value >= mb) {
+            result = String.format("%.1f MB", Double.valueOf(value / mb));
+        } else if (value >= kb) {
+            result = String.format("%.1f KB", Double.valueOf(value / kb));
+        } else {
+            result = bytes + " bytes";
+        }
+
+        return result;
+    }
+
+    /**
+     * Appends a string as a quoted JSON string literal.
+     *
+     * @param builder the builder to which to append
+     * @param str     the string
+     */
+    static void appendJsonString(final StringBuilder builder, final String str) {
+
+        builder.append('"');
+
+        final int len = str.length();
+        for (int i = 0; i < len; ++i) {
+            final char ch = str.charAt(i);
+            if (ch == '"' || ch == '\\') {
+                builder.append('\\').append(ch);
+            } else if (ch < ' ') {
+                builder.append(String.format("\\u%04x", Integer.valueOf(ch)));
+            } else {
+                builder.append(ch);
             }
         }
 
-        return count;
+        builder.append('"');
+    }
+
+    /**
+     * Gets the directory in which the application stores per-user cache files, creating it if needed.  On Windows
+     * this is under "%LOCALAPPDATA%"; elsewhere it is under "$XDG_CACHE_HOME" or "~/.cache".
+     *
+     * @return the cache directory; null if it could not be created
+     */
+    static File getCacheDir() {
+
+        final String localAppData = System.getenv("LOCALAPPDATA");
+        final String xdgCacheHome = System.getenv("XDG_CACHE_HOME");
+
+        final File base;
+        if (localAppData != null && !localAppData.isBlank()) {
+            base = new File(localAppData);
+        } else if (xdgCacheHome != null && !xdgCacheHome.isBlank()) {
+            base = new File(xdgCacheHome);
+        } else {
+            final String homePath = System.getProperty("user.home");
+            base = new File(homePath, ".cache");
+        }
+
+        final File cacheDir = new File(base, AppConstants.CACHE_DIR_NAME);
+
+        return (cacheDir.exists() || cacheDir.mkdirs()) && cacheDir.isDirectory() ? cacheDir : null;
     }
 
     /**
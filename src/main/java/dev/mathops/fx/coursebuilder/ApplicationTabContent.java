@@ -5,33 +5,41 @@ import javafx.geometry.Insets;
 import javafx.scene.Node;
 import javafx.scene.control.Tab;
 import javafx.scene.control.TabPane;
-import javafx.scene.layout.BorderPane;
 import javafx.scene.layout.GridPane;
 import javafx.scene.layout.VBox;
 
 import java.io.File;
 import java.util.ArrayList;
-import java.util.Collection;
+import java.util.List;
 
 /**
  * The content of an "Application" tab.
  */
-final class ApplicationTabContent extends BorderPane {
+final class ApplicationTabContent extends AbstractLazyTabContent {
 
-    /** The number of warnings found. */
-    private int numWarnings = 0;
+    /** The application directory. */
+    private final CourseDir applicationDir;
+
+    /** The Information tab content. */
+    private final InformationTabContent info;
 
-    /** The number of lessons in the exploration. */
-    private int numLessons = 0;
+    /** The Lessons tab content. */
+    private final LessonsTabContent lessons;
 
-    /** The number of examples in the exploration. */
-    private int numExamples = 0;
+    /** The Examples tab content. */
+    private final ExamplesTabContent examples;
 
-    /** The number of handouts in the exploration. */
-    private int numHandouts = 0;
+    /** The Handouts tab content. */
+    private final HandoutsTabContent handouts;
 
-    /** The number of items in the exploration. */
-    private int numItems = 0;
+    /** The Items tab content. */
+    private final ItemsTabContent items;
+
+    /** Unexpected files found in the application directory. */
+    private final List<AbstractCourseEntry> extraFiles;
+
+    /** The number of warnings found. */
+    private int numWarnings = 0;
 
     /**
      * Constructs a new {@code ApplicationTabContent}.
@@ -41,110 +49,98 @@ final class ApplicationTabContent extends BorderPane {
      * @param locationPrefix the prefix for the location, like "02_subject.01_topic" (to this will be appended a dot and
      *                       the filename of the containing directory)
      */
-    ApplicationTabContent(final CourseBuilder theOwner, final File applicationDir, final String locationPrefix) {
+    ApplicationTabContent(final CourseBuilder theOwner, final CourseDir applicationDir, final String locationPrefix) {
 
         super();
 
-        final TabPane tabPane = new TabPane();
-        setCenter(tabPane);
-
-        final ObservableList<Tab> tabs = tabPane.getTabs();
+        this.applicationDir = applicationDir;
 
-        final File examplesDir = new File(applicationDir, AppConstants.EXAMPLES_DIR);
-        final File handoutsDir = new File(applicationDir, AppConstants.HANDOUTS_DIR);
-        final File itemsDir = new File(applicationDir, AppConstants.ITEMS_DIR);
+        final CourseDir examplesDir = applicationDir.resolve(AppConstants.EXAMPLES_DIR);
+        final CourseDir handoutsDir = applicationDir.resolve(AppConstants.HANDOUTS_DIR);
+        final CourseDir itemsDir = applicationDir.resolve(AppConstants.ITEMS_DIR);
 
         final String locationString = locationPrefix + "." + applicationDir.getName();
 
-        final InformationTabContent objectiveInfo = new InformationTabContent(theOwner, applicationDir, null);
+        this.info = new InformationTabContent(theOwner, applicationDir, null);
+        this.lessons = new LessonsTabContent(theOwner, applicationDir, 1, 9, "lesson");
+        this.examples = new ExamplesTabContent(theOwner, examplesDir, locationString);
+        this.handouts = new HandoutsTabContent(theOwner, handoutsDir, locationString);
+        this.items = new ItemsTabContent(theOwner, itemsDir, locationString);
 
-        final LessonsTabContent lessons = new LessonsTabContent(theOwner, applicationDir, 1, 9, "lesson");
-        this.numLessons = lessons.getNumLessons();
+        // TODO: Do we want to create the Info tab last and pass it statistics to display?
 
-        final ExamplesTabContent examples = new ExamplesTabContent(theOwner, examplesDir, locationString);
-        this.numExamples = examples.getNumExamples();
+        this.numWarnings = this.info.getNumWarnings() + this.lessons.getNumWarnings()
+                           + this.examples.getNumWarnings() + this.handouts.getNumWarnings()
+                           + this.items.getNumWarnings();
 
-        final HandoutsTabContent handouts = new HandoutsTabContent(theOwner, handoutsDir, locationString);
-        this.numHandouts = handouts.getNumHandouts();
+        // Find any unexpected files
+        this.extraFiles = new ArrayList<>(10);
 
-        final ItemsTabContent items = new ItemsTabContent(theOwner, itemsDir, locationString);
-        this.numItems = items.getNumItems();
+        if (applicationDir.exists()) {
+            final List<AbstractCourseEntry> allFiles = applicationDir.getEntries();
+            if (!allFiles.isEmpty()) {
+                for (final AbstractCourseEntry file : allFiles) {
+                    if (!CourseRules.isExpected(ERuleSet.ACTIVITY, file)) {
+                        this.numWarnings += file.countFiles();
+                        this.extraFiles.add(file);
+                    }
+                }
+            }
+        }
+    }
 
-        objectiveInfo.init();
-        lessons.init();
-        examples.init();
-        handouts.init();
-        items.init();
+    /**
+     * Builds the child nodes for this content.
+     */
+    @Override
+    void build() {
 
-        // TODO: Do we want to create the Info tab last and pass it statistics to display?
+        final TabPane tabPane = new TabPane();
+        setCenter(tabPane);
 
-        final int infoWarnings = objectiveInfo.getNumWarnings();
-        final Tab infoTab = AppUtils.makeTab("Information", objectiveInfo, AppConstants.INFO_ICON, infoWarnings);
+        final ObservableList<Tab> tabs = tabPane.getTabs();
 
-        final int lessonWarnings = lessons.getNumWarnings();
-        final String lessonsTitle = "Content Lessons (" + this.numLessons + ")";
-        final Tab lessonsTab = AppUtils.makeTab(lessonsTitle, lessons, AppConstants.LESSONS_ICON, lessonWarnings);
+        final int infoWarnings = this.info.getNumWarnings();
+        final Tab infoTab = AppUtils.makeLazyTab("Information", this.info, AppConstants.INFO_ICON, infoWarnings);
 
-        final int exampleWarnings = examples.getNumWarnings();
-        final String examplesTitle = "Examples (" + this.numExamples + ")";
-        final Tab examplesTab = AppUtils.makeTab(examplesTitle, examples, AppConstants.EXAMPLES_ICON, exampleWarnings);
+        final int lessonsWarnings = this.lessons.getNumWarnings();
+        final String lessonsTitle = "Content Lessons (" + getNumLessons() + ")";
+        final Tab lessonsTab = AppUtils.makeLazyTab(lessonsTitle, this.lessons, AppConstants.LESSONS_ICON,
+                lessonsWarnings);
 
-        final int handoutsWarnings = handouts.getNumWarnings();
-        final String handoutsTitle = "Handouts (" + this.numHandouts + ")";
-        final Tab handoutsTab = AppUtils.makeTab(handoutsTitle, handouts, AppConstants.HANDOUTS_ICON, handoutsWarnings);
+        final int examplesWarnings = this.examples.getNumWarnings();
+        final String examplesTitle = "Examples (" + getNumExamples() + ")";
+        final Tab examplesTab = AppUtils.makeLazyTab(examplesTitle, this.examples, AppConstants.EXAMPLES_ICON,
+                examplesWarnings);
 
-        final int itemsWarnings = items.getNumWarnings();
-        final String itemsTitle = "Items (" + this.numItems + ")";
-        final Tab itemsTab = AppUtils.makeTab(itemsTitle, items, AppConstants.ITEMS_ICON, itemsWarnings);
+        final int handoutsWarnings = this.handouts.getNumWarnings();
+        final String handoutsTitle = "Handouts (" + getNumHandouts() + ")";
+        final Tab handoutsTab = AppUtils.makeLazyTab(handoutsTitle, this.handouts, AppConstants.HANDOUTS_ICON,
+                handoutsWarnings);
 
-        this.numWarnings = infoWarnings + lessonWarnings + exampleWarnings + handoutsWarnings + itemsWarnings;
+        final int itemsWarnings = this.items.getNumWarnings();
+        final String itemsTitle = "Items (" + getNumItems() + ")";
+        final Tab itemsTab = AppUtils.makeLazyTab(itemsTitle, this.items, AppConstants.ITEMS_ICON, itemsWarnings);
 
         tabs.addAll(infoTab, lessonsTab, examplesTab, handoutsTab, itemsTab);
 
-        // Present any unexpected files that remain
-        final Collection<File> extraFiles = new ArrayList<>(10);
-
-        if (applicationDir.exists()) {
-            final File[] allFiles = applicationDir.listFiles();
-            if (allFiles != null) {
-                for (final File file : allFiles) {
-                    final String name = file.getName();
-                    if (file.isDirectory()) {
-                        if (name.contains("_lesson_") || AppConstants.EXAMPLES_DIR.equals(name) ||
-                            AppConstants.HANDOUTS_DIR.equals(name) || AppConstants.ITEMS_DIR.equals(name)) {
-                            continue;
-                        }
-                    } else if (AppConstants.METADATA_FILE.equals(name)) {
-                        continue;
-                    }
-
-                    if (file.isDirectory()) {
-                        this.numWarnings += AppUtils.countFiles(file);
-                    } else {
-                        ++this.numWarnings;
-                    }
-
-                    extraFiles.add(file);
-                }
-            }
-        }
-
         final VBox bottom = new VBox();
         final ObservableList<Node> bottomChildren = bottom.getChildren();
         setBottom(bottom);
 
         // Present any unexpected files that remain
-        if (!extraFiles.isEmpty()) {
+        if (!this.extraFiles.isEmpty()) {
             final GridPane unexpectedPane = new GridPane();
             unexpectedPane.setPadding(new Insets(0.0, 0.0, 0.0, 20.0));
-            unexpectedPane.setHgap(10.0);
-            unexpectedPane.setVgap(4.0);
+            unexpectedPane.setHgap(10);
+            unexpectedPane.setVgap(4);
             final ObservableList<Node> unexpectedChildren = unexpectedPane.getChildren();
 
             int unexpectedRow = 0;
-            for (final File file : extraFiles) {
+            for (final AbstractCourseEntry file : this.extraFiles) {
                 final String name = file.getName();
-                AppUtils.addSimpleDocumentRow(file, name, unexpectedChildren, unexpectedRow);
+                final File target = file.getFile();
+                AppUtils.addSimpleDocumentRow(target, name, unexpectedChildren, unexpectedRow);
                 ++unexpectedRow;
             }
             bottomChildren.add(unexpectedPane);
@@ -152,11 +148,13 @@ final class ApplicationTabContent extends BorderPane {
     }
 
     /**
-     * Initializes this panel.  Called after the constructor completes since this method uses "this" to add itself as a
-     * listener.
+     * Gets the name of the application directory.
+     *
+     * @return the directory name
      */
-    void init() {
+    String getDirName() {
 
+        return this.applicationDir.getName();
     }
 
     /**
@@ -164,6 +162,7 @@ final class ApplicationTabContent extends BorderPane {
      *
      * @return the number of warnings
      */
+    @Override
     int getNumWarnings() {
 
         return this.numWarnings;
@@ -176,7 +175,7 @@ final class ApplicationTabContent extends BorderPane {
      */
     int getNumLessons() {
 
-        return this.numLessons;
+        return this.lessons.getNumLessons();
     }
 
     /**
@@ -186,7 +185,7 @@ final class ApplicationTabContent extends BorderPane {
      */
     int getNumExamples() {
 
-        return this.numExamples;
+        return this.examples.getNumExamples();
     }
 
     /**
@@ -196,7 +195,7 @@ final class ApplicationTabContent extends BorderPane {
      */
     int getNumHandouts() {
 
-        return this.numHandouts;
+        return this.handouts.getNumHandouts();
     }
 
     /**
@@ -206,6 +205,6 @@ final class ApplicationTabContent extends BorderPane {
      */
     int getNumItems() {
 
-        return this.numItems;
+        return this.items.getNumItems();
     }
 }
@@ -5,23 +5,33 @@ import javafx.geometry.Insets;
 import javafx.scene.Node;
 import javafx.scene.control.Tab;
 import javafx.scene.control.TabPane;
-import javafx.scene.layout.BorderPane;
 import javafx.scene.layout.FlowPane;
 import javafx.scene.layout.GridPane;
 import javafx.scene.layout.VBox;
 
 import java.io.File;
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
 
 /**
  * The content of an "Applications" tab.
  */
-final class ApplicationsTabContent extends BorderPane {
+final class ApplicationsTabContent extends AbstractLazyTabContent {
 
-    /** The number of applications. */
-    private final int numApplications;
+    /** The owning application. */
+    private final CourseBuilder owner;
+
+    /** The containing directory. */
+    private final CourseDir containingDir;
+
+    /** The location string (the location prefix with the containing directory name appended). */
+    private final String locationString;
+
+    /** The content of each application tab (not yet materialized). */
+    private final List<ApplicationTabContent> applications;
+
+    /** Unexpected files found in the containing directory. */
+    private final List<AbstractCourseEntry> extraFiles;
 
     /** The number of warnings found. */
     private int numWarnings = 0;
@@ -42,121 +52,102 @@ final class ApplicationsTabContent extends BorderPane {
      * Constructs a new {@code ApplicationsTabContent}.
      *
      * @param theOwner         the owning application
-     * @param theContainingDir the containing directory
+     * @param theContainingDir the containing directory (which may not exist)
      * @param locationPrefix   the prefix for the location, like "02_subject.01_topic" (to this will be appended a dot
      *                         and the filename of the containing directory)
      */
-    ApplicationsTabContent(final CourseBuilder theOwner, final File theContainingDir, final String locationPrefix) {
+    ApplicationsTabContent(final CourseBuilder theOwner, final CourseDir theContainingDir,
+                           final String locationPrefix) {
 
         super();
 
-        setPadding(AppConstants.PADDING);
-
-        // Top pane shows the location of the file we're viewing
-        final String locationString = locationPrefix + "." + theContainingDir.getName();
-        if (theContainingDir.exists() && theContainingDir.isDirectory()) {
-            // Top pane shows the location of the file we're viewing (omit if the directory does not exist)
-            final FlowPane top = AppUtils.makeLocationFlow(theOwner, "Location:  ", locationString, theContainingDir);
-            setTop(top);
-        }
-
-        // Center is a nested tab pane with all the applications in the containing directory
-        final TabPane tabPane = new TabPane();
-        tabPane.getStyleClass().add(AppConstants.FLOATING_CLASS);
-        setCenter(tabPane);
+        this.owner = theOwner;
+        this.containingDir = theContainingDir;
+        this.locationString = locationPrefix + "." + theContainingDir.getName();
+        this.applications = new ArrayList<>(10);
+        this.extraFiles = new ArrayList<>(10);
 
-        int numFound = 0;
+        if (theContainingDir.exists()) {
 
-        final List<File> extraFiles = new ArrayList<>(10);
+            final List<AbstractCourseEntry> allFiles = theContainingDir.getEntries();
+            this.extraFiles.addAll(allFiles);
 
-        if (theContainingDir.exists() && theContainingDir.isDirectory()) {
-
-            final File[] allFiles = theContainingDir.listFiles();
-            if (allFiles != null) {
-                Collections.addAll(extraFiles, allFiles);
-            }
-
-            final ObservableList<Tab> tabs = tabPane.getTabs();
             for (int i = 1; i <= 99; ++i) {
-                final String subdirectoryName = makeSubdirectoryName(i);
-
-                final File applicationDir = new File(theContainingDir, subdirectoryName);
-                if (applicationDir.exists() && applicationDir.isDirectory()) {
-                    extraFiles.remove(applicationDir);
+                final String subdirectoryName = CourseRules.activityDirName(i);
 
+                final CourseDir applicationDir = theContainingDir.getSubdir(subdirectoryName);
+                if (applicationDir != null) {
+                    this.extraFiles.remove(applicationDir);
                     final ApplicationTabContent content = new ApplicationTabContent(theOwner, applicationDir,
-                            locationString);
+                            this.locationString);
                     this.numLessons += content.getNumLessons();
                     this.numExamples += content.getNumExamples();
                     this.numHandouts += content.getNumHandouts();
                     this.numItems += content.getNumItems();
-                    content.init();
-                    final int warningCount = content.getNumWarnings();
-                    final String title = applicationDir.getName();
-                    final Tab tab = AppUtils.makeTab(title, content, "application.png", warningCount);
-                    this.numWarnings += warningCount;
-                    tabs.add(tab);
-                    ++numFound;
+                    this.numWarnings += content.getNumWarnings();
+                    this.applications.add(content);
                 }
             }
         }
 
-        this.numApplications = numFound;
+        for (final AbstractCourseEntry file : this.extraFiles) {
+            this.numWarnings += file.countFiles();
+        }
+    }
+
+    /**
+     * Builds the child nodes for this content.
+     */
+    @Override
+    void build() {
+
+        setPadding(AppConstants.PADDING);
+
+        if (this.containingDir.exists()) {
+            // Top pane shows the location of the file we're viewing (omit if the directory does not exist)
+            final File containingFile = this.containingDir.getFile();
+            final FlowPane top = AppUtils.makeLocationFlow(this.owner, "Location:  ", this.locationString,
+                    containingFile);
+            setTop(top);
+        }
+
+        // Center is a nested tab pane with all the applications in the containing directory
+        final TabPane tabPane = new TabPane();
+        final ObservableList<String> tabPaneStyleClasses = tabPane.getStyleClass();
+        tabPaneStyleClasses.add(AppConstants.FLOATING_CLASS);
+        setCenter(tabPane);
+
+        final ObservableList<Tab> tabs = tabPane.getTabs();
+        for (final ApplicationTabContent content : this.applications) {
+            final int contentWarnings = content.getNumWarnings();
+            final String dirName = content.getDirName();
+            final Tab tab = AppUtils.makeLazyTab(dirName, content, "application.png", contentWarnings);
+            tabs.add(tab);
+        }
 
         final VBox bottom = new VBox();
         final ObservableList<Node> bottomChildren = bottom.getChildren();
         setBottom(bottom);
 
         // Present any unexpected files that remain
-        if (!extraFiles.isEmpty()) {
+        if (!this.extraFiles.isEmpty()) {
             final GridPane unexpectedPane = new GridPane();
             unexpectedPane.setPadding(new Insets(0.0, 0.0, 0.0, 20.0));
-            unexpectedPane.setHgap(10);
-            unexpectedPane.setVgap(4);
+            unexpectedPane.setHgap(10.0);
+            unexpectedPane.setVgap(4.0);
             final ObservableList<Node> unexpectedChildren = unexpectedPane.getChildren();
 
             int unexpectedRow = 0;
-            for (final File file : extraFiles) {
+            for (final AbstractCourseEntry file : this.extraFiles) {
                 final String name = file.getName();
-                AppUtils.addSimpleDocumentRow(file, name, unexpectedChildren, unexpectedRow);
+                final File target = file.getFile();
+                AppUtils.addSimpleDocumentRow(target, name, unexpectedChildren, unexpectedRow);
                 ++unexpectedRow;
-
-                if (file.isDirectory()) {
-                    this.numWarnings += AppUtils.countFiles(file);
-                } else {
-                    ++this.numWarnings;
-                }
             }
             bottomChildren.add(unexpectedPane);
         }
     }
 
-    /**
-     * Generates an application subdirectory name, of the form "01".
-     *
-     * @param index the index (where 1 is the first application)
-     * @return the subdirectory name
-     */
-    private static String makeSubdirectoryName(final int index) {
-
-        final StringBuilder builder = new StringBuilder(13);
-
-        if (index < 10) {
-            builder.append("0");
-        }
-        builder.append(index);
-
-        return builder.toString();
-    }
-
-    /**
-     * Initializes this panel.  Called after the constructor completes since this method uses "this" to add itself as a
-     * listener.
-     */
-    void init() {
-
-    }
-
     /**
      * Gets the number of applications found.
      *
@@ -164,7 +155,7 @@ final class ApplicationsTabContent extends BorderPane {
      */
     int getNumApplications() {
 
-        return this.numApplications;
+        return this.applications.size();
     }
 
     /**
@@ -172,6 +163,7 @@ final class ApplicationsTabContent extends BorderPane {
      *
      * @return the number of warnings
      */
+    @Override
     int getNumWarnings() {
 
         return this.numWarnings;
@@ -0,0 +1,329 @@
+package dev.mathops.fx.coursebuilder;
+
+import dev.mathops.commons.log.Log;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A persistent cache of the content digests of asset files, used by {@code DuplicateFinder} and {@code TreeComparer}
+ * so that a rerun hashes only files that are new or have changed.  An entry is valid only while the file's size and
+ * modification date match those recorded with it.  Both tools get digests through {@code digest}, which hashes a file
+ * only on a cache miss and counts the files it hashes.
+ *
+ * <p>
+ * The cache is stored in the user cache directory, one file per course media directory, in the same style as the
+ * {@code ScanSnapshot} (all values big-endian, strings in modified UTF-8):
+ * <pre>
+ * int     MAGIC
+ * int     VERSION
+ * String  absolute path of the course media directory
+ * int     number of entries, then for each:
+ *   String  absolute path of the file
+ *   long    size
+ *   long    last modified
+ *   String  hex-encoded digest
+ * </pre>
+ *
+ * <p>
+ * This class is thread-safe.
+ */
+final class AssetHashCache {
+
+    /** A magic number that identifies a hash cache file ("CBHC"). */
+    private static final int MAGIC = 0x43424843;
+
+    /** The file format version (increment when the format changes to invalidate old files). */
+    private static final int VERSION = 1;
+
+    /** A prefix for cache filenames. */
+    private static final String FILENAME_PREFIX = "hashes_";
+
+    /** A suffix for cache filenames. */
+    private static final String FILENAME_SUFFIX = ".bin";
+
+    /** A buffer size for reading and writing cache files. */
+    private static final int BUFFER_SIZE = 65536;
+
+    /** The digest algorithm. */
+    private static final String ALGORITHM = "SHA-256";
+
+    /** A buffer size for reading the files being hashed. */
+    private static final int READ_BUFFER_SIZE = 65536;
+
+    /** The course media directory. */
+    private final File courseMediaDir;
+
+    /** The entries, keyed by absolute path. */
+    private final Map<String, Entry> entries;
+
+    /** The number of files hashed by {@code digest} (not found in the cache). */
+    private final AtomicInteger numHashed;
+
+    /**
+     * Constructs a new, empty {@code AssetHashCache}.
+     *
+     * @param theCourseMediaDir the course media directory
+     */
+    private AssetHashCache(final File theCourseMediaDir) {
+
+        super();
+
+        this.courseMediaDir = theCourseMediaDir;
+        this.entries = new ConcurrentHashMap<>(1000);
+        this.numHashed = new AtomicInteger(0);
+    }
+
+    /**
+     * Loads the hash cache for a course media directory, or creates an empty one if there is no valid cache file.
+     *
+     * @param courseMediaDir the course media directory
+     * @return the cache
+     */
+    static AssetHashCache load(final File courseMediaDir) {
+
+        final AssetHashCache result = new AssetHashCache(courseMediaDir);
+        final File cacheFile = getCacheFile(courseMediaDir);
+
+        if (cacheFile != null && cacheFile.isFile()) {
+            final Path path = cacheFile.toPath();
+            try (final InputStream in = Files.newInputStream(path);
+                 final DataInputStream data = new DataInputStream(new BufferedInputStream(in, BUFFER_SIZE))) {
+
+                final int magic = data.readInt();
+                final int version = data.readInt();
+                final String rootPath = data.readUTF();
+                final String expectedPath = courseMediaDir.getAbsolutePath();
+
+                if (magic == MAGIC && version == VERSION && rootPath.equals(expectedPath)) {
+                    final int count = data.readInt();
+                    for (int i = 0; i < count; ++i) {
+                        final String filePath = data.readUTF();
+                        final long size = data.readLong();
+                        final long lastModified = data.readLong();
+                        final String digest = data.readUTF();
+                        result.entries.put(filePath, new Entry(size, lastModified, digest));
+                    }
+                }
+            } catch (final IOException ex) {
+                Log.warning("Unable to read asset hash cache; assets will be rehashed", ex);
+                result.entries.clear();
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Gets the cached digest of a file, if the cache holds one for the file's current size and modification date.
+     *
+     * @param file the file
+     * @return the hex-encoded digest; null if there is no valid entry
+     */
+    String get(final CourseFile file) {
+
+        final String path = file.getFile().getAbsolutePath();
+        final Entry entry = this.entries.get(path);
+
+        return entry != null && entry.size() == file.getSize() && entry.lastModified() == file.getLastModified()
+                ? entry.digest() : null;
+    }
+
+    /**
+     * Records the digest of a file.
+     *
+     * @param file   the file
+     * @param digest the hex-encoded digest
+     */
+    void put(final CourseFile file, final String digest) {
+
+        final String path = file.getFile().getAbsolutePath();
+        this.entries.put(path, new Entry(file.getSize(), file.getLastModified(), digest));
+    }
+
+    /**
+     * Gets the digest of a file, from the cache if it holds one for the file's current size and modification date, or
+     * by hashing the file (holding a permit from a semaphore while it is read) and recording the result.  May be
+     * called from any thread.
+     *
+     * @param file    the file
+     * @param permits the semaphore that limits concurrent file system calls to the file's volume
+     * @return the hex-encoded digest; null if the file could not be read (including if it was deleted after it was
+     *         scanned)
+     */
+    String digest(final CourseFile file, final Semaphore permits) {
+
+        String digest = get(file);
+
+        if (digest == null) {
+            final Path path = file.getFile().toPath();
+
+            permits.acquireUninterruptibly();
+            try {
+                digest = computeDigest(path);
+                put(file, digest);
+                this.numHashed.incrementAndGet();
+            } catch (final NoSuchFileException ex) {
+                // The file was deleted after the tree was scanned - the caller decides what that means
+            } catch (final IOException ex) {
+                Log.warning("Unable to hash ", path, ex);
+            } finally {
+                permits.release();
+            }
+        }
+
+        return digest;
+    }
+
+    /**
+     * Gets the number of files hashed by {@code digest} (rather than found in the cache) since this cache was loaded.
+     *
+     * @return the number of files hashed
+     */
+    int getNumHashed() {
+
+        return this.numHashed.get();
+    }
+
+    /**
+     * Removes entries for all files not in a tree (used to drop files that no longer exist).  Entries for every file
+     * in the tree are kept, since both {@code DuplicateFinder} and {@code TreeComparer} share this cache and hash
+     * different sets of files.
+     *
+     * @param tree the tree whose files' entries should be kept
+     */
+    void retain(final CourseTree tree) {
+
+        final Set<String> paths = new HashSet<>(this.entries.size() * 2);
+        for (final CourseDir dir : tree.getDirectories()) {
+            for (final CourseFile file : dir.getFiles()) {
+                paths.add(file.getFile().getAbsolutePath());
+            }
+        }
+
+        this.entries.keySet().retainAll(paths);
+    }
+
+    /**
+     * Saves the cache.  The cache is written to a temporary file that then replaces any existing cache file, so a
+     * failed write never leaves a partial file in place.
+     */
+    void save() {
+
+        final File cacheFile = getCacheFile(this.courseMediaDir);
+
+        if (cacheFile != null) {
+            final File tempFile = new File(cacheFile.getParentFile(), cacheFile.getName() + ".tmp");
+            final Path tempPath = tempFile.toPath();
+
+            try {
+                try (final OutputStream out = Files.newOutputStream(tempPath);
+                     final DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out, BUFFER_SIZE))) {
+
+                    data.writeInt(MAGIC);
+                    data.writeInt(VERSION);
+                    data.writeUTF(this.courseMediaDir.getAbsolutePath());
+
+                    final Map<String, Entry> copy = Map.copyOf(this.entries);
+                    data.writeInt(copy.size());
+                    for (final Map.Entry<String, Entry> mapEntry : copy.entrySet()) {
+                        final Entry entry = mapEntry.getValue();
+                        data.writeUTF(mapEntry.getKey());
+                        data.writeLong(entry.size());
+                        data.writeLong(entry.lastModified());
+                        data.writeUTF(entry.digest());
+                    }
+                }
+
+                final Path cachePath = cacheFile.toPath();
+                try {
+                    Files.move(tempPath, cachePath, StandardCopyOption.REPLACE_EXISTING,
+                            StandardCopyOption.ATOMIC_MOVE);
+                } catch (final AtomicMoveNotSupportedException ex) {
+                    Files.move(tempPath, cachePath, StandardCopyOption.REPLACE_EXISTING);
+                }
+            } catch (final IOException ex) {
+                Log.warning("Unable to write asset hash cache", ex);
+            }
+        }
+    }
+
+    /**
+     * Computes the digest of a file's contents.
+     *
+     * @param path the file path
+     * @return the hex-encoded digest
+     * @throws IOException if the file could not be read
+     */
+    static String computeDigest(final Path path) throws IOException {
+
+        final MessageDigest md;
+        try {
+            md = MessageDigest.getInstance(ALGORITHM);
+        } catch (final NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ALGORITHM + " is not available", ex);
+        }
+
+        final byte[] buffer = new byte[READ_BUFFER_SIZE];
+        try (final InputStream in = Files.newInputStream(path)) {
+            int count = in.read(buffer);
+            while (count >= 0) {
+                md.update(buffer, 0, count);
+                count = in.read(buffer);
+            }
+        }
+
+        return HexFormat.of().formatHex(md.digest());
+    }
+
+    /**
+     * Gets the cache file for a course media directory.  The filename is derived from a hash of the absolute path of
+     * the course media directory, so each course directory gets its own cache.
+     *
+     * @param courseMediaDir the course media directory
+     * @return the cache file; null if the cache directory is not available
+     */
+    private static File getCacheFile(final File courseMediaDir) {
+
+        final File cacheDir = AppUtils.getCacheDir();
+        File result = null;
+
+        if (cacheDir != null) {
+            final String path = courseMediaDir.getAbsolutePath();
+            final String hash = Integer.toHexString(path.hashCode());
+            result = new File(cacheDir, FILENAME_PREFIX + hash + FILENAME_SUFFIX);
+        }
+
+        return result;
+    }
+
+    /**
+     * A cached digest, with the size and modification date of the file when it was hashed.
+     *
+     * @param size         the file size
+     * @param lastModified the file's last modification date
+     * @param digest       the hex-encoded digest
+     */
+    private record Entry(long size, long lastModified, String digest) {
+    }
+}
@@ -0,0 +1,210 @@
+package dev.mathops.fx.coursebuilder;
+
+import dev.mathops.text.parser.json.JSONObject;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A cross-reference between the "resource" fields of the "attributions" and "notes" arrays in example and lesson
+ * metadata files (see {@code ExampleTabContent} and {@code LessonTabContent}) and the files in the same directory.
+ *
+ * <p>
+ * The index is built in a single pass over the directories of a course tree.  In each example or lesson directory, the
+ * resource names from the metadata (taken from the shared {@code MetadataCache}) are joined with the directory's files
+ * by hash lookups in both directions: each resource name is looked up among the files, to find references to files
+ * that do not exist, and each attributable asset is looked up among the attributed names, to find assets without an
+ * attribution.  Attributable assets are the "image_##" and "drawing_##" images and drawings (but not their ".xcf" and
+ * ".xml" working files) and "video.mp4" or "video.*.mp4" recordings.
+ */
+final class AttributionIndex {
+
+    /** A metadata property. */
+    private static final String ATTRIBUTIONS_PROPERTY = "attributions";
+
+    /** A metadata property. */
+    private static final String NOTES_PROPERTY = "notes";
+
+    /** The property in an attribution or note that names a file. */
+    private static final String RESOURCE_PROPERTY = "resource";
+
+    /** The image and drawing roles that require an attribution. */
+    private static final Set<EFileRole> ATTRIBUTED_ROLES = EnumSet.of(EFileRole.DRAWING_SVG, EFileRole.DRAWING_PNG,
+            EFileRole.DRAWING_JPG, EFileRole.DRAWING_WEBP, EFileRole.IMAGE_SVG, EFileRole.IMAGE_PNG,
+            EFileRole.IMAGE_JPG, EFileRole.IMAGE_WEBP);
+
+    /** The scan time of the tree that was indexed. */
+    private final long scanTime;
+
+    /** A map from each referenced file that exists to the metadata properties that reference it. */
+    private final Map<File, Set<String>> references;
+
+    /** The attribution problems found, sorted by path. */
+    private final List<ValidationIssue> issues;
+
+    /** The number of attributable assets found. */
+    private int numAssets = 0;
+
+    /**
+     * Constructs a new, empty {@code AttributionIndex}.
+     *
+     * @param theScanTime the scan time of the tree being indexed
+     */
+    private AttributionIndex(final long theScanTime) {
+
+        super();
+
+        this.scanTime = theScanTime;
+        this.references = new HashMap<>(1000);
+        this.issues = new ArrayList<>(100);
+    }
+
+    /**
+     * Builds the index for a course tree.
+     *
+     * @param tree the course tree
+     * @return the index
+     */
+    static AttributionIndex build(final CourseTree tree) {
+
+        final AttributionIndex index = new AttributionIndex(tree.getScanTime());
+
+        for (final CourseDir dir : tree.getDirectories()) {
+            final EDirKind kind = dir.getKind();
+            if (kind == EDirKind.EXAMPLE || kind == EDirKind.LESSON) {
+                index.addDirectory(dir);
+            }
+        }
+
+        index.issues.sort(Comparator.comparing(ValidationIssue::file));
+
+        return index;
+    }
+
+    /**
+     * Tests whether a file requires an attribution.
+     *
+     * @param name the filename
+     * @return true if the file is an image, drawing, or video recording that requires an attribution
+     */
+    static boolean isAttributable(final String name) {
+
+        final EFileRole role = FileClassifier.classify(name);
+
+        return ATTRIBUTED_ROLES.contains(role)
+               || (role == EFileRole.RAW_MP4 && name.startsWith(AppConstants.VIDEO_PREFIX));
+    }
+
+    /**
+     * Joins the resource names in a directory's metadata with the files in the directory.
+     *
+     * @param dir the example or lesson directory
+     */
+    private void addDirectory(final CourseDir dir) {
+
+        final Set<String> attributed = new HashSet<>(10);
+
+        final CourseFile metadataFile = dir.getChildFile(AppConstants.METADATA_FILE);
+        if (metadataFile != null) {
+            final JSONObject json = MetadataCache.get(metadataFile).json();
+            if (json != null) {
+                addReferences(dir, json.getProperty(ATTRIBUTIONS_PROPERTY), ATTRIBUTIONS_PROPERTY, attributed);
+                addReferences(dir, json.getProperty(NOTES_PROPERTY), NOTES_PROPERTY, null);
+            }
+        }
+
+        for (final CourseFile file : dir.getFiles()) {
+            final String name = file.getName();
+            if (isAttributable(name)) {
+                ++this.numAssets;
+                if (!attributed.contains(name)) {
+                    this.issues.add(new ValidationIssue(EIssueKind.MISSING_ATTRIBUTION, file.getFile(), 1));
+                }
+            }
+        }
+    }
+
+    /**
+     * Adds the references in one metadata array, and records a problem for each resource that names a file that
+     * does not exist in the directory.
+     *
+     * @param dir      the directory
+     * @param value    the value of the array property (may be null, or not an array, if the file is malformed)
+     * @param property the name of the array property
+     * @param names    a set to which to add the resource names (null if not needed)
+     */
+    private void addReferences(final CourseDir dir, final Object value, final String property,
+                               final Set<? super String> names) {
+
+        if (value instanceof final Object[] array) {
+            for (final Object element : array) {
+                if (element instanceof final JSONObject obj) {
+                    final String resource = obj.getStringProperty(RESOURCE_PROPERTY);
+
+                    if (resource != null && !resource.isBlank()) {
+                        final CourseFile file = dir.getChildFile(resource);
+                        if (file == null) {
+                            final File missing = new File(dir.getFile(), resource);
+                            this.issues.add(new ValidationIssue(EIssueKind.DANGLING_REFERENCE, missing, 1));
+                        } else {
+                            this.references.computeIfAbsent(file.getFile(), key -> new HashSet<>(2)).add(property);
+                        }
+
+                        if (names != null) {
+                            names.add(resource);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Gets the scan time of the tree that was indexed.
+     *
+     * @return the scan time
+     */
+    long getScanTime() {
+
+        return this.scanTime;
+    }
+
+    /**
+     * Gets the number of existing files named by at least one attribution or note.
+     *
+     * @return the number of files
+     */
+    int getNumReferencedFiles() {
+
+        return this.references.size();
+    }
+
+    /**
+     * Gets the number of attributable assets found.
+     *
+     * @return the number of assets
+     */
+    int getNumAssets() {
+
+        return this.numAssets;
+    }
+
+    /**
+     * Gets the attribution problems found: assets with no attribution, and attributions or notes that name files that
+     * do not exist.
+     *
+     * @return the problems, sorted by path
+     */
+    List<ValidationIssue> getIssues() {
+
+        return Collections.unmodifiableList(this.issues);
+    }
+}
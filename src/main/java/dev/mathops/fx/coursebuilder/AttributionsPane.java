@@ -0,0 +1,70 @@
+package dev.mathops.fx.coursebuilder;
+
+import javafx.geometry.Insets;
+import javafx.scene.control.Label;
+import javafx.scene.control.TextArea;
+import javafx.scene.layout.BorderPane;
+import javafx.scene.text.Font;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * A pane that lists the attribution problems found by the {@code AttributionIndex}: images, drawings, and video
+ * recordings with no attribution in their directory's metadata, and attributions or notes that name files that do not
+ * exist.
+ */
+final class AttributionsPane extends BorderPane {
+
+    /**
+     * Constructs a new {@code AttributionsPane}.
+     *
+     * @param courseMediaDir the course media directory
+     * @param index          the attribution index
+     */
+    AttributionsPane(final File courseMediaDir, final AttributionIndex index) {
+
+        super();
+
+        setPadding(AppConstants.PADDING);
+
+        final Label heading = new Label("Attribution Problems");
+        heading.setFont(new Font(15.0));
+        heading.setPadding(new Insets(0.0, 0.0, AppConstants.V_GAP, 0.0));
+        setTop(heading);
+
+        final List<ValidationIssue> issues = index.getIssues();
+        final Path rootPath = courseMediaDir.toPath();
+        final StringBuilder builder = new StringBuilder(issues.size() * 80);
+        int numMissing = 0;
+        int numDangling = 0;
+
+        for (final ValidationIssue issue : issues) {
+            final String label;
+            if (issue.kind() == EIssueKind.MISSING_ATTRIBUTION) {
+                ++numMissing;
+                label = "No attribution:  ";
+            } else {
+                ++numDangling;
+                label = "No such file:    ";
+            }
+
+            final Path relative = rootPath.relativize(issue.file().toPath());
+            builder.append(label).append(relative.toString().replace(File.separatorChar, '/')).append('\n');
+        }
+
+        final TextArea text = new TextArea(builder.toString());
+        text.setEditable(false);
+        text.setFont(Font.font("Monospaced", 12.0));
+        text.setPrefColumnCount(100);
+        text.setPrefRowCount(30);
+        setCenter(text);
+
+        final Label summary = new Label(numMissing + " of " + index.getNumAssets() + " assets have no attribution; "
+                                        + numDangling + " attributions or notes name files that do not exist ("
+                                        + index.getNumReferencedFiles() + " files are referenced)");
+        summary.setPadding(new Insets(AppConstants.V_GAP, 0.0, 0.0, 0.0));
+        setBottom(summary);
+    }
+}
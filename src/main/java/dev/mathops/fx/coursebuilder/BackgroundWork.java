@@ -0,0 +1,143 @@
+package dev.mathops.fx.coursebuilder;
+
+import dev.mathops.commons.log.Log;
+import javafx.application.Platform;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * A shared executor for work that reads the course media directory (classifying directories, loading metadata,
+ * counting warnings) so that work stays off the JavaFX application thread.  Results are delivered back on the JavaFX
+ * application thread.
+ *
+ * <p>
+ * Speculative work (like preparing topic modules the user has not yet asked for) runs on a separate, smaller pool of
+ * minimum-priority threads, so it never delays work the user is waiting for.
+ */
+enum BackgroundWork {
+    ;
+
+    /** The number of worker threads. */
+    private static final int NUM_THREADS = Math.max(2, Runtime.getRuntime().availableProcessors());
+
+    /** The number of low-priority worker threads. */
+    private static final int NUM_LOW_PRIORITY_THREADS = Math.max(1, NUM_THREADS / 4);
+
+    /** The executor. */
+    private static final ExecutorService EXECUTOR = Executors.newFixedThreadPool(NUM_THREADS,
+            new WorkerFactory("Background work ", Thread.NORM_PRIORITY));
+
+    /** The executor for low-priority work. */
+    private static final ExecutorService LOW_PRIORITY_EXECUTOR = Executors.newFixedThreadPool(
+            NUM_LOW_PRIORITY_THREADS, new WorkerFactory("Low-priority work ", Thread.MIN_PRIORITY));
+
+    /**
+     * Performs work in the background, then passes the result to a consumer on the JavaFX application thread.  If
+     * the work throws an exception, the exception is logged and the consumer is not called.  If the returned future is
+     * cancelled, the consumer is not called (work that has already started runs to completion, but its result is
+     * discarded).
+     *
+     * @param work     the work to perform
+     * @param onResult the consumer to receive the result on the JavaFX application thread
+     * @param <T>      the type of result
+     * @return a future that completes when the work is done (before the consumer is called)
+     */
+    static <T> CompletableFuture<T> submit(final Supplier<T> work, final Consumer<? super T> onResult) {
+
+        return submit(work, onResult, EXECUTOR);
+    }
+
+    /**
+     * Performs speculative work in the background at low priority, then passes the result to a consumer on the JavaFX
+     * application thread, as with {@code submit}.  Cancelling the returned future before the work starts prevents it
+     * from running at all.
+     *
+     * @param work     the work to perform
+     * @param onResult the consumer to receive the result on the JavaFX application thread
+     * @param <T>      the type of result
+     * @return a future that completes when the work is done (before the consumer is called)
+     */
+    static <T> CompletableFuture<T> submitLowPriority(final Supplier<T> work, final Consumer<? super T> onResult) {
+
+        return submit(work, onResult, LOW_PRIORITY_EXECUTOR);
+    }
+
+    /**
+     * Performs work on an executor, then passes the result to a consumer on the JavaFX application thread.
+     *
+     * @param work     the work to perform
+     * @param onResult the consumer to receive the result on the JavaFX application thread
+     * @param executor the executor
+     * @param <T>      the type of result
+     * @return a future that completes when the work is done (before the consumer is called)
+     */
+    private static <T> CompletableFuture<T> submit(final Supplier<T> work, final Consumer<? super T> onResult,
+                                                   final ExecutorService executor) {
+
+        final CompletableFuture<T> future = CompletableFuture.supplyAsync(work, executor);
+
+        future.whenComplete((result, ex) -> {
+            if (ex == null) {
+                Platform.runLater(() -> onResult.accept(result));
+            } else if (!(ex instanceof CancellationException)) {
+                Log.warning("Background work failed", ex);
+            }
+        });
+
+        return future;
+    }
+
+    /**
+     * A thread factory that creates daemon worker threads.
+     */
+    static final class WorkerFactory implements ThreadFactory {
+
+        /** The prefix for thread names. */
+        private final String namePrefix;
+
+        /** The thread priority. */
+        private final int priority;
+
+        /** A counter used to number threads. */
+        private final AtomicInteger counter;
+
+        /**
+         * Constructs a new {@code WorkerFactory}.
+         *
+         * @param theNamePrefix the prefix for thread names
+         * @param thePriority   the thread priority
+         */
+        WorkerFactory(final String theNamePrefix, final int thePriority) {
+
+            super();
+
+            this.namePrefix = theNamePrefix;
+            this.priority = thePriority;
+            this.counter = new AtomicInteger(0);
+        }
+
+        /**
+         * Creates a new thread.
+         *
+         * @param runnable the runnable the thread will execute
+         * @return the thread
+         */
+        @Override
+        public Thread newThread(final Runnable runnable) {
+
+            final int number = this.counter.incrementAndGet();
+            final Thread thread = new Thread(runnable, this.namePrefix + number);
+            thread.setDaemon(true);
+            thread.setPriority(this.priority);
+
+            return thread;
+        }
+    }
+}
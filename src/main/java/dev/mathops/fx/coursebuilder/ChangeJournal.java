@@ -0,0 +1,723 @@
+package dev.mathops.fx.coursebuilder;
+
+import dev.mathops.commons.log.Log;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * A persistent journal of the files added, modified, and deleted in a course media directory, and of the deploys
+ * made from it, so the deploy tasks and the user interface can ask what changed since a particular deploy without
+ * walking the tree.
+ *
+ * <p>
+ * The journal is fed with pairs of course trees (the tree before and after each update the course watcher or a rescan
+ * installs).  Unchanged subtrees are shared between such trees, so comparing them visits only the directories that
+ * changed.  Each change gets the next sequence number, and the journal keeps only the latest change to each file,
+ * indexed by sequence number, so the changes since a deploy are found with one lookup for the deploy's sequence
+ * number and then a constant cost per change returned.
+ *
+ * <p>
+ * Changes made while the application is not running are found by revalidating the scan snapshot, which does not
+ * notice a file rewritten in place (its directory's modification date does not change).  Such an update is recorded
+ * as a gap, and the changes since any deploy made before a gap are reported as unknown, so a deploy after a gap copies
+ * everything.  The course watcher also records a gap when it cannot vouch that it saw every change (events were lost,
+ * or a directory could not be watched).  Changes are recorded only while a deploy is in progress or some earlier deploy
+ * could ask for them.
+ *
+ * <p>
+ * The journal is stored in the user cache directory, one file per course media directory, as a header followed by
+ * records appended as they occur (all values big-endian, strings in modified UTF-8):
+ * <pre>
+ * int     MAGIC
+ * int     VERSION
+ * String  absolute path of the course media directory
+ * then records, each starting with a byte type:
+ *   CHANGE_RECORD: long sequence, long time, byte kind, String relative path
+ *   DEPLOY_RECORD: long sequence, long time, String target
+ *   GAP_RECORD:    long sequence, long time
+ * </pre>
+ * When superseded records greatly outnumber live ones, the file is rewritten with only the live records.
+ *
+ * <p>
+ * This class is thread-safe.
+ */
+final class ChangeJournal {
+
+    /** A magic number that identifies a journal file ("CBJN"). */
+    private static final int MAGIC = 0x43424A4E;
+
+    /** The file format version (increment when the format changes to invalidate old files). */
+    private static final int VERSION = 1;
+
+    /** A prefix for journal filenames. */
+    private static final String FILENAME_PREFIX = "journal_";
+
+    /** A suffix for journal filenames. */
+    private static final String FILENAME_SUFFIX = ".bin";
+
+    /** A buffer size for reading and writing journal files. */
+    private static final int BUFFER_SIZE = 65536;
+
+    /** The record type for a change. */
+    private static final int CHANGE_RECORD = 1;
+
+    /** The record type for a deploy. */
+    private static final int DEPLOY_RECORD = 2;
+
+    /** The record type for a gap. */
+    private static final int GAP_RECORD = 3;
+
+    /** The number of superseded records tolerated in the file before it is rewritten. */
+    private static final int COMPACT_SLACK = 10_000;
+
+    /** The course media directory. */
+    private final File courseMediaDir;
+
+    /** The journal file; null if the cache directory is not available. */
+    private final File journalFile;
+
+    /** The latest change to each file, keyed by relative path. */
+    private final Map<String, JournalEntry> latest;
+
+    /** The same changes, keyed by sequence number. */
+    private final NavigableMap<Long, JournalEntry> bySequence;
+
+    /** The latest deploy to each target, in the order the targets were first deployed. */
+    private final Map<String, DeployMark> deploys;
+
+    /** The last sequence number assigned. */
+    private long sequence = 0L;
+
+    /** The sequence number of the last gap; 0 if there has been none. */
+    private long lastGap = 0L;
+
+    /** The number of records in the journal file. */
+    private int numRecords = 0;
+
+    /** The number of deploys in progress. */
+    private int activeDeploys = 0;
+
+    /** True once the journal file has been loaded. */
+    private boolean loaded = false;
+
+    /**
+     * Constructs a new {@code ChangeJournal}.  The journal file is loaded when the journal is first used.
+     *
+     * @param theCourseMediaDir the course media directory
+     */
+    ChangeJournal(final File theCourseMediaDir) {
+
+        this(theCourseMediaDir, defaultJournalFile(theCourseMediaDir));
+    }
+
+    /**
+     * Constructs a new {@code ChangeJournal} stored in a given file.  The journal file is loaded when the journal is
+     * first used.
+     *
+     * @param theCourseMediaDir the course media directory
+     * @param theJournalFile    the journal file; null to keep the journal only in memory
+     */
+    ChangeJournal(final File theCourseMediaDir, final File theJournalFile) {
+
+        super();
+
+        this.courseMediaDir = theCourseMediaDir;
+        this.journalFile = theJournalFile;
+        this.latest = new HashMap<>(1000);
+        this.bySequence = new TreeMap<>();
+        this.deploys = new LinkedHashMap<>(4);
+    }
+
+    /**
+     * Gets the journal file for a course media directory in the user cache directory.
+     *
+     * @param courseMediaDir the course media directory
+     * @return the journal file; null if the cache directory is not available
+     */
+    private static File defaultJournalFile(final File courseMediaDir) {
+
+        final File cacheDir = AppUtils.getCacheDir();
+        final File result;
+
+        if (cacheDir == null) {
+            result = null;
+        } else {
+            final String hash = Integer.toHexString(courseMediaDir.getAbsolutePath().hashCode());
+            result = new File(cacheDir, FILENAME_PREFIX + hash + FILENAME_SUFFIX);
+        }
+
+        return result;
+    }
+
+    /**
+     * Gets the deploy target name for a media deploy to a directory.
+     *
+     * @param targetDir the target directory
+     * @return the target name
+     */
+    static String mediaTarget(final File targetDir) {
+
+        return "media:" + targetDir.getAbsolutePath();
+    }
+
+    /**
+     * Gets the deploy target name for a web deploy to a directory.
+     *
+     * @param targetDir the target directory
+     * @return the target name
+     */
+    static String webTarget(final File targetDir) {
+
+        return "web:" + targetDir.getAbsolutePath();
+    }
+
+    /**
+     * Gets the file a journal entry refers to.
+     *
+     * @param entry the entry
+     * @return the file
+     */
+    File resolve(final JournalEntry entry) {
+
+        return new File(this.courseMediaDir, entry.path());
+    }
+
+    /**
+     * Called when a deploy starts.  Changes are recorded from now on even if no earlier deploy could ask for them, so
+     * that the changes made while the deploy runs are known to the next deploy.
+     *
+     * @return the last sequence number assigned, to be passed to {@code endDeploy}
+     */
+    synchronized long beginDeploy() {
+
+        ensureLoaded();
+        ++this.activeDeploys;
+
+        return this.sequence;
+    }
+
+    /**
+     * Called when a deploy ends.  If it completed, every change up to the sequence number returned by
+     * {@code beginDeploy} has been deployed to the target.
+     *
+     * @param target        the deploy target name
+     * @param startSequence the sequence number returned by {@code beginDeploy}
+     * @param completed     true if the deploy completed; false if it was cancelled or failed
+     */
+    synchronized void endDeploy(final String target, final long startSequence, final boolean completed) {
+
+        this.activeDeploys = Math.max(0, this.activeDeploys - 1);
+
+        if (completed) {
+            final DeployMark mark = new DeployMark(target, startSequence, System.currentTimeMillis());
+            this.deploys.remove(target);
+            this.deploys.put(target, mark);
+
+            if (this.journalFile != null) {
+                try (final DataOutputStream data = openForAppend()) {
+                    writeDeploy(data, mark);
+                } catch (final IOException ex) {
+                    Log.warning("Unable to write change journal", ex);
+                }
+                compactIfNeeded();
+            }
+        }
+    }
+
+    /**
+     * Records the changes between two course trees.
+     *
+     * @param base     the tree before the update
+     * @param updated  the tree after the update
+     * @param complete true if {@code updated} reflects every change to the files in {@code base} (false if it came
+     *                 from a revalidation, which can miss files rewritten in place, so a gap is recorded even if the
+     *                 trees are the same)
+     */
+    synchronized void record(final CourseTree base, final CourseTree updated, final boolean complete) {
+
+        ensureLoaded();
+
+        if (this.activeDeploys > 0 || hasValidDeploy()) {
+            final long time = System.currentTimeMillis();
+
+            if (complete) {
+                final List<JournalEntry> changes = new ArrayList<>(20);
+                final int rootLength = this.courseMediaDir.getAbsolutePath().length() + 1;
+                diff(base.getRoot(), updated.getRoot(), rootLength, time, changes);
+
+                if (!changes.isEmpty()) {
+                    appendChanges(changes);
+                    Log.info("Recorded ", Integer.toString(changes.size()), " changes in the change journal");
+                }
+            } else {
+                ++this.sequence;
+                this.lastGap = this.sequence;
+                appendGap(time);
+                Log.info("Changes since earlier deploys are unknown; the next deploys will copy all files");
+            }
+        }
+    }
+
+    /**
+     * Gets the changes since the last deploy to a target, in the order they were recorded.
+     *
+     * @param target the deploy target name
+     * @return the changes (the latest change to each file); null if there has been no deploy to the target, or if the
+     *         changes since it are not known
+     */
+    synchronized List<JournalEntry> getChangesSince(final String target) {
+
+        ensureLoaded();
+
+        final DeployMark mark = this.deploys.get(target);
+        List<JournalEntry> result = null;
+
+        if (mark != null && mark.sequence() >= this.lastGap) {
+            result = new ArrayList<>(this.bySequence.tailMap(Long.valueOf(mark.sequence()), false).values());
+        }
+
+        return result;
+    }
+
+    /**
+     * Gets the last deploy to each target.
+     *
+     * @return the deploys, most recent first
+     */
+    synchronized List<DeployMark> getDeploys() {
+
+        ensureLoaded();
+
+        final List<DeployMark> result = new ArrayList<>(this.deploys.values());
+        result.sort((a, b) -> Long.compare(b.time(), a.time()));
+
+        return result;
+    }
+
+    /**
+     * Tests whether there is a deploy whose changes are known (one made since the last gap).  While there is none, no
+     * query could return a change, so changes are not recorded.
+     *
+     * @return true if there is a deploy made since the last gap
+     */
+    private boolean hasValidDeploy() {
+
+        boolean result = false;
+
+        for (final DeployMark mark : this.deploys.values()) {
+            if (mark.sequence() >= this.lastGap) {
+                result = true;
+                break;
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Adds the changes between two versions of a directory to a list, assigning each the next sequence number.
+     * Directories that are the same node in both trees are unchanged and are skipped.
+     *
+     * @param before     the directory before the update
+     * @param after      the directory after the update
+     * @param rootLength the length of the course media directory path plus one (to make paths relative)
+     * @param time       the time to record with each change
+     * @param changes    the list to which to add changes
+     */
+    private void diff(final CourseDir before, final CourseDir after, final int rootLength, final long time,
+                      final List<? super JournalEntry> changes) {
+
+        if (before != after) {
+            final Map<String, CourseFile> oldFiles = new HashMap<>(before.getFiles().size() * 2);
+            for (final CourseFile file : before.getFiles()) {
+                oldFiles.put(file.getName(), file);
+            }
+
+            for (final CourseFile file : after.getFiles()) {
+                final CourseFile old = oldFiles.remove(file.getName());
+                if (old == null) {
+                    changes.add(makeEntry(file, EChangeKind.ADDED, rootLength, time));
+                } else if (old.getSize() != file.getSize() || old.getLastModified() != file.getLastModified()) {
+                    changes.add(makeEntry(file, EChangeKind.MODIFIED, rootLength, time));
+                }
+            }
+            for (final CourseFile old : oldFiles.values()) {
+                changes.add(makeEntry(old, EChangeKind.DELETED, rootLength, time));
+            }
+
+            final Map<String, CourseDir> oldSubdirs = new HashMap<>(before.getSubdirs().size() * 2);
+            for (final CourseDir subdir : before.getSubdirs()) {
+                oldSubdirs.put(subdir.getName(), subdir);
+            }
+
+            for (final CourseDir subdir : after.getSubdirs()) {
+                final CourseDir old = oldSubdirs.remove(subdir.getName());
+                if (old == null) {
+                    addAll(subdir, EChangeKind.ADDED, rootLength, time, changes);
+                } else {
+                    diff(old, subdir, rootLength, time, changes);
+                }
+            }
+            for (final CourseDir old : oldSubdirs.values()) {
+                addAll(old, EChangeKind.DELETED, rootLength, time, changes);
+            }
+        }
+    }
+
+    /**
+     * Adds a change of one kind for every file in a directory and its subdirectories.
+     *
+     * @param dir        the directory
+     * @param kind       the kind of change
+     * @param rootLength the length of the course media directory path plus one
+     * @param time       the time to record with each change
+     * @param changes    the list to which to add changes
+     */
+    private void addAll(final CourseDir dir, final EChangeKind kind, final int rootLength, final long time,
+                        final List<? super JournalEntry> changes) {
+
+        for (final CourseFile file : dir.getFiles()) {
+            changes.add(makeEntry(file, kind, rootLength, time));
+        }
+        for (final CourseDir subdir : dir.getSubdirs()) {
+            addAll(subdir, kind, rootLength, time, changes);
+        }
+    }
+
+    /**
+     * Makes the journal entry for a change to a file, combining it with the file's previous entry (if any) and
+     * assigning it the next sequence number.  The entry is not yet stored.
+     *
+     * @param file       the file
+     * @param kind       the kind of change
+     * @param rootLength the length of the course media directory path plus one
+     * @param time       the time to record
+     * @return the entry
+     */
+    private JournalEntry makeEntry(final CourseFile file, final EChangeKind kind, final int rootLength,
+                                   final long time) {
+
+        final String absolute = file.getFile().getAbsolutePath();
+        final String path = absolute.substring(rootLength).replace(File.separatorChar, '/');
+
+        final JournalEntry previous = this.latest.get(path);
+        final EChangeKind combined = previous == null ? kind : EChangeKind.combine(previous.kind(), kind);
+
+        ++this.sequence;
+
+        return new JournalEntry(path, combined, this.sequence, time);
+    }
+
+    /**
+     * Stores an entry, replacing the previous entry for the same file.
+     *
+     * @param entry the entry
+     */
+    private void store(final JournalEntry entry) {
+
+        final JournalEntry previous = this.latest.put(entry.path(), entry);
+        if (previous != null) {
+            this.bySequence.remove(Long.valueOf(previous.sequence()));
+        }
+        this.bySequence.put(Long.valueOf(entry.sequence()), entry);
+    }
+
+    /**
+     * Stores a batch of changes and appends them to the journal file.
+     *
+     * @param changes the changes
+     */
+    private void appendChanges(final List<JournalEntry> changes) {
+
+        for (final JournalEntry entry : changes) {
+            store(entry);
+        }
+
+        if (this.journalFile != null) {
+            try (final DataOutputStream data = openForAppend()) {
+                for (final JournalEntry entry : changes) {
+                    writeChange(data, entry);
+                }
+            } catch (final IOException ex) {
+                Log.warning("Unable to write change journal", ex);
+            }
+            compactIfNeeded();
+        }
+    }
+
+    /**
+     * Appends a gap record for the last sequence number to the journal file.
+     *
+     * @param time the time of the gap
+     */
+    private void appendGap(final long time) {
+
+        if (this.journalFile != null) {
+            try (final DataOutputStream data = openForAppend()) {
+                writeGap(data, this.lastGap, time);
+            } catch (final IOException ex) {
+                Log.warning("Unable to write change journal", ex);
+            }
+        }
+    }
+
+    /**
+     * Loads the journal file if that has not been done.
+     */
+    private void ensureLoaded() {
+
+        if (!this.loaded) {
+            this.loaded = true;
+            if (this.journalFile != null && this.journalFile.isFile()) {
+                load();
+            }
+        }
+    }
+
+    /**
+     * Loads the journal file.  A file for another directory or an older format is discarded, and a record cut short
+     * (for example, by a crash while it was being written) ends the load, after which the file is rewritten.
+     */
+    private void load() {
+
+        final Path path = this.journalFile.toPath();
+        boolean rewrite = false;
+
+        try (final InputStream in = Files.newInputStream(path);
+             final DataInputStream data = new DataInputStream(new BufferedInputStream(in, BUFFER_SIZE))) {
+
+            final int magic = data.readInt();
+            final int version = data.readInt();
+            final String rootPath = data.readUTF();
+
+            if (magic == MAGIC && version == VERSION && rootPath.equals(this.courseMediaDir.getAbsolutePath())) {
+                rewrite = readRecords(data);
+            } else {
+                rewrite = true;
+            }
+        } catch (final IOException ex) {
+            Log.warning("Unable to read change journal; it will be rewritten", ex);
+            rewrite = true;
+        }
+
+        if (rewrite) {
+            compact();
+        } else {
+            compactIfNeeded();
+        }
+    }
+
+    /**
+     * Reads records until the end of the journal file.
+     *
+     * @param data the input from which to read
+     * @return true if the last record was cut short
+     * @throws IOException if there is an error reading
+     */
+    private boolean readRecords(final DataInputStream data) throws IOException {
+
+        final EChangeKind[] kinds = EChangeKind.values();
+        boolean truncated = false;
+
+        try {
+            int type = data.read();
+            while (type != -1) {
+                final long seq = data.readLong();
+                final long time = data.readLong();
+
+                if (type == CHANGE_RECORD) {
+                    final int kind = data.readByte();
+                    final String relative = data.readUTF();
+                    if (kind < 0 || kind >= kinds.length) {
+                        throw new IOException("Invalid change kind in change journal");
+                    }
+                    store(new JournalEntry(relative, kinds[kind], seq, time));
+                } else if (type == DEPLOY_RECORD) {
+                    final String target = data.readUTF();
+                    this.deploys.remove(target);
+                    this.deploys.put(target, new DeployMark(target, seq, time));
+                } else if (type == GAP_RECORD) {
+                    this.lastGap = Math.max(this.lastGap, seq);
+                } else {
+                    throw new IOException("Invalid record type in change journal");
+                }
+
+                this.sequence = Math.max(this.sequence, seq);
+                ++this.numRecords;
+                type = data.read();
+            }
+        } catch (final EOFException ex) {
+            truncated = true;
+        }
+
+        return truncated;
+    }
+
+    /**
+     * Rewrites the journal file if superseded records greatly outnumber live ones and no deploy is in progress (a
+     * deploy in progress needs changes that compaction would discard).
+     */
+    private void compactIfNeeded() {
+
+        final int live = this.latest.size() + this.deploys.size() + 1;
+        if (this.activeDeploys == 0 && this.numRecords > live * 2 + COMPACT_SLACK) {
+            compact();
+        }
+    }
+
+    /**
+     * Discards changes no query can return (those made before every deploy whose changes are known), then rewrites
+     * the journal file with only the live records.  The file is written to a temporary file that then replaces the
+     * journal, so a failed write never leaves a partial journal in place.
+     */
+    private void compact() {
+
+        long floor = this.sequence;
+        for (final DeployMark mark : this.deploys.values()) {
+            if (mark.sequence() >= this.lastGap) {
+                floor = Math.min(floor, mark.sequence());
+            }
+        }
+        final NavigableMap<Long, JournalEntry> stale = this.bySequence.headMap(Long.valueOf(floor), true);
+        for (final JournalEntry entry : stale.values()) {
+            this.latest.remove(entry.path());
+        }
+        stale.clear();
+
+        if (this.journalFile != null) {
+            final File tempFile = new File(this.journalFile.getParentFile(), this.journalFile.getName() + ".tmp");
+            final Path tempPath = tempFile.toPath();
+
+            try {
+                try (final OutputStream out = Files.newOutputStream(tempPath);
+                     final DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out, BUFFER_SIZE))) {
+
+                    writeHeader(data);
+                    this.numRecords = 0;
+                    if (this.lastGap > 0L) {
+                        writeGap(data, this.lastGap, 0L);
+                    }
+                    for (final DeployMark mark : this.deploys.values()) {
+                        writeDeploy(data, mark);
+                    }
+                    for (final JournalEntry entry : this.bySequence.values()) {
+                        writeChange(data, entry);
+                    }
+                }
+
+                final Path journalPath = this.journalFile.toPath();
+                try {
+                    Files.move(tempPath, journalPath, StandardCopyOption.REPLACE_EXISTING,
+                            StandardCopyOption.ATOMIC_MOVE);
+                } catch (final AtomicMoveNotSupportedException ex) {
+                    Files.move(tempPath, journalPath, StandardCopyOption.REPLACE_EXISTING);
+                }
+            } catch (final IOException ex) {
+                Log.warning("Unable to write change journal", ex);
+            }
+        }
+    }
+
+    /**
+     * Opens the journal file for appending, writing the header first if the file is new.
+     *
+     * @return the output
+     * @throws IOException if the file cannot be opened
+     */
+    private DataOutputStream openForAppend() throws IOException {
+
+        final boolean isNew = !this.journalFile.isFile() || this.journalFile.length() == 0L;
+        final OutputStream out = Files.newOutputStream(this.journalFile.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.APPEND);
+        final DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out, BUFFER_SIZE));
+
+        if (isNew) {
+            this.numRecords = 0;
+            writeHeader(data);
+        }
+
+        return data;
+    }
+
+    /**
+     * Writes the file header.
+     *
+     * @param data the output to which to write
+     * @throws IOException if there is an error writing
+     */
+    private void writeHeader(final DataOutputStream data) throws IOException {
+
+        data.writeInt(MAGIC);
+        data.writeInt(VERSION);
+        data.writeUTF(this.courseMediaDir.getAbsolutePath());
+    }
+
+    /**
+     * Writes a change record.
+     *
+     * @param data  the output to which to write
+     * @param entry the change
+     * @throws IOException if there is an error writing
+     */
+    private void writeChange(final DataOutputStream data, final JournalEntry entry) throws IOException {
+
+        data.writeByte(CHANGE_RECORD);
+        data.writeLong(entry.sequence());
+        data.writeLong(entry.time());
+        data.writeByte(entry.kind().ordinal());
+        data.writeUTF(entry.path());
+        ++this.numRecords;
+    }
+
+    /**
+     * Writes a deploy record.
+     *
+     * @param data the output to which to write
+     * @param mark the deploy
+     * @throws IOException if there is an error writing
+     */
+    private void writeDeploy(final DataOutputStream data, final DeployMark mark) throws IOException {
+
+        data.writeByte(DEPLOY_RECORD);
+        data.writeLong(mark.sequence());
+        data.writeLong(mark.time());
+        data.writeUTF(mark.target());
+        ++this.numRecords;
+    }
+
+    /**
+     * Writes a gap record.
+     *
+     * @param data the output to which to write
+     * @param seq  the sequence number of the gap
+     * @param time the time of the gap
+     * @throws IOException if there is an error writing
+     */
+    private void writeGap(final DataOutputStream data, final long seq, final long time) throws IOException {
+
+        data.writeByte(GAP_RECORD);
+        data.writeLong(seq);
+        data.writeLong(time);
+        ++this.numRecords;
+    }
+}
@@ -0,0 +1,153 @@
+package dev.mathops.fx.coursebuilder;
+
+import javafx.collections.ObservableList;
+import javafx.event.ActionEvent;
+import javafx.event.EventHandler;
+import javafx.geometry.Insets;
+import javafx.geometry.Pos;
+import javafx.scene.control.ComboBox;
+import javafx.scene.control.Label;
+import javafx.scene.control.TextArea;
+import javafx.scene.layout.BorderPane;
+import javafx.scene.layout.HBox;
+import javafx.scene.text.Font;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+/**
+ * A pane that lists the files added, modified, or deleted since a deploy, as recorded by the {@code ChangeJournal}.
+ * The deploy is chosen from the last deploy to each target.
+ */
+final class ChangesPane extends BorderPane implements EventHandler<ActionEvent> {
+
+    /** The format for times. */
+    private static final DateTimeFormatter TIME_FORMAT =
+            DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss").withZone(ZoneId.systemDefault());
+
+    /** The change journal. */
+    private final ChangeJournal journal;
+
+    /** The last deploy to each target, most recent first. */
+    private final List<DeployMark> deploys;
+
+    /** The choice of deploy. */
+    private final ComboBox<String> deployChoice;
+
+    /** The list of changes. */
+    private final TextArea text;
+
+    /** The summary label. */
+    private final Label summary;
+
+    /**
+     * Constructs a new {@code ChangesPane}.
+     *
+     * @param theJournal the change journal
+     * @param theDeploys the last deploy to each target, most recent first
+     */
+    ChangesPane(final ChangeJournal theJournal, final List<DeployMark> theDeploys) {
+
+        super();
+
+        this.journal = theJournal;
+        this.deploys = theDeploys;
+
+        setPadding(AppConstants.PADDING);
+
+        final Label heading = new Label("Changes Since Deploy");
+        heading.setFont(new Font(15.0));
+
+        this.deployChoice = new ComboBox<>();
+        final ObservableList<String> items = this.deployChoice.getItems();
+        for (final DeployMark mark : theDeploys) {
+            final String when = TIME_FORMAT.format(Instant.ofEpochMilli(mark.time()));
+            items.add(mark.target() + " (" + when + ")");
+        }
+
+        final HBox top = new HBox(AppConstants.H_GAP, heading, this.deployChoice);
+        top.setAlignment(Pos.CENTER_LEFT);
+        top.setPadding(new Insets(0.0, 0.0, AppConstants.V_GAP, 0.0));
+        setTop(top);
+
+        this.text = new TextArea();
+        this.text.setEditable(false);
+        this.text.setFont(Font.font("Monospaced", 12.0));
+        this.text.setPrefColumnCount(100);
+        this.text.setPrefRowCount(30);
+        setCenter(this.text);
+
+        this.summary = new Label();
+        this.summary.setPadding(new Insets(AppConstants.V_GAP, 0.0, 0.0, 0.0));
+        setBottom(this.summary);
+    }
+
+    /**
+     * Initializes this pane.  Called after the constructor completes since this method uses "this" to add itself as a
+     * listener.
+     */
+    void init() {
+
+        this.deployChoice.setOnAction(this);
+
+        if (this.deploys.isEmpty()) {
+            this.summary.setText("No deploys have been recorded.");
+        } else {
+            this.deployChoice.getSelectionModel().select(0);
+            showChanges(this.deploys.get(0));
+        }
+    }
+
+    /**
+     * Lists the changes since a deploy.
+     *
+     * @param mark the deploy
+     */
+    private void showChanges(final DeployMark mark) {
+
+        final List<JournalEntry> changes = this.journal.getChangesSince(mark.target());
+
+        if (changes == null) {
+            this.text.setText("");
+            this.summary.setText("Changes since this deploy are not known (files may have changed while the "
+                                 + "application was not running); the next deploy to this target will copy all files.");
+        } else {
+            final StringBuilder builder = new StringBuilder(changes.size() * 80);
+            int numAdded = 0;
+            int numModified = 0;
+            int numDeleted = 0;
+
+            for (final JournalEntry entry : changes) {
+                final EChangeKind kind = entry.kind();
+                switch (kind) {
+                    case ADDED -> ++numAdded;
+                    case MODIFIED -> ++numModified;
+                    case DELETED -> ++numDeleted;
+                }
+
+                final String when = TIME_FORMAT.format(Instant.ofEpochMilli(entry.time()));
+                builder.append(String.format("%-9s", kind.name())).append(when).append("  ").append(entry.path())
+                        .append('\n');
+            }
+
+            this.text.setText(builder.toString());
+            this.summary.setText(numAdded + " added, " + numModified + " modified, " + numDeleted + " deleted");
+        }
+    }
+
+    /**
+     * Handles a change of the selected deploy.
+     *
+     * @param event the action event
+     */
+    @Override
+    public void handle(final ActionEvent event) {
+
+        final int index = this.deployChoice.getSelectionModel().getSelectedIndex();
+        if (index >= 0 && index < this.deploys.size()) {
+            showChanges(this.deploys.get(index));
+        }
+    }
+}
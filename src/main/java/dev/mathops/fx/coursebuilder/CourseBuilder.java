@@ -2,13 +2,16 @@ package dev.mathops.fx.coursebuilder;
 
 import dev.mathops.commons.CoreConstants;
 import dev.mathops.commons.file.FileLoader;
+import dev.mathops.commons.log.Log;
 import javafx.application.Application;
 import javafx.application.HostServices;
+import javafx.application.Platform;
 import javafx.beans.binding.DoubleBinding;
 import javafx.beans.property.ReadOnlyDoubleProperty;
 import javafx.collections.ObservableList;
 import javafx.event.ActionEvent;
 import javafx.event.EventHandler;
+import javafx.geometry.Pos;
 import javafx.geometry.Rectangle2D;
 import javafx.scene.Node;
 import javafx.scene.Scene;
@@ -21,14 +24,19 @@ import javafx.scene.image.Image;
 import javafx.scene.layout.Border;
 import javafx.scene.layout.BorderPane;
 import javafx.scene.layout.FlowPane;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.Priority;
 import javafx.stage.DirectoryChooser;
 import javafx.stage.Screen;
 import javafx.stage.Stage;
 
 import java.io.ByteArrayInputStream;
 import java.io.File;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
 
 /**
  * A test application.
@@ -41,14 +49,41 @@ public class CourseBuilder extends Application implements EventHandler<ActionEve
     /** A user data object to indicate a "Deploy to Web Server" action. */
     private static final String DEPLOY_WEB_CMD = "DEPLOY_WEB";
 
+    /** A user data object to indicate a "Course Statistics" action. */
+    private static final String STATISTICS_CMD = "STATISTICS";
+
+    /** A user data object to indicate a "Find Duplicate Assets" action. */
+    private static final String DUPLICATES_CMD = "DUPLICATES";
+
+    /** A user data object to indicate a "Storage Report" action. */
+    private static final String STORAGE_CMD = "STORAGE";
+
+    /** A user data object to indicate a "Changes Since Deploy" action. */
+    private static final String CHANGES_CMD = "CHANGES";
+
+    /** A user data object to indicate an "Attribution Problems" action. */
+    private static final String ATTRIBUTIONS_CMD = "ATTRIBUTIONS";
+
+    /** The number of largest files listed in the storage report. */
+    private static final int NUM_LARGEST_FILES = 50;
+
     /** The default name of a OneDrive share containing media files. */
     private static final String ONEDRIVE_DIR = "OneDrive - Colostate";
 
     /** The default name of a folder within the OneDrive share containing media files. */
     private static final String MEDIA_DIR = "Precalculus";
 
-    /** A map from topic module directory to the pane that presents that topic. */
-    private final Map<File, TopicModulePane> topicModulePanes;
+    /** A cache of panes that present topic modules, keyed by topic module directory. */
+    private final TopicModuleCache topicModulePanes;
+
+    /** The topic module directories whose panes were prefetched as neighbours of the current topic module. */
+    private final Set<File> prefetched;
+
+    /** The full-text index of metadata files, kept up to date with the course tree in the background. */
+    private final MetadataIndex metadataIndex;
+
+    /** The index of attributions and notes in metadata files, rebuilt with each course tree; null until built. */
+    private AttributionIndex attributionIndex = null;
 
     /** The stage. */
     private Stage stage;
@@ -56,9 +91,33 @@ public class CourseBuilder extends Application implements EventHandler<ActionEve
     /** The course media directory. */
     private File courseMediaDir;
 
+    /** The journal of changes to the course media directory; null until a directory is chosen. */
+    private ChangeJournal changeJournal = null;
+
+    /** The scanned model of the course media directory (read by the course watcher thread). */
+    private volatile CourseTree courseTree = null;
+
     /** The root pane. */
     private BorderPane root = null;
 
+    /** The left-hand pane with subject and topic lists. */
+    private LeftPane leftPane = null;
+
+    /** The field used to search metadata. */
+    private SearchField searchField = null;
+
+    /** The window that shows course statistics; null until first shown. */
+    private Stage statisticsStage = null;
+
+    /** The course statistics dashboard; null until first shown. */
+    private StatsDashboard statsDashboard = null;
+
+    /** The monitor that applies file system changes to the course tree; null if not running. */
+    private CourseWatcher watcher = null;
+
+    /** The current topic module directory. */
+    private File currentTopicDir = null;
+
     /** The current topic module pane. */
     private TopicModulePane currentTopicModule = null;
 
@@ -75,7 +134,9 @@ public class CourseBuilder extends Application implements EventHandler<ActionEve
 
         super();
 
-        this.topicModulePanes = new HashMap<>(20);
+        this.topicModulePanes = new TopicModuleCache();
+        this.prefetched = new HashSet<>(4);
+        this.metadataIndex = new MetadataIndex();
     }
 
     /**
@@ -150,16 +211,52 @@ public class CourseBuilder extends Application implements EventHandler<ActionEve
             item2.setUserData(DEPLOY_WEB_CMD);
             fileMenuItems.addAll(item1, item2);
 
-            final MenuBar menuBar = new MenuBar(fileMenu);
-            this.root.setTop(menuBar);
+            final Menu viewMenu = new Menu("View");
+            final MenuItem item3 = new MenuItem("Course Statistics...");
+            item3.setOnAction(this);
+            item3.setUserData(STATISTICS_CMD);
+            final MenuItem item4 = new MenuItem("Find Duplicate Assets...");
+            item4.setOnAction(this);
+            item4.setUserData(DUPLICATES_CMD);
+            final MenuItem item5 = new MenuItem("Storage Report...");
+            item5.setOnAction(this);
+            item5.setUserData(STORAGE_CMD);
+            final MenuItem item6 = new MenuItem("Changes Since Deploy...");
+            item6.setOnAction(this);
+            item6.setUserData(CHANGES_CMD);
+            final MenuItem item7 = new MenuItem("Attribution Problems...");
+            item7.setOnAction(this);
+            item7.setUserData(ATTRIBUTIONS_CMD);
+            viewMenu.getItems().addAll(item3, item4, item5, item6, item7);
+
+            final MenuBar menuBar = new MenuBar(fileMenu, viewMenu);
+            HBox.setHgrow(menuBar, Priority.ALWAYS);
+
+            this.searchField = new SearchField(this, this.metadataIndex);
+            this.searchField.init();
+
+            final HBox top = new HBox(AppConstants.H_GAP, menuBar, this.searchField);
+            top.setAlignment(Pos.CENTER_LEFT);
+            top.setPadding(AppConstants.BUTTON_ROW_PADDING);
+            this.root.setTop(top);
 
             final String courseDirPath = this.courseMediaDir.getAbsolutePath();
             final String windowTitle = Res.fmt(Res.TITLE, courseDirPath);
             theStage.setTitle(windowTitle);
 
-            final LeftPane left = new LeftPane(this, this.courseMediaDir, myHeight);
-            left.init();
-            this.root.setLeft(left);
+            // If a snapshot from a previous run is available, present it immediately (the course watcher will
+            // revalidate it in the background); otherwise, present an empty tree while the course watcher runs a full
+            // scan.
+            this.changeJournal = new ChangeJournal(this.courseMediaDir);
+            final CourseTree snapshot = ScanSnapshot.load(this.courseMediaDir);
+            this.courseTree = snapshot == null ? new CourseTree(CourseDir.missing(this.courseMediaDir), 0L) : snapshot;
+
+            this.leftPane = new LeftPane(this, myHeight);
+            this.leftPane.init();
+            this.root.setLeft(this.leftPane);
+
+            updateSearchIndex();
+            updateAttributionIndex();
 
             final FlowPane bottom = new FlowPane();
             bottom.setPadding(AppConstants.PADDING);
@@ -179,17 +276,102 @@ public class CourseBuilder extends Application implements EventHandler<ActionEve
 
             theStage.show();
 
+            startWatcher(snapshot != null);
+            if (snapshot == null) {
+                rescan();
+            }
+
             final TickerService ticker = new TickerService(this);
             ticker.start();
         }
     }
 
     /**
-     * Clears any cached topic module panels so those panels will get rebuilt on next use.
+     * Gets the scanned model of the course media directory.
+     *
+     * @return the course tree
+     */
+    CourseTree getCourseTree() {
+
+        return this.courseTree;
+    }
+
+    /**
+     * Gets the journal of changes to the course media directory.
+     *
+     * @return the change journal
+     */
+    ChangeJournal getChangeJournal() {
+
+        return this.changeJournal;
+    }
+
+    /**
+     * Starts the monitor that applies file system changes to the course tree.
+     *
+     * @param revalidateFirst true if the current tree was loaded from a snapshot and should be revalidated
+     */
+    private void startWatcher(final boolean revalidateFirst) {
+
+        this.watcher = new CourseWatcher(this, revalidateFirst);
+        this.watcher.start();
+    }
+
+    /**
+     * Rescans the course media directory to rebuild the course tree, with the left-hand pane showing that a scan is
+     * in progress.  The rescan is made by the course watcher, like any other update, so it cannot be lost to an update
+     * installed while it runs.  Since this is a full refresh, the shared metadata cache is cleared as well.
      */
-    void clearCache() {
+    void rescan() {
+
+        this.leftPane.setScanning(true);
+
+        this.watcher.rescan().thenRun(() -> Platform.runLater(() -> this.leftPane.setScanning(false)));
+    }
 
-        this.topicModulePanes.clear();
+    /**
+     * Installs an updated course tree (called on the JavaFX application thread).  Cached topic module panels are
+     * discarded only for topics whose nodes differ between the two trees (unchanged subtrees are shared between
+     * trees, so an identity test suffices), the left-hand pane is reloaded, and if the current topic was rebuilt, its
+     * tab selections are restored.
+     *
+     * <p>
+     * Every update comes from the course watcher, which applies them in order, so {@code base} is the current tree.
+     * An update computed from any other tree is ignored.
+     *
+     * @param base the tree from which the update was computed
+     * @param tree the updated tree
+     */
+    void installTree(final CourseTree base, final CourseTree tree) {
+
+        if (this.courseTree == base) {
+            this.courseTree = tree;
+
+            List<Integer> currentTabPath = null;
+            for (final File dir : this.topicModulePanes.getDirectories()) {
+                if (base.find(dir) != tree.find(dir)) {
+                    if (dir.equals(this.currentTopicDir) && this.currentTopicModule != null) {
+                        currentTabPath = this.currentTopicModule.getSelectedTabPath();
+                    }
+                    this.topicModulePanes.remove(dir);
+                }
+            }
+
+            if (this.leftPane != null) {
+                this.leftPane.reload();
+            }
+
+            updateSearchIndex();
+            updateAttributionIndex();
+
+            if (this.statsDashboard != null) {
+                this.statsDashboard.update(tree);
+            }
+
+            if (currentTabPath != null && this.currentTopicModule != null) {
+                this.currentTopicModule.selectTabPath(currentTabPath);
+            }
+        }
     }
 
     /**
@@ -197,16 +379,136 @@ public class CourseBuilder extends Application implements EventHandler<ActionEve
      *
      * @param topicDir the topic directory; {@code null} if none is selected
      */
-    void topicSelected(final File topicDir) {
+    void topicSelected(final CourseDir topicDir) {
 
         if (topicDir == null) {
+            this.currentTopicDir = null;
             this.currentTopicModule = null;
         } else {
-            this.currentTopicModule = this.topicModulePanes.computeIfAbsent(topicDir,
-                    x -> new TopicModulePane(this, topicDir));
+            final File dir = topicDir.getFile();
+            this.currentTopicDir = dir;
+            this.currentTopicModule = this.topicModulePanes.get(dir, x -> new TopicModulePane(this, topicDir, false));
+            this.currentTopicModule.promote();
+            this.prefetched.remove(dir);
         }
 
         this.root.setCenter(this.currentTopicModule);
+
+        prefetchNeighbours(topicDir);
+    }
+
+    /**
+     * Prefetches the panes for the topic modules before and after the selected one in its subject (the ones the user
+     * is most likely to visit next), building their tab contents at low priority.  Prefetched panes that are no
+     * longer neighbours and have not finished building are discarded so their remaining work is cancelled.  Prefetches
+     * may evict least recently used panes from the cache, but never the current one.
+     *
+     * @param topicDir the selected topic directory; {@code null} if none is selected
+     */
+    private void prefetchNeighbours(final CourseDir topicDir) {
+
+        final List<CourseDir> neighbours = new ArrayList<>(2);
+
+        if (topicDir != null) {
+            final File subjectFile = topicDir.getFile().getParentFile();
+            final CourseDir subject = subjectFile == null ? null : this.courseTree.find(subjectFile);
+
+            if (subject != null) {
+                final List<CourseDir> topics = CourseTree.getTopics(subject);
+                final File topicFile = topicDir.getFile();
+                int index = -1;
+                for (int i = 0; i < topics.size() && index == -1; ++i) {
+                    if (topics.get(i).getFile().equals(topicFile)) {
+                        index = i;
+                    }
+                }
+                if (index > 0) {
+                    neighbours.add(topics.get(index - 1));
+                }
+                if (index >= 0 && index + 1 < topics.size()) {
+                    neighbours.add(topics.get(index + 1));
+                }
+            }
+        }
+
+        final Iterator<File> iterator = this.prefetched.iterator();
+        while (iterator.hasNext()) {
+            final File dir = iterator.next();
+            final boolean stillNeighbour = neighbours.stream().anyMatch(topic -> topic.getFile().equals(dir));
+            if (!stillNeighbour) {
+                iterator.remove();
+                final TopicModulePane pane = this.topicModulePanes.peek(dir);
+                if (pane != null && !pane.isComplete()) {
+                    this.topicModulePanes.remove(dir);
+                }
+            }
+        }
+
+        for (final CourseDir neighbour : neighbours) {
+            final File dir = neighbour.getFile();
+            if (this.topicModulePanes.prefetch(dir, x -> new TopicModulePane(this, neighbour, true))) {
+                this.prefetched.add(dir);
+            }
+        }
+    }
+
+    /**
+     * Brings the metadata search index up to date with the current course tree in the background.  Only metadata
+     * files that changed since they were last indexed are read.
+     */
+    private void updateSearchIndex() {
+
+        final CourseTree tree = this.courseTree;
+
+        BackgroundWork.submit(() -> Integer.valueOf(this.metadataIndex.update(tree)), numIndexed -> {
+            if (this.searchField != null) {
+                this.searchField.setNumIndexed(numIndexed.intValue());
+            }
+        });
+    }
+
+    /**
+     * Rebuilds the attribution index from the current course tree in the background.  An index built from a tree
+     * older than the current index is discarded, so builds that complete out of order cannot roll it back.
+     */
+    private void updateAttributionIndex() {
+
+        final CourseTree tree = this.courseTree;
+
+        BackgroundWork.submit(() -> AttributionIndex.build(tree), index -> {
+            if (this.attributionIndex == null || index.getScanTime() >= this.attributionIndex.getScanTime()) {
+                this.attributionIndex = index;
+            }
+        });
+    }
+
+    /**
+     * Presents a directory (called when a search result is chosen): selects the subject and topic module that
+     * contain it in the left-hand pane, then selects the tabs that lead to its content.
+     *
+     * @param dir the directory
+     */
+    void showDirectory(final File dir) {
+
+        final CourseTree tree = this.courseTree;
+
+        CourseDir topic = tree.find(dir);
+        while (topic != null && topic.getKind() != EDirKind.TOPIC) {
+            final File parent = topic.getFile().getParentFile();
+            topic = parent == null ? null : tree.find(parent);
+        }
+
+        if (topic != null && this.leftPane != null) {
+            final File topicFile = topic.getFile();
+            final String subjectName = topicFile.getParentFile().getName();
+            final String topicName = topicFile.getName();
+            this.leftPane.select(subjectName, topicName);
+
+            if (this.currentTopicModule != null && topicFile.equals(this.currentTopicDir)) {
+                final List<String> titles = TopicModulePane.tabTitlesFor(this.courseTree, dir);
+                this.currentTopicModule.selectTabTitles(titles);
+            }
+        }
     }
 
     /**
@@ -251,10 +553,127 @@ public class CourseBuilder extends Application implements EventHandler<ActionEve
                 doDeployMedia();
             } else if (DEPLOY_WEB_CMD.equals(user)) {
                 doDeployWeb();
+            } else if (STATISTICS_CMD.equals(user)) {
+                showStatistics();
+            } else if (DUPLICATES_CMD.equals(user)) {
+                findDuplicates();
+            } else if (STORAGE_CMD.equals(user)) {
+                showStorageReport();
+            } else if (CHANGES_CMD.equals(user)) {
+                showChanges();
+            } else if (ATTRIBUTIONS_CMD.equals(user)) {
+                showAttributions();
             }
         }
     }
 
+    /**
+     * Shows the window with course statistics, creating it the first time.  The dashboard is updated each time a new
+     * course tree is installed.
+     */
+    private void showStatistics() {
+
+        if (this.statisticsStage == null) {
+            this.statsDashboard = new StatsDashboard();
+            this.statisticsStage = new Stage();
+            this.statisticsStage.initOwner(this.stage);
+            this.statisticsStage.setTitle("Course Statistics");
+            this.statisticsStage.setScene(new Scene(this.statsDashboard));
+        }
+
+        this.statsDashboard.update(this.courseTree);
+        this.statisticsStage.show();
+        this.statisticsStage.toFront();
+    }
+
+    /**
+     * Searches for duplicate asset files in the background, then shows the results in a new window.
+     */
+    private void findDuplicates() {
+
+        final CourseTree tree = this.courseTree;
+        final File dir = this.courseMediaDir;
+
+        this.progressStatusLabel.textProperty().unbind();
+        this.progressStatusLabel.setText("Finding duplicate assets...");
+
+        final DuplicateFinder finder = new DuplicateFinder(tree);
+        BackgroundWork.submit(finder::find, groups -> {
+            this.progressStatusLabel.setText(CoreConstants.EMPTY);
+
+            final DuplicatesPane pane = new DuplicatesPane();
+            pane.show(dir, finder, groups);
+
+            final Stage duplicatesStage = new Stage();
+            duplicatesStage.initOwner(this.stage);
+            duplicatesStage.setTitle("Duplicate Assets");
+            duplicatesStage.setScene(new Scene(pane));
+            duplicatesStage.show();
+        });
+    }
+
+    /**
+     * Builds a storage report from the current course tree in the background, then shows it in a new window.
+     */
+    private void showStorageReport() {
+
+        final CourseTree tree = this.courseTree;
+        final File dir = this.courseMediaDir;
+
+        BackgroundWork.submit(() -> StorageReport.build(tree, NUM_LARGEST_FILES), report -> {
+            final StoragePane pane = new StoragePane(dir, report);
+            pane.init();
+
+            final Stage storageStage = new Stage();
+            storageStage.initOwner(this.stage);
+            storageStage.setTitle("Storage Report");
+            storageStage.setScene(new Scene(pane));
+            storageStage.show();
+        });
+    }
+
+    /**
+     * Shows the files changed since each recorded deploy in a new window.  The journal is read in the background,
+     * since the first use loads it from disk.
+     */
+    private void showChanges() {
+
+        final ChangeJournal journal = this.changeJournal;
+
+        BackgroundWork.submit(journal::getDeploys, deploys -> {
+            final ChangesPane pane = new ChangesPane(journal, deploys);
+            pane.init();
+
+            final Stage changesStage = new Stage();
+            changesStage.initOwner(this.stage);
+            changesStage.setTitle("Changes Since Deploy");
+            changesStage.setScene(new Scene(pane));
+            changesStage.show();
+        });
+    }
+
+    /**
+     * Shows the attribution problems in the current course tree in a new window.  The index is rebuilt in the
+     * background first if it has not yet caught up with the current tree.
+     */
+    private void showAttributions() {
+
+        final CourseTree tree = this.courseTree;
+        final File dir = this.courseMediaDir;
+        final AttributionIndex current = this.attributionIndex;
+
+        BackgroundWork.submit(() -> current != null && current.getScanTime() == tree.getScanTime() ? current
+                : AttributionIndex.build(tree), index -> {
+            final AttributionsPane pane = new AttributionsPane(dir, index);
+
+            final Stage attributionsStage = new Stage();
+            attributionsStage.initOwner(this.stage);
+            attributionsStage.setTitle("Attribution Problems");
+            attributionsStage.setScene(new Scene(pane));
+            attributionsStage.show();
+        });
+    }
+
     /**
      * Deploys final video and PDF objects to a directory that can then be copied to the media server.  This copies the
      * following files:
@@ -291,7 +710,7 @@ public class CourseBuilder extends Application implements EventHandler<ActionEve
             } else {
                 final HostServices hostServices = getHostServices();
                 final Runnable task = new DeployMediaTask(this.progressBar, this.progressStatusLabel,
-                        this.courseMediaDir, deployTargetDir, hostServices);
+                        this.courseMediaDir, deployTargetDir, this.changeJournal, this.watcher, hostServices);
                 final Thread taskThread = new Thread(task);
                 taskThread.start();
             }
@@ -332,13 +751,42 @@ public class CourseBuilder extends Application implements EventHandler<ActionEve
             } else {
                 final HostServices hostServices = getHostServices();
                 final Runnable task = new DeployWebTask(this.progressBar, this.progressStatusLabel,
-                        this.courseMediaDir, deployTargetDir, hostServices);
+                        this.courseMediaDir, deployTargetDir, this.changeJournal, this.watcher, hostServices);
                 final Thread taskThread = new Thread(task);
                 taskThread.start();
             }
         }
     }
 
+    /**
+     * Called when the application is shutting down.
+     */
+    @Override
+    public void stop() {
+
+        if (this.watcher != null) {
+            this.watcher.stop();
+        }
+
+        logCacheStatistics();
+    }
+
+    /**
+     * Logs the topic module cache's counters for the session, so its limits can be tuned.
+     */
+    private void logCacheStatistics() {
+
+        final TopicModuleCache cache = this.topicModulePanes;
+        final long hits = cache.getHits();
+        final long requests = hits + cache.getMisses();
+        final long hitPercent = requests == 0L ? 0L : hits * 100L / requests;
+        final long kb = cache.getEstimatedBytes() / 1024L;
+
+        Log.info("Topic module cache: ", hits, " of ", requests, " requests hit (", hitPercent, "%), ",
+                cache.getEvictions(), " evictions, ", cache.getPrefetches(), " prefetches, ", cache.size(),
+                " panes holding about ", kb, " KB at exit");
+    }
+
     /**
      * Runs the main application.
      *
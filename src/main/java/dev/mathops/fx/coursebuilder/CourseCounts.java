@@ -0,0 +1,80 @@
+package dev.mathops.fx.coursebuilder;
+
+/**
+ * Counts of the course content in a directory and all its subdirectories.  Each {@code CourseDir} computes its counts
+ * when it is constructed, by adding the counts of its subdirectories (which were constructed first) to its own
+ * contribution, so the counts for any subtree are always available without walking it.  Since a tree update builds new
+ * nodes only for changed directories and their ancestors, only those subtotals are recomputed.
+ *
+ * <p>
+ * A directory's own contribution depends on its kind: each lesson, example, exploration, or application directory
+ * counts as one of that kind of content, a handouts directory counts as one handout if it contains any subdirectories,
+ * and each subdirectory of an items or assessments directory counts as one item or assessment.
+ *
+ * @param lessons      the number of lessons
+ * @param examples     the number of examples
+ * @param explorations the number of explorations
+ * @param applications the number of applications
+ * @param handouts     the number of handouts
+ * @param items        the number of items
+ * @param assessments  the number of assessments
+ */
+record CourseCounts(int lessons, int examples, int explorations, int applications, int handouts, int items,
+                    int assessments) {
+
+    /** Counts that are all zero. */
+    static final CourseCounts ZERO = new CourseCounts(0, 0, 0, 0, 0, 0, 0);
+
+    /**
+     * Computes the counts for a directory from its kind and the counts of its subdirectories.
+     *
+     * @param kind    the directory kind
+     * @param subdirs the subdirectories
+     * @return the counts
+     */
+    static CourseCounts forDirectory(final EDirKind kind, final Iterable<CourseDir> subdirs) {
+
+        int numSubdirs = 0;
+        CourseCounts sum = ZERO;
+        for (final CourseDir subdir : subdirs) {
+            ++numSubdirs;
+            sum = sum.plus(subdir.getCounts());
+        }
+
+        final CourseCounts own = switch (kind) {
+            case LESSON -> new CourseCounts(1, 0, 0, 0, 0, 0, 0);
+            case EXAMPLE -> new CourseCounts(0, 1, 0, 0, 0, 0, 0);
+            case EXPLORATION -> new CourseCounts(0, 0, 1, 0, 0, 0, 0);
+            case APPLICATION -> new CourseCounts(0, 0, 0, 1, 0, 0, 0);
+            case HANDOUTS -> numSubdirs == 0 ? ZERO : new CourseCounts(0, 0, 0, 0, 1, 0, 0);
+            case ITEMS -> new CourseCounts(0, 0, 0, 0, 0, numSubdirs, 0);
+            case ASSESSMENTS -> new CourseCounts(0, 0, 0, 0, 0, 0, numSubdirs);
+            default -> ZERO;
+        };
+
+        return own == ZERO ? sum : sum.plus(own);
+    }
+
+    /**
+     * Adds these counts to another set of counts.
+     *
+     * @param other the other counts
+     * @return the sum
+     */
+    CourseCounts plus(final CourseCounts other) {
+
+        final CourseCounts result;
+
+        if (other == ZERO) {
+            result = this;
+        } else if (this == ZERO) {
+            result = other;
+        } else {
+            result = new CourseCounts(this.lessons + other.lessons, this.examples + other.examples,
+                    this.explorations + other.explorations, this.applications + other.applications,
+                    this.handouts + other.handouts, this.items + other.items, this.assessments + other.assessments);
+        }
+
+        return result;
+    }
+}
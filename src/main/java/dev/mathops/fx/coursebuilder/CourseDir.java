@@ -0,0 +1,257 @@
+package dev.mathops.fx.coursebuilder;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An immutable record of a directory found in a scan of the course media directory, with its classified kind and all
+ * the files and subdirectories it contains.
+ *
+ * <p>
+ * Tab content panes build their UI from these objects rather than querying the file system, so building a pane never
+ * blocks the JavaFX application thread on file system calls.  A "missing" directory object (one for which
+ * {@code exists} returns false) can stand in for an expected directory that is not present.
+ */
+final class CourseDir extends AbstractCourseEntry {
+
+    /** The directory kind. */
+    private final EDirKind kind;
+
+    /** True if the directory exists; false if this is a placeholder for a missing directory. */
+    private final boolean exists;
+
+    /** The subdirectories, sorted by name. */
+    private final List<CourseDir> subdirs;
+
+    /** The files, sorted by name. */
+    private final List<CourseFile> files;
+
+    /** All files and subdirectories, sorted by name. */
+    private final List<AbstractCourseEntry> entries;
+
+    /** A map from name to subdirectory. */
+    private final Map<String, CourseDir> subdirsByName;
+
+    /** A map from name to file. */
+    private final Map<String, CourseFile> filesByName;
+
+    /** The number of files in this directory and all subdirectories, including this directory itself. */
+    private final int fileCount;
+
+    /** The counts of course content in this directory and all subdirectories. */
+    private final CourseCounts counts;
+
+    /**
+     * Constructs a new {@code CourseDir}.
+     *
+     * @param theDir          the directory
+     * @param theKind         the directory kind
+     * @param theLastModified the last modification date, in milliseconds since the epoch
+     * @param theSubdirs      the subdirectories
+     * @param theFiles        the files
+     */
+    CourseDir(final File theDir, final EDirKind theKind, final long theLastModified,
+              final List<CourseDir> theSubdirs, final List<CourseFile> theFiles) {
+
+        this(theDir, theKind, true, theLastModified, theSubdirs, theFiles);
+    }
+
+    /**
+     * Constructs a new {@code CourseDir}.
+     *
+     * @param theDir          the directory
+     * @param theKind         the directory kind
+     * @param theExists       true if the directory exists
+     * @param theLastModified the last modification date, in milliseconds since the epoch
+     * @param theSubdirs      the subdirectories
+     * @param theFiles        the files
+     */
+    private CourseDir(final File theDir, final EDirKind theKind, final boolean theExists, final long theLastModified,
+                      final List<CourseDir> theSubdirs, final List<CourseFile> theFiles) {
+
+        super(theDir, theLastModified);
+
+        this.kind = theKind;
+        this.exists = theExists;
+
+        final List<CourseDir> sortedSubdirs = new ArrayList<>(theSubdirs);
+        sortedSubdirs.sort(null);
+        this.subdirs = Collections.unmodifiableList(sortedSubdirs);
+
+        final List<CourseFile> sortedFiles = new ArrayList<>(theFiles);
+        sortedFiles.sort(null);
+        this.files = Collections.unmodifiableList(sortedFiles);
+
+        final int numEntries = sortedSubdirs.size() + sortedFiles.size();
+        final List<AbstractCourseEntry> allEntries = new ArrayList<>(numEntries);
+        allEntries.addAll(sortedSubdirs);
+        allEntries.addAll(sortedFiles);
+        allEntries.sort(null);
+        this.entries = Collections.unmodifiableList(allEntries);
+
+        this.subdirsByName = new HashMap<>(sortedSubdirs.size());
+        int count = 1;
+        for (final CourseDir subdir : sortedSubdirs) {
+            final String name = subdir.getName();
+            this.subdirsByName.put(name, subdir);
+            count += subdir.countFiles();
+        }
+
+        this.filesByName = new HashMap<>(sortedFiles.size());
+        for (final CourseFile file : sortedFiles) {
+            final String name = file.getName();
+            this.filesByName.put(name, file);
+        }
+        count += sortedFiles.size();
+
+        this.fileCount = count;
+        this.counts = CourseCounts.forDirectory(theKind, sortedSubdirs);
+    }
+
+    /**
+     * Creates a placeholder for a directory that does not exist.
+     *
+     * @param theDir the directory
+     * @return the placeholder
+     */
+    static CourseDir missing(final File theDir) {
+
+        final List<CourseDir> noSubdirs = List.of();
+        final List<CourseFile> noFiles = List.of();
+
+        return new CourseDir(theDir, EDirKind.OTHER, false, 0L, noSubdirs, noFiles);
+    }
+
+    /**
+     * Gets the directory kind.
+     *
+     * @return the kind
+     */
+    EDirKind getKind() {
+
+        return this.kind;
+    }
+
+    /**
+     * Tests whether the directory exists.
+     *
+     * @return true if the directory exists; false if this is a placeholder for a missing directory
+     */
+    boolean exists() {
+
+        return this.exists;
+    }
+
+    /**
+     * Gets the subdirectories.
+     *
+     * @return the subdirectories, sorted by name
+     */
+    List<CourseDir> getSubdirs() {
+
+        return this.subdirs;
+    }
+
+    /**
+     * Gets the files (not including subdirectories).
+     *
+     * @return the files, sorted by name
+     */
+    List<CourseFile> getFiles() {
+
+        return this.files;
+    }
+
+    /**
+     * Gets all entries (files and subdirectories), as would be returned by {@code File.listFiles}.
+     *
+     * @return the entries, sorted by name
+     */
+    List<AbstractCourseEntry> getEntries() {
+
+        return this.entries;
+    }
+
+    /**
+     * Gets the subdirectory with a specified name.
+     *
+     * @param name the name
+     * @return the subdirectory; null if there is no subdirectory with the specified name
+     */
+    CourseDir getSubdir(final String name) {
+
+        return this.subdirsByName.get(name);
+    }
+
+    /**
+     * Gets the subdirectory with a specified name, or a "missing" placeholder if there is no such subdirectory.
+     *
+     * @param name the name
+     * @return the subdirectory or placeholder (never null)
+     */
+    CourseDir resolve(final String name) {
+
+        final CourseDir subdir = this.subdirsByName.get(name);
+
+        return subdir == null ? missing(new File(getFile(), name)) : subdir;
+    }
+
+    /**
+     * Gets the file with a specified name.
+     *
+     * @param name the name
+     * @return the file; null if there is no file with the specified name
+     */
+    CourseFile getChildFile(final String name) {
+
+        return this.filesByName.get(name);
+    }
+
+    /**
+     * Tests whether this directory contains a file with a specified name.
+     *
+     * @param name the name
+     * @return true if the file is present
+     */
+    boolean hasFile(final String name) {
+
+        return this.filesByName.containsKey(name);
+    }
+
+    /**
+     * Tests whether this entry is a directory.
+     *
+     * @return true
+     */
+    @Override
+    boolean isDirectory() {
+
+        return true;
+    }
+
+    /**
+     * Counts the files in this directory and all subdirectories, including the directory itself.
+     *
+     * @return the number of files
+     */
+    @Override
+    int countFiles() {
+
+        return this.fileCount;
+    }
+
+    /**
+     * Gets the counts of course content in this directory and all subdirectories (computed when this object was
+     * constructed).
+     *
+     * @return the counts
+     */
+    CourseCounts getCounts() {
+
+        return this.counts;
+    }
+}
@@ -0,0 +1,58 @@
+package dev.mathops.fx.coursebuilder;
+
+import java.io.File;
+
+/**
+ * An immutable record of a single (non-directory) file found in a scan of the course media directory.
+ */
+final class CourseFile extends AbstractCourseEntry {
+
+    /** The file size, in bytes. */
+    private final long size;
+
+    /**
+     * Constructs a new {@code CourseFile}.
+     *
+     * @param theFile         the file
+     * @param theSize         the file size, in bytes
+     * @param theLastModified the last modification date, in milliseconds since the epoch
+     */
+    CourseFile(final File theFile, final long theSize, final long theLastModified) {
+
+        super(theFile, theLastModified);
+
+        this.size = theSize;
+    }
+
+    /**
+     * Gets the file size.
+     *
+     * @return the size, in bytes
+     */
+    long getSize() {
+
+        return this.size;
+    }
+
+    /**
+     * Tests whether this entry is a directory.
+     *
+     * @return false
+     */
+    @Override
+    boolean isDirectory() {
+
+        return false;
+    }
+
+    /**
+     * Counts the files this entry represents.
+     *
+     * @return 1
+     */
+    @Override
+    int countFiles() {
+
+        return 1;
+    }
+}
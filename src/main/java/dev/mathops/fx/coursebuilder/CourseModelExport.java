@@ -0,0 +1,170 @@
+package dev.mathops.fx.coursebuilder;
+
+import dev.mathops.commons.log.Log;
+import dev.mathops.text.parser.json.JSONObject;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Locale;
+
+/**
+ * Exports the scanned course model as a single compact JSON file that the course delivery website can load in one read
+ * (rather than reading thousands of "metadata.json" files) and use to answer navigation queries from memory.  The web
+ * deploy writes it to the root of its target directory.
+ *
+ * <p>
+ * The file has no whitespace, and uses one-letter property names for the nodes, which repeat thousands of times:
+ * <pre>
+ * {"format":"coursebuilder.courseModel","version":1,"scanTime":&lt;millis&gt;,"root":&lt;node&gt;}
+ *
+ * node:  {"n":"directory name","k":"directory kind","t":"title","d":"description",
+ *         "f":[["filename",size],...],"c":[&lt;node&gt;,...]}
+ * </pre>
+ * The directory kind is the lowercase name of an {@code EDirKind} value.  The title and description come from the
+ * directory's metadata file, and are omitted if absent.  The file list holds the files deployed to the web or media
+ * server, with their sizes, so the presence of a file (like "final.mp4" or "notes.pdf") is tested by looking up its
+ * name.  Empty file and child lists are omitted.  Directories of kind {@code OTHER} (which are not part of the course
+ * structure) are omitted along with their contents.
+ *
+ * <p>
+ * The version is incremented whenever a change is made that an existing reader could misinterpret; readers should
+ * reject versions they do not know.  Properties may be added without a version change, so readers should ignore
+ * properties they do not recognize.
+ */
+enum CourseModelExport {
+    ;
+
+    /** The name of the exported file. */
+    static final String FILENAME = "course_model.json";
+
+    /** The format identifier. */
+    private static final String FORMAT = "coursebuilder.courseModel";
+
+    /** The format version. */
+    private static final int VERSION = 1;
+
+    /**
+     * Generates the exported model for a course tree.
+     *
+     * @param tree the course tree
+     * @return the JSON
+     */
+    static String build(final CourseTree tree) {
+
+        final StringBuilder builder = new StringBuilder(tree.getNumDirectories() * 150);
+
+        builder.append("{\"format\":");
+        AppUtils.appendJsonString(builder, FORMAT);
+        builder.append(",\"version\":").append(VERSION);
+        builder.append(",\"scanTime\":").append(tree.getScanTime());
+        builder.append(",\"root\":");
+        appendNode(builder, tree.getRoot());
+        builder.append("}\n");
+
+        return builder.toString();
+    }
+
+    /**
+     * Appends the node for a directory and the directories it contains.
+     *
+     * @param builder the builder to which to append
+     * @param dir     the directory
+     */
+    private static void appendNode(final StringBuilder builder, final CourseDir dir) {
+
+        builder.append("{\"n\":");
+        AppUtils.appendJsonString(builder, dir.getName());
+        builder.append(",\"k\":");
+        AppUtils.appendJsonString(builder, dir.getKind().name().toLowerCase(Locale.ROOT));
+
+        final CourseFile metadataFile = dir.getChildFile(AppConstants.METADATA_FILE);
+        if (metadataFile != null) {
+            final JSONObject json = MetadataCache.get(metadataFile).json();
+            if (json != null) {
+                appendProperty(builder, "t", json.getStringProperty(AppConstants.TITLE_PROPERTY));
+                appendProperty(builder, "d", json.getStringProperty(AppConstants.DESCRIPTION_PROPERTY));
+            }
+        }
+
+        boolean first = true;
+        for (final CourseFile file : dir.getFiles()) {
+            final String name = file.getName();
+            if (CourseRules.isWebDeployed(name) || CourseRules.isMediaDeployed(name)) {
+                builder.append(first ? ",\"f\":[[" : ",[");
+                AppUtils.appendJsonString(builder, name);
+                builder.append(',').append(file.getSize()).append(']');
+                first = false;
+            }
+        }
+        if (!first) {
+            builder.append(']');
+        }
+
+        first = true;
+        for (final CourseDir sub : dir.getSubdirs()) {
+            if (sub.exists() && sub.getKind() != EDirKind.OTHER) {
+                builder.append(first ? ",\"c\":[" : ",");
+                appendNode(builder, sub);
+                first = false;
+            }
+        }
+        if (!first) {
+            builder.append(']');
+        }
+
+        builder.append('}');
+    }
+
+    /**
+     * Appends a string property, if its value is present.
+     *
+     * @param builder the builder to which to append
+     * @param name    the property name
+     * @param value   the value (nothing is appended if null or blank)
+     */
+    private static void appendProperty(final StringBuilder builder, final String name, final String value) {
+
+        if (value != null && !value.isBlank()) {
+            builder.append(",\"").append(name).append("\":");
+            AppUtils.appendJsonString(builder, value);
+        }
+    }
+
+    /**
+     * Writes the exported model for a course tree to a directory.  The model is written to a temporary file that then
+     * replaces any existing file, so a reader never sees a partial file.
+     *
+     * @param tree      the course tree
+     * @param targetDir the directory to which to write the file
+     * @return true if the file was written
+     */
+    static boolean write(final CourseTree tree, final File targetDir) {
+
+        boolean written = false;
+
+        final String json = build(tree);
+        final File targetFile = new File(targetDir, FILENAME);
+        final Path tempPath = new File(targetDir, FILENAME + ".tmp").toPath();
+
+        try {
+            Files.writeString(tempPath, json, StandardCharsets.UTF_8);
+
+            final Path targetPath = targetFile.toPath();
+            try {
+                Files.move(tempPath, targetPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (final AtomicMoveNotSupportedException ex) {
+                Files.move(tempPath, targetPath, StandardCopyOption.REPLACE_EXISTING);
+            }
+            written = true;
+        } catch (final IOException ex) {
+            Log.warning("Unable to write course model", ex);
+        }
+
+        return written;
+    }
+}
@@ -0,0 +1,262 @@
+package dev.mathops.fx.coursebuilder;
+
+import dev.mathops.commons.log.Log;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The rules that determine which entries are expected in each kind of directory and which files each deploy copies,
+ * and the names of the numbered subdirectories each container may hold.  These are shared by the tab contents (which
+ * present unexpected entries as warnings), by the headless {@code CourseValidator}, and by the deploy tasks, so all
+ * of them always apply the same rules.  This class does not depend on JavaFX controls.
+ *
+ * <p>
+ * The rules are glob patterns read from the "course_rules.txt" resource (or a replacement file named by a system
+ * property) when this class is initialized, and compiled into a single {@code NameMatcher}, so recognizing a new kind
+ * of file only means adding a line to that file.
+ */
+enum CourseRules {
+    ;
+
+    /** The suffix characters for objective directories (index 0 is unused). */
+    private static final String OBJECTIVE_SUFFIXES = "-ABCDEFGHIJKLMNOPQRST";
+
+    /** The name of the outline document in a topic module directory. */
+    static final String OUTLINE_FILE = "Outline.docx";
+
+    /** The name of the bundled rules file resource. */
+    private static final String RULES_RESOURCE = "course_rules.txt";
+
+    /** The system property that names a rules file to use instead of the bundled one. */
+    private static final String RULES_PROPERTY = "coursebuilder.rules";
+
+    /** The compiled rules. */
+    private static final NameMatcher MATCHER = loadRules();
+
+    /**
+     * Tests whether an entry is expected in a directory.
+     *
+     * @param ruleSet the rule set for the kind of directory that contains the entry
+     * @param entry   the entry
+     * @return true if the entry is expected
+     */
+    static boolean isExpected(final ERuleSet ruleSet, final AbstractCourseEntry entry) {
+
+        return MATCHER.matches(ruleSet, entry.isDirectory(), entry.getName());
+    }
+
+    /**
+     * Tests whether a file or directory name is matched by a rule set.
+     *
+     * @param ruleSet   the rule set
+     * @param directory true if the name is that of a directory; false if a file
+     * @param name      the name
+     * @return true if the name is matched
+     */
+    static boolean matches(final ERuleSet ruleSet, final boolean directory, final String name) {
+
+        return MATCHER.matches(ruleSet, directory, name);
+    }
+
+    /**
+     * Tests whether a file is copied to the media server by the media deploy.
+     *
+     * @param name the filename
+     * @return true if the file is deployed to students
+     */
+    static boolean isMediaDeployed(final String name) {
+
+        return MATCHER.matches(ERuleSet.MEDIA_DEPLOY, false, name);
+    }
+
+    /**
+     * Tests whether a file is copied to the web server by the web deploy.
+     *
+     * @param name the filename
+     * @return true if the file is web content
+     */
+    static boolean isWebDeployed(final String name) {
+
+        return MATCHER.matches(ERuleSet.WEB_DEPLOY, false, name);
+    }
+
+    /**
+     * Loads and compiles the rules: from the file named by the {@code RULES_PROPERTY} system property if it is set and
+     * the file can be read and compiled, or from the rules file bundled with the application otherwise.
+     *
+     * @return the compiled rules
+     * @throws IllegalStateException if the bundled rules cannot be read or compiled
+     */
+    private static NameMatcher loadRules() {
+
+        NameMatcher result = null;
+
+        final String override = System.getProperty(RULES_PROPERTY);
+        if (override != null && !override.isBlank()) {
+            final Path path = Path.of(override);
+            try {
+                final String text = Files.readString(path, StandardCharsets.UTF_8);
+                result = NameMatcher.compile(parseRules(text));
+                Log.info("Loaded course rules from ", path);
+            } catch (final IOException | IllegalArgumentException ex) {
+                Log.warning("Unable to load course rules from ", path, "; using the built-in rules", ex);
+            }
+        }
+
+        if (result == null) {
+            try (final InputStream in = CourseRules.class.getResourceAsStream(RULES_RESOURCE)) {
+                if (in == null) {
+                    throw new IllegalStateException("Missing resource " + RULES_RESOURCE);
+                }
+                final String text = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+                result = NameMatcher.compile(parseRules(text));
+            } catch (final IOException | IllegalArgumentException ex) {
+                throw new IllegalStateException("Unable to load course rules", ex);
+            }
+        }
+
+        Log.info("Compiled ", Integer.toString(result.getNumRules()), " course rules into ",
+                Integer.toString(result.getNumStates()), " states");
+
+        return result;
+    }
+
+    /**
+     * Parses the text of a rules file.  Each nonblank line that does not start with "#" is either a rule set name in
+     * square brackets, which starts a section, or a rule within the current section: "dir" or "file" followed by one
+     * or more glob patterns separated by whitespace.
+     *
+     * @param text the text
+     * @return the rules, in the order they appear
+     * @throws IllegalArgumentException if the text is malformed
+     */
+    static List<NameRule> parseRules(final String text) {
+
+        final List<NameRule> rules = new ArrayList<>(200);
+        final String[] lines = text.split("\\R");
+
+        ERuleSet ruleSet = null;
+        for (int i = 0; i < lines.length; ++i) {
+            final int lineNumber = i + 1;
+            final String line = lines[i].trim();
+
+            if (!line.isEmpty() && line.charAt(0) != '#') {
+                if (line.charAt(0) == '[') {
+                    if (line.charAt(line.length() - 1) != ']') {
+                        throw new IllegalArgumentException("Malformed section name on line " + lineNumber);
+                    }
+                    final String setName = line.substring(1, line.length() - 1).trim();
+                    try {
+                        ruleSet = ERuleSet.valueOf(setName);
+                    } catch (final IllegalArgumentException ex) {
+                        throw new IllegalArgumentException("Unknown rule set '" + setName + "' on line "
+                                                           + lineNumber, ex);
+                    }
+                } else {
+                    final String[] tokens = line.split("\\s+");
+                    final boolean directory = "dir".equals(tokens[0]);
+                    if (!directory && !"file".equals(tokens[0])) {
+                        throw new IllegalArgumentException("Rule must start with 'dir' or 'file' on line "
+                                                           + lineNumber);
+                    }
+                    if (ruleSet == null) {
+                        throw new IllegalArgumentException("Rule before any rule set name on line " + lineNumber);
+                    }
+                    if (tokens.length < 2) {
+                        throw new IllegalArgumentException("Rule has no patterns on line " + lineNumber);
+                    }
+                    for (int j = 1; j < tokens.length; ++j) {
+                        rules.add(new NameRule(ruleSet, directory, tokens[j], lineNumber));
+                    }
+                }
+            }
+        }
+
+        return rules;
+    }
+
+    /**
+     * Generates the name of a lesson subdirectory, like "01_intro_1" or "11_lesson_1".
+     *
+     * @param prefix the numeric prefix
+     * @param label  the label, like "intro", "lesson", or "conclusion"
+     * @param suffix the 1-based index of the lesson
+     * @return the subdirectory name
+     */
+    static String lessonDirName(final int prefix, final String label, final int suffix) {
+
+        final int labelLen = label.length();
+        final StringBuilder builder = new StringBuilder(labelLen + 5);
+
+        if (prefix < 10) {
+            builder.append("0");
+        }
+        builder.append(prefix);
+        builder.append("_");
+        builder.append(label);
+        builder.append("_");
+        builder.append(suffix);
+
+        return builder.toString();
+    }
+
+    /**
+     * Generates the name of a standard subdirectory, like "11_standard_1".
+     *
+     * @param prefix the numeric prefix
+     * @param suffix the 1-based index of the standard
+     * @return the subdirectory name
+     */
+    static String standardDirName(final int prefix, final int suffix) {
+
+        final StringBuilder builder = new StringBuilder(13);
+
+        if (prefix < 10) {
+            builder.append("0");
+        }
+        builder.append(prefix);
+        builder.append("_standard_");
+        builder.append(suffix);
+
+        return builder.toString();
+    }
+
+    /**
+     * Generates the name of an objective subdirectory, like "11_objective_A".
+     *
+     * @param prefix the numeric prefix
+     * @param suffix the 1-based index of the objective (1 maps to "A")
+     * @return the subdirectory name
+     */
+    static String objectiveDirName(final int prefix, final int suffix) {
+
+        final StringBuilder builder = new StringBuilder(14);
+
+        if (prefix < 10) {
+            builder.append("0");
+        }
+        builder.append(prefix);
+        builder.append("_objective_");
+        final char suffixChar = OBJECTIVE_SUFFIXES.charAt(suffix);
+        builder.append(suffixChar);
+
+        return builder.toString();
+    }
+
+    /**
+     * Generates the name of a single exploration or application subdirectory, like "01".
+     *
+     * @param index the 1-based index
+     * @return the subdirectory name
+     */
+    static String activityDirName(final int index) {
+
+        return index < 10 ? "0" + index : Integer.toString(index);
+    }
+}
@@ -0,0 +1,315 @@
+package dev.mathops.fx.coursebuilder;
+
+import dev.mathops.commons.log.Log;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Scans a course media directory in parallel to build an immutable {@code CourseTree}.
+ *
+ * <p>
+ * Each directory is scanned by a task that lists the directory, submits one task per subdirectory, and joins the
+ * results into a {@code CourseDir}.  Since the work is dominated by file system latency rather than CPU, tasks run on
+ * the {@code ScanExecutor} (on virtual threads where available), and every file system call is made while holding a
+ * permit from the semaphore for the course directory's volume, so the number of calls in flight is bounded.
+ * Directories are read with {@code DirectoryReader}, so the type, size,
+ * and modification date of each entry come from the listing, and a subdirectory found in a listing is scanned without
+ * querying its modification date again.
+ *
+ * <p>
+ * A tree loaded from a snapshot can be revalidated rather than rescanned.  During revalidation, a directory whose
+ * modification date is unchanged keeps its file records from the previous tree and only its subdirectories are
+ * checked, so the cost is one modification-date query per directory rather than a listing and a query per file.
+ *
+ * <p>
+ * A tree can also be updated when a set of directories is known to have changed (for example, from file system watch
+ * events).  Only those directories are re-listed, and only their ancestors get new nodes; every other subtree is
+ * shared with the previous tree without touching the file system.
+ */
+enum CourseScanner {
+    ;
+
+    /**
+     * Scans a course media directory.
+     *
+     * @param courseMediaDir the course media directory
+     * @return the resulting tree
+     */
+    static CourseTree scan(final File courseMediaDir) {
+
+        final long start = System.currentTimeMillis();
+
+        final Semaphore permits = ScanExecutor.permitsFor(courseMediaDir);
+        final ScanTask task = new ScanTask(courseMediaDir, EDirKind.COURSE, 0L, null, null, null, permits);
+        final CourseDir root = ScanExecutor.invoke(task);
+
+        final long end = System.currentTimeMillis();
+        final CourseTree tree = new CourseTree(root, end);
+
+        Log.info("Scanned ", tree.getNumDirectories(), " directories in ", end - start, " ms");
+        Log.info("Directory reads so far: ", DirectoryReader.getDirectoriesRead(), " directories, ",
+                DirectoryReader.getEntriesRead(), " entries, ", DirectoryReader.getDirectoriesUnreadable(),
+                " unreadable directories, ", DirectoryReader.getAttributeQueries(), " link attribute queries");
+
+        return tree;
+    }
+
+    /**
+     * Revalidates a previously scanned tree (typically one loaded from a snapshot) against the file system.  Only
+     * directories whose modification dates have changed are re-listed.
+     *
+     * <p>
+     * Unchanged subtrees are shared with the previous tree, and if nothing has changed, the previous tree itself is
+     * returned, so callers can test for changes with an identity comparison.
+     *
+     * @param previous the previous tree
+     * @return the revalidated tree (the same object as {@code previous} if no changes were found)
+     */
+    static CourseTree revalidate(final CourseTree previous) {
+
+        final long start = System.currentTimeMillis();
+
+        final CourseDir previousRoot = previous.getRoot();
+        final File courseMediaDir = previousRoot.getFile();
+        final Semaphore permits = ScanExecutor.permitsFor(courseMediaDir);
+        final ScanTask task = new ScanTask(courseMediaDir, EDirKind.COURSE, 0L, previousRoot, null, null, permits);
+        final CourseDir root = ScanExecutor.invoke(task);
+
+        final long end = System.currentTimeMillis();
+
+        final CourseTree tree;
+        if (root == previousRoot) {
+            tree = previous;
+            Log.info("Revalidated ", tree.getNumDirectories(), " directories in ", end - start, " ms (no changes)");
+        } else {
+            tree = new CourseTree(root, end);
+            Log.info("Revalidated ", tree.getNumDirectories(), " directories in ", end - start, " ms");
+        }
+
+        return tree;
+    }
+
+    /**
+     * Updates a tree given a set of directories whose contents are known to have changed.  Those directories are
+     * re-listed (along with any new subdirectories they contain), their ancestors get new nodes, and all other nodes
+     * are shared with the previous tree.
+     *
+     * @param previous    the previous tree
+     * @param changedDirs the directories whose contents have changed
+     * @return the updated tree (the same object as {@code previous} if none of the changed directories is in the tree)
+     */
+    static CourseTree update(final CourseTree previous, final Collection<File> changedDirs) {
+
+        final long start = System.currentTimeMillis();
+
+        final CourseDir previousRoot = previous.getRoot();
+        final File courseMediaDir = previousRoot.getFile();
+
+        // The directories to visit are the changed directories and all their ancestors within the tree
+        final Set<File> dirty = new HashSet<>(changedDirs);
+        final Set<File> onPath = new HashSet<>(dirty.size() * 4);
+        for (final File changed : dirty) {
+            File current = changed;
+            while (current != null && onPath.add(current) && !current.equals(courseMediaDir)) {
+                current = current.getParentFile();
+            }
+        }
+
+        final CourseTree tree;
+        if (onPath.contains(courseMediaDir)) {
+            final Semaphore permits = ScanExecutor.permitsFor(courseMediaDir);
+            final ScanTask task = new ScanTask(courseMediaDir, EDirKind.COURSE, 0L, previousRoot, dirty, onPath,
+                    permits);
+            final CourseDir root = ScanExecutor.invoke(task);
+
+            final long end = System.currentTimeMillis();
+            tree = root == previousRoot ? previous : new CourseTree(root, end);
+
+            Log.info("Updated ", dirty.size(), " changed directories in ", end - start, " ms");
+        } else {
+            tree = previous;
+        }
+
+        return tree;
+    }
+
+    /**
+     * A task that scans one directory.
+     */
+    private static final class ScanTask implements Callable<CourseDir> {
+
+        /** The directory to scan. */
+        private final File dir;
+
+        /** The directory kind. */
+        private final EDirKind kind;
+
+        /** The directory's modification date if it is already known from its parent's listing; 0 if not. */
+        private final long knownLastModified;
+
+        /** The node for this directory from a previous scan; null if none. */
+        private final CourseDir previous;
+
+        /** When updating, the directories known to have changed; null when scanning or revalidating. */
+        private final Set<File> dirty;
+
+        /** When updating, the changed directories and all their ancestors; null when scanning or revalidating. */
+        private final Set<File> onPath;
+
+        /** The semaphore that limits concurrent file system calls to the volume being scanned. */
+        private final Semaphore permits;
+
+        /**
+         * Constructs a new {@code ScanTask}.
+         *
+         * @param theDir          the directory to scan
+         * @param theKind         the directory kind
+         * @param theLastModified the directory's modification date if already known; 0 if not
+         * @param thePrevious     the node for this directory from a previous scan; null if none
+         * @param theDirty        when updating, the directories known to have changed; null otherwise
+         * @param theOnPath       when updating, the changed directories and all their ancestors; null otherwise
+         * @param thePermits      the semaphore that limits concurrent file system calls to the volume being scanned
+         */
+        ScanTask(final File theDir, final EDirKind theKind, final long theLastModified, final CourseDir thePrevious,
+                 final Set<File> theDirty, final Set<File> theOnPath, final Semaphore thePermits) {
+
+            super();
+
+            this.dir = theDir;
+            this.kind = theKind;
+            this.knownLastModified = theLastModified;
+            this.previous = thePrevious;
+            this.dirty = theDirty;
+            this.onPath = theOnPath;
+            this.permits = thePermits;
+        }
+
+        /**
+         * Scans the directory.
+         *
+         * @return the directory node
+         */
+        @Override
+        public CourseDir call() {
+
+            final CourseDir result;
+
+            if (this.dirty == null) {
+                final long lastModified = getLastModified();
+                if (this.previous != null && this.previous.exists() && lastModified != 0L
+                    && this.previous.getLastModified() == lastModified) {
+                    result = revalidate();
+                } else {
+                    result = scan(lastModified);
+                }
+            } else if (this.previous == null || this.dirty.contains(this.dir)) {
+                final long lastModified = getLastModified();
+                result = scan(lastModified);
+            } else if (this.onPath.contains(this.dir)) {
+                result = revalidate();
+            } else {
+                result = this.previous;
+            }
+
+            return result;
+        }
+
+        /**
+         * Gets the directory's modification date, querying the file system only if it was not known from the parent
+         * directory's listing.
+         *
+         * @return the modification date (0 if the directory does not exist)
+         */
+        private long getLastModified() {
+
+            return this.knownLastModified == 0L ? ScanExecutor.lastModified(this.dir, this.permits)
+                    : this.knownLastModified;
+        }
+
+        /**
+         * Lists the directory and scans all files and subdirectories.  Subdirectories that were present in a
+         * previous scan are revalidated rather than scanned.
+         *
+         * @param lastModified the directory's last modification date
+         * @return the directory node
+         */
+        private CourseDir scan(final long lastModified) {
+
+            final List<DirEntry> list = ScanExecutor.list(this.dir, this.permits);
+
+            final List<CourseFile> files = new ArrayList<>(list.size());
+            final List<Future<CourseDir>> subtasks = new ArrayList<>(list.size());
+
+            for (final DirEntry entry : list) {
+                final File file = entry.file();
+                if (entry.directory()) {
+                    final String name = entry.name();
+                    final EDirKind childKind = EDirKind.classify(this.kind, name);
+                    final CourseDir previousChild = this.previous == null ? null : this.previous.getSubdir(name);
+                    final ScanTask subtask = new ScanTask(file, childKind, entry.lastModified(), previousChild,
+                            this.dirty, this.onPath, this.permits);
+                    subtasks.add(ScanExecutor.submit(subtask));
+                } else {
+                    files.add(new CourseFile(file, entry.size(), entry.lastModified()));
+                }
+            }
+
+            final List<CourseDir> subdirs = new ArrayList<>(subtasks.size());
+            for (final Future<CourseDir> subtask : subtasks) {
+                final CourseDir subdir = ScanExecutor.join(subtask);
+                subdirs.add(subdir);
+            }
+
+            return new CourseDir(this.dir, this.kind, lastModified, subdirs, files);
+        }
+
+        /**
+         * Revalidates a directory whose list of entries is known to be unchanged (its modification date has not
+         * changed since the previous scan, or it is an ancestor of a changed directory during an update).  File
+         * records are reused and only subdirectories are checked.
+         *
+         * @return the directory node (the previous node if nothing in this subtree has changed)
+         */
+        private CourseDir revalidate() {
+
+            final List<CourseDir> previousSubdirs = this.previous.getSubdirs();
+            final List<Future<CourseDir>> subtasks = new ArrayList<>(previousSubdirs.size());
+
+            for (final CourseDir previousChild : previousSubdirs) {
+                final File childDir = previousChild.getFile();
+                final EDirKind childKind = previousChild.getKind();
+                final ScanTask subtask = new ScanTask(childDir, childKind, 0L, previousChild, this.dirty,
+                        this.onPath, this.permits);
+                subtasks.add(ScanExecutor.submit(subtask));
+            }
+
+            boolean changed = false;
+            final List<CourseDir> subdirs = new ArrayList<>(subtasks.size());
+            final int numSubtasks = subtasks.size();
+            for (int i = 0; i < numSubtasks; ++i) {
+                final CourseDir subdir = ScanExecutor.join(subtasks.get(i));
+                changed = changed || subdir != previousSubdirs.get(i);
+                subdirs.add(subdir);
+            }
+
+            final CourseDir result;
+            if (changed) {
+                final long lastModified = this.previous.getLastModified();
+                final List<CourseFile> files = this.previous.getFiles();
+                result = new CourseDir(this.dir, this.kind, lastModified, subdirs, files);
+            } else {
+                result = this.previous;
+            }
+
+            return result;
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package dev.mathops.fx.coursebuilder;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An immutable in-memory model of a course media directory, built by {@code CourseScanner}.  The tree is a hierarchy
+ * of {@code CourseDir} objects, each classified by kind (subject, topic, standard, objective, lesson, example, and so
+ * on), along with an index that maps each directory to its node.
+ */
+final class CourseTree {
+
+    /** The root directory node. */
+    private final CourseDir root;
+
+    /** A map from directory to node, for every directory in the tree. */
+    private final Map<File, CourseDir> index;
+
+    /** The time when the scan that produced this tree completed, in milliseconds since the epoch. */
+    private final long scanTime;
+
+    /**
+     * Constructs a new {@code CourseTree}.
+     *
+     * @param theRoot     the root directory node
+     * @param theScanTime the time when the scan completed, in milliseconds since the epoch
+     */
+    CourseTree(final CourseDir theRoot, final long theScanTime) {
+
+        this.root = theRoot;
+        this.scanTime = theScanTime;
+
+        final Map<File, CourseDir> map = new HashMap<>(1000);
+        addToIndex(theRoot, map);
+        this.index = Collections.unmodifiableMap(map);
+    }
+
+    /**
+     * Recursively adds a directory and all its subdirectories to an index.
+     *
+     * @param dir the directory
+     * @param map the map to which to add the directory
+     */
+    private static void addToIndex(final CourseDir dir, final Map<? super File, ? super CourseDir> map) {
+
+        final File file = dir.getFile();
+        map.put(file, dir);
+
+        for (final CourseDir subdir : dir.getSubdirs()) {
+            addToIndex(subdir, map);
+        }
+    }
+
+    /**
+     * Gets the root directory node (the course media directory).
+     *
+     * @return the root node
+     */
+    CourseDir getRoot() {
+
+        return this.root;
+    }
+
+    /**
+     * Gets the time when the scan that produced this tree completed.
+     *
+     * @return the scan time, in milliseconds since the epoch
+     */
+    long getScanTime() {
+
+        return this.scanTime;
+    }
+
+    /**
+     * Gets the number of directories in the tree.
+     *
+     * @return the number of directories
+     */
+    int getNumDirectories() {
+
+        return this.index.size();
+    }
+
+    /**
+     * Gets all directories in the tree.
+     *
+     * @return the directory nodes, in no particular order
+     */
+    Collection<CourseDir> getDirectories() {
+
+        return this.index.values();
+    }
+
+    /**
+     * Finds the node for a directory.
+     *
+     * @param dir the directory
+     * @return the node; null if the directory is not in the tree
+     */
+    CourseDir find(final File dir) {
+
+        return this.index.get(dir);
+    }
+
+    /**
+     * Gets the list of subject directories.
+     *
+     * @return the subject directories, sorted by name
+     */
+    List<CourseDir> getSubjects() {
+
+        return getChildrenOfKind(this.root, EDirKind.SUBJECT);
+    }
+
+    /**
+     * Gets the list of topic module directories within a subject.
+     *
+     * @param subject the subject directory
+     * @return the topic module directories, sorted by name
+     */
+    static List<CourseDir> getTopics(final CourseDir subject) {
+
+        return getChildrenOfKind(subject, EDirKind.TOPIC);
+    }
+
+    /**
+     * Gets the subdirectories of a directory that have a particular kind.
+     *
+     * @param dir  the directory
+     * @param kind the kind
+     * @return the matching subdirectories, sorted by name
+     */
+    static List<CourseDir> getChildrenOfKind(final CourseDir dir, final EDirKind kind) {
+
+        final List<CourseDir> subdirs = dir.getSubdirs();
+        final List<CourseDir> result = new ArrayList<>(subdirs.size());
+
+        for (final CourseDir subdir : subdirs) {
+            if (subdir.getKind() == kind) {
+                result.add(subdir);
+            }
+        }
+
+        return result;
+    }
+}
@@ -0,0 +1,566 @@
+package dev.mathops.fx.coursebuilder;
+
+import dev.mathops.commons.log.Log;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * A headless validator that checks an entire course media directory with the same rules the user interface uses to
+ * show warnings (see {@code CourseRules}, {@code ExampleFiles}, {@code LessonFiles}, and {@code MetadataCache}), and
+ * writes a JSON report.  No JavaFX stage is created, and no JavaFX controls are constructed.
+ *
+ * <p>
+ * The tree is taken from the scan snapshot when one exists (revalidated against the file system), or scanned
+ * otherwise.  Topic modules are then validated in parallel.  The traversal mirrors the tab contents shown for a topic
+ * module, so the number of warnings reported for a topic matches the number shown in its header.  Attribution problems
+ * found by the {@code AttributionIndex} (assets with no attribution, and attributions or notes that name missing
+ * files) are reported after the topic module issues.
+ *
+ * <p>
+ * Usage (through {@code Launcher}):
+ * <pre>
+ *   --validate &lt;course media directory&gt; [--report &lt;report file&gt;] [--threads &lt;count&gt;]
+ * </pre>
+ * The report is written to standard output if no report file is given.  The exit code is 0 if no warnings were found,
+ * 1 if warnings were found, and 2 if the arguments were invalid, any topic module could not be validated, or the
+ * report could not be written.
+ */
+final class CourseValidator {
+
+    /** The command-line option that selects validation mode. */
+    static final String VALIDATE_OPTION = "--validate";
+
+    /** The command-line option that sets the report file. */
+    private static final String REPORT_OPTION = "--report";
+
+    /** The command-line option that sets the number of threads. */
+    private static final String THREADS_OPTION = "--threads";
+
+    /** The exit code when no warnings were found. */
+    private static final int EXIT_CLEAN = 0;
+
+    /** The exit code when warnings were found. */
+    private static final int EXIT_WARNINGS = 1;
+
+    /** The exit code when the arguments were invalid, validation failed, or the report could not be written. */
+    private static final int EXIT_ERROR = 2;
+
+    /** The course tree. */
+    private final CourseTree tree;
+
+    /** The number of threads to use. */
+    private final int numThreads;
+
+    /** The number of topic modules that could not be validated by the last call to {@code validate}. */
+    private int numFailures = 0;
+
+    /**
+     * Constructs a new {@code CourseValidator}.
+     *
+     * @param theTree       the course tree
+     * @param theNumThreads the number of threads to use
+     */
+    CourseValidator(final CourseTree theTree, final int theNumThreads) {
+
+        super();
+
+        this.tree = theTree;
+        this.numThreads = Math.max(1, theNumThreads);
+    }
+
+    /**
+     * Runs the validator from the command line.
+     *
+     * @param args the command-line arguments (the first is {@code VALIDATE_OPTION})
+     * @return the process exit code
+     */
+    static int run(final String... args) {
+
+        File courseDir = null;
+        File reportFile = null;
+        int threads = Runtime.getRuntime().availableProcessors();
+        boolean valid = true;
+
+        for (int i = 1; i < args.length && valid; ++i) {
+            final String arg = args[i];
+            if (REPORT_OPTION.equals(arg) && i + 1 < args.length) {
+                ++i;
+                reportFile = new File(args[i]);
+            } else if (THREADS_OPTION.equals(arg) && i + 1 < args.length) {
+                ++i;
+                try {
+                    threads = Integer.parseInt(args[i]);
+                } catch (final NumberFormatException ex) {
+                    valid = false;
+                }
+            } else if (courseDir == null && !arg.startsWith("--")) {
+                courseDir = new File(arg);
+            } else {
+                valid = false;
+            }
+        }
+
+        int exitCode = EXIT_ERROR;
+
+        if (valid && courseDir != null && courseDir.isDirectory()) {
+            final long start = System.currentTimeMillis();
+            final CourseTree tree = loadTree(courseDir);
+            final CourseValidator validator = new CourseValidator(tree, threads);
+            final List<ValidationIssue> issues = validator.validate();
+            final long elapsed = System.currentTimeMillis() - start;
+
+            final String report = validator.makeReport(issues, elapsed);
+            if (writeReport(report, reportFile) && validator.getNumFailures() == 0) {
+                exitCode = issues.isEmpty() ? EXIT_CLEAN : EXIT_WARNINGS;
+            }
+        } else {
+            Log.warning("Usage: ", VALIDATE_OPTION, " <course media directory> [", REPORT_OPTION, " <file>] [",
+                    THREADS_OPTION, " <count>]");
+        }
+
+        return exitCode;
+    }
+
+    /**
+     * Loads the tree for a course media directory from its snapshot (revalidated against the file system), or scans
+     * it if there is no snapshot.  The resulting tree is saved as the new snapshot.
+     *
+     * @param courseDir the course media directory
+     * @return the tree
+     */
+    static CourseTree loadTree(final File courseDir) {
+
+        final CourseTree snapshot = ScanSnapshot.load(courseDir);
+        final CourseTree tree = snapshot == null ? CourseScanner.scan(courseDir) : CourseScanner.revalidate(snapshot);
+
+        if (tree != snapshot) {
+            ScanSnapshot.save(tree);
+        }
+
+        return tree;
+    }
+
+    /**
+     * Validates every topic module in the tree, in parallel.  A topic module whose validation fails is logged and
+     * counted (see {@code getNumFailures}), and the remaining topic modules are still validated.  If the thread is
+     * interrupted, the topic modules not yet collected are counted as failures.
+     *
+     * @return the issues found, in tree order (attribution problems last)
+     */
+    List<ValidationIssue> validate() {
+
+        final List<CourseDir> topics = new ArrayList<>(100);
+        for (final CourseDir subject : this.tree.getSubjects()) {
+            topics.addAll(CourseTree.getTopics(subject));
+        }
+
+        this.numFailures = 0;
+
+        final List<ValidationIssue> issues = new ArrayList<>(100);
+        final ExecutorService executor = Executors.newFixedThreadPool(this.numThreads);
+        try {
+            final List<Future<List<ValidationIssue>>> futures = new ArrayList<>(topics.size());
+            for (final CourseDir topic : topics) {
+                futures.add(executor.submit(() -> validateTopic(topic)));
+            }
+
+            final int count = futures.size();
+            boolean interrupted = false;
+            for (int i = 0; i < count && !interrupted; ++i) {
+                try {
+                    issues.addAll(futures.get(i).get());
+                } catch (final InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    Log.warning("Validation interrupted");
+                    this.numFailures += count - i;
+                    interrupted = true;
+                } catch (final ExecutionException ex) {
+                    final File topicFile = topics.get(i).getFile();
+                    Log.warning("Validation of ", topicFile.getAbsolutePath(), " failed", ex.getCause());
+                    ++this.numFailures;
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        issues.addAll(AttributionIndex.build(this.tree).getIssues());
+
+        return issues;
+    }
+
+    /**
+     * Gets the number of topic modules that could not be validated by the last call to {@code validate}.
+     *
+     * @return the number of failures
+     */
+    int getNumFailures() {
+
+        return this.numFailures;
+    }
+
+    /**
+     * Validates a topic module directory (mirrors {@code TopicModulePane}).
+     *
+     * @param topic the topic module directory
+     * @return the issues found
+     */
+    private static List<ValidationIssue> validateTopic(final CourseDir topic) {
+
+        final List<ValidationIssue> issues = new ArrayList<>(10);
+
+        checkInformation(topic, issues);
+        checkLessons(topic, 1, 9, "intro", issues);
+        checkSkillsReview(topic.resolve(AppConstants.SKILLS_REVIEW_DIR), issues);
+        checkStandards(topic, issues);
+        checkActivities(topic.resolve(AppConstants.EXPLORATIONS_DIR), issues);
+        checkActivities(topic.resolve(AppConstants.APPLICATIONS_DIR), issues);
+        checkHandouts(topic.resolve(AppConstants.HANDOUTS_DIR), issues);
+        checkLessons(topic, 91, 99, "conclusion", issues);
+
+        for (final AbstractCourseEntry entry : topic.getEntries()) {
+            if (!CourseRules.isExpected(ERuleSet.TOPIC, entry)) {
+                addUnexpected(entry, issues);
+            }
+        }
+
+        return issues;
+    }
+
+    /**
+     * Validates a skills review directory (mirrors {@code SkillsReviewTabContent}).
+     *
+     * @param dir    the skills review directory
+     * @param issues the list to which to add issues
+     */
+    private static void checkSkillsReview(final CourseDir dir, final Collection<? super ValidationIssue> issues) {
+
+        checkLessons(dir, 1, 9, "intro", issues);
+        checkObjectives(dir, issues);
+        checkHandouts(dir.resolve(AppConstants.HANDOUTS_DIR), issues);
+
+        for (final AbstractCourseEntry entry : dir.getEntries()) {
+            if (!CourseRules.isExpected(ERuleSet.SKILLS_REVIEW, entry)) {
+                addUnexpected(entry, issues);
+            }
+        }
+    }
+
+    /**
+     * Validates the standards in a topic module directory (mirrors {@code StandardsTabContent} and
+     * {@code StandardTabContent}).
+     *
+     * @param topic  the topic module directory
+     * @param issues the list to which to add issues
+     */
+    private static void checkStandards(final CourseDir topic, final Collection<? super ValidationIssue> issues) {
+
+        int index = 1;
+        for (int i = 11; i <= 29; ++i) {
+            final CourseDir dir = topic.getSubdir(CourseRules.standardDirName(i, index));
+            ++index;
+
+            if (dir != null) {
+                checkInformation(dir, issues);
+                checkLessons(dir, 1, 9, "intro", issues);
+                checkObjectives(dir, issues);
+                checkExamples(dir.resolve(AppConstants.EXAMPLES_DIR), issues);
+                checkActivities(dir.resolve(AppConstants.EXPLORATIONS_DIR), issues);
+                checkActivities(dir.resolve(AppConstants.APPLICATIONS_DIR), issues);
+                checkHandouts(dir.resolve(AppConstants.HANDOUTS_DIR), issues);
+                checkLessons(dir, 91, 99, "conclusion", issues);
+
+                for (final AbstractCourseEntry entry : dir.getEntries()) {
+                    if (!CourseRules.isExpected(ERuleSet.STANDARD, entry)) {
+                        addUnexpected(entry, issues);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Validates the objectives in a skills review or standard directory (mirrors {@code ObjectivesTabContent} and
+     * {@code ObjectiveTabContent}).
+     *
+     * @param container the containing directory
+     * @param issues    the list to which to add issues
+     */
+    private static void checkObjectives(final CourseDir container, final Collection<? super ValidationIssue> issues) {
+
+        int index = 1;
+        for (int i = 11; i <= 29; ++i) {
+            final CourseDir dir = container.getSubdir(CourseRules.objectiveDirName(i, index));
+            ++index;
+
+            if (dir != null) {
+                checkLessons(dir, 11, 19, "lesson", issues);
+                checkExamples(dir.resolve(AppConstants.EXAMPLES_DIR), issues);
+                checkActivities(dir.resolve(AppConstants.EXPLORATIONS_DIR), issues);
+                checkActivities(dir.resolve(AppConstants.APPLICATIONS_DIR), issues);
+                checkHandouts(dir.resolve(AppConstants.HANDOUTS_DIR), issues);
+                checkInformation(dir, issues);
+
+                for (final AbstractCourseEntry entry : dir.getEntries()) {
+                    if (!CourseRules.isExpected(ERuleSet.OBJECTIVE, entry)) {
+                        addUnexpected(entry, issues);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Validates an explorations or applications directory (mirrors {@code ExplorationsTabContent},
+     * {@code ApplicationsTabContent}, and the single-activity tab contents).
+     *
+     * @param container the explorations or applications directory
+     * @param issues    the list to which to add issues
+     */
+    private static void checkActivities(final CourseDir container, final Collection<? super ValidationIssue> issues) {
+
+        final Collection<AbstractCourseEntry> extra = new ArrayList<>(container.getEntries());
+
+        for (int i = 1; i <= 99; ++i) {
+            final CourseDir dir = container.getSubdir(CourseRules.activityDirName(i));
+
+            if (dir != null) {
+                extra.remove(dir);
+
+                checkInformation(dir, issues);
+                checkLessons(dir, 1, 9, "lesson", issues);
+                checkExamples(dir.resolve(AppConstants.EXAMPLES_DIR), issues);
+                checkHandouts(dir.resolve(AppConstants.HANDOUTS_DIR), issues);
+
+                for (final AbstractCourseEntry entry : dir.getEntries()) {
+                    if (!CourseRules.isExpected(ERuleSet.ACTIVITY, entry)) {
+                        addUnexpected(entry, issues);
+                    }
+                }
+            }
+        }
+
+        for (final AbstractCourseEntry entry : extra) {
+            addUnexpected(entry, issues);
+        }
+    }
+
+    /**
+     * Validates a handouts directory (mirrors {@code HandoutsTabContent}).
+     *
+     * @param dir    the handouts directory
+     * @param issues the list to which to add issues
+     */
+    private static void checkHandouts(final CourseDir dir, final Collection<? super ValidationIssue> issues) {
+
+        for (final AbstractCourseEntry entry : dir.getEntries()) {
+            if (!CourseRules.isExpected(ERuleSet.HANDOUTS, entry)) {
+                addUnexpected(entry, issues);
+            }
+        }
+    }
+
+    /**
+     * Validates an examples directory and the examples within it (mirrors {@code ExamplesTabContent} and
+     * {@code ExampleTabContent}).
+     *
+     * @param container the examples directory
+     * @param issues    the list to which to add issues
+     */
+    private static void checkExamples(final CourseDir container, final Collection<? super ValidationIssue> issues) {
+
+        for (final CourseDir dir : container.getSubdirs()) {
+            checkMetadata(dir, issues);
+
+            final ExampleFiles files = new ExampleFiles(dir);
+            for (final AbstractCourseEntry entry : files.getUnexpectedFiles()) {
+                addUnexpected(entry, issues);
+            }
+            for (final File missing : files.getMissingFiles()) {
+                issues.add(new ValidationIssue(EIssueKind.MISSING_FILE, missing, 1));
+            }
+        }
+
+        // Files directly in the examples directory count as one warning each
+        for (final CourseFile file : container.getFiles()) {
+            issues.add(new ValidationIssue(EIssueKind.UNEXPECTED_FILE, file.getFile(), 1));
+        }
+    }
+
+    /**
+     * Validates the numbered lessons in a directory (mirrors {@code LessonsTabContent} and
+     * {@code LessonTabContent}).
+     *
+     * @param container   the containing directory
+     * @param firstNumber the first lesson prefix number
+     * @param lastNumber  the last lesson prefix number
+     * @param label       the lesson label, like "intro", "lesson", or "conclusion"
+     * @param issues      the list to which to add issues
+     */
+    private static void checkLessons(final CourseDir container, final int firstNumber, final int lastNumber,
+                                     final String label, final Collection<? super ValidationIssue> issues) {
+
+        int index = 1;
+        for (int i = firstNumber; i <= lastNumber; ++i) {
+            final CourseDir dir = container.getSubdir(CourseRules.lessonDirName(i, label, index));
+            ++index;
+
+            if (dir != null) {
+                checkMetadata(dir, issues);
+
+                // Lesson warnings count one per unexpected entry, regardless of its size
+                final LessonFiles files = new LessonFiles(dir);
+                for (final AbstractCourseEntry entry : files.getUnexpectedFiles()) {
+                    issues.add(new ValidationIssue(EIssueKind.UNEXPECTED_FILE, entry.getFile(), 1));
+                }
+                for (final File missing : files.getMissingFiles()) {
+                    issues.add(new ValidationIssue(EIssueKind.MISSING_FILE, missing, 1));
+                }
+            }
+        }
+    }
+
+    /**
+     * Checks the metadata file in an example or lesson directory, which may be absent, but if present must parse
+     * (mirrors {@code ExampleTabContent.loadMetadata}).
+     *
+     * @param dir    the directory
+     * @param issues the list to which to add issues
+     */
+    private static void checkMetadata(final CourseDir dir, final Collection<? super ValidationIssue> issues) {
+
+        final CourseFile file = dir.getChildFile(AppConstants.METADATA_FILE);
+
+        if (file != null) {
+            final MetadataEntry entry = MetadataCache.get(file);
+            if (entry.status() == EMetadataStatus.INVALID) {
+                issues.add(new ValidationIssue(EIssueKind.INVALID_METADATA, file.getFile(), 1));
+            }
+        }
+    }
+
+    /**
+     * Checks the metadata file for an "Information" tab, which must be readable and parse if present (mirrors
+     * {@code InformationTabContent.loadMetadata}).  A missing file is not an issue, since the user interface creates
+     * a blank one (the validator does not modify the course media directory).
+     *
+     * @param dir    the directory
+     * @param issues the list to which to add issues
+     */
+    private static void checkInformation(final CourseDir dir, final Collection<? super ValidationIssue> issues) {
+
+        final CourseFile file = dir.getChildFile(AppConstants.METADATA_FILE);
+
+        if (file != null) {
+            final MetadataEntry entry = MetadataCache.get(file);
+            final EMetadataStatus status = entry.status();
+            if (status == EMetadataStatus.UNREADABLE) {
+                issues.add(new ValidationIssue(EIssueKind.UNREADABLE_METADATA, file.getFile(), 1));
+            } else if (status == EMetadataStatus.INVALID) {
+                issues.add(new ValidationIssue(EIssueKind.INVALID_METADATA, file.getFile(), 1));
+            }
+        }
+    }
+
+    /**
+     * Adds an issue for an unexpected entry, counting one warning for every file within it (at any depth).
+     *
+     * @param entry  the entry
+     * @param issues the list to which to add the issue
+     */
+    private static void addUnexpected(final AbstractCourseEntry entry,
+                                      final Collection<? super ValidationIssue> issues) {
+
+        final File file = entry.getFile();
+        final int count = entry.countFiles();
+
+        issues.add(new ValidationIssue(EIssueKind.UNEXPECTED_FILE, file, count));
+    }
+
+    /**
+     * Generates the JSON report.
+     *
+     * @param issues    the issues found
+     * @param elapsedMs the elapsed time, in milliseconds
+     * @return the report
+     */
+    String makeReport(final Collection<ValidationIssue> issues, final long elapsedMs) {
+
+        final CourseDir root = this.tree.getRoot();
+        final Path rootPath = root.getFile().toPath();
+
+        int numWarnings = 0;
+        for (final ValidationIssue issue : issues) {
+            numWarnings += issue.warnings();
+        }
+
+        final StringBuilder builder = new StringBuilder(200 + issues.size() * 100);
+
+        builder.append("{\n  \"courseDir\": ");
+        AppUtils.appendJsonString(builder, rootPath.toString());
+        builder.append(",\n  \"scanTime\": ").append(this.tree.getScanTime());
+        builder.append(",\n  \"elapsedMs\": ").append(elapsedMs);
+        builder.append(",\n  \"numDirectories\": ").append(this.tree.getNumDirectories());
+        builder.append(",\n  \"numIssues\": ").append(issues.size());
+        builder.append(",\n  \"numWarnings\": ").append(numWarnings);
+        builder.append(",\n  \"numFailures\": ").append(this.numFailures);
+        builder.append(",\n  \"issues\": [");
+
+        boolean first = true;
+        for (final ValidationIssue issue : issues) {
+            builder.append(first ? "\n    {\"kind\": " : ",\n    {\"kind\": ");
+            AppUtils.appendJsonString(builder, issue.kind().id);
+            builder.append(", \"path\": ");
+            final Path relative = rootPath.relativize(issue.file().toPath());
+            AppUtils.appendJsonString(builder, relative.toString().replace(File.separatorChar, '/'));
+            builder.append(", \"warnings\": ").append(issue.warnings()).append('}');
+            first = false;
+        }
+
+        builder.append(first ? "]\n}\n" : "\n  ]\n}\n");
+
+        return builder.toString();
+    }
+
+    /**
+     * Writes the report to a file, or to standard output if no file is given.
+     *
+     * @param report     the report
+     * @param reportFile the report file (null to write to standard output)
+     * @return true if the report was written
+     */
+    static boolean writeReport(final String report, final File reportFile) {
+
+        boolean written = false;
+
+        if (reportFile == null) {
+            final PrintStream out = System.out;
+            out.print(report);
+            out.flush();
+            written = true;
+        } else {
+            final Path path = reportFile.toPath();
+            try (final Writer writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8)) {
+                writer.write(report);
+                written = true;
+            } catch (final IOException ex) {
+                Log.warning("Unable to write report", ex);
+            }
+        }
+
+        return written;
+    }
+}
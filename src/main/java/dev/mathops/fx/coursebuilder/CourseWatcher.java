@@ -0,0 +1,430 @@
+package dev.mathops.fx.coursebuilder;
+
+import dev.mathops.commons.log.Log;
+import javafx.application.Platform;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A background monitor that watches every directory in the course media tree for changes and applies them to the
+ * owner's course tree incrementally.
+ *
+ * <p>
+ * Events are coalesced: after the first event arrives, the monitor keeps collecting events until the file system has
+ * been quiet for a short period (or a maximum batch delay has passed), then updates the tree once for the whole batch
+ * using {@code CourseScanner.update}, which re-lists only the directories that changed.  The new tree is installed on
+ * the JavaFX application thread, and the monitor waits for that to finish before processing the next batch, so
+ * updates are always applied in order.  A deploy calls {@code flush} to have the pending batch processed at once, and
+ * a full rescan (the initial scan when there is no snapshot, or a Refresh) is requested with {@code rescan} and handled
+ * like a batch in which events were lost, so every change to the owner's tree is made on this thread.
+ *
+ * <p>
+ * Directories that appear in an update are registered as soon as the update finds them, before it is installed.
+ * Files created in such a directory before it was registered produce no events, so each newly registered directory is
+ * listed again in the next batch.
+ *
+ * <p>
+ * If a snapshot tree was loaded at startup, the monitor first revalidates it (see {@code CourseScanner.revalidate})
+ * before it begins watching, so that work happens off the JavaFX application thread as well.  The snapshot's
+ * directories are registered before the revalidation lists them.
+ *
+ * <p>
+ * Each update is recorded in the owner's {@code ChangeJournal} before it is installed.  An update is recorded as a gap
+ * when the monitor cannot vouch that it saw every change: the tree was rescanned, events were lost, or some directory
+ * could not be watched.
+ */
+final class CourseWatcher implements Runnable {
+
+    /** The time the file system must be quiet before a batch of events is processed, in milliseconds. */
+    private static final long QUIET_PERIOD_MS = 400L;
+
+    /** The longest a batch of events will be held before processing, in milliseconds. */
+    private static final long MAX_BATCH_DELAY_MS = 3000L;
+
+    /** The longest the monitor waits for an event before checking for requests, in milliseconds. */
+    private static final long IDLE_POLL_MS = 200L;
+
+    /** The owning application. */
+    private final CourseBuilder owner;
+
+    /** True if the owner's initial tree was loaded from a snapshot and should be revalidated. */
+    private final boolean revalidateFirst;
+
+    /** The watch service; null if one could not be created. */
+    private final WatchService watchService;
+
+    /** A map from watch key to the directory it watches. */
+    private final Map<WatchKey, File> watchedDirs;
+
+    /** The set of directories currently registered. */
+    private final Set<File> registered;
+
+    /** Requests for flushes and rescans, each completed once it has been handled. */
+    private final BlockingQueue<Request> requests;
+
+    /** True if every directory in the last tree registered was watched (accessed only by the monitor thread). */
+    private boolean allWatched = false;
+
+    /** True once the monitor thread has stopped, after which requests complete at once. */
+    private volatile boolean stopped = false;
+
+    /** The thread running the monitor; null if not started. */
+    private Thread thread = null;
+
+    /**
+     * Constructs a new {@code CourseWatcher}.  If a watch service cannot be created, the monitor still serves
+     * requests, but records a gap in the change journal for each one.
+     *
+     * @param theOwner           the owning application
+     * @param theRevalidateFirst true if the owner's initial tree was loaded from a snapshot and should be revalidated
+     */
+    CourseWatcher(final CourseBuilder theOwner, final boolean theRevalidateFirst) {
+
+        this.owner = theOwner;
+        this.revalidateFirst = theRevalidateFirst;
+
+        WatchService service = null;
+        try {
+            final FileSystem fileSystem = FileSystems.getDefault();
+            service = fileSystem.newWatchService();
+        } catch (final IOException ex) {
+            Log.warning("Unable to watch course media directory for changes", ex);
+        }
+
+        this.watchService = service;
+        this.watchedDirs = new HashMap<>(1000);
+        this.registered = new HashSet<>(1000);
+        this.requests = new LinkedBlockingQueue<>();
+    }
+
+    /**
+     * Starts the monitor on a daemon thread.
+     */
+    void start() {
+
+        this.thread = new Thread(this, "Course watcher");
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    /**
+     * Stops the monitor.
+     */
+    void stop() {
+
+        if (this.watchService != null) {
+            try {
+                this.watchService.close();
+            } catch (final IOException ex) {
+                Log.warning("Failed to close watch service", ex);
+            }
+        }
+
+        if (this.thread != null) {
+            this.thread.interrupt();
+        }
+    }
+
+    /**
+     * Processes the events the monitor has received but not yet applied, and waits until the resulting tree has been
+     * recorded in the change journal and installed.  A deploy calls this before it asks the journal what changed, so
+     * changes still waiting in a batch are not missed.  This must not be called on the JavaFX application thread.
+     *
+     * @return the owner's course tree after the flush
+     */
+    CourseTree flush() {
+
+        submit(false).join();
+
+        return this.owner.getCourseTree();
+    }
+
+    /**
+     * Requests a full rescan of the course media directory.  The shared metadata cache is cleared, the tree is
+     * rescanned along with any pending batch, and a gap is recorded in the change journal.
+     *
+     * @return a future that completes once the rescanned tree has been installed
+     */
+    CompletableFuture<Void> rescan() {
+
+        return submit(true);
+    }
+
+    /**
+     * Queues a request for the monitor thread.
+     *
+     * @param rescan true to rescan the whole tree; false to process only the pending batch
+     * @return a future that completes once the request has been handled
+     */
+    private CompletableFuture<Void> submit(final boolean rescan) {
+
+        final Request request = new Request(rescan, new CompletableFuture<>());
+        this.requests.add(request);
+        if (this.stopped) {
+            completeRequests();
+        }
+
+        return request.done();
+    }
+
+    /**
+     * Completes all queued requests.
+     */
+    private void completeRequests() {
+
+        Request request = this.requests.poll();
+        while (request != null) {
+            request.done().complete(null);
+            request = this.requests.poll();
+        }
+    }
+
+    /**
+     * Runs the monitor loop.
+     */
+    @Override
+    public void run() {
+
+        try {
+            final Set<File> changed = new HashSet<>(20);
+
+            if (this.revalidateFirst) {
+                final CourseTree snapshot = this.owner.getCourseTree();
+                // The snapshot's directories are registered before they are listed, so they need not be listed again
+                registerAll(snapshot, new ArrayList<>(0));
+                final CourseTree revalidated = CourseScanner.revalidate(snapshot);
+                registerAll(revalidated, changed);
+                install(snapshot, revalidated, false);
+            } else {
+                // The tree was listed before any directory was registered, so all of it is listed again
+                registerAll(this.owner.getCourseTree(), changed);
+            }
+
+            boolean overflow = false;
+            long deadline = System.currentTimeMillis() + MAX_BATCH_DELAY_MS;
+            while (!Thread.currentThread().isInterrupted()) {
+                final boolean pending = overflow || !changed.isEmpty();
+
+                // Coalesce events until the file system has been quiet or the batch has waited long enough
+                final WatchKey key = poll(pending ? QUIET_PERIOD_MS : IDLE_POLL_MS);
+                if (key != null) {
+                    if (!pending) {
+                        deadline = System.currentTimeMillis() + MAX_BATCH_DELAY_MS;
+                    }
+                    overflow = collect(key, changed) || overflow;
+                }
+
+                final Request request = this.requests.poll();
+                if (request != null) {
+                    WatchKey queued = this.watchService == null ? null : this.watchService.poll();
+                    while (queued != null) {
+                        overflow = collect(queued, changed) || overflow;
+                        queued = this.watchService.poll();
+                    }
+
+                    if (request.rescan()) {
+                        MetadataCache.clear();
+                        overflow = true;
+                    }
+
+                    // Directories registered by a batch are listed again before the request completes
+                    while (overflow || !changed.isEmpty()) {
+                        processBatch(changed, overflow);
+                        overflow = false;
+                    }
+                    if (!this.allWatched) {
+                        final CourseTree tree = this.owner.getCourseTree();
+                        this.owner.getChangeJournal().record(tree, tree, false);
+                    }
+                    request.done().complete(null);
+                } else if (pending && (key == null || System.currentTimeMillis() > deadline)) {
+                    processBatch(changed, overflow);
+                    overflow = false;
+                    deadline = System.currentTimeMillis() + MAX_BATCH_DELAY_MS;
+                }
+            }
+        } catch (final InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } catch (final ClosedWatchServiceException ex) {
+            Log.info("Course watcher stopped");
+        } finally {
+            this.stopped = true;
+            completeRequests();
+        }
+    }
+
+    /**
+     * Waits for the next signalled watch key.
+     *
+     * @param timeoutMs the longest time to wait, in milliseconds
+     * @return the key; null if none was signalled in time
+     * @throws InterruptedException if the thread is interrupted while waiting
+     */
+    private WatchKey poll(final long timeoutMs) throws InterruptedException {
+
+        WatchKey key = null;
+
+        if (this.watchService == null) {
+            Thread.sleep(timeoutMs);
+        } else {
+            key = this.watchService.poll(timeoutMs, TimeUnit.MILLISECONDS);
+        }
+
+        return key;
+    }
+
+    /**
+     * Updates the tree for a batch of changes, registers any new directories, and installs the result.
+     *
+     * @param changed  the directories that changed; on return, the newly registered directories, which must be listed
+     *                 again in the next batch
+     * @param rescan  true if the whole tree must be rescanned (events were lost, or a rescan was requested)
+     * @throws InterruptedException if the thread is interrupted while waiting for the install
+     */
+    private void processBatch(final Set<File> changed, final boolean rescan) throws InterruptedException {
+
+        final CourseTree base = this.owner.getCourseTree();
+        final CourseTree updated;
+        if (rescan) {
+            Log.info("Rescanning course media directory");
+            final CourseDir root = base.getRoot();
+            updated = CourseScanner.scan(root.getFile());
+        } else {
+            updated = CourseScanner.update(base, changed);
+        }
+        changed.clear();
+
+        // New directories are registered before the update is installed, and listed again in the next batch
+        registerAll(updated, changed);
+        install(base, updated, !rescan && this.allWatched);
+    }
+
+    /**
+     * Collects the changed directory from a signalled watch key, then resets the key.
+     *
+     * @param key     the key
+     * @param changed the set to which to add the changed directory
+     * @return true if the key reported an overflow (some events were lost)
+     */
+    private boolean collect(final WatchKey key, final Collection<? super File> changed) {
+
+        boolean overflow = false;
+
+        final File dir = this.watchedDirs.get(key);
+        final List<WatchEvent<?>> events = key.pollEvents();
+        for (final WatchEvent<?> event : events) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                Log.warning("File system events were lost; the course media directory will be rescanned");
+                overflow = true;
+            } else if (dir != null) {
+                changed.add(dir);
+            }
+        }
+
+        if (!key.reset()) {
+            // The directory is no longer accessible (usually because it was deleted)
+            this.watchedDirs.remove(key);
+            if (dir != null) {
+                this.registered.remove(dir);
+                final File parent = dir.getParentFile();
+                if (parent != null) {
+                    changed.add(parent);
+                }
+            }
+        }
+
+        return overflow;
+    }
+
+    /**
+     * Registers every directory in a tree that is not already registered, and notes whether every directory is now
+     * watched.
+     *
+     * @param tree            the tree
+     * @param newlyRegistered the collection to which to add the directories that were registered
+     */
+    private void registerAll(final CourseTree tree, final Collection<? super File> newlyRegistered) {
+
+        boolean all = this.watchService != null;
+
+        if (all) {
+            for (final CourseDir dir : tree.getDirectories()) {
+                final File file = dir.getFile();
+                if (dir.exists() && !this.registered.contains(file)) {
+                    final Path path = file.toPath();
+                    try {
+                        final WatchKey key = path.register(this.watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                                StandardWatchEventKinds.ENTRY_DELETE, StandardWatchEventKinds.ENTRY_MODIFY);
+                        this.watchedDirs.put(key, file);
+                        this.registered.add(file);
+                        newlyRegistered.add(file);
+                    } catch (final IOException ex) {
+                        Log.warning("Unable to watch ", file.getAbsolutePath(), ex);
+                        all = false;
+                    }
+                }
+            }
+        }
+
+        this.allWatched = all;
+    }
+
+    /**
+     * Installs an updated tree on the JavaFX application thread and waits for that to complete.
+     *
+     * @param base     the tree from which the update was computed
+     * @param updated  the updated tree
+     * @param complete true if the update reflects every change to the files in {@code base} (false for a
+     *                 revalidation, which can miss files rewritten in place, or if changes may have been missed)
+     * @throws InterruptedException if the thread is interrupted while waiting
+     */
+    private void install(final CourseTree base, final CourseTree updated, final boolean complete)
+            throws InterruptedException {
+
+        // An incomplete update can return the same tree while missing changes, so it is always recorded
+        this.owner.getChangeJournal().record(base, updated, complete);
+
+        if (updated != base) {
+            ScanSnapshot.save(updated);
+
+            final FutureTask<Void> task = new FutureTask<>(() -> this.owner.installTree(base, updated), null);
+            Platform.runLater(task);
+            try {
+                task.get();
+            } catch (final ExecutionException ex) {
+                Log.warning("Failed to install updated course tree", ex);
+            }
+        }
+    }
+
+    /**
+     * A request for the monitor thread.
+     *
+     * @param rescan true to rescan the whole tree; false to process only the pending batch
+     * @param done   the future to complete once the request has been handled
+     */
+    private record Request(boolean rescan, CompletableFuture<Void> done) {
+    }
+}
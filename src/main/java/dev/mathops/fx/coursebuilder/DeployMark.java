@@ -0,0 +1,12 @@
+package dev.mathops.fx.coursebuilder;
+
+/**
+ * A record in the {@code ChangeJournal} of a completed deploy: every change with a sequence number up to and including
+ * the mark's sequence number was deployed.
+ *
+ * @param target   the deploy target, like "media:/path/to/target"
+ * @param sequence the journal sequence number when the deploy started
+ * @param time     the time the deploy completed
+ */
+record DeployMark(String target, long sequence, long time) {
+}
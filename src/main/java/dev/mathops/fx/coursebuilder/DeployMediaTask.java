@@ -14,11 +14,19 @@ import javafx.scene.control.ProgressBar;
 import java.io.File;
 import java.net.URI;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 /**
  * A task that recursively copies student-facing media (video and PDF) files from a course media directory to a
  * destination directory that can then be copied to the video server.
+ *
+ * <p>
+ * If the change journal knows what changed since the last deploy to the same destination directory, only files added
+ * or modified since then are copied, without scanning the source directory.  The course watcher is flushed first, so
+ * changes it has seen but not yet applied are in the journal.  Otherwise, every file is copied.  Files
+ * deleted from the source are not removed from the destination in either case.
  */
 class DeployMediaTask extends Task<Integer> {
 
@@ -31,6 +39,15 @@ class DeployMediaTask extends Task<Integer> {
     /** The target directory. */
     private final File targetDir;
 
+    /** The change journal. */
+    private final ChangeJournal journal;
+
+    /** The course watcher that feeds the change journal. */
+    private final CourseWatcher watcher;
+
+    /** The number of files that could not be copied or created (accessed only by the task thread). */
+    private int numFailures = 0;
+
     /**
      * Constructs a new {@code DeployMediaTask}
      *
@@ -38,10 +55,13 @@ class DeployMediaTask extends Task<Integer> {
      * @param statusLabel     a label to update with status information
      * @param theSourceDir    the source directory
      * @param theTargetDir    the target directory
+     * @param theJournal      the change journal
+     * @param theWatcher      the course watcher that feeds the change journal
      * @param theHostServices the host services
      */
     DeployMediaTask(final ProgressBar progressBar, final Label statusLabel, final File theSourceDir,
-                    final File theTargetDir, final HostServices theHostServices) {
+                    final File theTargetDir, final ChangeJournal theJournal, final CourseWatcher theWatcher,
+                    final HostServices theHostServices) {
 
         super();
 
@@ -61,6 +81,8 @@ class DeployMediaTask extends Task<Integer> {
 
         this.sourceDir = theSourceDir;
         this.targetDir = theTargetDir;
+        this.journal = theJournal;
+        this.watcher = theWatcher;
 
         this.hostServices = theHostServices;
     }
@@ -73,14 +95,60 @@ class DeployMediaTask extends Task<Integer> {
     @Override
     protected Integer call() {
 
+        final String target = ChangeJournal.mediaTarget(this.targetDir);
+        updateMessage("Applying pending changes...");
+        this.watcher.flush();
+        final long startSequence = this.journal.beginDeploy();
+        boolean completed = false;
+
+        try {
+            final List<JournalEntry> changes = this.targetDir.isDirectory()
+                    ? this.journal.getChangesSince(target) : null;
+
+            if (changes == null) {
+                deployAll();
+            } else {
+                deployChanges(changes);
+            }
+            completed = !isCancelled() && this.numFailures == 0;
+        } finally {
+            this.journal.endDeploy(target, startSequence, completed);
+        }
+
+        if (this.numFailures == 0) {
+            Log.info("Deploy is finished.");
+            updateMessage(CoreConstants.EMPTY);
+        } else {
+            // The deploy is not marked complete, so the next deploy copies all files and retries these
+            Log.warning("Deploy is finished, but ", this.numFailures, " files could not be copied or created");
+            updateMessage("Deploy failed for " + this.numFailures + " files (see log); deploy again to retry them");
+        }
+        updateProgress(0.0, 100.0);
+
+        final URI uri = this.targetDir.toURI();
+        final String uriString = uri.toString();
+        this.hostServices.showDocument(uriString);
+
+        return null;
+    }
+
+    /**
+     * Scans the source directory and copies every student-facing file.
+     */
+    private void deployAll() {
+
         updateMessage("Scanning source directory...");
         updateProgress(0.0, 100.0);
 
         // Step 1: Count the number of student-facing files we will copy and collect their total size
         final long[] toCopy = new long[2];
-        final List<File> dirsToCopy = new ArrayList<>(100);
+        final Set<File> dirsToCopy = new HashSet<>(100);
         if (this.sourceDir.isDirectory()) {
-            scanSource(this.sourceDir, toCopy, dirsToCopy);
+            final DeploySourceScan scan = DeploySourceScan.scan(this.sourceDir, CourseRules::isMediaDeployed,
+                    name -> false);
+            toCopy[0] = scan.getNumToCopy();
+            toCopy[1] = scan.getBytesToCopy();
+            dirsToCopy.addAll(scan.getDirsToCopy());
         }
 
         Log.info("There are ", toCopy[0], " files spanning ", dirsToCopy.size(),
@@ -94,127 +162,58 @@ class DeployMediaTask extends Task<Integer> {
         if (this.sourceDir.isDirectory()) {
             copyFiles(this.sourceDir, this.targetDir, toCopy, finished, dirsToCopy);
         }
-
-        Log.info("Deploy is finished.");
-
-        updateMessage(CoreConstants.EMPTY);
-        updateProgress(0.0, 100.0);
-
-        final URI uri = this.targetDir.toURI();
-        final String uriString = uri.toString();
-        this.hostServices.showDocument(uriString);
-
-        return null;
     }
 
     /**
-     * Recursively scans a directory to count the number of files that need to be copied and their total size.
+     * Copies the student-facing files added or modified since the last deploy to the target directory.
      *
-     * @param dir        the directory
-     * @param statistics a two-long array whose first entry will be set to the number of files to copy, and whose second
-     *                   entry will be set to the total file size
-     * @param dirsToCopy a list to which to add all directories to be copied
-     * @return true if any files were found to copy; false if not
+     * @param changes the changes since the last deploy
      */
-    private static boolean scanSource(final File dir, final long[] statistics, final List<? super File> dirsToCopy) {
+    private void deployChanges(final List<JournalEntry> changes) {
 
-        boolean found = false;
+        final List<JournalEntry> toCopy = new ArrayList<>(changes.size());
+        long totalBytes = 0L;
 
-        final File[] files = dir.listFiles();
-        if (files != null) {
-            for (final File file : files) {
-                if (file.isDirectory()) {
-                    if (scanSource(file, statistics, dirsToCopy)) {
-                        found = true;
-                    }
-                } else if (isStudentFacing(file)) {
-                    ++statistics[0];
-                    statistics[1] += file.length();
-                    found = true;
+        for (final JournalEntry entry : changes) {
+            if (entry.kind() != EChangeKind.DELETED && CourseRules.isMediaDeployed(entry.name())) {
+                final File sourceFile = this.journal.resolve(entry);
+                if (sourceFile.isFile()) {
+                    toCopy.add(entry);
+                    totalBytes += sourceFile.length();
                 }
             }
-            if (found) {
-                dirsToCopy.add(dir);
-            }
         }
 
-        return found;
-    }
-
-    /**
-     * Tests whether a filename represents a "student-facing" file.
-     *
-     * @param file the file
-     * @return true if the file is "student-facing"
-     */
-    static boolean isStudentFacing(final File file) {
+        Log.info("There are ", toCopy.size(), " files changed since the last deploy to copy, with a total of ",
+                totalBytes, " bytes");
 
-        final String name = file.getName();
-
-        return "final.mp4".equals(name) || "final.txt".equals(name) || "example.pdf".equals(name)
-               || "notes.pdf".equals(name)
-               || (name.endsWith(".pdf") && (isContext(name) || isWorksheet(name)
-                                             || isPractice(name) || isAnswers(name) || isSolutions(name)));
-    }
-
-    /**
-     * Tests whether a name (known to end with ".pdf") is a "context_##.pdf" file.
-     *
-     * @param name the name
-     * @return true if this is a context file
-     */
-    private static boolean isContext(final String name) {
-
-        return name.length() == 14 && name.startsWith("context_")
-               && AppUtils.isAsciiDigit(name.charAt(8)) && AppUtils.isAsciiDigit(name.charAt(9));
-    }
-
-    /**
-     * Tests whether a name (known to end with ".pdf") is a "worksheet_##.pdf" file.
-     *
-     * @param name the name
-     * @return true if this is a worksheet file
-     */
-    private static boolean isWorksheet(final String name) {
-
-        return name.length() == 16 && name.startsWith("worksheet_")
-               && AppUtils.isAsciiDigit(name.charAt(10)) && AppUtils.isAsciiDigit(name.charAt(11));
-    }
-
-    /**
-     * Tests whether a name (known to end with ".pdf") is a "practice_##.pdf" file.
-     *
-     * @param name the name
-     * @return true if this is a practice file
-     */
-    private static boolean isPractice(final String name) {
-
-        return name.length() == 15 && name.startsWith("practice_")
-               && AppUtils.isAsciiDigit(name.charAt(9)) && AppUtils.isAsciiDigit(name.charAt(10));
-    }
+        updateMessage("Copying changed files...");
+        updateProgress(2.0, 100.0);
 
-    /**
-     * Tests whether a name (known to end with ".pdf") is a "answers_##.pdf" file.
-     *
-     * @param name the name
-     * @return true if this is a answers file
-     */
-    private static boolean isAnswers(final String name) {
+        long bytesCopied = 0L;
+        for (final JournalEntry entry : toCopy) {
+            if (isCancelled()) {
+                Log.info("Cancelled");
+                break;
+            }
 
-        return name.length() == 14 && name.startsWith("answers_")
-               && AppUtils.isAsciiDigit(name.charAt(8)) && AppUtils.isAsciiDigit(name.charAt(9));
-    }
+            final File sourceFile = this.journal.resolve(entry);
+            final File targetFile = new File(this.targetDir, entry.path());
+            final File targetParent = targetFile.getParentFile();
 
-    /**
-     * Tests whether a name (known to end with ".pdf") is a "solution_##.pdf" file.
-     *
-     * @param name the name
-     * @return true if this is a solutions file
-     */
-    private static boolean isSolutions(final String name) {
+            if (targetParent.exists() || targetParent.mkdirs()) {
+                if (!AppUtils.copyFile(sourceFile, targetFile)) {
+                    ++this.numFailures;
+                }
+                bytesCopied += sourceFile.length();
 
-        return name.length() == 15 && name.startsWith("solution_")
-               && AppUtils.isAsciiDigit(name.charAt(9)) && AppUtils.isAsciiDigit(name.charAt(10));
+                final double percentage = 2.0 + (double) bytesCopied * 98.0 / (double) Math.max(1L, totalBytes);
+                updateProgress(Math.min(100.0, percentage), 100.0);
+            } else {
+                Log.warning("Failed to create directory: ", targetParent.getAbsolutePath());
+                ++this.numFailures;
+            }
+        }
     }
 
     /**
@@ -226,36 +225,37 @@ class DeployMediaTask extends Task<Integer> {
      *                   contains the total file size to copy
      * @param finished   a two-long array whose first entry with the number of files copied so far, and whose second
      *                   entry has total bytes copied so far, to be updated by this method as files are copied
-     * @param dirsToCopy a list of directories to copy
+     * @param dirsToCopy the set of directories to copy
      */
     private void copyFiles(final File sourceDir, final File targetDir, final long[] toCopy,
-                           final long[] finished, final List<File> dirsToCopy) {
+                           final long[] finished, final Set<File> dirsToCopy) {
 
         if (isCancelled()) {
             Log.info("Cancelled");
         } else {
-            final File[] files = sourceDir.listFiles();
-            if (files != null) {
-                for (final File sourceFile : files) {
-
-                    if (sourceFile.isDirectory()) {
-                        if (dirsToCopy.contains(sourceFile)) {
-                            final File targetFile = new File(targetDir, sourceFile.getName());
-                            copyFiles(sourceFile, targetFile, toCopy, finished, dirsToCopy);
-                        }
-                    } else if (isStudentFacing(sourceFile)) {
-                        if (targetDir.exists() || targetDir.mkdirs()) {
-                            final File targetFile = new File(targetDir, sourceFile.getName());
-                            AppUtils.copyFile(sourceFile, targetFile);
-
-                            ++finished[0];
-                            finished[1] += sourceFile.length();
-
-                            final double percentage = 2.0 + (double) finished[1] * 98.0 / toCopy[1];
-                            updateProgress(Math.min(100.0, percentage), 100.0);
-                        } else {
-                            // TODO: Show error: failed to create directory
+            for (final DirEntry entry : DirectoryReader.list(sourceDir)) {
+                final File sourceFile = entry.file();
+
+                if (entry.directory()) {
+                    if (dirsToCopy.contains(sourceFile)) {
+                        final File targetFile = new File(targetDir, entry.name());
+                        copyFiles(sourceFile, targetFile, toCopy, finished, dirsToCopy);
+                    }
+                } else if (CourseRules.isMediaDeployed(entry.name())) {
+                    if (targetDir.exists() || targetDir.mkdirs()) {
+                        final File targetFile = new File(targetDir, entry.name());
+                        if (!AppUtils.copyFile(sourceFile, targetFile)) {
+                            ++this.numFailures;
                         }
+
+                        ++finished[0];
+                        finished[1] += entry.size();
+
+                        final double percentage = 2.0 + (double) finished[1] * 98.0 / toCopy[1];
+                        updateProgress(Math.min(100.0, percentage), 100.0);
+                    } else {
+                        Log.warning("Failed to create directory: ", targetDir.getAbsolutePath());
+                        ++this.numFailures;
                     }
                 }
             }
@@ -0,0 +1,184 @@
+package dev.mathops.fx.coursebuilder;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+
+/**
+ * The result of scanning a source directory before a deploy: the number and total size of the files to be copied, the
+ * number of other files to be counted (like media files for which the web deploy creates sentinels), and the set of
+ * directories that contain files to be copied (directly or in a subdirectory).
+ *
+ * <p>
+ * Each directory is scanned by its own task on the {@code ScanExecutor}, with listings limited by the semaphore for the
+ * source directory's volume.
+ */
+final class DeploySourceScan {
+
+    /** A test of whether a file (by name) is to be copied. */
+    private final Predicate<String> copied;
+
+    /** A test of whether a file (by name) that is not copied is to be counted. */
+    private final Predicate<String> counted;
+
+    /** The semaphore that limits concurrent file system calls to the volume being scanned. */
+    private final Semaphore permits;
+
+    /** The number of files to copy. */
+    private final LongAdder numToCopy;
+
+    /** The total size of the files to copy. */
+    private final LongAdder bytesToCopy;
+
+    /** The number of other files counted. */
+    private final LongAdder numCounted;
+
+    /** The directories that contain files to copy, directly or in a subdirectory. */
+    private final Set<File> dirsToCopy;
+
+    /**
+     * Constructs a new {@code DeploySourceScan}.
+     *
+     * @param theCopied  a test of whether a file (by name) is to be copied
+     * @param theCounted a test of whether a file (by name) that is not copied is to be counted
+     * @param thePermits the semaphore that limits concurrent file system calls to the volume being scanned
+     */
+    private DeploySourceScan(final Predicate<String> theCopied, final Predicate<String> theCounted,
+                             final Semaphore thePermits) {
+
+        super();
+
+        this.copied = theCopied;
+        this.counted = theCounted;
+        this.permits = thePermits;
+        this.numToCopy = new LongAdder();
+        this.bytesToCopy = new LongAdder();
+        this.numCounted = new LongAdder();
+        this.dirsToCopy = ConcurrentHashMap.newKeySet(100);
+    }
+
+    /**
+     * Scans a source directory and all its subdirectories.
+     *
+     * @param dir     the source directory
+     * @param copied  a test of whether a file (by name) is to be copied
+     * @param counted a test of whether a file (by name) that is not copied is to be counted
+     * @return the result of the scan
+     */
+    static DeploySourceScan scan(final File dir, final Predicate<String> copied, final Predicate<String> counted) {
+
+        final Semaphore permits = ScanExecutor.permitsFor(dir);
+        final DeploySourceScan result = new DeploySourceScan(copied, counted, permits);
+
+        ScanExecutor.invoke(result.new DirTask(dir));
+
+        return result;
+    }
+
+    /**
+     * Gets the number of files to copy.
+     *
+     * @return the number of files
+     */
+    long getNumToCopy() {
+
+        return this.numToCopy.sum();
+    }
+
+    /**
+     * Gets the total size of the files to copy.
+     *
+     * @return the total size, in bytes
+     */
+    long getBytesToCopy() {
+
+        return this.bytesToCopy.sum();
+    }
+
+    /**
+     * Gets the number of other files counted.
+     *
+     * @return the number of files
+     */
+    long getNumCounted() {
+
+        return this.numCounted.sum();
+    }
+
+    /**
+     * Gets the directories that contain files to copy, directly or in a subdirectory.
+     *
+     * @return the set of directories
+     */
+    Set<File> getDirsToCopy() {
+
+        return this.dirsToCopy;
+    }
+
+    /**
+     * A task that scans one directory and returns true if any files were found to copy in it or its subdirectories.
+     */
+    private final class DirTask implements Callable<Boolean> {
+
+        /** The directory. */
+        private final File dir;
+
+        /**
+         * Constructs a new {@code DirTask}.
+         *
+         * @param theDir the directory
+         */
+        DirTask(final File theDir) {
+
+            super();
+
+            this.dir = theDir;
+        }
+
+        /**
+         * Scans the directory.
+         *
+         * @return {@code Boolean.TRUE} if any files were found to copy
+         */
+        @Override
+        public Boolean call() {
+
+            final List<DirEntry> list = ScanExecutor.list(this.dir, DeploySourceScan.this.permits);
+            final List<Future<Boolean>> subtasks = new ArrayList<>(list.size());
+
+            boolean found = false;
+
+            for (final DirEntry entry : list) {
+                final String name = entry.name();
+                if (entry.directory()) {
+                    subtasks.add(ScanExecutor.submit(new DirTask(entry.file())));
+                } else if (DeploySourceScan.this.copied.test(name)) {
+                    DeploySourceScan.this.numToCopy.increment();
+                    DeploySourceScan.this.bytesToCopy.add(entry.size());
+                    found = true;
+                } else if (DeploySourceScan.this.counted.test(name)) {
+                    DeploySourceScan.this.numCounted.increment();
+                }
+            }
+
+            for (final Future<Boolean> subtask : subtasks) {
+                if (ScanExecutor.join(subtask).booleanValue()) {
+                    found = true;
+                }
+            }
+
+            if (found) {
+                DeploySourceScan.this.dirsToCopy.add(this.dir);
+            }
+
+            return Boolean.valueOf(found);
+        }
+    }
+}
@@ -15,12 +15,25 @@ import java.io.File;
 import java.io.IOException;
 import java.net.URI;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 /**
  * A task that recursively copies files needed for the course delivery website to a destination directory.  This
  * includes metadata files, VTT closed captions, and sentinel files for all media files that will exist on the media
  * server.
+ *
+ * <p>
+ * If the change journal knows what changed since the last deploy to the same destination directory, only files added
+ * or modified since then are copied (and sentinels created for media files added or modified since then), without
+ * scanning the source directory.  The course watcher is flushed first, so changes it has seen but not yet applied are
+ * in the journal.  Otherwise, every file is copied.  Files deleted from the source are not removed from
+ * the destination in either case.
+ *
+ * <p>
+ * When the deploy completes, the scanned course model is exported to the root of the destination directory as a single
+ * file (see {@code CourseModelExport}).
  */
 class DeployWebTask extends Task<Integer> {
 
@@ -33,6 +46,15 @@ class DeployWebTask extends Task<Integer> {
     /** The target directory. */
     private final File targetDir;
 
+    /** The change journal. */
+    private final ChangeJournal journal;
+
+    /** The course watcher that feeds the change journal. */
+    private final CourseWatcher watcher;
+
+    /** The number of files that could not be copied or created (accessed only by the task thread). */
+    private int numFailures = 0;
+
     /**
      * Constructs a new {@code DeployWebTask}
      *
@@ -40,10 +62,13 @@ class DeployWebTask extends Task<Integer> {
      * @param statusLabel     a label to update with status information
      * @param theSourceDir    the source directory
      * @param theTargetDir    the target directory
+     * @param theJournal      the change journal
+     * @param theWatcher      the course watcher that feeds the change journal
      * @param theHostServices the host services
      */
     DeployWebTask(final ProgressBar progressBar, final Label statusLabel, final File theSourceDir,
-                  final File theTargetDir, final HostServices theHostServices) {
+                  final File theTargetDir, final ChangeJournal theJournal, final CourseWatcher theWatcher,
+                  final HostServices theHostServices) {
 
         super();
 
@@ -63,6 +88,8 @@ class DeployWebTask extends Task<Integer> {
 
         this.sourceDir = theSourceDir;
         this.targetDir = theTargetDir;
+        this.journal = theJournal;
+        this.watcher = theWatcher;
 
         this.hostServices = theHostServices;
     }
@@ -75,14 +102,87 @@ class DeployWebTask extends Task<Integer> {
     @Override
     protected Integer call() {
 
+        final String target = ChangeJournal.webTarget(this.targetDir);
+        updateMessage("Applying pending changes...");
+        final CourseTree tree = this.watcher.flush();
+        final long startSequence = this.journal.beginDeploy();
+        boolean completed = false;
+
+        try {
+            final List<JournalEntry> changes = this.targetDir.isDirectory()
+                    ? this.journal.getChangesSince(target) : null;
+
+            if (changes == null) {
+                deployAll();
+            } else {
+                deployChanges(changes);
+            }
+            if (!isCancelled() && this.numFailures == 0) {
+                exportModel(tree);
+            }
+            completed = !isCancelled() && this.numFailures == 0;
+        } finally {
+            this.journal.endDeploy(target, startSequence, completed);
+        }
+
+        if (this.numFailures == 0) {
+            Log.info("Deploy is finished.");
+            updateMessage(CoreConstants.EMPTY);
+        } else {
+            // The deploy is not marked complete, so the next deploy copies all files and retries these
+            Log.warning("Deploy is finished, but ", this.numFailures, " files could not be copied or created");
+            updateMessage("Deploy failed for " + this.numFailures + " files (see log); deploy again to retry them");
+        }
+        updateProgress(0.0, 100.0);
+
+        final URI uri = this.targetDir.toURI();
+        final String uriString = uri.toString();
+        this.hostServices.showDocument(uriString);
+
+        return null;
+    }
+
+    /**
+     * Exports the course model to the target directory.  Nothing is exported if the source directory has not yet been
+     * scanned.
+     *
+     * @param tree the scanned model of the source directory
+     */
+    private void exportModel(final CourseTree tree) {
+
+        final CourseDir root = tree.getRoot();
+
+        if (root.exists() && root.getFile().equals(this.sourceDir)) {
+            updateMessage("Exporting course model...");
+            if (!(this.targetDir.exists() || this.targetDir.mkdirs())) {
+                Log.warning("Failed to create directory: ", this.targetDir.getAbsolutePath());
+                ++this.numFailures;
+            } else if (!CourseModelExport.write(tree, this.targetDir)) {
+                ++this.numFailures;
+            }
+        } else {
+            Log.warning("Course model not exported: the source directory has not been scanned");
+        }
+    }
+
+    /**
+     * Scans the source directory, copies every web file, and creates a sentinel for every student-facing media file.
+     */
+    private void deployAll() {
+
         updateMessage("Scanning source directory...");
         updateProgress(0.0, 100.0);
 
         // Step 1: Count the number of student-facing files we will copy and collect their total size
         final long[] toCopy = new long[3];
-        final List<File> dirsToCopy = new ArrayList<>(100);
+        final Set<File> dirsToCopy = new HashSet<>(100);
         if (this.sourceDir.isDirectory()) {
-            scanSource(this.sourceDir, toCopy, dirsToCopy);
+            final DeploySourceScan scan = DeploySourceScan.scan(this.sourceDir, CourseRules::isWebDeployed,
+                    CourseRules::isMediaDeployed);
+            toCopy[0] = scan.getNumToCopy();
+            toCopy[1] = scan.getNumCounted();
+            toCopy[2] = scan.getBytesToCopy();
+            dirsToCopy.addAll(scan.getDirsToCopy());
         }
 
         Log.info("There are ", toCopy[0], " files spanning ", dirsToCopy.size(), " directories to copy and ", toCopy[1],
@@ -99,68 +199,89 @@ class DeployWebTask extends Task<Integer> {
             finished[1] = toCopy[1];
             createSentinels(this.sourceDir, this.targetDir, finished);
         }
-
-        Log.info("Deploy is finished.");
-
-        updateMessage(CoreConstants.EMPTY);
-        updateProgress(0.0, 100.0);
-
-        final URI uri = this.targetDir.toURI();
-        final String uriString = uri.toString();
-        this.hostServices.showDocument(uriString);
-
-        return null;
     }
 
     /**
-     * Recursively scans a directory to count the number of files that need to be copied and their total size.
+     * Copies the web files added or modified since the last deploy to the target directory, and creates sentinels for
+     * the student-facing media files added or modified since then.
      *
-     * @param dir        the directory
-     * @param statistics a three-long array whose first entry will be set to the number of files to copy, whose second
-     *                   entry will be set to the number of sentinel files to be created, and whose third entry will be
-     *                   set to the total file size
-     * @param dirsToCopy a list to which to add all directories to be copied
-     * @return true if any files were found to copy; false if not
+     * @param changes the changes since the last deploy
      */
-    private static boolean scanSource(final File dir, final long[] statistics, final List<? super File> dirsToCopy) {
+    private void deployChanges(final List<JournalEntry> changes) {
+
+        final List<JournalEntry> toCopy = new ArrayList<>(changes.size());
+        final List<JournalEntry> sentinels = new ArrayList<>(changes.size());
+
+        for (final JournalEntry entry : changes) {
+            if (entry.kind() != EChangeKind.DELETED) {
+                final String name = entry.name();
+                if (CourseRules.isWebDeployed(name)) {
+                    toCopy.add(entry);
+                } else if (CourseRules.isMediaDeployed(name)) {
+                    sentinels.add(entry);
+                }
+            }
+        }
 
-        boolean found = false;
+        Log.info("There are ", toCopy.size(), " files changed since the last deploy to copy and ", sentinels.size(),
+                " sentinel files to create");
 
-        final File[] files = dir.listFiles();
-        if (files != null) {
-            for (final File file : files) {
-                if (file.isDirectory()) {
-                    if (scanSource(file, statistics, dirsToCopy)) {
-                        found = true;
-                    }
-                } else if (isWebContent(file)) {
-                    ++statistics[0];
-                    statistics[2] += file.length();
-                    found = true;
-                } else if (DeployMediaTask.isStudentFacing(file)) {
-                    ++statistics[1];
-                }
+        updateMessage("Copying changed files...");
+        updateProgress(2.0, 100.0);
+
+        final int total = Math.max(1, toCopy.size() + sentinels.size());
+        int done = 0;
+
+        for (final JournalEntry entry : toCopy) {
+            if (isCancelled()) {
+                Log.info("Cancelled");
+                break;
             }
-            if (found) {
-                dirsToCopy.add(dir);
+
+            final File sourceFile = this.journal.resolve(entry);
+            final File targetFile = new File(this.targetDir, entry.path());
+            final File targetParent = targetFile.getParentFile();
+
+            if (!sourceFile.isFile()) {
+                Log.warning("Changed file no longer exists: ", sourceFile.getAbsolutePath());
+            } else if (targetParent.exists() || targetParent.mkdirs()) {
+                if (!AppUtils.copyFile(sourceFile, targetFile)) {
+                    ++this.numFailures;
+                }
+            } else {
+                Log.warning("Failed to create directory: ", targetParent.getAbsolutePath());
+                ++this.numFailures;
             }
+
+            ++done;
+            updateProgress(2.0 + (double) done * 98.0 / (double) total, 100.0);
         }
 
-        return found;
-    }
+        for (final JournalEntry entry : sentinels) {
+            if (isCancelled()) {
+                Log.info("Cancelled");
+                break;
+            }
 
-    /**
-     * Tests whether a filename represents a "web content" file.
-     *
-     * @param file the file
-     * @return true if the file is "web content"
-     */
-    private static boolean isWebContent(final File file) {
+            final File targetFile = new File(this.targetDir, entry.path());
+            final File targetParent = targetFile.getParentFile();
 
-        final String name = file.getName();
+            if (targetParent.exists() || targetParent.mkdirs()) {
+                try {
+                    targetFile.createNewFile();
+                } catch (final IOException ex) {
+                    Log.warning("Failed to create sentinel file: ", targetFile.getAbsolutePath());
+                    Log.warning(ex);
+                    ++this.numFailures;
+                }
+            } else {
+                Log.warning("Failed to create directory for sentinel file: ", targetParent.getAbsolutePath());
+                ++this.numFailures;
+            }
 
-        return "final.vtt".equals(name) || "metadata.json".equals(name) || "thumb.png".equals(name)
-               || "thumb.jpg".equals(name) || "thumb.jpeg".equals(name);
+            ++done;
+            updateProgress(2.0 + (double) done * 98.0 / (double) total, 100.0);
+        }
     }
 
     /**
@@ -172,36 +293,37 @@ class DeployWebTask extends Task<Integer> {
      *                   entry contains the total file size to copy
      * @param finished   a two-long array whose first entry with the number of files copied so far, and whose second
      *                   entry has total bytes copied so far, to be updated by this method as files are copied
-     * @param dirsToCopy a list of directories to copy
+     * @param dirsToCopy the set of directories to copy
      */
     private void copyFiles(final File sourceDir, final File targetDir, final long[] toCopy,
-                           final long[] finished, final List<File> dirsToCopy) {
+                           final long[] finished, final Set<File> dirsToCopy) {
 
         if (isCancelled()) {
             Log.info("Cancelled");
         } else {
-            final File[] files = sourceDir.listFiles();
-
-            if (files != null) {
-                for (final File sourceFile : files) {
-                    if (sourceFile.isDirectory()) {
-                        if (dirsToCopy.contains(sourceFile)) {
-                            final File targetFile = new File(targetDir, sourceFile.getName());
-                            copyFiles(sourceFile, targetFile, toCopy, finished, dirsToCopy);
+            for (final DirEntry entry : DirectoryReader.list(sourceDir)) {
+                final File sourceFile = entry.file();
+
+                if (entry.directory()) {
+                    if (dirsToCopy.contains(sourceFile)) {
+                        final File targetFile = new File(targetDir, entry.name());
+                        copyFiles(sourceFile, targetFile, toCopy, finished, dirsToCopy);
+                    }
+                } else if (CourseRules.isWebDeployed(entry.name())) {
+                    if (targetDir.exists() || targetDir.mkdirs()) {
+                        final File targetFile = new File(targetDir, entry.name());
+                        if (!AppUtils.copyFile(sourceFile, targetFile)) {
+                            ++this.numFailures;
                         }
-                    } else if (isWebContent(sourceFile)) {
-                        if (targetDir.exists() || targetDir.mkdirs()) {
-                            final File targetFile = new File(targetDir, sourceFile.getName());
-                            AppUtils.copyFile(sourceFile, targetFile);
 
-                            ++finished[0];
-                            finished[1] += sourceFile.length();
+                        ++finished[0];
+                        finished[1] += entry.size();
 
-                            final double percentage = 2.0 + (double) finished[1] * 52.0 / toCopy[2];
-                            updateProgress(Math.min(100.0, percentage), 100.0);
-                        } else {
-                            // TODO: Show error: failed to create directory
-                        }
+                        final double percentage = 2.0 + (double) finished[1] * 52.0 / toCopy[2];
+                        updateProgress(Math.min(100.0, percentage), 100.0);
+                    } else {
+                        Log.warning("Failed to create directory: ", targetDir.getAbsolutePath());
+                        ++this.numFailures;
                     }
                 }
             }
@@ -222,31 +344,29 @@ class DeployWebTask extends Task<Integer> {
         if (isCancelled()) {
             Log.info("Cancelled");
         } else {
-            final File[] files = sourceDir.listFiles();
-
-            if (files != null) {
-                for (final File sourceFile : files) {
-                    if (sourceFile.isDirectory()) {
-                        final File targetFile = new File(targetDir, sourceFile.getName());
-                        createSentinels(sourceFile, targetFile, finished);
-                    } else if (DeployMediaTask.isStudentFacing(sourceFile)) {
-                        if (targetDir.exists() || targetDir.mkdirs()) {
-                            final File targetFile = new File(targetDir, sourceFile.getName());
-                            try {
-                                targetFile.createNewFile();
-                                ++finished[0];
-
-                                final double percentage = 52.0 + (double) finished[0] * 48.0 / finished[1];
-                                updateProgress(Math.min(100.0, percentage), 100.0);
-                            } catch (final IOException ex) {
-                                Log.warning("Failed to create sentinel file: ", targetFile.getAbsolutePath());
-                                // TODO: Show error: failed to create sentinel file
-                                Log.warning(ex);
-                            }
-                        } else {
-                            Log.warning("Failed to create directory for sentinel file: ", targetDir.getAbsolutePath());
-                            // TODO: Show error: failed to create sentinel file
+            for (final DirEntry entry : DirectoryReader.list(sourceDir)) {
+                final File sourceFile = entry.file();
+
+                if (entry.directory()) {
+                    final File targetFile = new File(targetDir, entry.name());
+                    createSentinels(sourceFile, targetFile, finished);
+                } else if (CourseRules.isMediaDeployed(entry.name())) {
+                    if (targetDir.exists() || targetDir.mkdirs()) {
+                        final File targetFile = new File(targetDir, entry.name());
+                        try {
+                            targetFile.createNewFile();
+                            ++finished[0];
+
+                            final double percentage = 52.0 + (double) finished[0] * 48.0 / finished[1];
+                            updateProgress(Math.min(100.0, percentage), 100.0);
+                        } catch (final IOException ex) {
+                            Log.warning("Failed to create sentinel file: ", targetFile.getAbsolutePath());
+                            Log.warning(ex);
+                            ++this.numFailures;
                         }
+                    } else {
+                        Log.warning("Failed to create directory for sentinel file: ", targetDir.getAbsolutePath());
+                        ++this.numFailures;
                     }
                 }
             }
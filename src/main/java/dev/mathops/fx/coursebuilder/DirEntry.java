@@ -0,0 +1,16 @@
+package dev.mathops.fx.coursebuilder;
+
+import java.io.File;
+
+/**
+ * An entry read from a directory by {@code DirectoryReader}, with its type, size, and modification date captured when
+ * the directory was read.
+ *
+ * @param file         the file or directory
+ * @param name         the entry name
+ * @param directory    true if the entry is a directory
+ * @param size         the size in bytes (not meaningful for a directory)
+ * @param lastModified the last modification date, in milliseconds since the epoch
+ */
+record DirEntry(File file, String name, boolean directory, long size, long lastModified) {
+}
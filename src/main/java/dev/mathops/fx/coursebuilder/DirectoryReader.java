@@ -0,0 +1,342 @@
+package dev.mathops.fx.coursebuilder;
+
+import dev.mathops.commons.log.Log;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.FileVisitOption;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.NotDirectoryException;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The one place the application reads directories.  Directories are listed with {@code Files.walkFileTree} limited to
+ * a depth of 1, which hands each entry's type, size, and modification date to the visitor as
+ * {@code BasicFileAttributes}, rather than with the separate {@code isDirectory}, {@code length}, and
+ * {@code lastModified} queries (one file system call each) that {@code File.listFiles} would require.  Where the
+ * directory listing itself carries the attributes (as it does on Windows), the walker uses them without any
+ * per-entry query; this matters most on OneDrive and network volumes, where every query is a round trip.  Elsewhere
+ * the walker makes one query per entry.
+ *
+ * <p>
+ * Counters record how many directories and entries have been read, how many directories could not be read, and how
+ * many attribute queries this class makes itself (to follow symbolic links, whose own attributes are what the walker
+ * reports).  This class is thread-safe.
+ */
+enum DirectoryReader {
+    ;
+
+    /** The number of directories read. */
+    private static final AtomicLong DIRECTORIES_READ = new AtomicLong(0L);
+
+    /** The number of entries read. */
+    private static final AtomicLong ENTRIES_READ = new AtomicLong(0L);
+
+    /** The number of directories that could not be read. */
+    private static final AtomicLong DIRECTORIES_UNREADABLE = new AtomicLong(0L);
+
+    /** The number of attribute queries made by this class (to follow symbolic links). */
+    private static final AtomicLong ATTRIBUTE_QUERIES = new AtomicLong(0L);
+
+    /**
+     * Lists a directory, with the attributes of each entry.  Symbolic links are followed (as with {@code File}).
+     * Entries that vanish while the directory is being read are omitted.  If the directory cannot be read in full, no
+     * partial listing is returned.
+     *
+     * @param dir the directory
+     * @return the entries, in no particular order (empty if the directory does not exist or cannot be read)
+     */
+    static List<DirEntry> list(final File dir) {
+
+        final Path dirPath = dir.toPath();
+        final ListingVisitor visitor = new ListingVisitor(dirPath);
+
+        try {
+            Files.walkFileTree(dirPath, EnumSet.noneOf(FileVisitOption.class), 1, visitor);
+        } catch (final IOException ex) {
+            visitor.failure = ex;
+        }
+
+        List<DirEntry> result = visitor.entries;
+
+        if (visitor.failure != null) {
+            Log.warning("Unable to read directory ", dir.getAbsolutePath(), visitor.failure);
+            DIRECTORIES_UNREADABLE.incrementAndGet();
+            result = new ArrayList<>(0);
+        } else if (visitor.found) {
+            DIRECTORIES_READ.incrementAndGet();
+            ENTRIES_READ.addAndGet((long) result.size());
+        }
+
+        return result;
+    }
+
+    /**
+     * Recursively counts the files in a directory in a single walk of the tree.
+     *
+     * @param dir the directory
+     * @return the number of files and directories, including the directory itself
+     */
+    static int countFiles(final File dir) {
+
+        final CountingVisitor visitor = new CountingVisitor();
+        final Path dirPath = dir.toPath();
+
+        try {
+            Files.walkFileTree(dirPath, visitor);
+        } catch (final IOException ex) {
+            Log.warning("Unable to count files in ", dir.getAbsolutePath(), ex);
+        }
+
+        return Math.max(1, visitor.count);
+    }
+
+    /**
+     * Creates an entry from a path and its attributes.
+     *
+     * @param path  the path
+     * @param attrs the attributes
+     * @return the entry
+     */
+    private static DirEntry makeEntry(final Path path, final BasicFileAttributes attrs) {
+
+        final File file = path.toFile();
+        final String name = file.getName();
+        final boolean directory = attrs.isDirectory();
+        final long size = attrs.size();
+        final long lastModified = attrs.lastModifiedTime().toMillis();
+
+        return new DirEntry(file, name, directory, size, lastModified);
+    }
+
+    /**
+     * Gets the number of directories read.
+     *
+     * @return the number of directories
+     */
+    static long getDirectoriesRead() {
+
+        return DIRECTORIES_READ.get();
+    }
+
+    /**
+     * Gets the number of entries read.
+     *
+     * @return the number of entries
+     */
+    static long getEntriesRead() {
+
+        return ENTRIES_READ.get();
+    }
+
+    /**
+     * Gets the number of directories that could not be read.
+     *
+     * @return the number of directories
+     */
+    static long getDirectoriesUnreadable() {
+
+        return DIRECTORIES_UNREADABLE.get();
+    }
+
+    /**
+     * Gets the number of attribute queries made by this class to follow symbolic links.  This does not include any
+     * queries the walker makes on platforms whose directory listings do not carry attributes.
+     *
+     * @return the number of queries
+     */
+    static long getAttributeQueries() {
+
+        return ATTRIBUTE_QUERIES.get();
+    }
+
+    /**
+     * A file visitor that collects the entries of a single directory (walked to a depth of 1, so every entry,
+     * including subdirectories, is passed to {@code visitFile}).
+     */
+    private static final class ListingVisitor extends SimpleFileVisitor<Path> {
+
+        /** The directory being listed. */
+        private final Path dir;
+
+        /** The entries found. */
+        final List<DirEntry> entries;
+
+        /** True once the directory has been found and opened. */
+        boolean found = false;
+
+        /** The error that prevented the directory from being read in full; null if none. */
+        IOException failure = null;
+
+        /**
+         * Constructs a new {@code ListingVisitor}.
+         *
+         * @param theDir the directory being listed
+         */
+        ListingVisitor(final Path theDir) {
+
+            super();
+
+            this.dir = theDir;
+            this.entries = new ArrayList<>(20);
+        }
+
+        /**
+         * Called before the entries of the directory are visited.
+         *
+         * @param path  the directory
+         * @param attrs the directory's attributes
+         * @return {@code CONTINUE}
+         */
+        @Override
+        public FileVisitResult preVisitDirectory(final Path path, final BasicFileAttributes attrs) {
+
+            this.found = true;
+
+            return FileVisitResult.CONTINUE;
+        }
+
+        /**
+         * Called for each entry.  If the directory being listed is not a directory, it is itself passed here, and is
+         * treated as an empty directory (as {@code File.listFiles} would, by returning null).
+         *
+         * @param path  the entry
+         * @param attrs the entry's attributes (not following symbolic links)
+         * @return {@code CONTINUE}, or {@code TERMINATE} if a symbolic link could not be followed
+         */
+        @Override
+        public FileVisitResult visitFile(final Path path, final BasicFileAttributes attrs) {
+
+            FileVisitResult result = FileVisitResult.CONTINUE;
+
+            if (!path.equals(this.dir)) {
+                if (attrs.isSymbolicLink()) {
+                    try {
+                        ATTRIBUTE_QUERIES.incrementAndGet();
+                        final BasicFileAttributes target = Files.readAttributes(path, BasicFileAttributes.class);
+                        this.entries.add(makeEntry(path, target));
+                    } catch (final NoSuchFileException ex) {
+                        // The link is broken, or was deleted after the directory was listed - omit it
+                    } catch (final IOException ex) {
+                        this.failure = ex;
+                        result = FileVisitResult.TERMINATE;
+                    }
+                } else {
+                    this.entries.add(makeEntry(path, attrs));
+                }
+            }
+
+            return result;
+        }
+
+        /**
+         * Called when the directory cannot be opened, or an entry's attributes cannot be read.
+         *
+         * @param path the directory or entry
+         * @param exc  the exception
+         * @return {@code CONTINUE} if the entry was deleted after the directory was listed (it is omitted), or the
+         *         directory does not exist (it is treated as empty); {@code TERMINATE} otherwise
+         */
+        @Override
+        public FileVisitResult visitFileFailed(final Path path, final IOException exc) {
+
+            FileVisitResult result = FileVisitResult.CONTINUE;
+
+            if (!(exc instanceof NoSuchFileException || exc instanceof NotDirectoryException)) {
+                this.failure = exc;
+                result = FileVisitResult.TERMINATE;
+            }
+
+            return result;
+        }
+
+        /**
+         * Called after the entries of the directory have been visited, or when iterating over them failed (the walker
+         * reports a {@code DirectoryIteratorException} from the listing here, as its cause).
+         *
+         * @param path the directory
+         * @param exc  the exception that ended the iteration; null if it completed
+         * @return {@code CONTINUE}
+         */
+        @Override
+        public FileVisitResult postVisitDirectory(final Path path, final IOException exc) {
+
+            if (exc != null) {
+                this.failure = exc;
+            }
+
+            return FileVisitResult.CONTINUE;
+        }
+    }
+
+    /**
+     * A file visitor that counts the files and directories it visits.  Entries that cannot be read are skipped.
+     */
+    private static final class CountingVisitor extends SimpleFileVisitor<Path> {
+
+        /** The number of files and directories visited. */
+        int count = 0;
+
+        /**
+         * Constructs a new {@code CountingVisitor}.
+         */
+        CountingVisitor() {
+
+            super();
+        }
+
+        /**
+         * Called before the entries of a directory are visited.
+         *
+         * @param dir   the directory
+         * @param attrs the directory's attributes
+         * @return {@code CONTINUE}
+         */
+        @Override
+        public FileVisitResult preVisitDirectory(final Path dir, final BasicFileAttributes attrs) {
+
+            ++this.count;
+            DIRECTORIES_READ.incrementAndGet();
+            ENTRIES_READ.incrementAndGet();
+
+            return FileVisitResult.CONTINUE;
+        }
+
+        /**
+         * Called for each file.
+         *
+         * @param file  the file
+         * @param attrs the file's attributes
+         * @return {@code CONTINUE}
+         */
+        @Override
+        public FileVisitResult visitFile(final Path file, final BasicFileAttributes attrs) {
+
+            ++this.count;
+            ENTRIES_READ.incrementAndGet();
+
+            return FileVisitResult.CONTINUE;
+        }
+
+        /**
+         * Called when a file cannot be visited.
+         *
+         * @param file the file
+         * @param exc  the exception
+         * @return {@code CONTINUE}
+         */
+        @Override
+        public FileVisitResult visitFileFailed(final Path file, final IOException exc) {
+
+            return FileVisitResult.CONTINUE;
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package dev.mathops.fx.coursebuilder;
+
+import java.io.File;
+
+/**
+ * A row to be presented in a list of documents, recorded when a directory is classified so the controls for the row
+ * can be built later, when the content that holds the list is first shown.
+ *
+ * @param file  the file
+ * @param icon  the icon filename
+ * @param label the label text
+ * @param red   true to present the row label in a red font to indicate a warning
+ */
+record DocumentRow(File file, String icon, String label, boolean red) {
+}
@@ -0,0 +1,199 @@
+package dev.mathops.fx.coursebuilder;
+
+import dev.mathops.commons.log.Log;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Finds asset files (images, drawings, slides, and PDFs) with identical contents anywhere in the course, so copies
+ * made into many example and lesson directories can be found and consolidated.
+ *
+ * <p>
+ * Files are first grouped by size from the course tree, without touching the file system; only files that share a
+ * size with another asset are hashed.  Hashing runs on the {@code ScanExecutor}, holding a permit from the course
+ * volume's semaphore while each file is read.  Digests are kept in an {@code AssetHashCache}, so a rerun hashes only
+ * files that are new or have changed since they were last hashed.
+ */
+final class DuplicateFinder {
+
+    /** The file roles that identify assets. */
+    private static final Set<EFileRole> ASSET_ROLES = EnumSet.of(EFileRole.DRAWING_SVG, EFileRole.DRAWING_XML,
+            EFileRole.DRAWING_PNG, EFileRole.DRAWING_JPG, EFileRole.DRAWING_WEBP, EFileRole.IMAGE_SVG,
+            EFileRole.IMAGE_PNG, EFileRole.IMAGE_JPG, EFileRole.IMAGE_WEBP, EFileRole.IMAGE_XCF,
+            EFileRole.SLIDES_PPTX, EFileRole.SLIDES_PDF);
+
+    /** The course tree. */
+    private final CourseTree tree;
+
+    /** The number of asset files found. */
+    private int numAssets = 0;
+
+    /** The number of asset files that share a size with another asset. */
+    private int numCandidates = 0;
+
+    /** The number of files hashed (not found in the cache). */
+    private int numHashed = 0;
+
+    /**
+     * Constructs a new {@code DuplicateFinder}.
+     *
+     * @param theTree the course tree
+     */
+    DuplicateFinder(final CourseTree theTree) {
+
+        super();
+
+        this.tree = theTree;
+    }
+
+    /**
+     * Tests whether a file is an asset.
+     *
+     * @param name the filename
+     * @return true if the file is an image, drawing, slide deck, or PDF
+     */
+    static boolean isAsset(final String name) {
+
+        final EFileRole role = FileClassifier.classify(name);
+
+        return ASSET_ROLES.contains(role) || name.endsWith(AppConstants.PDF_EXT);
+    }
+
+    /**
+     * Finds groups of asset files with identical contents.  The digest cache for the course is loaded first and saved
+     * afterward.  Called on a background thread.
+     *
+     * @return the groups, those that waste the most space first
+     */
+    List<DuplicateGroup> find() {
+
+        final long start = System.currentTimeMillis();
+
+        final File root = this.tree.getRoot().getFile();
+        final AssetHashCache cache = AssetHashCache.load(root);
+
+        final List<CourseFile> assets = new ArrayList<>(1000);
+        for (final CourseDir dir : this.tree.getDirectories()) {
+            for (final CourseFile file : dir.getFiles()) {
+                if (isAsset(file.getName())) {
+                    assets.add(file);
+                }
+            }
+        }
+        this.numAssets = assets.size();
+
+        final Map<Long, List<CourseFile>> bySize = new HashMap<>(assets.size());
+        for (final CourseFile file : assets) {
+            final long size = file.getSize();
+            if (size > 0L) {
+                bySize.computeIfAbsent(Long.valueOf(size), key -> new ArrayList<>(2)).add(file);
+            }
+        }
+
+        final Semaphore permits = ScanExecutor.permitsFor(root);
+
+        final List<CourseFile> candidates = new ArrayList<>(assets.size());
+        final List<Future<String>> digests = new ArrayList<>(assets.size());
+        for (final List<CourseFile> sameSize : bySize.values()) {
+            if (sameSize.size() > 1) {
+                for (final CourseFile file : sameSize) {
+                    candidates.add(file);
+                    digests.add(ScanExecutor.submit(() -> cache.digest(file, permits)));
+                }
+            }
+        }
+        this.numCandidates = candidates.size();
+
+        final Map<String, List<CourseFile>> byDigest = new HashMap<>(candidates.size());
+        final int numCandidateFiles = candidates.size();
+        for (int i = 0; i < numCandidateFiles; ++i) {
+            final String digest = ScanExecutor.join(digests.get(i));
+            if (digest != null) {
+                final CourseFile file = candidates.get(i);
+                byDigest.computeIfAbsent(digest, key -> new ArrayList<>(2)).add(file);
+            }
+        }
+
+        this.numHashed = cache.getNumHashed();
+
+        final List<DuplicateGroup> groups = makeGroups(byDigest);
+
+        cache.retain(this.tree);
+        cache.save();
+
+        final long end = System.currentTimeMillis();
+        Log.info("Found ", groups.size(), " groups of duplicate assets among ", this.numAssets, " assets in ",
+                end - start, " ms (", this.numCandidates, " same-size candidates, ", this.numHashed,
+                " hashed)");
+
+        return groups;
+    }
+
+    /**
+     * Builds the duplicate groups from lists of files with the same digest.
+     *
+     * @param byDigest a map from digest to the list of files with that digest
+     * @return the groups with more than one file, those that waste the most space first
+     */
+    private static List<DuplicateGroup> makeGroups(final Map<String, List<CourseFile>> byDigest) {
+
+        final List<DuplicateGroup> groups = new ArrayList<>(byDigest.size());
+
+        for (final Map.Entry<String, List<CourseFile>> entry : byDigest.entrySet()) {
+            final List<CourseFile> list = entry.getValue();
+            if (list.size() > 1) {
+                final List<File> files = new ArrayList<>(list.size());
+                for (final CourseFile file : list) {
+                    files.add(file.getFile());
+                }
+                files.sort(null);
+
+                final long size = list.get(0).getSize();
+                groups.add(new DuplicateGroup(entry.getKey(), size, List.copyOf(files)));
+            }
+        }
+
+        groups.sort(Comparator.comparingLong(DuplicateGroup::wastedBytes).reversed());
+
+        return groups;
+    }
+
+    /**
+     * Gets the number of asset files found by the last call to {@code find}.
+     *
+     * @return the number of assets
+     */
+    int getNumAssets() {
+
+        return this.numAssets;
+    }
+
+    /**
+     * Gets the number of asset files that shared a size with another asset in the last call to {@code find}.
+     *
+     * @return the number of candidates
+     */
+    int getNumCandidates() {
+
+        return this.numCandidates;
+    }
+
+    /**
+     * Gets the number of files hashed (rather than found in the cache).
+     *
+     * @return the number of files hashed
+     */
+    int getNumHashed() {
+
+        return this.numHashed;
+    }
+}
@@ -0,0 +1,24 @@
+package dev.mathops.fx.coursebuilder;
+
+import java.io.File;
+import java.util.List;
+
+/**
+ * A group of asset files with identical contents.
+ *
+ * @param digest the hex-encoded SHA-256 digest of the contents
+ * @param size   the size of each file, in bytes
+ * @param files  the files, sorted by path (at least two)
+ */
+record DuplicateGroup(String digest, long size, List<File> files) {
+
+    /**
+     * Gets the number of bytes that would be saved if only one copy were kept.
+     *
+     * @return the wasted bytes
+     */
+    long wastedBytes() {
+
+        return this.size * (long) (this.files.size() - 1);
+    }
+}
@@ -0,0 +1,84 @@
+package dev.mathops.fx.coursebuilder;
+
+import javafx.geometry.Insets;
+import javafx.scene.control.Label;
+import javafx.scene.control.TextArea;
+import javafx.scene.layout.BorderPane;
+import javafx.scene.text.Font;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * A pane that reports the groups of duplicate asset files found by a {@code DuplicateFinder}, with the space each
+ * group wastes.  Paths are shown relative to the course media directory.
+ */
+final class DuplicatesPane extends BorderPane {
+
+    /** The summary label. */
+    private final Label summary;
+
+    /** The report. */
+    private final TextArea report;
+
+    /**
+     * Constructs a new {@code DuplicatesPane}.
+     */
+    DuplicatesPane() {
+
+        super();
+
+        setPadding(AppConstants.PADDING);
+
+        final Label heading = new Label("Duplicate Assets");
+        heading.setFont(new Font(15.0));
+        heading.setPadding(new Insets(0.0, 0.0, AppConstants.V_GAP, 0.0));
+        setTop(heading);
+
+        this.report = new TextArea();
+        this.report.setEditable(false);
+        this.report.setPrefColumnCount(100);
+        this.report.setPrefRowCount(30);
+        setCenter(this.report);
+
+        this.summary = new Label();
+        this.summary.setPadding(new Insets(AppConstants.V_GAP, 0.0, 0.0, 0.0));
+        setBottom(this.summary);
+    }
+
+    /**
+     * Shows the results of a search.
+     *
+     * @param courseMediaDir the course media directory
+     * @param finder         the finder that performed the search (for its statistics)
+     * @param groups         the duplicate groups found
+     */
+    void show(final File courseMediaDir, final DuplicateFinder finder, final List<DuplicateGroup> groups) {
+
+        final Path root = courseMediaDir.toPath();
+        final StringBuilder builder = new StringBuilder(groups.size() * 200);
+
+        long totalWasted = 0L;
+        for (final DuplicateGroup group : groups) {
+            final long wasted = group.wastedBytes();
+            totalWasted += wasted;
+
+            builder.append(group.files().size()).append(" copies of ").append(AppUtils.formatBytes(group.size()))
+                    .append(" (").append(AppUtils.formatBytes(wasted)).append(" wasted)\n");
+            for (final File file : group.files()) {
+                final Path relative = root.relativize(file.toPath());
+                builder.append("    ").append(relative).append('\n');
+            }
+            builder.append('\n');
+        }
+
+        this.report.setText(builder.toString());
+
+        final String wastedString = AppUtils.formatBytes(totalWasted);
+        this.summary.setText(groups.size() + " duplicate groups wasting " + wastedString + " among "
+                             + finder.getNumAssets() + " assets (" + finder.getNumCandidates()
+                             + " shared a size with another asset; " + finder.getNumHashed()
+                             + " were hashed, the rest were cached)");
+    }
+}
@@ -0,0 +1,40 @@
+package dev.mathops.fx.coursebuilder;
+
+/**
+ * The kinds of change recorded in the {@code ChangeJournal}, and found between two trees by {@code TreeComparer}.
+ */
+enum EChangeKind {
+
+    /** A file that did not exist was created. */
+    ADDED,
+
+    /** An existing file's size or modification date changed. */
+    MODIFIED,
+
+    /** A file was deleted. */
+    DELETED;
+
+    /**
+     * Combines a later change to a file with an earlier one that has not yet been superseded, so the journal keeps
+     * one entry per file.  A file added and then modified is still reported as added; a file deleted and then created
+     * again is reported as modified.  Otherwise the later change wins.
+     *
+     * @param earlier the earlier change
+     * @param later   the later change
+     * @return the combined change
+     */
+    static EChangeKind combine(final EChangeKind earlier, final EChangeKind later) {
+
+        final EChangeKind result;
+
+        if (earlier == ADDED && later == MODIFIED) {
+            result = ADDED;
+        } else if (earlier == DELETED && later == ADDED) {
+            result = MODIFIED;
+        } else {
+            result = later;
+        }
+
+        return result;
+    }
+}
@@ -0,0 +1,248 @@
+package dev.mathops.fx.coursebuilder;
+
+/**
+ * The kinds of directories that can appear in a course media directory tree.  The kind of a directory is determined
+ * by its name and the kind of its parent directory.
+ */
+enum EDirKind {
+
+    /** The course media directory itself. */
+    COURSE,
+
+    /** A subject directory, like "05_trig". */
+    SUBJECT,
+
+    /** A topic module directory within a subject, like "01_angles". */
+    TOPIC,
+
+    /** A "10_skills_review" directory within a topic module. */
+    SKILLS_REVIEW,
+
+    /** A standard directory, like "11_standard_1". */
+    STANDARD,
+
+    /** An objective directory, like "11_objective_A". */
+    OBJECTIVE,
+
+    /** A lesson directory, like "01_intro_1", "11_lesson_1", or "91_conclusion_1". */
+    LESSON,
+
+    /** A "30_examples" directory. */
+    EXAMPLES,
+
+    /** A single example directory within a "30_examples" directory. */
+    EXAMPLE,
+
+    /** A "40_explorations" directory. */
+    EXPLORATIONS,
+
+    /** A single exploration directory, like "01". */
+    EXPLORATION,
+
+    /** A "41_applications" directory. */
+    APPLICATIONS,
+
+    /** A single application directory, like "01". */
+    APPLICATION,
+
+    /** A "60_handouts" directory. */
+    HANDOUTS,
+
+    /** An "80_items" directory. */
+    ITEMS,
+
+    /** An "81_assessments" directory. */
+    ASSESSMENTS,
+
+    /** A directory that is not part of the recognized structure. */
+    OTHER;
+
+    /**
+     * Determines the kind of directory with a specified name, given the kind of its parent.
+     *
+     * @param parentKind the kind of the parent directory
+     * @param name       the directory name
+     * @return the directory kind
+     */
+    static EDirKind classify(final EDirKind parentKind, final String name) {
+
+        return switch (parentKind) {
+            case COURSE -> isNumberedName(name) ? SUBJECT : OTHER;
+            case SUBJECT -> isNumberedName(name) ? TOPIC : OTHER;
+            case TOPIC -> classifyTopicChild(name);
+            case SKILLS_REVIEW -> classifySkillsReviewChild(name);
+            case STANDARD -> classifyStandardChild(name);
+            case OBJECTIVE -> classifyObjectiveChild(name);
+            case EXAMPLES -> EXAMPLE;
+            case EXPLORATIONS -> isTwoDigitName(name) ? EXPLORATION : OTHER;
+            case APPLICATIONS -> isTwoDigitName(name) ? APPLICATION : OTHER;
+            case EXPLORATION, APPLICATION -> classifyExplorationChild(name);
+            default -> OTHER;
+        };
+    }
+
+    /**
+     * Classifies a directory within a topic module directory.
+     *
+     * @param name the directory name
+     * @return the directory kind
+     */
+    private static EDirKind classifyTopicChild(final String name) {
+
+        final EDirKind result;
+
+        if (AppConstants.SKILLS_REVIEW_DIR.equals(name)) {
+            result = SKILLS_REVIEW;
+        } else if (AppConstants.EXPLORATIONS_DIR.equals(name)) {
+            result = EXPLORATIONS;
+        } else if (AppConstants.APPLICATIONS_DIR.equals(name)) {
+            result = APPLICATIONS;
+        } else if (AppConstants.HANDOUTS_DIR.equals(name)) {
+            result = HANDOUTS;
+        } else if (AppUtils.isIntroDir(name) || AppUtils.isConclusionDir(name)) {
+            result = LESSON;
+        } else if (AppUtils.isStandardDir(name)) {
+            result = STANDARD;
+        } else {
+            result = OTHER;
+        }
+
+        return result;
+    }
+
+    /**
+     * Classifies a directory within a skills review directory.
+     *
+     * @param name the directory name
+     * @return the directory kind
+     */
+    private static EDirKind classifySkillsReviewChild(final String name) {
+
+        final EDirKind result;
+
+        if (AppConstants.HANDOUTS_DIR.equals(name)) {
+            result = HANDOUTS;
+        } else if (AppConstants.ASSESSMENTS_DIR.equals(name)) {
+            result = ASSESSMENTS;
+        } else if (AppUtils.isIntroDir(name)) {
+            result = LESSON;
+        } else if (AppUtils.isObjectiveDir(name)) {
+            result = OBJECTIVE;
+        } else {
+            result = OTHER;
+        }
+
+        return result;
+    }
+
+    /**
+     * Classifies a directory within a standard directory.
+     *
+     * @param name the directory name
+     * @return the directory kind
+     */
+    private static EDirKind classifyStandardChild(final String name) {
+
+        final EDirKind result;
+
+        if (AppConstants.EXAMPLES_DIR.equals(name)) {
+            result = EXAMPLES;
+        } else if (AppConstants.EXPLORATIONS_DIR.equals(name)) {
+            result = EXPLORATIONS;
+        } else if (AppConstants.APPLICATIONS_DIR.equals(name)) {
+            result = APPLICATIONS;
+        } else if (AppConstants.HANDOUTS_DIR.equals(name)) {
+            result = HANDOUTS;
+        } else if (AppConstants.ITEMS_DIR.equals(name)) {
+            result = ITEMS;
+        } else if (AppConstants.ASSESSMENTS_DIR.equals(name)) {
+            result = ASSESSMENTS;
+        } else if (AppUtils.isIntroDir(name) || AppUtils.isConclusionDir(name)) {
+            result = LESSON;
+        } else if (AppUtils.isObjectiveDir(name)) {
+            result = OBJECTIVE;
+        } else {
+            result = OTHER;
+        }
+
+        return result;
+    }
+
+    /**
+     * Classifies a directory within an objective directory.
+     *
+     * @param name the directory name
+     * @return the directory kind
+     */
+    private static EDirKind classifyObjectiveChild(final String name) {
+
+        final EDirKind result;
+
+        if (AppConstants.EXAMPLES_DIR.equals(name)) {
+            result = EXAMPLES;
+        } else if (AppConstants.EXPLORATIONS_DIR.equals(name)) {
+            result = EXPLORATIONS;
+        } else if (AppConstants.APPLICATIONS_DIR.equals(name)) {
+            result = APPLICATIONS;
+        } else if (AppConstants.HANDOUTS_DIR.equals(name)) {
+            result = HANDOUTS;
+        } else if (AppConstants.ITEMS_DIR.equals(name)) {
+            result = ITEMS;
+        } else if (AppUtils.isLessonDir(name)) {
+            result = LESSON;
+        } else {
+            result = OTHER;
+        }
+
+        return result;
+    }
+
+    /**
+     * Classifies a directory within an exploration or application directory.
+     *
+     * @param name the directory name
+     * @return the directory kind
+     */
+    private static EDirKind classifyExplorationChild(final String name) {
+
+        final EDirKind result;
+
+        if (AppConstants.EXAMPLES_DIR.equals(name)) {
+            result = EXAMPLES;
+        } else if (AppConstants.HANDOUTS_DIR.equals(name)) {
+            result = HANDOUTS;
+        } else if (AppConstants.ITEMS_DIR.equals(name)) {
+            result = ITEMS;
+        } else if (name.contains("_lesson_")) {
+            result = LESSON;
+        } else {
+            result = OTHER;
+        }
+
+        return result;
+    }
+
+    /**
+     * Tests whether a name starts with two digits then an underscore.
+     *
+     * @param name the name
+     * @return true if the name is a "numbered" name
+     */
+    static boolean isNumberedName(final String name) {
+
+        return name.length() >= 3 && (int) name.charAt(2) == (int) '_'
+               && AppUtils.isAsciiDigit((int) name.charAt(0)) && AppUtils.isAsciiDigit((int) name.charAt(1));
+    }
+
+    /**
+     * Tests whether a name consists of exactly two digits.
+     *
+     * @param name the name
+     * @return true if the name is a two-digit name
+     */
+    private static boolean isTwoDigitName(final String name) {
+
+        return name.length() == 2 && AppUtils.isAsciiDigit((int) name.charAt(0))
+               && AppUtils.isAsciiDigit((int) name.charAt(1));
+    }
+}
@@ -0,0 +1,153 @@
+package dev.mathops.fx.coursebuilder;
+
+/**
+ * The role of a file (or directory) within the course media directory, as determined from its name alone by
+ * {@code FileClassifier}.
+ *
+ * <p>
+ * Each role carries what the user interface needs to know about it: the icon to show, a suffix for its label in
+ * document lists, and its canonical filename (for roles recognized by a prefix and extension, where only one name is
+ * standard).  Whether a file is expected or deployed is decided by the rules in {@code CourseRules}.
+ */
+enum EFileRole {
+
+    /** A "metadata.json" file. */
+    METADATA(null, "", null),
+
+    /** The "Outline.docx" file in a topic module. */
+    OUTLINE(AppConstants.WORD_ICON, "", null),
+
+    /** A "thumb.png", "thumb.jpg", or "thumb.jpeg" thumbnail image. */
+    THUMBNAIL(null, "", null),
+
+    /** The "example.docx" source document for an example. */
+    EXAMPLE_SOURCE(AppConstants.WORD_ICON, " (for authors)", "example.docx"),
+
+    /** The "example.pdf" document for an example. */
+    EXAMPLE_PDF(AppConstants.PDF_ICON, " (for student)", "example.pdf"),
+
+    /** The "item_spec.docx" item specification for an example. */
+    ITEM_SPEC(AppConstants.WORD_ICON, " (for authors)", null),
+
+    /** A "data.xlsx" data file. */
+    DATA_XLSX(AppConstants.EXCEL_ICON, "", null),
+
+    /** A "drawing_*.svg" file. */
+    DRAWING_SVG(AppConstants.SVG_ICON, "", null),
+
+    /** A "drawing_*.xml" file. */
+    DRAWING_XML(AppConstants.XML_ICON, "", null),
+
+    /** A "drawing_*.png" file. */
+    DRAWING_PNG(AppConstants.PNG_ICON, "", null),
+
+    /** A "drawing_*.jpg" or "drawing_*.jpeg" file. */
+    DRAWING_JPG(AppConstants.JPG_ICON, "", null),
+
+    /** A "drawing_*.webp" file. */
+    DRAWING_WEBP(AppConstants.WEBP_ICON, "", null),
+
+    /** An "image_*.svg" file. */
+    IMAGE_SVG(AppConstants.SVG_ICON, "", null),
+
+    /** An "image_*.png" file. */
+    IMAGE_PNG(AppConstants.PNG_ICON, "", null),
+
+    /** An "image_*.jpg" or "image_*.jpeg" file. */
+    IMAGE_JPG(AppConstants.JPG_ICON, "", null),
+
+    /** An "image_*.webp" file. */
+    IMAGE_WEBP(AppConstants.WEBP_ICON, "", null),
+
+    /** An "image_*.xcf" file. */
+    IMAGE_XCF(AppConstants.XCF_ICON, "", null),
+
+    /** A "slides.*.pptx" presentation. */
+    SLIDES_PPTX(AppConstants.POWERPOINT_ICON, "", "slides.pptx"),
+
+    /** A "slides.*.pdf" export of a presentation. */
+    SLIDES_PDF(AppConstants.PDF_ICON, "", null),
+
+    /** A raw "camera.*.mp4", "screen.*.mp4", or "video.*.mp4" recording. */
+    RAW_MP4(AppConstants.MP4_ICON, "", null),
+
+    /** A raw "camera.*.wav", "screen.*.wav", or "video.*.wav" recording. */
+    RAW_WAV(AppConstants.WAV_ICON, "", null),
+
+    /** A "final.*.mp4" finished video. */
+    FINAL_MP4(AppConstants.MP4_ICON, " (for student)", "final.mp4"),
+
+    /** A "final.*.vtt" closed-caption file. */
+    FINAL_VTT(AppConstants.VTT_ICON, " (closed-captions)", "final.vtt"),
+
+    /** A "final.*.txt" text transcript. */
+    FINAL_TXT(AppConstants.TXT_ICON, " (text transcript)", "final.txt"),
+
+    /** A "final.*.prproj" Premiere project. */
+    FINAL_PRPROJ(AppConstants.PREMIERE_ICON, " (for author)", null),
+
+    /** A "notes.*.pdf" lesson notes document. */
+    NOTES_PDF(AppConstants.PDF_ICON, " (for student)", "notes.pdf"),
+
+    /** A "notes.*.docx" lesson notes source document. */
+    NOTES_DOCX(AppConstants.WORD_ICON, " (for author)", null),
+
+    /** A "notes.*.pptx" lesson notes presentation. */
+    NOTES_PPTX(AppConstants.POWERPOINT_ICON, " (for author)", null),
+
+    /** A "context_##.pdf" handout. */
+    CONTEXT_PDF(AppConstants.PDF_ICON, "", null),
+
+    /** A "worksheet_##.pdf" handout. */
+    WORKSHEET_PDF(AppConstants.PDF_ICON, "", null),
+
+    /** A "practice_##.pdf" handout. */
+    PRACTICE_PDF(AppConstants.PDF_ICON, "", null),
+
+    /** An "answers_##.pdf" handout. */
+    ANSWERS_PDF(AppConstants.PDF_ICON, "", null),
+
+    /** A "solution_##.pdf" handout. */
+    SOLUTIONS_PDF(AppConstants.PDF_ICON, "", null),
+
+    /** An introductory lesson directory name, like "01_intro_1". */
+    INTRO_DIR(null, "", null),
+
+    /** A lesson directory name, like "11_lesson_1". */
+    LESSON_DIR(null, "", null),
+
+    /** A standard directory name, like "11_standard_1". */
+    STANDARD_DIR(null, "", null),
+
+    /** An objective directory name, like "11_objective_A". */
+    OBJECTIVE_DIR(null, "", null),
+
+    /** A conclusion lesson directory name, like "91_conclusion_1". */
+    CONCLUSION_DIR(null, "", null),
+
+    /** A name with no recognized role. */
+    OTHER(AppConstants.UNEXPECTED_ICON, "", null);
+
+    /** The icon filename (null if files with this role are not listed with an icon). */
+    final String icon;
+
+    /** The suffix to append to the filename when the file is listed. */
+    final String labelSuffix;
+
+    /** The canonical filename (null if the role is recognized only by exact name or pattern). */
+    final String canonicalName;
+
+    /**
+     * Constructs a new {@code EFileRole}.
+     *
+     * @param theIcon          the icon filename
+     * @param theLabelSuffix   the suffix to append to the filename when the file is listed
+     * @param theCanonicalName the canonical filename
+     */
+    EFileRole(final String theIcon, final String theLabelSuffix, final String theCanonicalName) {
+
+        this.icon = theIcon;
+        this.labelSuffix = theLabelSuffix;
+        this.canonicalName = theCanonicalName;
+    }
+}
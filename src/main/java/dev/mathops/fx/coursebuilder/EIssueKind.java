@@ -0,0 +1,38 @@
+package dev.mathops.fx.coursebuilder;
+
+/**
+ * The kinds of issues the {@code CourseValidator} can report.
+ */
+enum EIssueKind {
+
+    /** A file or directory that is not expected where it was found. */
+    UNEXPECTED_FILE("unexpected"),
+
+    /** An expected file that was not found. */
+    MISSING_FILE("missing"),
+
+    /** A metadata file that could not be read. */
+    UNREADABLE_METADATA("unreadableMetadata"),
+
+    /** A metadata file that could not be parsed as a JSON object. */
+    INVALID_METADATA("invalidMetadata"),
+
+    /** An image, drawing, or video recording that has no entry in its directory's metadata attributions. */
+    MISSING_ATTRIBUTION("missingAttribution"),
+
+    /** A metadata attribution or note whose resource names a file that does not exist. */
+    DANGLING_REFERENCE("danglingReference");
+
+    /** The identifier used for the kind in reports. */
+    final String id;
+
+    /**
+     * Constructs a new {@code EIssueKind}.
+     *
+     * @param theId the identifier used for the kind in reports
+     */
+    EIssueKind(final String theId) {
+
+        this.id = theId;
+    }
+}
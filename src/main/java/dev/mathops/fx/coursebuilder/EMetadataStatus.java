@@ -0,0 +1,16 @@
+package dev.mathops.fx.coursebuilder;
+
+/**
+ * The possible outcomes of loading a "metadata.json" file.
+ */
+enum EMetadataStatus {
+
+    /** The file could not be read (it may not exist). */
+    UNREADABLE,
+
+    /** The file was read, but it could not be parsed, or it did not contain a JSON object. */
+    INVALID,
+
+    /** The file was read and parsed as a JSON object. */
+    VALID
+}
@@ -0,0 +1,38 @@
+package dev.mathops.fx.coursebuilder;
+
+/**
+ * The sets of name rules in the course rules file.  Each set is a section of the file, introduced by a line with its
+ * name in square brackets, like "[TOPIC]".
+ */
+enum ERuleSet {
+
+    /** The entries expected in a topic module directory. */
+    TOPIC,
+
+    /** The entries expected in a skills review directory. */
+    SKILLS_REVIEW,
+
+    /** The entries expected in a standard directory. */
+    STANDARD,
+
+    /** The entries expected in an objective directory. */
+    OBJECTIVE,
+
+    /** The entries expected in a single exploration or application directory. */
+    ACTIVITY,
+
+    /** The entries expected in a handouts directory. */
+    HANDOUTS,
+
+    /** The entries expected in a single example directory. */
+    EXAMPLE,
+
+    /** The entries expected in a lesson directory. */
+    LESSON,
+
+    /** The files copied to the media server by the media deploy. */
+    MEDIA_DEPLOY,
+
+    /** The files copied to the web server by the web deploy. */
+    WEB_DEPLOY
+}
@@ -0,0 +1,128 @@
+package dev.mathops.fx.coursebuilder;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The files in an example directory, sorted into the sections presented by {@code ExampleTabContent}, with any
+ * unexpected or missing files.  This class does not depend on JavaFX controls, so the same rules can be applied by
+ * the headless {@code CourseValidator}.
+ */
+final class ExampleFiles {
+
+    /** The layout of an example directory: documents, assets, and final video sections. */
+    private static final FileSections SECTIONS = new FileSections(ERuleSet.EXAMPLE,
+            List.of(EFileRole.EXAMPLE_SOURCE, EFileRole.EXAMPLE_PDF, EFileRole.SLIDES_PPTX, EFileRole.FINAL_MP4,
+                    EFileRole.FINAL_VTT, EFileRole.FINAL_TXT),
+            new EFileRole[][]{{EFileRole.EXAMPLE_SOURCE}, {EFileRole.EXAMPLE_PDF}, {EFileRole.ITEM_SPEC}},
+            new EFileRole[][]{{EFileRole.DRAWING_SVG, EFileRole.DRAWING_XML, EFileRole.DRAWING_PNG,
+                    EFileRole.DRAWING_JPG, EFileRole.DRAWING_WEBP}, {EFileRole.IMAGE_SVG, EFileRole.IMAGE_PNG,
+                    EFileRole.IMAGE_JPG, EFileRole.IMAGE_WEBP, EFileRole.IMAGE_XCF}, {EFileRole.SLIDES_PPTX},
+                    {EFileRole.SLIDES_PDF}, {EFileRole.RAW_MP4, EFileRole.RAW_WAV}, {EFileRole.DATA_XLSX}},
+            new EFileRole[][]{{EFileRole.FINAL_MP4}, {EFileRole.FINAL_VTT}, {EFileRole.FINAL_TXT},
+                    {EFileRole.FINAL_PRPROJ}});
+
+    /** Rows to present in the "Documents" section. */
+    private final List<DocumentRow> documentRows;
+
+    /** Rows to present in the "Assets" section. */
+    private final List<DocumentRow> assetRows;
+
+    /** Rows to present in the "Video" section. */
+    private final List<DocumentRow> finalRows;
+
+    /** Files that were not recognized as part of any section. */
+    private final List<AbstractCourseEntry> unexpectedFiles;
+
+    /** Expected files that were not found. */
+    private final List<File> missingFiles;
+
+    /**
+     * Constructs a new {@code ExampleFiles} by sorting the files in an example directory into sections, recording any
+     * unexpected or missing files.
+     *
+     * @param theDir the directory with example files
+     */
+    ExampleFiles(final CourseDir theDir) {
+
+        super();
+
+        this.documentRows = new ArrayList<>(10);
+        this.assetRows = new ArrayList<>(10);
+        this.finalRows = new ArrayList<>(10);
+        this.unexpectedFiles = new ArrayList<>(20);
+        this.missingFiles = new ArrayList<>(5);
+
+        SECTIONS.sort(theDir, List.of(this.documentRows, this.assetRows, this.finalRows), this.unexpectedFiles,
+                this.missingFiles);
+    }
+
+    /**
+     * Gets the rows to present in the "Documents" section.
+     *
+     * @return the list (not modifiable)
+     */
+    List<DocumentRow> getDocumentRows() {
+
+        return Collections.unmodifiableList(this.documentRows);
+    }
+
+    /**
+     * Gets the rows to present in the "Assets" section.
+     *
+     * @return the list (not modifiable)
+     */
+    List<DocumentRow> getAssetRows() {
+
+        return Collections.unmodifiableList(this.assetRows);
+    }
+
+    /**
+     * Gets the rows to present in the "Video" section.
+     *
+     * @return the list (not modifiable)
+     */
+    List<DocumentRow> getFinalRows() {
+
+        return Collections.unmodifiableList(this.finalRows);
+    }
+
+    /**
+     * Gets the files that were not recognized as part of any section.
+     *
+     * @return the list (not modifiable)
+     */
+    List<AbstractCourseEntry> getUnexpectedFiles() {
+
+        return Collections.unmodifiableList(this.unexpectedFiles);
+    }
+
+    /**
+     * Gets the expected files that were not found.
+     *
+     * @return the list (not modifiable)
+     */
+    List<File> getMissingFiles() {
+
+        return Collections.unmodifiableList(this.missingFiles);
+    }
+
+    /**
+     * Counts the warnings for the example directory: every file within an unexpected entry (at any depth), plus
+     * every missing file.
+     *
+     * @return the number of warnings
+     */
+    int countWarnings() {
+
+        int count = this.missingFiles.size();
+
+        for (final AbstractCourseEntry entry : this.unexpectedFiles) {
+            count += entry.countFiles();
+        }
+
+        return count;
+    }
+}
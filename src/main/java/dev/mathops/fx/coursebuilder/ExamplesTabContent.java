@@ -8,7 +8,6 @@ import javafx.scene.control.Label;
 import javafx.scene.control.Tab;
 import javafx.scene.control.TabPane;
 import javafx.scene.image.ImageView;
-import javafx.scene.layout.BorderPane;
 import javafx.scene.layout.FlowPane;
 import javafx.scene.layout.GridPane;
 import javafx.scene.layout.VBox;
@@ -21,10 +20,22 @@ import java.util.List;
 /**
  * The content of an "Examples" tab.
  */
-final class ExamplesTabContent extends BorderPane {
+final class ExamplesTabContent extends AbstractLazyTabContent {
 
-    /** The number of examples. */
-    private final int numExamples;
+    /** The owning application. */
+    private final CourseBuilder owner;
+
+    /** The containing directory. */
+    private final CourseDir containingDir;
+
+    /** The location string, like "02_subject.01_topic.30_examples". */
+    private final String locationString;
+
+    /** The content of each example tab (not yet materialized). */
+    private final List<ExampleTabContent> examples;
+
+    /** Unexpected files found in the containing directory. */
+    private final List<CourseFile> unexpected;
 
     /**
      * The number of warnings found (unexpected or missing files), including all warnings found by included example
@@ -40,37 +51,44 @@ final class ExamplesTabContent extends BorderPane {
      * @param locationPrefix   the prefix for the location, like "02_subject.01_topic" (to this will be appended a dot
      *                         and the filename of the containing directory)
      */
-    ExamplesTabContent(final CourseBuilder theOwner, final File theContainingDir, final String locationPrefix) {
+    ExamplesTabContent(final CourseBuilder theOwner, final CourseDir theContainingDir, final String locationPrefix) {
 
         super();
 
-        setPadding(AppConstants.PADDING);
+        this.owner = theOwner;
+        this.containingDir = theContainingDir;
+        this.locationString = locationPrefix + "." + theContainingDir.getName();
+
+        final List<CourseDir> list = theContainingDir.getSubdirs();
+        this.examples = new ArrayList<>(list.size());
+        for (final CourseDir dir : list) {
+            final ExampleTabContent example = new ExampleTabContent(theOwner, dir, this.locationString);
+            this.examples.add(example);
+            this.numWarnings += example.getNumWarnings();
+        }
+
+        this.unexpected = theContainingDir.getFiles();
+        this.numWarnings += this.unexpected.size();
+    }
 
-        final String locationString = locationPrefix + "." + theContainingDir.getName();
+    /**
+     * Builds the child nodes for this content.
+     */
+    @Override
+    void build() {
+
+        setPadding(AppConstants.PADDING);
 
         // Top pane shows the location of the file we're viewing
-        if (theContainingDir.exists() && theContainingDir.isDirectory()) {
-            final FlowPane top = AppUtils.makeLocationFlow(theOwner, "Location:  ", locationString, theContainingDir);
+        if (this.containingDir.exists()) {
+            final File containingFile = this.containingDir.getFile();
+            final FlowPane top = AppUtils.makeLocationFlow(this.owner, "Location:  ", this.locationString,
+                    containingFile);
             setTop(top);
         }
 
         // Center is either a message indicating there are no examples, or a tabbed-pane of the examples
-        final File[] list = theContainingDir.listFiles();
-        final Collection<File> unexpected = new ArrayList<>(10);
-        int numFound = 0;
-        if (list != null) {
-            for (final File file : list) {
-                if (file.isDirectory()) {
-                    ++numFound;
-                } else {
-                    unexpected.add(file);
-                }
-            }
-        }
-
-        this.numExamples = numFound;
-
-        if (numFound == 0) {
+        if (this.examples.isEmpty()) {
             final VBox center = new VBox();
             setCenter(center);
             final Label noExamples = new Label("There are no examples.");
@@ -82,20 +100,15 @@ final class ExamplesTabContent extends BorderPane {
 
             final List<Tab> children = tabPane.getTabs();
 
-            for (final File file : list) {
-                if (file.isDirectory()) {
-                    final String filename = file.getName();
-                    final ExampleTabContent example = new ExampleTabContent(theOwner, file, locationString);
-                    example.init();
-                    final int exampleWarnings = example.getNumWarnings();
-                    final Tab tab = AppUtils.makeTab(filename, example, null, exampleWarnings);
-                    children.add(tab);
-                    this.numWarnings += exampleWarnings;
-                }
+            for (final ExampleTabContent example : this.examples) {
+                final String filename = example.getDirName();
+                final int exampleWarnings = example.getNumWarnings();
+                final Tab tab = AppUtils.makeLazyTab(filename, example, null, exampleWarnings);
+                children.add(tab);
             }
         }
 
-        if (!unexpected.isEmpty()) {
+        if (!this.unexpected.isEmpty()) {
             final GridPane unexpectedPane = new GridPane();
             unexpectedPane.setPadding(new Insets(0.0, 0.0, 0.0, 20.0));
             unexpectedPane.setHgap(10);
@@ -105,16 +118,11 @@ final class ExamplesTabContent extends BorderPane {
             final ObservableList<Node> unexpectedChildren = unexpectedPane.getChildren();
 
             int unexpectedRow = 0;
-            for (final File file : unexpected) {
+            for (final CourseFile file : this.unexpected) {
                 final String name = file.getName();
-                addDocumentRow(file, name, unexpectedChildren, unexpectedRow);
+                final File target = file.getFile();
+                addDocumentRow(target, name, unexpectedChildren, unexpectedRow);
                 ++unexpectedRow;
-
-                if (file.isDirectory()) {
-                    this.numWarnings += AppUtils.countFiles(file);
-                } else {
-                    ++this.numWarnings;
-                }
             }
         }
     }
@@ -146,14 +154,6 @@ final class ExamplesTabContent extends BorderPane {
         nodes.add(label);
     }
 
-    /**
-     * Initializes this panel.  Called after the constructor completes since this method uses "this" to add itself as a
-     * listener.
-     */
-    void init() {
-
-    }
-
     /**
      * Gets the number of examples.
      *
@@ -161,7 +161,7 @@ final class ExamplesTabContent extends BorderPane {
      */
     int getNumExamples() {
 
-        return this.numExamples;
+        return this.examples.size();
     }
 
     /**
@@ -169,6 +169,7 @@ final class ExamplesTabContent extends BorderPane {
      *
      * @return the number of warnings
      */
+    @Override
     int getNumWarnings() {
 
         return this.numWarnings;
@@ -5,23 +5,33 @@ import javafx.geometry.Insets;
 import javafx.scene.Node;
 import javafx.scene.control.Tab;
 import javafx.scene.control.TabPane;
-import javafx.scene.layout.BorderPane;
 import javafx.scene.layout.FlowPane;
 import javafx.scene.layout.GridPane;
 import javafx.scene.layout.VBox;
 
 import java.io.File;
 import java.util.ArrayList;
-import java.util.Collection;
-import java.util.Collections;
+import java.util.List;
 
 /**
  * The content of an "Explorations" tab.
  */
-final class ExplorationsTabContent extends BorderPane {
+final class ExplorationsTabContent extends AbstractLazyTabContent {
 
-    /** The number of explorations. */
-    private final int numExplorations;
+    /** The owning application. */
+    private final CourseBuilder owner;
+
+    /** The containing directory. */
+    private final CourseDir containingDir;
+
+    /** The location string (the location prefix with the containing directory name appended). */
+    private final String locationString;
+
+    /** The content of each exploration tab (not yet materialized). */
+    private final List<ExplorationTabContent> explorations;
+
+    /** Unexpected files found in the containing directory. */
+    private final List<AbstractCourseEntry> extraFiles;
 
     /** The number of warnings found. */
     private int numWarnings = 0;
@@ -46,68 +56,81 @@ final class ExplorationsTabContent extends BorderPane {
      * @param locationPrefix   the prefix for the location, like "02_subject.01_topic" (to this will be appended a dot
      *                         and the filename of the containing directory)
      */
-    ExplorationsTabContent(final CourseBuilder theOwner, final File theContainingDir, final String locationPrefix) {
+    ExplorationsTabContent(final CourseBuilder theOwner, final CourseDir theContainingDir,
+                           final String locationPrefix) {
 
         super();
 
-        setPadding(AppConstants.PADDING);
-
-        final String locationString = locationPrefix + "." + theContainingDir.getName();
-        if (theContainingDir.exists() && theContainingDir.isDirectory()) {
-            // Top pane shows the location of the file we're viewing (omit if the directory does not exist)
-            final FlowPane top = AppUtils.makeLocationFlow(theOwner, "Location:  ", locationString, theContainingDir);
-            setTop(top);
-        }
+        this.owner = theOwner;
+        this.containingDir = theContainingDir;
+        this.locationString = locationPrefix + "." + theContainingDir.getName();
+        this.explorations = new ArrayList<>(10);
+        this.extraFiles = new ArrayList<>(10);
 
-        // Center is a nested tab pane with all the explorations in the containing directory
-        final TabPane tabPane = new TabPane();
-        final ObservableList<String> tabPaneStyleClasses = tabPane.getStyleClass();
-        tabPaneStyleClasses.add(AppConstants.FLOATING_CLASS);
-        setCenter(tabPane);
+        if (theContainingDir.exists()) {
 
-        int numFound = 0;
+            final List<AbstractCourseEntry> allFiles = theContainingDir.getEntries();
+            this.extraFiles.addAll(allFiles);
 
-        final Collection<File> extraFiles = new ArrayList<>(10);
-
-        if (theContainingDir.exists() && theContainingDir.isDirectory()) {
-
-            final File[] allFiles = theContainingDir.listFiles();
-            if (allFiles != null) {
-                Collections.addAll(extraFiles, allFiles);
-            }
-
-            final ObservableList<Tab> tabs = tabPane.getTabs();
             for (int i = 1; i <= 99; ++i) {
-                final String subdirectoryName = makeSubdirectoryName(i);
+                final String subdirectoryName = CourseRules.activityDirName(i);
 
-                final File explorationDir = new File(theContainingDir, subdirectoryName);
-                if (explorationDir.exists() && explorationDir.isDirectory()) {
-                    extraFiles.remove(explorationDir);
+                final CourseDir explorationDir = theContainingDir.getSubdir(subdirectoryName);
+                if (explorationDir != null) {
+                    this.extraFiles.remove(explorationDir);
                     final ExplorationTabContent content = new ExplorationTabContent(theOwner, explorationDir,
-                            locationString);
+                            this.locationString);
                     this.numLessons += content.getNumLessons();
                     this.numExamples += content.getNumExamples();
                     this.numHandouts += content.getNumHandouts();
                     this.numItems += content.getNumItems();
-                    content.init();
-                    final int contentWarnings = content.getNumWarnings();
-                    final String dirName = explorationDir.getName();
-                    final Tab tab = AppUtils.makeTab(dirName, content, "exploration.png", contentWarnings);
-                    tabs.add(tab);
-                    this.numWarnings += contentWarnings;
-                    ++numFound;
+                    this.numWarnings += content.getNumWarnings();
+                    this.explorations.add(content);
                 }
             }
         }
 
-        this.numExplorations = numFound;
+        for (final AbstractCourseEntry file : this.extraFiles) {
+            this.numWarnings += file.countFiles();
+        }
+    }
+
+    /**
+     * Builds the child nodes for this content.
+     */
+    @Override
+    void build() {
+
+        setPadding(AppConstants.PADDING);
+
+        if (this.containingDir.exists()) {
+            // Top pane shows the location of the file we're viewing (omit if the directory does not exist)
+            final File containingFile = this.containingDir.getFile();
+            final FlowPane top = AppUtils.makeLocationFlow(this.owner, "Location:  ", this.locationString,
+                    containingFile);
+            setTop(top);
+        }
+
+        // Center is a nested tab pane with all the explorations in the containing directory
+        final TabPane tabPane = new TabPane();
+        final ObservableList<String> tabPaneStyleClasses = tabPane.getStyleClass();
+        tabPaneStyleClasses.add(AppConstants.FLOATING_CLASS);
+        setCenter(tabPane);
+
+        final ObservableList<Tab> tabs = tabPane.getTabs();
+        for (final ExplorationTabContent content : this.explorations) {
+            final int contentWarnings = content.getNumWarnings();
+            final String dirName = content.getDirName();
+            final Tab tab = AppUtils.makeLazyTab(dirName, content, "exploration.png", contentWarnings);
+            tabs.add(tab);
+        }
 
         final VBox bottom = new VBox();
         final ObservableList<Node> bottomChildren = bottom.getChildren();
         setBottom(bottom);
 
         // Present any unexpected files that remain
-        if (!extraFiles.isEmpty()) {
+        if (!this.extraFiles.isEmpty()) {
             final GridPane unexpectedPane = new GridPane();
             unexpectedPane.setPadding(new Insets(0.0, 0.0, 0.0, 20.0));
             unexpectedPane.setHgap(10.0);
@@ -115,47 +138,16 @@ final class ExplorationsTabContent extends BorderPane {
             final ObservableList<Node> unexpectedChildren = unexpectedPane.getChildren();
 
             int unexpectedRow = 0;
-            for (final File file : extraFiles) {
+            for (final AbstractCourseEntry file : this.extraFiles) {
                 final String name = file.getName();
-                AppUtils.addSimpleDocumentRow(file, name, unexpectedChildren, unexpectedRow);
+                final File target = file.getFile();
+                AppUtils.addSimpleDocumentRow(target, name, unexpectedChildren, unexpectedRow);
                 ++unexpectedRow;
-
-                if (file.isDirectory()) {
-                    this.numWarnings += AppUtils.countFiles(file);
-                } else {
-                    ++this.numWarnings;
-                }
             }
             bottomChildren.add(unexpectedPane);
         }
     }
 
-    /**
-     * Generates an exploration subdirectory name, of the form "01".
-     *
-     * @param index the index (where 1 is the first exploration)
-     * @return the subdirectory name
-     */
-    private static String makeSubdirectoryName(final int index) {
-
-        final StringBuilder builder = new StringBuilder(13);
-
-        if (index < 10) {
-            builder.append("0");
-        }
-        builder.append(index);
-
-        return builder.toString();
-    }
-
-    /**
-     * Initializes this panel.  Called after the constructor completes since this method uses "this" to add itself as a
-     * listener.
-     */
-    void init() {
-
-    }
-
     /**
      * Gets the number of explorations found.
      *
@@ -163,7 +155,7 @@ final class ExplorationsTabContent extends BorderPane {
      */
     int getNumExplorations() {
 
-        return this.numExplorations;
+        return this.explorations.size();
     }
 
     /**
@@ -171,6 +163,7 @@ final class ExplorationsTabContent extends BorderPane {
      *
      * @return the number of warnings
      */
+    @Override
     int getNumWarnings() {
 
         return this.numWarnings;
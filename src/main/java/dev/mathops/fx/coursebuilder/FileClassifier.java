@@ -0,0 +1,260 @@
+package dev.mathops.fx.coursebuilder;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Assigns a role to a file or directory name in a single pass.  The tab contents use the role to decide how (and in
+ * which section) a file is presented; which names are expected and which files are deployed are decided by the rules
+ * in {@code CourseRules}.
+ *
+ * <p>
+ * Classification first looks the name up in a table of exact names.  Failing that, it dispatches on the first
+ * character to at most three candidate prefixes, and then on either the extension (for prefix families like
+ * "drawing_*.svg") or the length (for numbered patterns like "worksheet_##.pdf" or "11_objective_A"), so each name is
+ * examined only a constant number of times regardless of how many roles exist.  {@code FileClassifierBenchmark}
+ * measures the cost per name.
+ */
+enum FileClassifier {
+    ;
+
+    /** Roles for names that are recognized only by exact match. */
+    private static final Map<String, EFileRole> EXACT_NAMES = new HashMap<>(16);
+
+    static {
+        EXACT_NAMES.put(AppConstants.METADATA_FILE, EFileRole.METADATA);
+        EXACT_NAMES.put(CourseRules.OUTLINE_FILE, EFileRole.OUTLINE);
+        EXACT_NAMES.put("thumb.png", EFileRole.THUMBNAIL);
+        EXACT_NAMES.put("thumb.jpg", EFileRole.THUMBNAIL);
+        EXACT_NAMES.put("thumb.jpeg", EFileRole.THUMBNAIL);
+        EXACT_NAMES.put("example.docx", EFileRole.EXAMPLE_SOURCE);
+        EXACT_NAMES.put("example.pdf", EFileRole.EXAMPLE_PDF);
+        EXACT_NAMES.put("item_spec.docx", EFileRole.ITEM_SPEC);
+        EXACT_NAMES.put("data.xlsx", EFileRole.DATA_XLSX);
+    }
+
+    /**
+     * Classifies a name.
+     *
+     * @param name the file or directory name
+     * @return the role (never null; {@code OTHER} if the name is not recognized)
+     */
+    static EFileRole classify(final String name) {
+
+        EFileRole role = EXACT_NAMES.get(name);
+
+        if (role == null) {
+            role = name.isEmpty() ? EFileRole.OTHER : switch (name.charAt(0)) {
+                case 'a' -> classifyHandout(name, "answers_", 14, EFileRole.ANSWERS_PDF);
+                case 'c' -> name.startsWith(AppConstants.CAMERA_PREFIX) ? classifyRawMedia(name)
+                        : classifyHandout(name, "context_", 14, EFileRole.CONTEXT_PDF);
+                case 'd' -> name.startsWith(AppConstants.DRAWING_PREFIX) ? classifyDrawing(name) : EFileRole.OTHER;
+                case 'f' -> name.startsWith(AppConstants.FINAL_PREFIX) ? classifyFinal(name) : EFileRole.OTHER;
+                case 'i' -> name.startsWith(AppConstants.IMAGE_PREFIX) ? classifyImage(name) : EFileRole.OTHER;
+                case 'n' -> name.startsWith(AppConstants.NOTES_PREFIX) ? classifyNotes(name) : EFileRole.OTHER;
+                case 'p' -> classifyHandout(name, "practice_", 15, EFileRole.PRACTICE_PDF);
+                case 's' -> classifyS(name);
+                case 'v' -> name.startsWith(AppConstants.VIDEO_PREFIX) ? classifyRawMedia(name) : EFileRole.OTHER;
+                case 'w' -> classifyHandout(name, "worksheet_", 16, EFileRole.WORKSHEET_PDF);
+                case '0', '1', '2', '9' -> classifyNumberedDir(name);
+                default -> EFileRole.OTHER;
+            };
+        }
+
+        return role;
+    }
+
+    /**
+     * Gets the extension of a name, including the leading dot.
+     *
+     * @param name the name
+     * @return the extension; the empty string if the name has no dot
+     */
+    private static String extension(final String name) {
+
+        final int dot = name.lastIndexOf('.');
+
+        return dot < 0 ? "" : name.substring(dot);
+    }
+
+    /**
+     * Classifies a name that starts with 's' ("slides.", "screen.", or "solution_").
+     *
+     * @param name the name
+     * @return the role
+     */
+    private static EFileRole classifyS(final String name) {
+
+        final EFileRole role;
+
+        if (name.startsWith(AppConstants.SLIDES_PREFIX)) {
+            role = switch (extension(name)) {
+                case AppConstants.PPTX_EXT -> EFileRole.SLIDES_PPTX;
+                case AppConstants.PDF_EXT -> EFileRole.SLIDES_PDF;
+                default -> EFileRole.OTHER;
+            };
+        } else if (name.startsWith(AppConstants.SCREEN_PREFIX)) {
+            role = classifyRawMedia(name);
+        } else {
+            role = classifyHandout(name, "solution_", 15, EFileRole.SOLUTIONS_PDF);
+        }
+
+        return role;
+    }
+
+    /**
+     * Classifies a name known to start with "drawing_".
+     *
+     * @param name the name
+     * @return the role
+     */
+    private static EFileRole classifyDrawing(final String name) {
+
+        return switch (extension(name)) {
+            case AppConstants.SVG_EXT -> EFileRole.DRAWING_SVG;
+            case AppConstants.XML_EXT -> EFileRole.DRAWING_XML;
+            case AppConstants.PNG_EXT -> EFileRole.DRAWING_PNG;
+            case AppConstants.JPG_EXT, AppConstants.JPEG_EXT -> EFileRole.DRAWING_JPG;
+            case AppConstants.WEBP_EXT -> EFileRole.DRAWING_WEBP;
+            default -> EFileRole.OTHER;
+        };
+    }
+
+    /**
+     * Classifies a name known to start with "image_".
+     *
+     * @param name the name
+     * @return the role
+     */
+    private static EFileRole classifyImage(final String name) {
+
+        return switch (extension(name)) {
+            case AppConstants.SVG_EXT -> EFileRole.IMAGE_SVG;
+            case AppConstants.PNG_EXT -> EFileRole.IMAGE_PNG;
+            case AppConstants.JPG_EXT, AppConstants.JPEG_EXT -> EFileRole.IMAGE_JPG;
+            case AppConstants.WEBP_EXT -> EFileRole.IMAGE_WEBP;
+            case AppConstants.XCF_EXT -> EFileRole.IMAGE_XCF;
+            default -> EFileRole.OTHER;
+        };
+    }
+
+    /**
+     * Classifies a name known to start with "camera.", "screen.", or "video.".
+     *
+     * @param name the name
+     * @return the role
+     */
+    private static EFileRole classifyRawMedia(final String name) {
+
+        return switch (extension(name)) {
+            case AppConstants.MP4_EXT -> EFileRole.RAW_MP4;
+            case AppConstants.WAV_EXT -> EFileRole.RAW_WAV;
+            default -> EFileRole.OTHER;
+        };
+    }
+
+    /**
+     * Classifies a name known to start with "final.".
+     *
+     * @param name the name
+     * @return the role
+     */
+    private static EFileRole classifyFinal(final String name) {
+
+        return switch (extension(name)) {
+            case AppConstants.MP4_EXT -> EFileRole.FINAL_MP4;
+            case AppConstants.VTT_EXT -> EFileRole.FINAL_VTT;
+            case AppConstants.TXT_EXT -> EFileRole.FINAL_TXT;
+            case AppConstants.PRPROJ_EXT -> EFileRole.FINAL_PRPROJ;
+            default -> EFileRole.OTHER;
+        };
+    }
+
+    /**
+     * Classifies a name known to start with "notes.".
+     *
+     * @param name the name
+     * @return the role
+     */
+    private static EFileRole classifyNotes(final String name) {
+
+        return switch (extension(name)) {
+            case AppConstants.PDF_EXT -> EFileRole.NOTES_PDF;
+            case AppConstants.DOCX_EXT -> EFileRole.NOTES_DOCX;
+            case AppConstants.PPTX_EXT -> EFileRole.NOTES_PPTX;
+            default -> EFileRole.OTHER;
+        };
+    }
+
+    /**
+     * Classifies a handout name of the form "prefix##.pdf".
+     *
+     * @param name   the name
+     * @param prefix the prefix, like "worksheet_"
+     * @param length the required length of the name
+     * @param role   the role if the name matches
+     * @return {@code role} if the name matches; {@code OTHER} if not
+     */
+    private static EFileRole classifyHandout(final String name, final String prefix, final int length,
+                                             final EFileRole role) {
+
+        final int digits = prefix.length();
+
+        return name.length() == length && name.startsWith(prefix) && name.endsWith(AppConstants.PDF_EXT)
+               && AppUtils.isAsciiDigit((int) name.charAt(digits))
+               && AppUtils.isAsciiDigit((int) name.charAt(digits + 1)) ? role : EFileRole.OTHER;
+    }
+
+    /**
+     * Classifies a numbered directory name like "01_intro_1", "11_lesson_1", "11_standard_1", "11_objective_A", or
+     * "91_conclusion_1".  Each form has a distinct length, so the length selects the only form to test.
+     *
+     * @param name the name
+     * @return the role
+     */
+    private static EFileRole classifyNumberedDir(final String name) {
+
+        final int len = name.length();
+        EFileRole role = EFileRole.OTHER;
+
+        if (len >= 10 && AppUtils.isAsciiDigit((int) name.charAt(1))) {
+            final int c0 = (int) name.charAt(0);
+            final int last = (int) name.charAt(len - 1);
+            final boolean oneOrTwo = c0 == AppConstants.DIGIT_1 || c0 == AppConstants.DIGIT_2;
+
+            switch (len) {
+                case 10 -> {
+                    if (c0 == AppConstants.DIGIT_0 && AppUtils.isAsciiDigit(last)
+                        && name.startsWith("_intro_", 2)) {
+                        role = EFileRole.INTRO_DIR;
+                    }
+                }
+                case 11 -> {
+                    if (oneOrTwo && AppUtils.isAsciiDigit(last) && name.startsWith("_lesson_", 2)) {
+                        role = EFileRole.LESSON_DIR;
+                    }
+                }
+                case 13 -> {
+                    if (oneOrTwo && AppUtils.isAsciiDigit(last) && name.startsWith("_standard_", 2)) {
+                        role = EFileRole.STANDARD_DIR;
+                    }
+                }
+                case 14 -> {
+                    if (oneOrTwo && AppUtils.isAsciiLetter(last) && name.startsWith("_objective_", 2)) {
+                        role = EFileRole.OBJECTIVE_DIR;
+                    }
+                }
+                case 15 -> {
+                    if (c0 == AppConstants.DIGIT_9 && AppUtils.isAsciiDigit(last)
+                        && name.startsWith("_conclusion_", 2)) {
+                        role = EFileRole.CONCLUSION_DIR;
+                    }
+                }
+                default -> {
+                }
+            }
+        }
+
+        return role;
+    }
+}
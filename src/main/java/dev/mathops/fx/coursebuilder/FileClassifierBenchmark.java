@@ -0,0 +1,109 @@
+package dev.mathops.fx.coursebuilder;
+
+import dev.mathops.commons.log.Log;
+
+/**
+ * A micro-benchmark that measures the time {@code FileClassifier} takes per name, and the time the compiled rules in
+ * {@code CourseRules} take to test whether a name is expected in an example directory, over a mix of names typical of
+ * a course media directory.  Run with no arguments; the results are logged.
+ */
+final class FileClassifierBenchmark {
+
+    /** A representative mix of names, including some that are not recognized. */
+    private static final String[] NAMES = {AppConstants.METADATA_FILE, "thumb.png", CourseRules.OUTLINE_FILE,
+            "example.docx", "example.pdf", "item_spec.docx", "drawing_1.svg", "drawing_1.xml", "drawing_2.png",
+            "image_1.jpg", "image_2.xcf", "slides.pptx", "slides.pdf", "camera.1.mp4", "screen.1.wav", "video.2.mp4",
+            "final.mp4", "final.vtt", "final.txt", "final.prproj", "notes.pdf", "notes.docx", "context_01.pdf",
+            "worksheet_02.pdf", "practice_03.pdf", "answers_04.pdf", "solution_05.pdf", "01_intro_1", "11_lesson_1",
+            "11_standard_1", "11_objective_A", "91_conclusion_1", "desktop.ini", "Thumbs.db", "old_notes.pdf",
+            "worksheet_2.pdf"};
+
+    /** The number of passes over the names to warm up the JIT compiler. */
+    private static final int WARMUP_PASSES = 200_000;
+
+    /** The number of timed passes over the names. */
+    private static final int TIMED_PASSES = 1_000_000;
+
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private FileClassifierBenchmark() {
+
+        // No action
+    }
+
+    /**
+     * Classifies every name a number of times.
+     *
+     * @param passes the number of passes over the names
+     * @return a value that depends on every result (so the work cannot be eliminated)
+     */
+    private static int classifyAll(final int passes) {
+
+        int sum = 0;
+
+        for (int pass = 0; pass < passes; ++pass) {
+            for (final String name : NAMES) {
+                sum += FileClassifier.classify(name).ordinal();
+            }
+        }
+
+        return sum;
+    }
+
+    /**
+     * Tests every name against the rules for an example directory a number of times.
+     *
+     * @param passes the number of passes over the names
+     * @return a value that depends on every result (so the work cannot be eliminated)
+     */
+    private static int matchAll(final int passes) {
+
+        int sum = 0;
+
+        for (int pass = 0; pass < passes; ++pass) {
+            for (final String name : NAMES) {
+                if (CourseRules.matches(ERuleSet.EXAMPLE, false, name)) {
+                    ++sum;
+                }
+            }
+        }
+
+        return sum;
+    }
+
+    /**
+     * Logs the time taken for a number of names.
+     *
+     * @param action   the action timed, like "Classified"
+     * @param elapsed  the elapsed time, in nanoseconds
+     * @param checksum the checksum of the results
+     */
+    private static void report(final String action, final long elapsed, final int checksum) {
+
+        final long count = (long) TIMED_PASSES * (long) NAMES.length;
+        final double nsPerName = (double) elapsed / (double) count;
+        final String nsString = String.format("%.1f", Double.valueOf(nsPerName));
+
+        Log.info(action, " ", Long.toString(count), " names in ", Long.toString(elapsed / 1_000_000L), " ms (",
+                nsString, " ns per name, checksum ", Integer.toString(checksum), ")");
+    }
+
+    /**
+     * Runs the benchmark.
+     *
+     * @param args command-line arguments (ignored)
+     */
+    public static void main(final String... args) {
+
+        final int warmup = classifyAll(WARMUP_PASSES);
+        final long start = System.nanoTime();
+        final int timed = classifyAll(TIMED_PASSES);
+        report("Classified", System.nanoTime() - start, warmup ^ timed);
+
+        final int matchWarmup = matchAll(WARMUP_PASSES);
+        final long matchStart = System.nanoTime();
+        final int matchTimed = matchAll(TIMED_PASSES);
+        report("Matched", System.nanoTime() - matchStart, matchWarmup ^ matchTimed);
+    }
+}
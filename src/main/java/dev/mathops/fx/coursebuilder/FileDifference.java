@@ -0,0 +1,11 @@
+package dev.mathops.fx.coursebuilder;
+
+/**
+ * A file that differs between two copies of a course media directory.
+ *
+ * @param path   the path of the file relative to the course media directory, with '/' separators
+ * @param change ADDED if the file exists only in the new copy, DELETED if it exists only in the old copy, MODIFIED if
+ *               its contents differ
+ */
+record FileDifference(String path, EChangeKind change) {
+}
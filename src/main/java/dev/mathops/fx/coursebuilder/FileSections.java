@@ -0,0 +1,120 @@
+package dev.mathops.fx.coursebuilder;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A precompiled description of how the files in one kind of directory are presented: the sections of a document list,
+ * the groups of file roles within each section (rows in a group appear in filename order), the rule set that decides
+ * which other entries are accepted without being presented, and the roles that must be present.
+ *
+ * <p>
+ * Sorting a directory makes a single pass over its (sorted) entries, classifying each name once with
+ * {@code FileClassifier} and appending it to the bucket for its group, so the cost does not grow with the number of
+ * recognized roles.  An entry that no section presents is reported as unexpected unless the directory's rule set in
+ * {@code CourseRules} matches it.
+ */
+final class FileSections {
+
+    /** The slot (group index, in presentation order) for each presented role. */
+    private final Map<EFileRole, Integer> slots;
+
+    /** The section that holds each slot. */
+    private final int[] sectionOfSlot;
+
+    /** The rule set that decides which entries are expected (entries it matches are not reported as unexpected). */
+    private final ERuleSet ruleSet;
+
+    /** Roles that must be present (each must have a canonical name). */
+    private final List<EFileRole> required;
+
+    /**
+     * Constructs a new {@code FileSections}.
+     *
+     * @param theRuleSet  the rule set that decides which entries are expected
+     * @param theRequired roles that must be present, in the order missing files should be reported
+     * @param sections    for each section, the groups of roles it presents, in order
+     */
+    FileSections(final ERuleSet theRuleSet, final List<EFileRole> theRequired,
+                 final EFileRole[][]... sections) {
+
+        super();
+
+        this.slots = new EnumMap<>(EFileRole.class);
+        this.ruleSet = theRuleSet;
+        this.required = List.copyOf(theRequired);
+
+        final List<Integer> sectionList = new ArrayList<>(20);
+        for (int section = 0; section < sections.length; ++section) {
+            for (final EFileRole[] group : sections[section]) {
+                final Integer slot = Integer.valueOf(sectionList.size());
+                for (final EFileRole role : group) {
+                    this.slots.put(role, slot);
+                }
+                sectionList.add(Integer.valueOf(section));
+            }
+        }
+
+        final int numSlots = sectionList.size();
+        this.sectionOfSlot = new int[numSlots];
+        for (int i = 0; i < numSlots; ++i) {
+            this.sectionOfSlot[i] = sectionList.get(i).intValue();
+        }
+    }
+
+    /**
+     * Sorts the entries of a directory into sections.  Nothing is reported for a directory that does not exist.
+     *
+     * @param dir        the directory
+     * @param sections   a list with one list per section, to which presented rows are added
+     * @param unexpected a collection to which to add entries that are neither presented nor expected
+     * @param missing    a collection to which to add required files that were not found
+     */
+    void sort(final CourseDir dir, final List<? extends Collection<? super DocumentRow>> sections,
+              final Collection<? super AbstractCourseEntry> unexpected, final Collection<? super File> missing) {
+
+        if (dir.exists()) {
+            final List<AbstractCourseEntry> entries = new ArrayList<>(dir.getEntries());
+            entries.sort(null);
+
+            final int numSlots = this.sectionOfSlot.length;
+            final List<List<DocumentRow>> buckets = new ArrayList<>(numSlots);
+            for (int i = 0; i < numSlots; ++i) {
+                buckets.add(new ArrayList<>(4));
+            }
+
+            final Set<EFileRole> found = EnumSet.noneOf(EFileRole.class);
+
+            for (final AbstractCourseEntry entry : entries) {
+                final String name = entry.getName();
+                final EFileRole role = FileClassifier.classify(name);
+                final Integer slot = this.slots.get(role);
+
+                if (slot != null) {
+                    found.add(role);
+                    final File file = entry.getFile();
+                    buckets.get(slot.intValue()).add(new DocumentRow(file, role.icon, name + role.labelSuffix, false));
+                } else if (!CourseRules.isExpected(this.ruleSet, entry)) {
+                    unexpected.add(entry);
+                }
+            }
+
+            for (int i = 0; i < numSlots; ++i) {
+                sections.get(this.sectionOfSlot[i]).addAll(buckets.get(i));
+            }
+
+            final File dirFile = dir.getFile();
+            for (final EFileRole role : this.required) {
+                if (!found.contains(role)) {
+                    missing.add(new File(dirFile, role.canonicalName));
+                }
+            }
+        }
+    }
+}
@@ -3,24 +3,29 @@ package dev.mathops.fx.coursebuilder;
 import javafx.collections.ObservableList;
 import javafx.geometry.Insets;
 import javafx.scene.Node;
-import javafx.scene.layout.BorderPane;
 import javafx.scene.layout.FlowPane;
 import javafx.scene.layout.GridPane;
 
 import java.io.File;
 import java.util.ArrayList;
-import java.util.Collection;
+import java.util.List;
 
 /**
  * The content of a "Handouts" tab.
  */
-final class HandoutsTabContent extends BorderPane {
+final class HandoutsTabContent extends AbstractLazyTabContent {
 
     /** The owning application. */
     private final CourseBuilder owner;
 
     /** The containing directory. */
-    private final File containingDir;
+    private final CourseDir containingDir;
+
+    /** The location prefix. */
+    private final String locationPrefix;
+
+    /** Unexpected files found in the containing directory. */
+    private final List<AbstractCourseEntry> unexpected;
 
     /** The number of handouts found. */
     private final int numHandouts;
@@ -36,76 +41,64 @@ final class HandoutsTabContent extends BorderPane {
      * @param locationPrefix   the prefix for the location, like "02_subject.01_topic" (to this will be appended a dot
      *                         and the filename of the containing directory)
      */
-    HandoutsTabContent(final CourseBuilder theOwner, final File theContainingDir, final String locationPrefix) {
+    HandoutsTabContent(final CourseBuilder theOwner, final CourseDir theContainingDir, final String locationPrefix) {
 
         super();
 
         this.owner = theOwner;
         this.containingDir = theContainingDir;
-
-        setPadding(AppConstants.PADDING);
-
-        if (theContainingDir.exists() && theContainingDir.isDirectory()) {
-            // Top pane shows the location of the file we're viewing (omit if the directory does not exist)
-            final String locationString = locationPrefix + "." + theContainingDir.getName();
-            final FlowPane top = AppUtils.makeLocationFlow(theOwner, "Location:  ", locationString, theContainingDir);
-            setTop(top);
-        }
+        this.locationPrefix = locationPrefix;
 
         // TODO:
 
         this.numHandouts = 0;
 
-        // Show extra files found
-
-        final File[] allFiles = theContainingDir.listFiles();
-        if (allFiles != null) {
-            final Collection<File> unexpected = new ArrayList<>(allFiles.length);
-            for (final File file : allFiles) {
-                final String name = file.getName();
-                if (file.isDirectory()) {
-                    if ("10_notes".equals(name) || "20_worksheet".equals(name)
-                        || "30_practice".equals(name) || "40_answers".equals(name)) {
-                        continue;
-                    }
-                } else if (name.equals(AppConstants.METADATA_FILE)) {
-                    continue;
-                }
-
-                if (file.isDirectory()) {
-                    this.numWarnings += AppUtils.countFiles(file);
-                } else {
-                    ++this.numWarnings;
-                }
-
-                unexpected.add(file);
-            }
+        // Find extra files
 
-            if (!unexpected.isEmpty()) {
-                final GridPane unexpectedPane = new GridPane();
-                unexpectedPane.setPadding(new Insets(0.0, 0.0, 0.0, 20.0));
-                unexpectedPane.setHgap(10);
-                unexpectedPane.setVgap(4);
-                setBottom(unexpectedPane);
-
-                final ObservableList<Node> unexpectedChildren = unexpectedPane.getChildren();
-
-                int unexpectedRow = 0;
-                for (final File file : unexpected) {
-                    final String name = file.getName();
-                    AppUtils.addSimpleDocumentRow(file, name, unexpectedChildren, unexpectedRow);
-                    ++unexpectedRow;
-                }
+        final List<AbstractCourseEntry> allFiles = theContainingDir.getEntries();
+        this.unexpected = new ArrayList<>(allFiles.size());
+        for (final AbstractCourseEntry file : allFiles) {
+            if (!CourseRules.isExpected(ERuleSet.HANDOUTS, file)) {
+                this.numWarnings += file.countFiles();
+                this.unexpected.add(file);
             }
         }
     }
 
     /**
-     * Initializes this panel.  Called after the constructor completes since this method uses "this" to add itself as a
-     * listener.
+     * Builds the child nodes for this content.
      */
-    void init() {
+    @Override
+    void build() {
 
+        setPadding(AppConstants.PADDING);
+
+        if (this.containingDir.exists()) {
+            // Top pane shows the location of the file we're viewing (omit if the directory does not exist)
+            final String locationString = this.locationPrefix + "." + this.containingDir.getName();
+            final File containingFile = this.containingDir.getFile();
+            final FlowPane top = AppUtils.makeLocationFlow(this.owner, "Location:  ", locationString, containingFile);
+            setTop(top);
+        }
+
+        // Show extra files found
+        if (!this.unexpected.isEmpty()) {
+            final GridPane unexpectedPane = new GridPane();
+            unexpectedPane.setPadding(new Insets(0.0, 0.0, 0.0, 20.0));
+            unexpectedPane.setHgap(10);
+            unexpectedPane.setVgap(4);
+            setBottom(unexpectedPane);
+
+            final ObservableList<Node> unexpectedChildren = unexpectedPane.getChildren();
+
+            int unexpectedRow = 0;
+            for (final AbstractCourseEntry file : this.unexpected) {
+                final String name = file.getName();
+                final File target = file.getFile();
+                AppUtils.addSimpleDocumentRow(target, name, unexpectedChildren, unexpectedRow);
+                ++unexpectedRow;
+            }
+        }
     }
 
     /**
@@ -123,6 +116,7 @@ final class HandoutsTabContent extends BorderPane {
      *
      * @return the number of warnings
      */
+    @Override
     int getNumWarnings() {
 
         return this.numWarnings;
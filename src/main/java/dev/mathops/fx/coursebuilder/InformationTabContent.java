@@ -1,17 +1,13 @@
 package dev.mathops.fx.coursebuilder;
 
 import dev.mathops.commons.CoreConstants;
-import dev.mathops.commons.file.FileLoader;
 import dev.mathops.commons.log.Log;
-import dev.mathops.text.parser.ParsingException;
 import dev.mathops.text.parser.json.JSONObject;
-import dev.mathops.text.parser.json.JSONParser;
 import javafx.beans.binding.Bindings;
 import javafx.beans.binding.DoubleBinding;
 import javafx.beans.property.DoubleProperty;
 import javafx.beans.property.ReadOnlyDoubleProperty;
 import javafx.collections.ObservableList;
-import javafx.embed.swing.SwingFXUtils;
 import javafx.geometry.Pos;
 import javafx.geometry.VPos;
 import javafx.scene.Node;
@@ -19,23 +15,27 @@ import javafx.scene.control.Label;
 import javafx.scene.control.TextArea;
 import javafx.scene.control.TextField;
 import javafx.scene.image.ImageView;
-import javafx.scene.image.WritableImage;
 import javafx.scene.layout.FlowPane;
 import javafx.scene.layout.VBox;
 
-import java.awt.image.BufferedImage;
 import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.List;
 
 /**
  * The content of an "Information" tab.  This panel shows information from the "metadata.json" file, and provides
  * buttons to open the enclosing directory and (optionally) an Outline document.
  * <p>
+ * The metadata file is loaded when the content is constructed (so its warning count can be shown on the tab), but
+ * the controls are not built until the tab is first selected.  If there is no metadata file, a blank one is created
+ * only when the controls are built, so content built speculatively for a prefetched pane never writes to disk.
+ * <p>
  * TODO: Allow for this information to be updated from here.
  */
-final class InformationTabContent extends VBox {
+final class InformationTabContent extends AbstractLazyTabContent {
 
     /** The width for aligned labels. */
     private static final double LABEL_WIDTH = 90.0;
@@ -46,23 +46,50 @@ final class InformationTabContent extends VBox {
     /** The width for title and author fields. */
     private static final double FIELD_WIDTH = 350.0;
 
+    /** The maximum width at which a thumbnail image is shown (larger images are scaled down). */
+    private static final double THUMB_MAX_WIDTH = 480.0;
+
+    /** The maximum height at which a thumbnail image is shown. */
+    private static final double THUMB_MAX_HEIGHT = 360.0;
+
+    /** The owning application. */
+    private final CourseBuilder owner;
+
+    /** The containing directory. */
+    private final CourseDir containingDir;
+
+    /** The filename of the outline file (null if none). */
+    private final String outlineFilename;
+
+    /** Objective statistics to display (null if none). */
+    private final ObjectiveStats objectiveStats;
+
+    /** Standard statistics to display (null if none). */
+    private final StandardStats standardStats;
+
     /** The file containing metadata. */
     private final File jsonFile;
 
+    /** The metadata file found when the course was scanned (null if it was not present). */
+    private final CourseFile scannedJsonFile;
+
+    /** The parsed metadata (null if it could not be loaded). */
+    private JSONObject metadata;
+
     /** The file containing the outline. */
     private File outlineFile = null;
 
     /** A field in which to edit the title. */
-    private final TextField title;
+    private TextField title = null;
 
     /** A field in which to edit the list of authors. */
-    private final TextField authors;
+    private TextField authors = null;
 
     /** A field in which to edit the description. */
-    private final TextArea description;
+    private TextArea description = null;
 
     /** A field in which to edit the understanding goals. */
-    private final TextArea goals;
+    private TextArea goals = null;
 
     /** The number of warnings found. */
     private int numWarnings = 0;
@@ -74,18 +101,81 @@ final class InformationTabContent extends VBox {
      * @param theContainingDir the containing directory
      * @param outlineFilename  the filename of the outline file (null if none)
      */
-    InformationTabContent(final CourseBuilder theOwner, final File theContainingDir, final String outlineFilename) {
+    InformationTabContent(final CourseBuilder theOwner, final CourseDir theContainingDir,
+                          final String outlineFilename) {
 
-        super(AppConstants.V_PAD);
+        this(theOwner, theContainingDir, outlineFilename, null, null);
+    }
 
-        this.jsonFile = new File(theContainingDir, AppConstants.METADATA_FILE);
+    /**
+     * Constructs a new {@code InformationTabContent} that includes Objective statistics.
+     *
+     * @param theOwner         the owning application
+     * @param theContainingDir the containing directory
+     * @param outlineFilename  the filename of the outline file (null if none)
+     * @param stats            statistics to display (null if none)
+     */
+    InformationTabContent(final CourseBuilder theOwner, final CourseDir theContainingDir,
+                          final String outlineFilename, final ObjectiveStats stats) {
+
+        this(theOwner, theContainingDir, outlineFilename, stats, null);
+    }
 
-        final boolean hasOutline = outlineFilename != null;
-        if (hasOutline) {
-            this.outlineFile = new File(theContainingDir, outlineFilename);
+    /**
+     * Constructs a new {@code InformationTabContent} that includes Standard statistics.
+     *
+     * @param theOwner         the owning application
+     * @param theContainingDir the containing directory
+     * @param outlineFilename  the filename of the outline file (null if none)
+     * @param stats            statistics to display (null if none)
+     */
+    InformationTabContent(final CourseBuilder theOwner, final CourseDir theContainingDir,
+                          final String outlineFilename, final StandardStats stats) {
+
+        this(theOwner, theContainingDir, outlineFilename, null, stats);
+    }
+
+    /**
+     * Constructs a new {@code InformationTabContent}.
+     *
+     * @param theOwner           the owning application
+     * @param theContainingDir   the containing directory
+     * @param theOutlineFilename the filename of the outline file (null if none)
+     * @param theObjectiveStats  objective statistics to display (null if none)
+     * @param theStandardStats   standard statistics to display (null if none)
+     */
+    private InformationTabContent(final CourseBuilder theOwner, final CourseDir theContainingDir,
+                                  final String theOutlineFilename, final ObjectiveStats theObjectiveStats,
+                                  final StandardStats theStandardStats) {
+
+        super();
+
+        this.owner = theOwner;
+        this.containingDir = theContainingDir;
+        this.outlineFilename = theOutlineFilename;
+        this.objectiveStats = theObjectiveStats;
+        this.standardStats = theStandardStats;
+
+        final File containingFile = theContainingDir.getFile();
+        this.jsonFile = new File(containingFile, AppConstants.METADATA_FILE);
+        this.scannedJsonFile = theContainingDir.getChildFile(AppConstants.METADATA_FILE);
+
+        if (theOutlineFilename != null) {
+            this.outlineFile = new File(containingFile, theOutlineFilename);
         }
 
-        setPadding(AppConstants.BUTTON_ROW_PADDING);
+        this.metadata = this.scannedJsonFile == null ? null : loadMetadata(MetadataCache.get(this.scannedJsonFile));
+    }
+
+    /**
+     * Builds the child nodes for this content.
+     */
+    @Override
+    void build() {
+
+        final VBox box = new VBox(AppConstants.V_PAD);
+        box.setPadding(AppConstants.BUTTON_ROW_PADDING);
+        setCenter(box);
 
         final Label[] labels = {new Label("Title:  "), new Label("Author(s):  "), new Label("Description:  "),
                 new Label("Goals:  "), new Label("Outline:  "), new Label("Thumbnail:  ")};
@@ -101,7 +191,7 @@ final class InformationTabContent extends VBox {
         this.authors.setPrefWidth(FIELD_WIDTH);
 
         // Compute width after labels and insets for the text areas
-        final ReadOnlyDoubleProperty myWidth = widthProperty();
+        final ReadOnlyDoubleProperty myWidth = box.widthProperty();
         final DoubleBinding remainingWidth = Bindings.subtract(myWidth, LABEL_WIDTH + AppConstants.V_GAP);
 
         this.description = new TextArea();
@@ -134,37 +224,35 @@ final class InformationTabContent extends VBox {
         final ObservableList<Node> row4Children = row4.getChildren();
         row4Children.addAll(labels[3], this.goals);
 
-        final ObservableList<Node> children = getChildren();
+        final ObservableList<Node> children = box.getChildren();
         children.addAll(row1, row2, row3, row4);
 
         if (this.outlineFile != null) {
-            if (this.outlineFile.exists()) {
-                final FlowPane row5 = AppUtils.makeLocationFlow(theOwner, "Outline:  ",
-                        outlineFilename + " (open in Word)",
+            if (this.containingDir.hasFile(this.outlineFilename)) {
+                final FlowPane row5 = AppUtils.makeLocationFlow(this.owner, "Outline:  ",
+                        this.outlineFilename + " (open in Word)",
                         this.outlineFile);
                 children.add(row5);
             } else {
                 final FlowPane row5 = new FlowPane();
                 row5.setRowValignment(VPos.BASELINE);
                 final ObservableList<Node> row5Children = row5.getChildren();
-                final Label lbl = new Label(outlineFilename + " (file not found)");
+                final Label lbl = new Label(this.outlineFilename + " (file not found)");
                 row5Children.addAll(labels[4], lbl);
                 children.add(row5);
             }
         }
 
-        final File thumbPng = new File(theContainingDir, "thumb.png");
-        final File thumbJpg = new File(theContainingDir, "thumb.jpg");
-        final File thumbJpeg = new File(theContainingDir, "thumb.jpeg");
-        final File thumb;
-        if (thumbPng.exists()) {
+        final CourseFile thumbPng = this.containingDir.getChildFile("thumb.png");
+        final CourseFile thumbJpg = this.containingDir.getChildFile("thumb.jpg");
+        final CourseFile thumbJpeg = this.containingDir.getChildFile("thumb.jpeg");
+        final CourseFile thumb;
+        if (thumbPng != null) {
             thumb = thumbPng;
-        } else if (thumbJpg.exists()) {
+        } else if (thumbJpg != null) {
             thumb = thumbJpg;
-        } else if (thumbJpeg.exists()) {
-            thumb = thumbJpeg;
         } else {
-            thumb = null;
+            thumb = thumbJpeg;
         }
 
         if (thumb != null) {
@@ -172,36 +260,45 @@ final class InformationTabContent extends VBox {
             final ObservableList<Node> row6Children = row6.getChildren();
             final String filename = thumb.getName();
 
-            final BufferedImage img = FileLoader.loadFileAsImage(thumb, false);
-            if (img == null) {
-                final Label filenameLabel = new Label(filename + " (unable to load)");
-                row6Children.addAll(labels[5], filenameLabel);
-            } else {
-                final int w = img.getWidth();
-                final int h = img.getHeight();
-                final WritableImage writable = new WritableImage(w, h);
-                final WritableImage fxImage = SwingFXUtils.toFXImage(img, writable);
-                final ImageView view = new ImageView(fxImage);
-
-                final Label filenameLabel = new Label(filename + "  ");
-                row6Children.addAll(labels[5], filenameLabel, view);
-                children.add(row6);
-            }
+            final Label filenameLabel = new Label(filename + "  ");
+            final ImageView view = new ImageView();
+            row6Children.addAll(labels[5], filenameLabel, view);
+            children.add(row6);
+
+            PreviewImages.load(thumb, THUMB_MAX_WIDTH, THUMB_MAX_HEIGHT, image -> {
+                if (image == null) {
+                    filenameLabel.setText(filename + " (unable to load)");
+                    row6Children.remove(view);
+                } else {
+                    view.setImage(image);
+                }
+            });
+        }
+
+        if (this.scannedJsonFile == null && createBlankMetadataFile()) {
+            MetadataCache.invalidate(this.jsonFile);
+            this.metadata = loadMetadata(MetadataCache.get(this.jsonFile));
+        }
+
+        if (this.metadata != null) {
+            populateFields(this.metadata);
+        }
+
+        if (this.objectiveStats != null) {
+            addObjectiveStats(children, this.objectiveStats);
+        }
+        if (this.standardStats != null) {
+            addStandardStats(children, this.standardStats);
         }
     }
 
     /**
-     * Constructs a new {@code InformationTabContent} that includes Objective statistics.
+     * Adds rows that present objective statistics.
      *
-     * @param theOwner         the owning application
-     * @param theContainingDir the containing directory
-     * @param outlineFilename  the filename of the outline file (null if none)
-     * @param stats            statistics to display (null if none)
+     * @param children the list of children to which to add rows
+     * @param stats    the statistics to display
      */
-    InformationTabContent(final CourseBuilder theOwner, final File theContainingDir, final String outlineFilename,
-                          final ObjectiveStats stats) {
-
-        this(theOwner, theContainingDir, outlineFilename);
+    private static void addObjectiveStats(final Collection<? super Node> children, final ObjectiveStats stats) {
 
         final Label[] labels = {new Label("Number of lessons:  "), new Label("Number of Examples:  "),
                 new Label("Number of Explorations:  "), new Label("Lessons in Explorations:  "),
@@ -273,22 +370,16 @@ final class InformationTabContent extends VBox {
         final Label label10 = new Label(numItemsStr);
         row10Children.addAll(labels[9], label10);
 
-        final ObservableList<Node> children = getChildren();
-        children.addAll(row1, row2, row3, row4, row5, row6, row7, row8, row9, row10);
+        children.addAll(List.of(row1, row2, row3, row4, row5, row6, row7, row8, row9, row10));
     }
 
     /**
-     * Constructs a new {@code InformationTabContent} that includes Standard statistics.
+     * Adds rows that present standard statistics.
      *
-     * @param theOwner         the owning application
-     * @param theContainingDir the containing directory
-     * @param outlineFilename  the filename of the outline file (null if none)
-     * @param stats            statistics to display (null if none)
+     * @param children the list of children to which to add rows
+     * @param stats    the statistics to display
      */
-    InformationTabContent(final CourseBuilder theOwner, final File theContainingDir, final String outlineFilename,
-                          final StandardStats stats) {
-
-        this(theOwner, theContainingDir, outlineFilename);
+    private static void addStandardStats(final Collection<? super Node> children, final StandardStats stats) {
 
         final Label[] labels = {new Label("Number of Intro Lessons:  "), new Label("Number of Summary Lessons:  "),
                 new Label("Number of Objectives:  "), new Label("Lessons in Objectives:  "),
@@ -393,17 +484,8 @@ final class InformationTabContent extends VBox {
         final Label label15 = new Label(numAssessmentsStr);
         row15Children.addAll(labels[14], label15);
 
-        final ObservableList<Node> children = getChildren();
-        children.addAll(row1, row2, row3, row4, row5, row6, row7, row8, row9, row10, row11, row12, row13, row14, row15);
-    }
-
-    /**
-     * Initializes this panel.  Called after the constructor completes since this method uses "this" to add itself as a
-     * listener.
-     */
-    void init() {
-
-        loadMetadata();
+        children.addAll(List.of(row1, row2, row3, row4, row5, row6, row7, row8, row9, row10, row11, row12, row13,
+                row14, row15));
     }
 
     /**
@@ -411,46 +493,41 @@ final class InformationTabContent extends VBox {
      *
      * @return the number of warnings
      */
+    @Override
     int getNumWarnings() {
 
         return this.numWarnings;
     }
 
     /**
-     * Attempts to load the metadata file.  If successful the data fields in this pane are updated.
+     * Gets the parsed metadata from an entry in the shared metadata cache, counting a warning if it could not be
+     * loaded.
+     *
+     * @param entry the metadata cache entry (null if none)
+     * @return the parsed metadata; null if it could not be loaded
      */
-    private void loadMetadata() {
+    private JSONObject loadMetadata(final MetadataEntry entry) {
 
-        if (!this.jsonFile.exists()) {
-            createBlankMetadataFile();
-        }
+        JSONObject result = null;
 
-        if (this.jsonFile.exists()) {
-            final String fileData = FileLoader.loadFileAsString(this.jsonFile, false);
+        if (entry != null) {
+            final EMetadataStatus status = entry.status();
 
-            if (fileData == null) {
+            if (status == EMetadataStatus.VALID) {
+                result = entry.json();
+            } else if (status == EMetadataStatus.UNREADABLE) {
                 // TODO: populate a field with errors.
                 Log.warning("There was an error loading the metadata file");
                 ++this.numWarnings;
             } else {
-                try {
-                    final Object parsed = JSONParser.parseJSON(fileData);
-                    if (parsed instanceof final JSONObject parsedJson) {
-                        populateFields(parsedJson);
-                    } else {
-                        // TODO: populate a field with errors.
-                        Log.warning("There was an error parsing the metadata file");
-                        ++this.numWarnings;
-                    }
-                } catch (final ParsingException e) {
-                    // TODO: Populate an errors field with errors.
-                    Log.warning("There was an error parsing the metadata file", e);
-                    ++this.numWarnings;
-                }
+                // TODO: Populate an errors field with errors (the parse error is logged by the cache).
+                ++this.numWarnings;
             }
         }
 
         // TODO: Communicate these warnings to the user
+
+        return result;
     }
 
     /**
@@ -473,8 +550,10 @@ final class InformationTabContent extends VBox {
 
     /**
      * Creates an empty metadata JSON file when one is not found.
+     *
+     * @return true if the file was created; false if not
      */
-    private void createBlankMetadataFile() {
+    private boolean createBlankMetadataFile() {
 
         final String contents = """
                 {
@@ -485,10 +564,15 @@ final class InformationTabContent extends VBox {
                 }
                 """;
 
+        boolean created = false;
+
         try (final FileWriter writer = new FileWriter(this.jsonFile, StandardCharsets.UTF_8)) {
             writer.write(contents);
+            created = true;
         } catch (final IOException ex) {
             Log.warning("Failed to create metadata file.", ex);
         }
+
+        return created;
     }
 }
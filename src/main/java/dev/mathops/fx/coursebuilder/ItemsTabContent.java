@@ -1,6 +1,5 @@
 package dev.mathops.fx.coursebuilder;
 
-import javafx.scene.layout.BorderPane;
 import javafx.scene.layout.FlowPane;
 
 import java.io.File;
@@ -8,7 +7,16 @@ import java.io.File;
 /**
  * The content of an "Items" tab.
  */
-final class ItemsTabContent extends BorderPane {
+final class ItemsTabContent extends AbstractLazyTabContent {
+
+    /** The owning application. */
+    private final CourseBuilder owner;
+
+    /** The containing directory. */
+    private final CourseDir containingDir;
+
+    /** The location prefix. */
+    private final String locationPrefix;
 
     /** The number of items. */
     private final int numItems;
@@ -24,18 +32,13 @@ final class ItemsTabContent extends BorderPane {
      * @param locationPrefix   the prefix for the location, like "02_subject.01_topic" (to this will be appended a dot
      *                         and the filename of the containing directory)
      */
-    ItemsTabContent(final CourseBuilder theOwner, final File theContainingDir, final String locationPrefix) {
+    ItemsTabContent(final CourseBuilder theOwner, final CourseDir theContainingDir, final String locationPrefix) {
 
         super();
 
-        setPadding(AppConstants.PADDING);
-
-        if (theContainingDir.exists() && theContainingDir.isDirectory()) {
-            // Top pane shows the location of the file we're viewing (omit if the directory does not exist)
-            final String locationString = locationPrefix + "." + theContainingDir.getName();
-            final FlowPane top = AppUtils.makeLocationFlow(theOwner, "Location:  ", locationString, theContainingDir);
-            setTop(top);
-        }
+        this.owner = theOwner;
+        this.containingDir = theContainingDir;
+        this.locationPrefix = locationPrefix;
 
         // TODO:
 
@@ -43,11 +46,20 @@ final class ItemsTabContent extends BorderPane {
     }
 
     /**
-     * Initializes this panel.  Called after the constructor completes since this method uses "this" to add itself as a
-     * listener.
+     * Builds the child nodes for this content.
      */
-    void init() {
+    @Override
+    void build() {
+
+        setPadding(AppConstants.PADDING);
 
+        if (this.containingDir.exists()) {
+            // Top pane shows the location of the file we're viewing (omit if the directory does not exist)
+            final String locationString = this.locationPrefix + "." + this.containingDir.getName();
+            final File containingFile = this.containingDir.getFile();
+            final FlowPane top = AppUtils.makeLocationFlow(this.owner, "Location:  ", locationString, containingFile);
+            setTop(top);
+        }
     }
 
     /**
@@ -65,6 +77,7 @@ final class ItemsTabContent extends BorderPane {
      *
      * @return the number of warnings
      */
+    @Override
     int getNumWarnings() {
 
         return this.numWarnings;
@@ -0,0 +1,22 @@
+package dev.mathops.fx.coursebuilder;
+
+/**
+ * The most recent change to one file in the {@code ChangeJournal}.
+ *
+ * @param path     the path of the file relative to the course media directory, with "/" as the separator
+ * @param kind     the kind of change
+ * @param sequence the journal sequence number of the change
+ * @param time     the time the change was recorded
+ */
+record JournalEntry(String path, EChangeKind kind, long sequence, long time) {
+
+    /**
+     * Gets the filename (the last component of the path).
+     *
+     * @return the filename
+     */
+    String name() {
+
+        return this.path.substring(this.path.lastIndexOf('/') + 1);
+    }
+}
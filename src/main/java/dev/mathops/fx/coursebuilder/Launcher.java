@@ -8,6 +8,11 @@ package dev.mathops.fx.coursebuilder;
  * <pre>
  *   --module-path "C:\opt\javafx-sdk-23.0.1\lib" --add-modules javafx.controls
  * </pre>
+ *
+ * <p>
+ * If the first argument is "--validate", the course media directory is validated without starting the user interface
+ * (see {@code CourseValidator}), and the process exits with the validator's exit code.  If the first argument is
+ * "--compare", two copies of a course media directory are compared in the same way (see {@code TreeComparer}).
  */
 public final class Launcher {
 
@@ -20,12 +25,20 @@ public final class Launcher {
     }
 
     /**
-     * Runs the main application.
+     * Runs the main application, or one of the headless tools.
      *
      * @param args command-line arguments
      */
     public static void main(final String... args) {
 
-        CourseBuilder.main(args);
+        if (args.length > 0 && CourseValidator.VALIDATE_OPTION.equals(args[0])) {
+            final int exitCode = CourseValidator.run(args);
+            System.exit(exitCode);
+        } else if (args.length > 0 && TreeComparer.COMPARE_OPTION.equals(args[0])) {
+            final int exitCode = TreeComparer.run(args);
+            System.exit(exitCode);
+        } else {
+            CourseBuilder.main(args);
+        }
     }
 }
@@ -14,19 +14,26 @@ import javafx.scene.control.Button;
 import javafx.scene.control.Label;
 import javafx.scene.control.ListView;
 import javafx.scene.control.MultipleSelectionModel;
+import javafx.scene.control.ProgressIndicator;
 import javafx.scene.layout.Border;
 import javafx.scene.layout.BorderPane;
 import javafx.scene.layout.FlowPane;
 import javafx.scene.layout.VBox;
 import javafx.scene.text.Font;
 
-import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Objects;
 
 /**
  * A pane  that presents the list of subject directories and (when a subject directory is selected) the list of topic
  * module directories within that subject.  When the user selects a topic module directory, that selection is
  * communicated to the owning application.
+ *
+ * <p>
+ * Lists are built from the owner's in-memory course tree, and their items are always replaced in a single batch.
+ * While the owner is scanning the course media directory, the subject list shows a progress indicator and the
+ * "Refresh" button is disabled.
  */
 class LeftPane extends BorderPane implements ChangeListener<String>, EventHandler<ActionEvent> {
 
@@ -36,18 +43,6 @@ class LeftPane extends BorderPane implements ChangeListener<String>, EventHandle
     /** The portion of the left window that is used for subjects. */
     private static final double SUBJECT_PORTION = 0.35;
 
-    /** A character in numbered directory names. */
-    private static final char UNDERSCORE = '_';
-
-    /** A character in numbered directory names. */
-    private static final char ZERO = '0';
-
-    /** A character in numbered directory names. */
-    private static final char NINE = '9';
-
-    /** The course media directory. */
-    private final File courseMediaDir;
-
     /** The owning application. */
     private final CourseBuilder owner;
 
@@ -66,17 +61,15 @@ class LeftPane extends BorderPane implements ChangeListener<String>, EventHandle
     /**
      * Constructs a new {@code SubjectDirectoriesList}.
      *
-     * @param theOwner          the owning application
-     * @param theCourseMediaDir the course media directory
-     * @param stageHeight       the stage height
+     * @param theOwner    the owning application
+     * @param stageHeight the stage height
      */
-    LeftPane(final CourseBuilder theOwner, final File theCourseMediaDir, final double stageHeight) {
+    LeftPane(final CourseBuilder theOwner, final double stageHeight) {
 
         super();
 
         setPrefWidth(PREF_WIDTH);
 
-        this.courseMediaDir = theCourseMediaDir;
         this.owner = theOwner;
 
         setPadding(new Insets(AppConstants.V_PAD, AppConstants.H_PAD, AppConstants.V_PAD, AppConstants.H_PAD));
@@ -99,19 +92,11 @@ class LeftPane extends BorderPane implements ChangeListener<String>, EventHandle
         this.subjectList = new ListView<>();
         this.subjectList.setPrefHeight(stageHeight * SUBJECT_PORTION);
 
-        final ObservableList<String> subjectItems = FXCollections.observableArrayList();
-        final File[] files = this.courseMediaDir.listFiles();
-        if (files != null) {
-            for (final File file : files) {
-                if (file.isDirectory()) {
-                    final String name = file.getName();
-                    if (isNumberedName(name)) {
-                        subjectItems.add(name);
-                    }
-                }
-            }
-        }
+        final CourseTree tree = this.owner.getCourseTree();
+        final List<String> subjectNames = listSubjects(tree);
+        final ObservableList<String> subjectItems = FXCollections.observableArrayList(subjectNames);
         this.subjectList.setItems(subjectItems);
+        this.subjectList.setPlaceholder(new Label("(No subjects)"));
         topChildren.add(this.subjectList);
 
         // Center is a list of topic module directories in the selected subject directory
@@ -124,6 +109,7 @@ class LeftPane extends BorderPane implements ChangeListener<String>, EventHandle
         center.setTop(topicDirLabel);
 
         this.topicList = new ListView<>();
+        this.topicList.setPlaceholder(new Label("(No topics)"));
         center.setCenter(this.topicList);
 
         // Bottom is a refresh button to rescan directories
@@ -153,42 +139,6 @@ class LeftPane extends BorderPane implements ChangeListener<String>, EventHandle
         selectedTopic.addListener(this);
 
         this.refreshButton.setOnAction(this);
-        refresh();
-    }
-
-    /**
-     * Tests whether a name starts with two numbers then an underscore.
-     *
-     * @param name the name
-     * @return true if the name is a "numbered" name
-     */
-    private static boolean isNumberedName(final CharSequence name) {
-
-        final boolean numbered;
-
-        if (name.length() >= 3) {
-            final int ch0 = (int) name.charAt(0);
-            final int ch1 = (int) name.charAt(1);
-            final int ch2 = (int) name.charAt(2);
-
-            numbered = ch2 == (int) UNDERSCORE && isDigit(ch0) && isDigit(ch1);
-        } else {
-            numbered = false;
-        }
-
-        return numbered;
-    }
-
-    /**
-     * Tests whether a character is an ASCII digit.
-     *
-     * @param code the character code
-     * @return true if the character code lies in the range '0' through '9' (inclusive)
-     */
-
-    private static boolean isDigit(final int code) {
-
-        return code >= (int) ZERO && code <= (int) NINE;
     }
 
     /**
@@ -213,22 +163,11 @@ class LeftPane extends BorderPane implements ChangeListener<String>, EventHandle
                     topicListItems.clear();
                     this.owner.topicSelected(null);
                 } else {
-                    final File subjectDir = new File(this.courseMediaDir, newValue);
-                    if (subjectDir.exists() && subjectDir.isDirectory()) {
+                    final CourseDir subjectDir = findSubject(newValue);
+                    if (subjectDir != null) {
 
                         if (!newValue.equals(oldValue)) {
-                            topicListItems.clear();
-                            final File[] files = subjectDir.listFiles();
-                            if (files != null) {
-                                for (final File file : files) {
-                                    if (file.isDirectory()) {
-                                        final String name = file.getName();
-                                        if (isNumberedName(name)) {
-                                            topicListItems.add(name);
-                                        }
-                                    }
-                                }
-                            }
+                            loadTopics(subjectDir);
                         }
                     } else {
                         topicListItems.clear();
@@ -245,13 +184,8 @@ class LeftPane extends BorderPane implements ChangeListener<String>, EventHandle
                     } else {
                         final String selectedSubject = subjectSelectionModel.getSelectedItem();
                         if (selectedSubject != null) {
-                            final File subjectDir = new File(this.courseMediaDir, selectedSubject);
-                            final File topicDir = new File(subjectDir, newValue);
-                            if (topicDir.exists() && topicDir.isDirectory()) {
-                                this.owner.topicSelected(topicDir);
-                            } else {
-                                this.owner.topicSelected(null);
-                            }
+                            final CourseDir topicDir = findTopic(selectedSubject, newValue);
+                            this.owner.topicSelected(topicDir);
                         }
                     }
                 }
@@ -259,6 +193,72 @@ class LeftPane extends BorderPane implements ChangeListener<String>, EventHandle
         }
     }
 
+    /**
+     * Replaces the topic list with the topics in a subject.
+     *
+     * @param subjectDir the subject directory
+     */
+    private void loadTopics(final CourseDir subjectDir) {
+
+        final List<String> topicNames = listTopics(subjectDir);
+        this.topicList.getItems().setAll(topicNames);
+    }
+
+    /**
+     * Gets the names of the subject directories in a course tree.
+     *
+     * @param tree the course tree
+     * @return the subject names, in order
+     */
+    private static List<String> listSubjects(final CourseTree tree) {
+
+        final List<CourseDir> subjects = tree.getSubjects();
+        final List<String> names = new ArrayList<>(subjects.size());
+
+        for (final CourseDir subject : subjects) {
+            final String name = subject.getName();
+            names.add(name);
+        }
+
+        return names;
+    }
+
+    /**
+     * Gets the names of the topic module directories in a subject directory.
+     *
+     * @param subjectDir the subject directory
+     * @return the topic names, in order
+     */
+    private static List<String> listTopics(final CourseDir subjectDir) {
+
+        final List<CourseDir> topics = CourseTree.getTopics(subjectDir);
+        final List<String> names = new ArrayList<>(topics.size());
+
+        for (final CourseDir topic : topics) {
+            final String name = topic.getName();
+            names.add(name);
+        }
+
+        return names;
+    }
+
+    /**
+     * Shows or hides the indication that the owner is scanning the course media directory.  While scanning, an empty
+     * subject list shows a progress indicator and the "Refresh" button is disabled.
+     *
+     * @param scanning true if a scan is in progress
+     */
+    void setScanning(final boolean scanning) {
+
+        this.refreshButton.setDisable(scanning);
+
+        if (scanning) {
+            this.subjectList.setPlaceholder(new ProgressIndicator());
+        } else {
+            this.subjectList.setPlaceholder(new Label("(No subjects)"));
+        }
+    }
+
     /**
      * Called when a button invokes an action.
      *
@@ -271,11 +271,51 @@ class LeftPane extends BorderPane implements ChangeListener<String>, EventHandle
     }
 
     /**
-     * Refreshes the window.  This attempts to preserve the user's selection if there was a selection, and it still
-     * exists.
+     * Finds the subject directory with a specified name in the current course tree.
+     *
+     * @param subjectName the subject directory name
+     * @return the subject directory; null if not found
+     */
+    private CourseDir findSubject(final String subjectName) {
+
+        final CourseTree tree = this.owner.getCourseTree();
+        final CourseDir root = tree.getRoot();
+        final CourseDir subject = root.getSubdir(subjectName);
+
+        return subject == null || subject.getKind() != EDirKind.SUBJECT ? null : subject;
+    }
+
+    /**
+     * Finds the topic module directory with a specified name in the current course tree.
+     *
+     * @param subjectName the subject directory name
+     * @param topicName   the topic module directory name
+     * @return the topic module directory; null if not found
+     */
+    private CourseDir findTopic(final String subjectName, final String topicName) {
+
+        final CourseDir subject = findSubject(subjectName);
+        final CourseDir topic = subject == null ? null : subject.getSubdir(topicName);
+
+        return topic == null || topic.getKind() != EDirKind.TOPIC ? null : topic;
+    }
+
+    /**
+     * Refreshes the window.  This does a full rescan of the course media directory (changes are normally applied
+     * automatically by the course watcher, but watch events can be unreliable on some network and cloud-synced file
+     * systems).  The owner reloads this pane when the new tree is installed.
      */
     private void refresh() {
 
+        this.owner.rescan();
+    }
+
+    /**
+     * Reloads the subject and topic lists from the owner's current course tree, preserving the user's selection if
+     * there was a selection, and it still exists.
+     */
+    void reload() {
+
         this.selectionListenersActive = false;
 
         final MultipleSelectionModel<String> subjectSelectionModel = this.subjectList.getSelectionModel();
@@ -284,20 +324,11 @@ class LeftPane extends BorderPane implements ChangeListener<String>, EventHandle
         final String selectedSubject = subjectSelectionModel.getSelectedItem();
         final String selectedTopic = topicSelectionModel.getSelectedItem();
 
+        final CourseTree tree = this.owner.getCourseTree();
+
         final ObservableList<String> subjectItems = this.subjectList.getItems();
-        subjectItems.clear();
-
-        final File[] files = this.courseMediaDir.listFiles();
-        if (Objects.nonNull(files)) {
-            for (final File file : files) {
-                if (file.isDirectory()) {
-                    final String name = file.getName();
-                    if (isNumberedName(name)) {
-                        subjectItems.add(name);
-                    }
-                }
-            }
-        }
+        final List<String> subjectNames = listSubjects(tree);
+        subjectItems.setAll(subjectNames);
 
         final ObservableList<String> topicItems = this.topicList.getItems();
         topicItems.clear();
@@ -305,27 +336,16 @@ class LeftPane extends BorderPane implements ChangeListener<String>, EventHandle
         if (Objects.nonNull(selectedSubject) && subjectItems.contains(selectedSubject)) {
             subjectSelectionModel.select(selectedSubject);
 
-            final File subjectDir = new File(this.courseMediaDir, selectedSubject);
-            if (subjectDir.exists() && subjectDir.isDirectory()) {
-
-                final File[] topicFiles = subjectDir.listFiles();
-                if (topicFiles != null) {
-                    for (final File file : topicFiles) {
-                        if (file.isDirectory()) {
-                            final String name = file.getName();
-                            if (isNumberedName(name)) {
-                                topicItems.add(name);
-                            }
-                        }
-                    }
-                }
+            final CourseDir subjectDir = findSubject(selectedSubject);
+            if (subjectDir != null) {
+                final List<String> topicNames = listTopics(subjectDir);
+                topicItems.setAll(topicNames);
             }
 
             if (Objects.nonNull(selectedTopic) && topicItems.contains(selectedTopic)) {
                 topicSelectionModel.select(selectedTopic);
 
-                final File topicDir = new File(subjectDir, selectedTopic);
-                this.owner.clearCache();
+                final CourseDir topicDir = findTopic(selectedSubject, selectedTopic);
                 this.owner.topicSelected(topicDir);
             } else {
                 this.owner.topicSelected(null);
@@ -336,4 +356,22 @@ class LeftPane extends BorderPane implements ChangeListener<String>, EventHandle
 
         this.selectionListenersActive = true;
     }
+
+    /**
+     * Selects a subject and a topic module in the lists, which presents the topic module through the normal selection
+     * listeners.
+     *
+     * @param subjectName the subject directory name
+     * @param topicName   the topic module directory name
+     */
+    void select(final String subjectName, final String topicName) {
+
+        final MultipleSelectionModel<String> subjectSelectionModel = this.subjectList.getSelectionModel();
+        subjectSelectionModel.select(subjectName);
+        this.subjectList.scrollTo(subjectName);
+
+        final MultipleSelectionModel<String> topicSelectionModel = this.topicList.getSelectionModel();
+        topicSelectionModel.select(topicName);
+        this.topicList.scrollTo(topicName);
+    }
 }
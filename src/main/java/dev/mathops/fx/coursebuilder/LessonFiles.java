@@ -0,0 +1,120 @@
+package dev.mathops.fx.coursebuilder;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The files in a lesson directory, sorted into the sections presented by {@code LessonTabContent}, with any
+ * unexpected or missing files.  This class does not depend on JavaFX controls, so the same rules can be applied by
+ * the headless {@code CourseValidator}.
+ */
+final class LessonFiles {
+
+    /** The layout of a lesson directory: assets, final video, and lesson notes sections. */
+    private static final FileSections SECTIONS = new FileSections(ERuleSet.LESSON,
+            List.of(EFileRole.SLIDES_PPTX, EFileRole.FINAL_MP4, EFileRole.FINAL_VTT, EFileRole.FINAL_TXT),
+            new EFileRole[][]{{EFileRole.DRAWING_SVG, EFileRole.DRAWING_XML, EFileRole.DRAWING_PNG,
+                    EFileRole.DRAWING_JPG}, {EFileRole.IMAGE_SVG, EFileRole.IMAGE_PNG, EFileRole.IMAGE_JPG,
+                    EFileRole.IMAGE_XCF}, {EFileRole.SLIDES_PPTX}, {EFileRole.SLIDES_PDF},
+                    {EFileRole.RAW_MP4, EFileRole.RAW_WAV}, {EFileRole.DATA_XLSX}},
+            new EFileRole[][]{{EFileRole.FINAL_MP4}, {EFileRole.FINAL_VTT}, {EFileRole.FINAL_TXT},
+                    {EFileRole.FINAL_PRPROJ}},
+            new EFileRole[][]{{EFileRole.NOTES_PDF, EFileRole.NOTES_DOCX, EFileRole.NOTES_PPTX}});
+
+    /** Rows to present in the "Assets" section. */
+    private final List<DocumentRow> assetRows;
+
+    /** Rows to present in the "Video" section. */
+    private final List<DocumentRow> finalRows;
+
+    /** Rows to present in the "Lesson Notes" section. */
+    private final List<DocumentRow> notesRows;
+
+    /** Files that were not recognized as part of any section. */
+    private final List<AbstractCourseEntry> unexpectedFiles;
+
+    /** Expected files that were not found. */
+    private final List<File> missingFiles;
+
+    /**
+     * Constructs a new {@code LessonFiles} by sorting the files in a lesson directory into sections, recording any
+     * unexpected or missing files.
+     *
+     * @param theDir the directory with lesson files
+     */
+    LessonFiles(final CourseDir theDir) {
+
+        super();
+
+        this.assetRows = new ArrayList<>(10);
+        this.finalRows = new ArrayList<>(10);
+        this.notesRows = new ArrayList<>(10);
+        this.unexpectedFiles = new ArrayList<>(20);
+        this.missingFiles = new ArrayList<>(5);
+
+        SECTIONS.sort(theDir, List.of(this.assetRows, this.finalRows, this.notesRows), this.unexpectedFiles,
+                this.missingFiles);
+    }
+
+    /**
+     * Gets the rows to present in the "Assets" section.
+     *
+     * @return the list (not modifiable)
+     */
+    List<DocumentRow> getAssetRows() {
+
+        return Collections.unmodifiableList(this.assetRows);
+    }
+
+    /**
+     * Gets the rows to present in the "Video" section.
+     *
+     * @return the list (not modifiable)
+     */
+    List<DocumentRow> getFinalRows() {
+
+        return Collections.unmodifiableList(this.finalRows);
+    }
+
+    /**
+     * Gets the rows to present in the "Lesson Notes" section.
+     *
+     * @return the list (not modifiable)
+     */
+    List<DocumentRow> getNotesRows() {
+
+        return Collections.unmodifiableList(this.notesRows);
+    }
+
+    /**
+     * Gets the files that were not recognized as part of any section.
+     *
+     * @return the list (not modifiable)
+     */
+    List<AbstractCourseEntry> getUnexpectedFiles() {
+
+        return Collections.unmodifiableList(this.unexpectedFiles);
+    }
+
+    /**
+     * Gets the expected files that were not found.
+     *
+     * @return the list (not modifiable)
+     */
+    List<File> getMissingFiles() {
+
+        return Collections.unmodifiableList(this.missingFiles);
+    }
+
+    /**
+     * Counts the warnings for the lesson directory: one for each unexpected entry and one for each missing file.
+     *
+     * @return the number of warnings
+     */
+    int countWarnings() {
+
+        return this.unexpectedFiles.size() + this.missingFiles.size();
+    }
+}
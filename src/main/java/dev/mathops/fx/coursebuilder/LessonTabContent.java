@@ -1,13 +1,9 @@
 package dev.mathops.fx.coursebuilder;
 
 import dev.mathops.commons.file.FileLoader;
-import dev.mathops.commons.log.Log;
-import dev.mathops.text.parser.ParsingException;
 import dev.mathops.text.parser.json.JSONObject;
-import dev.mathops.text.parser.json.JSONParser;
 import javafx.application.HostServices;
 import javafx.collections.ObservableList;
-import javafx.embed.swing.SwingFXUtils;
 import javafx.event.ActionEvent;
 import javafx.event.EventHandler;
 import javafx.geometry.Insets;
@@ -20,7 +16,6 @@ import javafx.scene.control.TextArea;
 import javafx.scene.control.TextField;
 import javafx.scene.control.Tooltip;
 import javafx.scene.image.ImageView;
-import javafx.scene.image.WritableImage;
 import javafx.scene.input.MouseEvent;
 import javafx.scene.layout.BorderPane;
 import javafx.scene.layout.GridPane;
@@ -30,12 +25,10 @@ import javafx.scene.media.MediaPlayer;
 import javafx.scene.media.MediaView;
 import javafx.scene.text.Font;
 
-import java.awt.image.BufferedImage;
 import java.io.File;
 import java.net.URI;
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Objects;
 
@@ -91,22 +84,43 @@ import java.util.Objects;
  * identify the currently displayed preview, and below the preview pane are fields for file information, attributions,
  * and notes.
  */
-final class LessonTabContent extends BorderPane implements EventHandler<MouseEvent> {
+final class LessonTabContent extends AbstractLazyTabContent implements EventHandler<MouseEvent> {
 
     /** The owning application. */
     private final CourseBuilder owner;
 
+    /** The directory with example files. */
+    private final CourseDir exampleDir;
+
+    /** The loaded (or empty) metadata object. */
+    private final JSONObject metadata;
+
+    /** Rows to present in the "Assets" section. */
+    private final List<DocumentRow> assetRows;
+
+    /** Rows to present in the "Video" section. */
+    private final List<DocumentRow> finalRows;
+
+    /** Rows to present in the "Lesson Notes" section. */
+    private final List<DocumentRow> notesRows;
+
+    /** Files that were not recognized as part of any section. */
+    private final List<AbstractCourseEntry> unexpectedFiles;
+
+    /** Expected files that were not found. */
+    private final List<File> missingFiles;
+
     /** The title text field. */
-    private final TextField title;
+    private TextField title = null;
 
     /** The description text field. */
-    private final TextArea description;
+    private TextArea description = null;
 
     /** The authors text field. */
-    private final TextField authors;
+    private TextField authors = null;
 
     /** The preview pane area. */
-    private final BorderPane previewPane;
+    private BorderPane previewPane = null;
 
     /** The currently displayed preview. */
     private Node currentPreview;
@@ -126,13 +140,32 @@ final class LessonTabContent extends BorderPane implements EventHandler<MouseEve
      * @param theOwner      the owning application
      * @param theExampleDir the directory with example files
      */
-    LessonTabContent(final CourseBuilder theOwner, final File theExampleDir) {
+    LessonTabContent(final CourseBuilder theOwner, final CourseDir theExampleDir) {
 
         super();
 
         this.owner = theOwner;
+        this.exampleDir = theExampleDir;
 
-        final JSONObject metadata = loadMetadata(theExampleDir);
+        this.metadata = loadMetadata(theExampleDir);
+
+        this.openButtons = new ArrayList<>(10);
+        this.previewLinks = new ArrayList<>(10);
+
+        final LessonFiles files = new LessonFiles(theExampleDir);
+        this.assetRows = files.getAssetRows();
+        this.finalRows = files.getFinalRows();
+        this.notesRows = files.getNotesRows();
+        this.unexpectedFiles = files.getUnexpectedFiles();
+        this.missingFiles = files.getMissingFiles();
+        this.numWarnings += files.countWarnings();
+    }
+
+    /**
+     * Builds the child nodes for this content.
+     */
+    @Override
+    void build() {
 
         this.title = new TextField();
         this.title.setPrefColumnCount(40);
@@ -145,64 +178,60 @@ final class LessonTabContent extends BorderPane implements EventHandler<MouseEve
         this.authors.setPrefColumnCount(40);
         this.authors.setTooltip(new Tooltip("Comma-separated list of authors, like 'John Doe, Jane Doe'."));
 
-        this.openButtons = new ArrayList<>(10);
-        this.previewLinks = new ArrayList<>(10);
-
         setPadding(AppConstants.PADDING);
 
-        final VBox left = buildLeftSide(theExampleDir, metadata);
+        final VBox left = buildLeftSide(this.metadata);
         setLeft(left);
 
         this.previewPane = new BorderPane();
         setCenter(this.previewPane);
+
+        final EventHandler<ActionEvent> actionHandler = new ActionHandler(this.owner);
+        for (final Button button : this.openButtons) {
+            button.setOnAction(actionHandler);
+        }
+
+        for (final Hyperlink link : this.previewLinks) {
+            link.setOnMouseClicked(this);
+        }
     }
 
     /**
-     * Attempts to load the metadata file from the example directory.  If there is no metadata file, or it cannot be
-     * read, an empty JSON object is returned.
+     * Attempts to load the metadata file from the example directory (through the shared metadata cache).  If there is
+     * no metadata file, or it cannot be read, an empty JSON object is returned.
      *
      * @param theExampleDir the directory with example files
      * @return the loaded (or empty) metadata JSON object
      */
-    private JSONObject loadMetadata(final File theExampleDir) {
-
-        final File metadataFile = new File(theExampleDir, AppConstants.METADATA_FILE);
-        final String content = FileLoader.loadFileAsString(metadataFile, false);
-
-        JSONObject result;
-
-        if (content == null) {
-            result = new JSONObject();
-        } else {
-            try {
-                final Object obj = JSONParser.parseJSON(content);
-                if (obj instanceof final JSONObject json) {
-                    result = json;
-                } else {
-                    Log.warning("Result of parsing metadata file is not JSON object.");
-                    result = new JSONObject();
-                    ++this.numWarnings;
-                }
-            } catch (final ParsingException ex) {
-                Log.warning("Unable to parse metadata file", ex);
-                result = new JSONObject();
+    private JSONObject loadMetadata(final CourseDir theExampleDir) {
+
+        final CourseFile metadataFile = theExampleDir.getChildFile(AppConstants.METADATA_FILE);
+
+        JSONObject result = null;
+
+        if (metadataFile != null) {
+            final MetadataEntry entry = MetadataCache.get(metadataFile);
+            final EMetadataStatus status = entry.status();
+
+            if (status == EMetadataStatus.VALID) {
+                result = entry.json();
+            } else if (status == EMetadataStatus.INVALID) {
                 ++this.numWarnings;
             }
         }
 
         // TODO: Communicate these warnings to the user...
 
-        return result;
+        return result == null ? new JSONObject() : result;
     }
 
     /**
      * Builds the left side content.
      *
-     * @param theExampleDir the directory with example files
-     * @param metadata      the loaded metadata object
+     * @param metadata the loaded metadata object
      * @return the left-side box
      */
-    private VBox buildLeftSide(final File theExampleDir, final JSONObject metadata) {
+    private VBox buildLeftSide(final JSONObject metadata) {
 
         final VBox left = new VBox();
         setLeft(left);
@@ -293,291 +322,55 @@ final class LessonTabContent extends BorderPane implements EventHandler<MouseEve
         missingPane.setVgap(4);
         final ObservableList<Node> missingChildren = missingPane.getChildren();
 
-        final List<File> fileList = new ArrayList<>(20);
-        final List<File> missingFiles = new ArrayList<>(5);
-
-        final File[] files = theExampleDir.listFiles();
-        if (Objects.nonNull(files)) {
-
-            for (final File file : files) {
-                final String name = file.getName();
-                if (!AppConstants.METADATA_FILE.equals(name)) {
-                    fileList.add(file);
-                }
-            }
-            fileList.sort(null);
-
-            // We sweep the file list for assets and video files and present those in the UI, and remove all
-            // processed files as we go.  In the end, any files remaining are presented as "unexpected" (potential
-            // typos in file names, extraneous files, or files we should add as "recognized" assets or documents).
-
-            int assetRow = 0;
-
-            // Add all drawings first (file list is sorted, so these should be in index order);
-            final Iterator<File> drawingIter = fileList.iterator();
-            while (drawingIter.hasNext()) {
-                final File file = drawingIter.next();
-                final String name = file.getName();
-                if (name.startsWith(AppConstants.DRAWING_PREFIX)) {
-                    if (name.endsWith(AppConstants.SVG_EXT)) {
-                        addDocumentRow(file, AppConstants.SVG_ICON, name, assetsChildren, assetRow, false);
-                        ++assetRow;
-                        drawingIter.remove();
-                    } else if (name.endsWith(AppConstants.XML_EXT)) {
-                        addDocumentRow(file, AppConstants.XML_ICON, name, assetsChildren, assetRow, false);
-                        ++assetRow;
-                        drawingIter.remove();
-                    } else if (name.endsWith(AppConstants.PNG_EXT)) {
-                        addDocumentRow(file, AppConstants.PNG_ICON, name, assetsChildren, assetRow, false);
-                        ++assetRow;
-                        drawingIter.remove();
-                    } else if (name.endsWith(AppConstants.JPG_EXT) || name.endsWith(AppConstants.JPEG_EXT)) {
-                        addDocumentRow(file, AppConstants.JPG_ICON, name, assetsChildren, assetRow, false);
-                        ++assetRow;
-                        drawingIter.remove();
-                    }
-                }
-            }
-
-            // Add all images next (file list is sorted, so these should be in index order);
-            final Iterator<File> imageIter = fileList.iterator();
-            while (imageIter.hasNext()) {
-                final File file = imageIter.next();
-                final String name = file.getName();
-                if (name.startsWith(AppConstants.IMAGE_PREFIX)) {
-                    if (name.endsWith(AppConstants.SVG_EXT)) {
-                        addDocumentRow(file, AppConstants.SVG_ICON, name, assetsChildren, assetRow, false);
-                        ++assetRow;
-                        imageIter.remove();
-                    } else if (name.endsWith(AppConstants.PNG_EXT)) {
-                        addDocumentRow(file, AppConstants.PNG_ICON, name, assetsChildren, assetRow, false);
-                        ++assetRow;
-                        imageIter.remove();
-                    } else if (name.endsWith(AppConstants.JPG_EXT) || name.endsWith(AppConstants.JPEG_EXT)) {
-                        addDocumentRow(file, AppConstants.JPG_ICON, name, assetsChildren, assetRow, false);
-                        ++assetRow;
-                        imageIter.remove();
-                    } else if (name.endsWith(AppConstants.XCF_EXT)) {
-                        addDocumentRow(file, AppConstants.XCF_ICON, name, assetsChildren, assetRow, false);
-                        ++assetRow;
-                        imageIter.remove();
-                    }
-                }
-            }
-
-            // Add slides next (PowerPoint first, PDF second)
-            final Iterator<File> slidesIter1 = fileList.iterator();
-            boolean seekingSlides = true;
-            while (slidesIter1.hasNext()) {
-                final File file = slidesIter1.next();
-                final String name = file.getName();
-                if (name.startsWith(AppConstants.SLIDES_PREFIX)) {
-                    if (name.endsWith(AppConstants.PPTX_EXT)) {
-                        addDocumentRow(file, AppConstants.POWERPOINT_ICON, name, assetsChildren, assetRow, false);
-                        ++assetRow;
-                        slidesIter1.remove();
-                        seekingSlides = false;
-                    }
-                }
-            }
-            if (seekingSlides) {
-                missingFiles.add(new File(theExampleDir, "slides.pptx"));
-            }
-            final Iterator<File> slidesIter2 = fileList.iterator();
-            while (slidesIter2.hasNext()) {
-                final File file = slidesIter2.next();
-                final String name = file.getName();
-                if (name.startsWith(AppConstants.SLIDES_PREFIX)) {
-                    if (name.endsWith(AppConstants.PDF_EXT)) {
-                        addDocumentRow(file, AppConstants.PDF_ICON, name, assetsChildren, assetRow, false);
-                        ++assetRow;
-                        slidesIter2.remove();
-                    }
-                }
-            }
-
-            // Add all video next (file list is sorted, so these should be in index order);
-            final Iterator<File> videoIter = fileList.iterator();
-            while (videoIter.hasNext()) {
-                final File file = videoIter.next();
-                final String name = file.getName();
-                if (name.startsWith(AppConstants.CAMERA_PREFIX)) {
-                    if (name.endsWith(AppConstants.MP4_EXT)) {
-                        addDocumentRow(file, AppConstants.MP4_ICON, name, assetsChildren, assetRow, false);
-                        ++assetRow;
-                        videoIter.remove();
-                    } else if (name.endsWith(AppConstants.WAV_EXT)) {
-                        addDocumentRow(file, AppConstants.WAV_ICON, name, assetsChildren, assetRow, false);
-                        ++assetRow;
-                        videoIter.remove();
-                    }
-                } else if (name.startsWith(AppConstants.SCREEN_PREFIX)) {
-                    if (name.endsWith(AppConstants.MP4_EXT)) {
-                        addDocumentRow(file, AppConstants.MP4_ICON, name, assetsChildren, assetRow, false);
-                        ++assetRow;
-                        videoIter.remove();
-                    } else if (name.endsWith(AppConstants.WAV_EXT)) {
-                        addDocumentRow(file, AppConstants.WAV_ICON, name, assetsChildren, assetRow, false);
-                        ++assetRow;
-                        videoIter.remove();
-                    }
-                } else if (name.startsWith(AppConstants.VIDEO_PREFIX)) {
-                    if (name.endsWith(AppConstants.MP4_EXT)) {
-                        addDocumentRow(file, AppConstants.MP4_ICON, name, assetsChildren, assetRow, false);
-                        ++assetRow;
-                        videoIter.remove();
-                    } else if (name.endsWith(AppConstants.WAV_EXT)) {
-                        addDocumentRow(file, AppConstants.WAV_ICON, name, assetsChildren, assetRow, false);
-                        ++assetRow;
-                        videoIter.remove();
-                    }
-                }
-            }
-
-            final Iterator<File> dataIter = fileList.iterator();
-            while (dataIter.hasNext()) {
-                final File file = dataIter.next();
-                final String name = file.getName();
-                if ("data.xlsx".equals(name)) {
-                    addDocumentRow(file, AppConstants.EXCEL_ICON, name, assetsChildren, assetRow, false);
-                    ++assetRow;
-                    dataIter.remove();
-                }
-            }
-
-            int finalRow = 0;
-
-            // Add the final video product (video first, then VTT/TXT files, then Premiere project)
-            final Iterator<File> finalIter1 = fileList.iterator();
-            boolean seekingMp4 = true;
-            while (finalIter1.hasNext()) {
-                final File file = finalIter1.next();
-                final String name = file.getName();
-                if (name.startsWith(AppConstants.FINAL_PREFIX)) {
-                    if (name.endsWith(AppConstants.MP4_EXT)) {
-                        addDocumentRow(file, AppConstants.MP4_ICON, name + " (for student)", finalChildren, finalRow,
-                                false);
-                        ++finalRow;
-                        finalIter1.remove();
-                        seekingMp4 = false;
-                    }
-                }
-            }
-            if (seekingMp4) {
-                missingFiles.add(new File(theExampleDir, "final.mp4"));
-            }
-
-            final Iterator<File> finalIter2 = fileList.iterator();
-            boolean seekingVtt = true;
-            while (finalIter2.hasNext()) {
-                final File file = finalIter2.next();
-                final String name = file.getName();
-                if (name.startsWith(AppConstants.FINAL_PREFIX)) {
-                    if (name.endsWith(AppConstants.VTT_EXT)) {
-                        addDocumentRow(file, AppConstants.VTT_ICON, name + " (closed-captions)", finalChildren,
-                                finalRow, false);
-                        ++finalRow;
-                        finalIter2.remove();
-                        seekingVtt = false;
-                    }
-                }
-            }
-            if (seekingVtt) {
-                missingFiles.add(new File(theExampleDir, "final.vtt"));
-            }
-
-            final Iterator<File> finalIter3 = fileList.iterator();
-            boolean seekingTxt = true;
-            while (finalIter3.hasNext()) {
-                final File file = finalIter3.next();
-                final String name = file.getName();
-                if (name.startsWith(AppConstants.FINAL_PREFIX)) {
-                    if (name.endsWith(AppConstants.TXT_EXT)) {
-                        addDocumentRow(file, AppConstants.TXT_ICON, name + " (text transcript)", finalChildren,
-                                finalRow, false);
-                        ++finalRow;
-                        finalIter3.remove();
-                        seekingTxt = false;
-                    }
-                }
-            }
-            if (seekingTxt) {
-                missingFiles.add(new File(theExampleDir, "final.txt"));
-            }
-
-            final Iterator<File> finalIter4 = fileList.iterator();
-            while (finalIter4.hasNext()) {
-                final File file = finalIter4.next();
-                final String name = file.getName();
-                if (name.startsWith(AppConstants.FINAL_PREFIX)) {
-                    if (name.endsWith(AppConstants.PRPROJ_EXT)) {
-                        addDocumentRow(file, AppConstants.PREMIERE_ICON, name + " (for author)", finalChildren,
-                                finalRow, false);
-                        ++finalRow;
-                        finalIter4.remove();
-                    }
-                }
-            }
-
-            int notesRow = 0;
-
-            // Add lecture notes
-            final Iterator<File> notesIter = fileList.iterator();
-            while (notesIter.hasNext()) {
-                final File file = notesIter.next();
-                final String name = file.getName();
-                if (name.startsWith(AppConstants.NOTES_PREFIX)) {
-                    if (name.endsWith(AppConstants.PDF_EXT)) {
-                        addDocumentRow(file, AppConstants.PDF_ICON, name + " (for student)", notesChildren, notesRow,
-                                false);
-                        ++finalRow;
-                        notesIter.remove();
-                    } else if (name.endsWith(AppConstants.DOCX_EXT)) {
-                        addDocumentRow(file, AppConstants.WORD_ICON, name + " (for author)", notesChildren, notesRow,
-                                false);
-                        ++finalRow;
-                        notesIter.remove();
-                    } else if (name.endsWith(AppConstants.PPTX_EXT)) {
-                        addDocumentRow(file, AppConstants.POWERPOINT_ICON, name + " (for author)", notesChildren,
-                                notesRow, false);
-                        ++finalRow;
-                        notesIter.remove();
-                    }
-                }
-            }
-
-            // Present any unexpected files that remain
-            int unexpectedRow = 0;
-            for (final File file : fileList) {
-                final String name = file.getName();
-                addDocumentRow(file, AppConstants.UNEXPECTED_ICON, name, unexpectedChildren, unexpectedRow, true);
-                ++unexpectedRow;
-                ++this.numWarnings;
-            }
+        addDocumentRows(this.assetRows, assetsChildren);
+        addDocumentRows(this.finalRows, finalChildren);
+        addDocumentRows(this.notesRows, notesChildren);
+
+        // Present any unexpected files that remain
+        int unexpectedRow = 0;
+        for (final AbstractCourseEntry file : this.unexpectedFiles) {
+            final String name = file.getName();
+            final File target = file.getFile();
+            addDocumentRow(target, AppConstants.UNEXPECTED_ICON, name, unexpectedChildren, unexpectedRow, true);
+            ++unexpectedRow;
+        }
 
-            // Present any missing files
-            int missingRow = 0;
-            for (final File file : missingFiles) {
-                final String name = file.getName();
-                addDocumentRow(file, AppConstants.UNEXPECTED_ICON, name, missingChildren, missingRow, true);
-                ++missingRow;
-                ++this.numWarnings;
-            }
+        // Present any missing files
+        int missingRow = 0;
+        for (final File file : this.missingFiles) {
+            final String name = file.getName();
+            addDocumentRow(file, AppConstants.UNEXPECTED_ICON, name, missingChildren, missingRow, true);
+            ++missingRow;
         }
 
         final ObservableList<Node> leftChildren = left.getChildren();
         leftChildren.addAll(metadataPane, heading1, assetsPane, heading2, finalPane, heading3, notesPane);
 
-        if (!fileList.isEmpty()) {
+        if (!this.unexpectedFiles.isEmpty()) {
             leftChildren.addAll(heading4, unexpectedPane);
         }
-        if (!missingFiles.isEmpty()) {
+        if (!this.missingFiles.isEmpty()) {
             leftChildren.addAll(heading5, missingPane);
         }
 
         return left;
     }
 
+    /**
+     * Adds rows of controls for a list of documents to a grid pane.
+     *
+     * @param rows  the rows to add
+     * @param nodes the node list to which to add controls
+     */
+    private void addDocumentRows(final Iterable<DocumentRow> rows, final Collection<? super Node> nodes) {
+
+        int row = 0;
+        for (final DocumentRow docRow : rows) {
+            addDocumentRow(docRow.file(), docRow.icon(), docRow.label(), nodes, row, docRow.red());
+            ++row;
+        }
+    }
+
     /**
      * Adds a row of controls for a single document to a grid pane.
      *
@@ -617,19 +410,13 @@ final class LessonTabContent extends BorderPane implements EventHandler<MouseEve
     }
 
     /**
-     * Initializes this panel.  Called after the constructor completes since this method uses "this" to add itself as a
-     * listener.
+     * Gets the name of the lesson directory.
+     *
+     * @return the directory name
      */
-    void init() {
-
-        final EventHandler<ActionEvent> actionHandler = new ActionHandler(this.owner);
-        for (final Button button : this.openButtons) {
-            button.setOnAction(actionHandler);
-        }
+    String getDirName() {
 
-        for (final Hyperlink link : this.previewLinks) {
-            link.setOnMouseClicked(this);
-        }
+        return this.exampleDir.getName();
     }
 
     /**
@@ -637,7 +424,8 @@ final class LessonTabContent extends BorderPane implements EventHandler<MouseEve
      *
      * @return the number of warnings
      */
-    public int getNumWarnings() {
+    @Override
+    int getNumWarnings() {
 
         return this.numWarnings;
     }
@@ -659,6 +447,13 @@ final class LessonTabContent extends BorderPane implements EventHandler<MouseEve
             // replaced by a node with a message like "click an object to preview it here..."
 
             if (this.currentPreview != this) {
+                if (this.currentPreview instanceof final MediaView mediaView) {
+                    final MediaPlayer player = mediaView.getMediaPlayer();
+                    player.stop();
+                    player.dispose();
+                } else if (this.currentPreview instanceof final PdfPreview pdfPreview) {
+                    pdfPreview.close();
+                }
                 this.previewPane.setCenter(null);
                 this.currentPreview = this;
             }
@@ -686,13 +481,23 @@ final class LessonTabContent extends BorderPane implements EventHandler<MouseEve
             previewNode = area;
         } else if (name.endsWith(AppConstants.PNG_EXT) || name.endsWith(AppConstants.JPG_EXT) || name.endsWith(
                 AppConstants.JPEG_EXT)) {
-            final BufferedImage image = FileLoader.loadFileAsImage(file, false);
-            if (image != null) {
-                final int w = image.getWidth();
-                final int h = image.getHeight();
-                final WritableImage writable = new WritableImage(w, h);
-                final WritableImage fxImage = SwingFXUtils.toFXImage(image, writable);
-                previewNode = new ImageView(fxImage);
+            final CourseFile scanned = this.exampleDir.getChildFile(name);
+            if (scanned == null) {
+                previewNode = new Label("(Unable to load image file)");
+            } else {
+                final ImageView view = new ImageView();
+                PreviewImages.load(scanned, this.previewPane, image -> {
+                    if (this.currentPreview == view) {
+                        if (image == null) {
+                            final Label label = new Label("(Unable to load image file)");
+                            this.previewPane.setCenter(label);
+                            this.currentPreview = label;
+                        } else {
+                            view.setImage(image);
+                        }
+                    }
+                });
+                previewNode = view;
             }
         } else if (name.endsWith(AppConstants.MP4_EXT)) {
             final URI uri = file.toURI();
@@ -708,6 +513,10 @@ final class LessonTabContent extends BorderPane implements EventHandler<MouseEve
             viewer.setPreserveRatio(true);
 
             previewNode = viewer;
+        } else if (name.endsWith(AppConstants.PDF_EXT)) {
+            final PdfPreview pdfPreview = new PdfPreview(file);
+            pdfPreview.init();
+            previewNode = pdfPreview;
         }
 
         if (previewNode != null) {
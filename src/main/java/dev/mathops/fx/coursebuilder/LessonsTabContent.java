@@ -5,22 +5,22 @@ import javafx.scene.control.Label;
 import javafx.scene.control.Tab;
 import javafx.scene.control.TabPane;
 import javafx.scene.layout.Border;
-import javafx.scene.layout.BorderPane;
 import javafx.scene.layout.VBox;
 
-import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * The content of a "Lessons" tab.  This panel presents the list of lessons available within a given directory that
  * match some filename pattern.
  */
-final class LessonsTabContent extends BorderPane {
+final class LessonsTabContent extends AbstractLazyTabContent {
 
     /** The containing directory. */
-    private final File containingDir;
+    private final CourseDir containingDir;
 
-    /** The number of lessons found. */
-    private final int numLessons;
+    /** The content of each lesson tab (not yet materialized). */
+    private final List<LessonTabContent> lessons;
 
     /** The number of warnings found. */
     private int numWarnings = 0;
@@ -34,50 +34,57 @@ final class LessonsTabContent extends BorderPane {
      * @param lastNumber       the last possible numeric prefix for lesson subdirectories
      * @param label            the label for lesson subdirectories (like "intro", "lesson", "conclusion", etc.)
      */
-    LessonsTabContent(final CourseBuilder theOwner, final File theContainingDir, final int firstNumber,
+    LessonsTabContent(final CourseBuilder theOwner, final CourseDir theContainingDir, final int firstNumber,
                       final int lastNumber, final String label) {
 
         super();
 
         this.containingDir = theContainingDir;
+        this.lessons = new ArrayList<>(lastNumber - firstNumber + 1);
 
-        setPadding(AppConstants.PADDING);
-
-        // Center is a nested tab pane with all the lessons in the containing directory
-
-        final TabPane lessonTabs = createLessonTabs();
-
-        int numFound = 0;
-        final ObservableList<Tab> tabs = lessonTabs.getTabs();
         int index = 1;
         for (int i = firstNumber; i <= lastNumber; ++i) {
-            final String subdirectoryName = makeSubdirectoryName(i, label, index);
+            final String subdirectoryName = CourseRules.lessonDirName(i, label, index);
             ++index;
 
-            final File subdir = new File(this.containingDir, subdirectoryName);
-            if (subdir.exists() && subdir.isDirectory()) {
+            final CourseDir subdir = this.containingDir.getSubdir(subdirectoryName);
+            if (subdir != null) {
                 final LessonTabContent content = new LessonTabContent(theOwner, subdir);
-                content.init();
-                final String subdirName = subdir.getName();
-                final int contentWarnings = content.getNumWarnings();
-                final Tab lessonTab = AppUtils.makeTab(subdirName, content, "lesson.png", contentWarnings);
-                this.numWarnings += contentWarnings;
-                tabs.add(lessonTab);
-                ++numFound;
+                this.lessons.add(content);
+                this.numWarnings += content.getNumWarnings();
             }
         }
+    }
+
+    /**
+     * Builds the child nodes for this content.
+     */
+    @Override
+    void build() {
 
-        if (numFound == 0) {
+        setPadding(AppConstants.PADDING);
+
+        // Center is a nested tab pane with all the lessons in the containing directory
+
+        if (this.lessons.isEmpty()) {
             final VBox centerBox = new VBox();
             centerBox.setPadding(AppConstants.PADDING);
             final Label lbl = new Label("(No lesson directories found)");
             centerBox.getChildren().add(lbl);
             setCenter(centerBox);
         } else {
+            final TabPane lessonTabs = createLessonTabs();
+            final ObservableList<Tab> tabs = lessonTabs.getTabs();
+
+            for (final LessonTabContent content : this.lessons) {
+                final String subdirName = content.getDirName();
+                final int contentWarnings = content.getNumWarnings();
+                final Tab lessonTab = AppUtils.makeLazyTab(subdirName, content, "lesson.png", contentWarnings);
+                tabs.add(lessonTab);
+            }
+
             setCenter(lessonTabs);
         }
-
-        this.numLessons = numFound;
     }
 
     /**
@@ -95,14 +102,6 @@ final class LessonsTabContent extends BorderPane {
         return lessonTabs;
     }
 
-    /**
-     * Initializes this panel.  Called after the constructor completes since this method uses "this" to add itself as a
-     * listener.
-     */
-    void init() {
-
-    }
-
     /**
      * Gets the number of lessons found.
      *
@@ -110,7 +109,7 @@ final class LessonsTabContent extends BorderPane {
      */
     int getNumLessons() {
 
-        return this.numLessons;
+        return this.lessons.size();
     }
 
     /**
@@ -118,33 +117,9 @@ final class LessonsTabContent extends BorderPane {
      *
      * @return the number of warnings
      */
+    @Override
     int getNumWarnings() {
 
         return this.numWarnings;
     }
-
-    /**
-     * Generates a lesson subdirectory name, of the form "21_label_11".
-     *
-     * @param prefix the prefix number (this will be represented with 2 digits)
-     * @param label  the label
-     * @param suffix the suffix number
-     * @return the subdirectory name
-     */
-    private static String makeSubdirectoryName(final int prefix, final String label, final int suffix) {
-
-        final int labelLen = label.length();
-        final StringBuilder builder = new StringBuilder(labelLen + 5);
-
-        if (prefix < 10) {
-            builder.append("0");
-        }
-        builder.append(prefix);
-        builder.append("_");
-        builder.append(label);
-        builder.append("_");
-        builder.append(suffix);
-
-        return builder.toString();
-    }
 }
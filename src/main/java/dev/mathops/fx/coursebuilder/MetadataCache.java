@@ -0,0 +1,182 @@
+package dev.mathops.fx.coursebuilder;
+
+import dev.mathops.commons.file.FileLoader;
+import dev.mathops.commons.log.Log;
+import dev.mathops.text.parser.ParsingException;
+import dev.mathops.text.parser.json.JSONObject;
+import dev.mathops.text.parser.json.JSONParser;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A process-wide cache of parsed "metadata.json" files, keyed by normalized absolute path and validated by the file's
+ * modification date and size.  Files that fail to parse are cached as well (with status {@code INVALID}), so a broken
+ * file is not re-parsed (or re-logged) every time a pane that uses it is rebuilt.
+ *
+ * <p>
+ * Paths are normalized ({@code toAbsolutePath().normalize()}) rather than canonicalized, since canonicalization
+ * requires a file system query on every lookup; all paths in this application derive from the one course media
+ * directory, so they are consistent.
+ *
+ * <p>
+ * The cache holds at most a fixed number of entries (set with the system property
+ * "coursebuilder.metadataCache.maxEntries"), evicting the least recently used.  This class is thread-safe.
+ */
+enum MetadataCache {
+    ;
+
+    /** The system property that sets the maximum number of entries. */
+    private static final String MAX_ENTRIES_PROPERTY = "coursebuilder.metadataCache.maxEntries";
+
+    /** The default maximum number of entries. */
+    private static final int DEFAULT_MAX_ENTRIES = 4096;
+
+    /** The maximum number of entries. */
+    private static final int MAX_ENTRIES = Math.max(16,
+            Integer.getInteger(MAX_ENTRIES_PROPERTY, DEFAULT_MAX_ENTRIES).intValue());
+
+    /** The cached entries, in access order; all access is synchronized on this object. */
+    private static final Map<Path, MetadataEntry> ENTRIES = new LinkedHashMap<>(MAX_ENTRIES, 0.75f, true);
+
+    /**
+     * Gets the metadata for a file found in a scan of the course media directory, using the modification date and
+     * size recorded by the scan (so a cache hit requires no file system access).
+     *
+     * @param file the scanned file
+     * @return the metadata entry
+     */
+    static MetadataEntry get(final CourseFile file) {
+
+        final File target = file.getFile();
+        final long lastModified = file.getLastModified();
+        final long size = file.getSize();
+
+        return get(target, lastModified, size);
+    }
+
+    /**
+     * Gets the metadata for a file that may not be in the scanned tree (for example, one that was just created).
+     * The file's modification date and size are queried from the file system.
+     *
+     * @param file the file
+     * @return the metadata entry
+     */
+    static MetadataEntry get(final File file) {
+
+        final long lastModified = file.lastModified();
+        final long size = file.length();
+
+        return get(file, lastModified, size);
+    }
+
+    /**
+     * Gets the metadata for a version of a file, loading and parsing it if no entry for that version is cached.
+     *
+     * @param file         the file
+     * @param lastModified the file's modification date
+     * @param size         the file's size
+     * @return the metadata entry
+     */
+    private static MetadataEntry get(final File file, final long lastModified, final long size) {
+
+        final Path key = makeKey(file);
+
+        MetadataEntry entry;
+        synchronized (ENTRIES) {
+            entry = ENTRIES.get(key);
+            if (entry != null && !entry.matches(lastModified, size)) {
+                entry = null;
+            }
+        }
+
+        if (entry == null) {
+            // Load outside the lock; if two threads load the same file at once, both results are equivalent
+            entry = load(file, lastModified, size);
+            synchronized (ENTRIES) {
+                ENTRIES.put(key, entry);
+                if (ENTRIES.size() > MAX_ENTRIES) {
+                    final Iterator<Path> eldest = ENTRIES.keySet().iterator();
+                    eldest.next();
+                    eldest.remove();
+                }
+            }
+        }
+
+        return entry;
+    }
+
+    /**
+     * Loads and parses a metadata file.
+     *
+     * @param file         the file
+     * @param lastModified the file's modification date
+     * @param size         the file's size
+     * @return the metadata entry
+     */
+    private static MetadataEntry load(final File file, final long lastModified, final long size) {
+
+        final String content = FileLoader.loadFileAsString(file, false);
+
+        final MetadataEntry result;
+
+        if (content == null) {
+            result = new MetadataEntry(EMetadataStatus.UNREADABLE, null, lastModified, size);
+        } else {
+            JSONObject json = null;
+            try {
+                final Object obj = JSONParser.parseJSON(content);
+                if (obj instanceof final JSONObject parsed) {
+                    json = parsed;
+                } else {
+                    Log.warning("Metadata file is not a JSON object: ", file.getAbsolutePath());
+                }
+            } catch (final ParsingException ex) {
+                Log.warning("Unable to parse metadata file: ", file.getAbsolutePath(), ex);
+            }
+
+            final EMetadataStatus status = json == null ? EMetadataStatus.INVALID : EMetadataStatus.VALID;
+            result = new MetadataEntry(status, json, lastModified, size);
+        }
+
+        return result;
+    }
+
+    /**
+     * Removes any cached entry for a file.  Callers that write a metadata file should call this afterward.
+     *
+     * @param file the file
+     */
+    static void invalidate(final File file) {
+
+        final Path key = makeKey(file);
+
+        synchronized (ENTRIES) {
+            ENTRIES.remove(key);
+        }
+    }
+
+    /**
+     * Removes all cached entries.
+     */
+    static void clear() {
+
+        synchronized (ENTRIES) {
+            ENTRIES.clear();
+        }
+    }
+
+    /**
+     * Generates the cache key for a file.
+     *
+     * @param file the file
+     * @return the key
+     */
+    private static Path makeKey(final File file) {
+
+        return file.toPath().toAbsolutePath().normalize();
+    }
+}
@@ -0,0 +1,27 @@
+package dev.mathops.fx.coursebuilder;
+
+import dev.mathops.text.parser.json.JSONObject;
+
+/**
+ * The result of loading a "metadata.json" file, as stored in the {@code MetadataCache}.  The modification date and
+ * size identify the version of the file that was loaded.  Parsed objects are shared and should not be modified.
+ *
+ * @param status       the load status
+ * @param json         the parsed object (null unless the status is {@code VALID})
+ * @param lastModified the file's last modification date when it was loaded, in milliseconds since the epoch
+ * @param size         the file's size when it was loaded, in bytes
+ */
+record MetadataEntry(EMetadataStatus status, JSONObject json, long lastModified, long size) {
+
+    /**
+     * Tests whether this entry describes a particular version of the file.
+     *
+     * @param theLastModified the file's last modification date
+     * @param theSize         the file's size
+     * @return true if this entry was loaded from that version of the file
+     */
+    boolean matches(final long theLastModified, final long theSize) {
+
+        return this.lastModified == theLastModified && this.size == theSize;
+    }
+}
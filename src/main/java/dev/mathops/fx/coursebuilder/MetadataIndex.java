@@ -0,0 +1,428 @@
+package dev.mathops.fx.coursebuilder;
+
+import dev.mathops.text.parser.json.JSONObject;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * An in-memory inverted index over the text of every "metadata.json" file in the course media directory (title,
+ * description, authors, goals, attributions, and notes), used to find directories by content.
+ *
+ * <p>
+ * The index maps each term to the directories whose metadata contains it, with a weight that favors matches in the
+ * title over matches in longer fields.  A search requires every query term to match (the last term may match as a
+ * prefix, so results can be shown while the user is typing), and ranks directories by the sum of their term weights,
+ * each scaled by how rare the term is.
+ *
+ * <p>
+ * {@code update} brings the index up to date with a course tree, re-reading only metadata files whose modification
+ * date or size has changed since they were indexed (parsed metadata comes from the shared {@code MetadataCache}).  It
+ * is intended to run on a background thread; searches may run concurrently on the JavaFX application thread, and see
+ * each directory either before or after its update.
+ */
+final class MetadataIndex {
+
+    /** The weight of a term in the title. */
+    private static final int TITLE_WEIGHT = 8;
+
+    /** The weight of a term in the description, authors, or goals. */
+    private static final int FIELD_WEIGHT = 3;
+
+    /** The weight of a term in attributions or notes. */
+    private static final int DETAIL_WEIGHT = 1;
+
+    /** The shortest term that is indexed. */
+    private static final int MIN_TERM_LENGTH = 2;
+
+    /** A metadata property. */
+    private static final String GOALS_PROPERTY = "goals";
+
+    /** A metadata property. */
+    private static final String ATTRIBUTIONS_PROPERTY = "attributions";
+
+    /** A metadata property. */
+    private static final String NOTES_PROPERTY = "notes";
+
+    /** An object on which updates synchronize, so they are applied one at a time. */
+    private final Object updateLock;
+
+    /** The indexed documents, keyed by directory (guarded by "this"). */
+    private final Map<File, IndexedDocument> documents;
+
+    /** A map from term to the weight of that term in each directory that contains it (guarded by "this"). */
+    private final NavigableMap<String, Map<File, Integer>> postings;
+
+    /** The scan time of the most recent tree indexed (guarded by "updateLock"). */
+    private long indexedScanTime = Long.MIN_VALUE;
+
+    /**
+     * Constructs a new, empty {@code MetadataIndex}.
+     */
+    MetadataIndex() {
+
+        super();
+
+        this.updateLock = new Object();
+        this.documents = new HashMap<>(1000);
+        this.postings = new TreeMap<>();
+    }
+
+    /**
+     * Brings the index up to date with a course tree.  Directories whose metadata file is unchanged are not re-read,
+     * and directories that no longer have a metadata file are removed.  A tree older than the one most recently
+     * indexed is ignored, so updates that complete out of order cannot roll the index back.
+     *
+     * @param tree the course tree
+     * @return the number of indexed directories
+     */
+    int update(final CourseTree tree) {
+
+        synchronized (this.updateLock) {
+            final long scanTime = tree.getScanTime();
+
+            if (scanTime >= this.indexedScanTime) {
+                this.indexedScanTime = scanTime;
+
+                final CourseDir root = tree.getRoot();
+                final Path rootPath = root.getFile().toPath();
+                final Collection<CourseDir> dirs = tree.getDirectories();
+                final Set<File> present = new HashSet<>(dirs.size());
+
+                for (final CourseDir dir : dirs) {
+                    final CourseFile metadataFile = dir.getChildFile(AppConstants.METADATA_FILE);
+                    if (metadataFile != null) {
+                        final File dirFile = dir.getFile();
+                        present.add(dirFile);
+
+                        final IndexedDocument existing;
+                        synchronized (this) {
+                            existing = this.documents.get(dirFile);
+                        }
+
+                        final long lastModified = metadataFile.getLastModified();
+                        final long size = metadataFile.getSize();
+                        if (existing == null || existing.kind() != dir.getKind()
+                            || existing.lastModified() != lastModified || existing.size() != size) {
+                            final IndexedDocument doc = makeDocument(dir, metadataFile, rootPath);
+                            synchronized (this) {
+                                removeDocument(dirFile);
+                                addDocument(doc);
+                            }
+                        }
+                    }
+                }
+
+                synchronized (this) {
+                    final Collection<File> stale = new ArrayList<>(this.documents.keySet());
+                    stale.removeAll(present);
+                    for (final File dirFile : stale) {
+                        removeDocument(dirFile);
+                    }
+                }
+            }
+        }
+
+        return getNumDocuments();
+    }
+
+    /**
+     * Gets the number of indexed directories.
+     *
+     * @return the number of directories
+     */
+    synchronized int getNumDocuments() {
+
+        return this.documents.size();
+    }
+
+    /**
+     * Searches the index.  Every term in the query must match; the last term also matches terms it is a prefix of,
+     * unless the query ends with whitespace.
+     *
+     * @param query   the query
+     * @param maxHits the maximum number of hits to return
+     * @return the hits, best first (empty if the query has no terms)
+     */
+    List<SearchHit> search(final String query, final int maxHits) {
+
+        final List<String> terms = tokenize(query);
+        final boolean prefixLast = !query.isBlank() && !Character.isWhitespace(query.charAt(query.length() - 1));
+
+        final List<SearchHit> hits;
+
+        if (terms.isEmpty()) {
+            hits = Collections.emptyList();
+        } else {
+            synchronized (this) {
+                final double numDocs = (double) this.documents.size();
+                final int numTerms = terms.size();
+
+                Map<File, Double> scores = null;
+                for (int i = 0; i < numTerms && (scores == null || !scores.isEmpty()); ++i) {
+                    final String term = terms.get(i);
+                    final Map<File, Double> termScores = new HashMap<>(100);
+
+                    if (i == numTerms - 1 && prefixLast) {
+                        final String upper = term + Character.MAX_VALUE;
+                        for (final Map<File, Integer> posting : this.postings.subMap(term, true, upper, false)
+                                .values()) {
+                            scorePosting(posting, numDocs, termScores);
+                        }
+                    } else {
+                        final Map<File, Integer> posting = this.postings.get(term);
+                        if (posting != null) {
+                            scorePosting(posting, numDocs, termScores);
+                        }
+                    }
+
+                    if (scores == null) {
+                        scores = termScores;
+                    } else {
+                        final Iterator<Map.Entry<File, Double>> iter = scores.entrySet().iterator();
+                        while (iter.hasNext()) {
+                            final Map.Entry<File, Double> entry = iter.next();
+                            final Double termScore = termScores.get(entry.getKey());
+                            if (termScore == null) {
+                                iter.remove();
+                            } else {
+                                final double sum = entry.getValue().doubleValue() + termScore.doubleValue();
+                                entry.setValue(Double.valueOf(sum));
+                            }
+                        }
+                    }
+                }
+
+                final List<SearchHit> all = new ArrayList<>(scores.size());
+                for (final Map.Entry<File, Double> entry : scores.entrySet()) {
+                    final IndexedDocument doc = this.documents.get(entry.getKey());
+                    final double score = entry.getValue().doubleValue();
+                    all.add(new SearchHit(doc.dir(), doc.kind(), doc.title(), doc.location(), score));
+                }
+
+                all.sort(Comparator.comparingDouble(SearchHit::score).reversed()
+                        .thenComparing(SearchHit::location));
+                hits = all.size() > maxHits ? new ArrayList<>(all.subList(0, maxHits)) : all;
+            }
+        }
+
+        return hits;
+    }
+
+    /**
+     * Adds the scores contributed by one term's posting list.  When several terms match a prefix, a directory that
+     * contains more than one of them is credited with the best.
+     *
+     * @param posting    the posting list (a map from directory to weight)
+     * @param numDocs    the number of indexed directories
+     * @param termScores the map to which to add scores
+     */
+    private static void scorePosting(final Map<File, Integer> posting, final double numDocs,
+                                     final Map<File, Double> termScores) {
+
+        final double idf = Math.log(1.0 + numDocs / (double) posting.size());
+
+        for (final Map.Entry<File, Integer> entry : posting.entrySet()) {
+            final double score = entry.getValue().doubleValue() * idf;
+            termScores.merge(entry.getKey(), Double.valueOf(score),
+                    (a, b) -> a.doubleValue() >= b.doubleValue() ? a : b);
+        }
+    }
+
+    /**
+     * Adds a document's terms to the posting lists (called while synchronized on this object).
+     *
+     * @param doc the document
+     */
+    private void addDocument(final IndexedDocument doc) {
+
+        final File dir = doc.dir();
+        this.documents.put(dir, doc);
+
+        for (final Map.Entry<String, Integer> entry : doc.terms().entrySet()) {
+            final String term = entry.getKey();
+            final Map<File, Integer> posting = this.postings.computeIfAbsent(term, key -> new HashMap<>(4));
+            posting.put(dir, entry.getValue());
+        }
+    }
+
+    /**
+     * Removes a document and its terms from the posting lists, if it is present (called while synchronized on this
+     * object).
+     *
+     * @param dir the document's directory
+     */
+    private void removeDocument(final File dir) {
+
+        final IndexedDocument doc = this.documents.remove(dir);
+
+        if (doc != null) {
+            for (final String term : doc.terms().keySet()) {
+                final Map<File, Integer> posting = this.postings.get(term);
+                if (posting != null) {
+                    posting.remove(dir);
+                    if (posting.isEmpty()) {
+                        this.postings.remove(term);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Builds the document for a directory's metadata.  A metadata file that cannot be read or parsed produces a
+     * document with no terms (it is re-read when the file changes).
+     *
+     * @param dir          the directory
+     * @param metadataFile the directory's metadata file
+     * @param rootPath     the path of the course media directory
+     * @return the document
+     */
+    private static IndexedDocument makeDocument(final CourseDir dir, final CourseFile metadataFile,
+                                                final Path rootPath) {
+
+        final MetadataEntry entry = MetadataCache.get(metadataFile);
+        final JSONObject json = entry.json();
+
+        final Map<String, Integer> terms = new HashMap<>(50);
+        String title = null;
+
+        if (json != null) {
+            title = json.getStringProperty(AppConstants.TITLE_PROPERTY);
+            addTerms(terms, title, TITLE_WEIGHT);
+            addTerms(terms, json.getStringProperty(AppConstants.DESCRIPTION_PROPERTY), FIELD_WEIGHT);
+            addTerms(terms, json.getStringProperty(AppConstants.AUTHORS_PROPERTY), FIELD_WEIGHT);
+            addTerms(terms, json.getStringProperty(GOALS_PROPERTY), FIELD_WEIGHT);
+
+            final StringBuilder details = new StringBuilder(200);
+            collectText(json.getProperty(ATTRIBUTIONS_PROPERTY), details);
+            collectText(json.getProperty(NOTES_PROPERTY), details);
+            addTerms(terms, details.toString(), DETAIL_WEIGHT);
+        }
+
+        final File dirFile = dir.getFile();
+        final String location = makeLocation(rootPath, dirFile);
+
+        return new IndexedDocument(dirFile, dir.getKind(), title == null ? "" : title, location,
+                metadataFile.getLastModified(), metadataFile.getSize(), terms);
+    }
+
+    /**
+     * Collects all string values within a JSON value (a string, an object, or an array of values) into a buffer,
+     * separated by spaces.
+     *
+     * @param value  the value (may be null)
+     * @param buffer the buffer to which to append text
+     */
+    private static void collectText(final Object value, final StringBuilder buffer) {
+
+        if (value instanceof final String str) {
+            buffer.append(str).append(' ');
+        } else if (value instanceof final JSONObject obj) {
+            for (final String name : obj.getPropertyNames()) {
+                collectText(obj.getProperty(name), buffer);
+            }
+        } else if (value instanceof final Object[] array) {
+            for (final Object element : array) {
+                collectText(element, buffer);
+            }
+        }
+    }
+
+    /**
+     * Adds the terms in a piece of text to a map of term weights.
+     *
+     * @param terms  the map from term to weight
+     * @param text   the text (may be null)
+     * @param weight the weight of each occurrence
+     */
+    private static void addTerms(final Map<String, Integer> terms, final String text, final int weight) {
+
+        if (text != null) {
+            for (final String term : tokenize(text)) {
+                terms.merge(term, Integer.valueOf(weight), (a, b) -> Integer.valueOf(a.intValue() + b.intValue()));
+            }
+        }
+    }
+
+    /**
+     * Splits text into lowercase terms at every character that is not a letter or digit.  Terms shorter than the
+     * minimum length are dropped.
+     *
+     * @param text the text
+     * @return the terms, in order of appearance
+     */
+    static List<String> tokenize(final String text) {
+
+        final String lower = text.toLowerCase(Locale.ROOT);
+        final int len = lower.length();
+        final List<String> result = new ArrayList<>(len / 5 + 1);
+
+        int start = -1;
+        for (int i = 0; i <= len; ++i) {
+            final boolean inTerm = i < len && Character.isLetterOrDigit(lower.charAt(i));
+            if (inTerm) {
+                if (start < 0) {
+                    start = i;
+                }
+            } else if (start >= 0) {
+                if (i - start >= MIN_TERM_LENGTH) {
+                    result.add(lower.substring(start, i));
+                }
+                start = -1;
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Generates the location of a directory relative to the course media directory, with names separated by dots.
+     *
+     * @param rootPath the path of the course media directory
+     * @param dir      the directory
+     * @return the location (empty for the course media directory itself)
+     */
+    private static String makeLocation(final Path rootPath, final File dir) {
+
+        final Path relative = rootPath.relativize(dir.toPath());
+        final StringBuilder builder = new StringBuilder(100);
+
+        for (final Path name : relative) {
+            if (!builder.isEmpty()) {
+                builder.append('.');
+            }
+            builder.append(name);
+        }
+
+        return builder.toString();
+    }
+
+    /**
+     * The indexed content of one directory's metadata.
+     *
+     * @param dir          the directory
+     * @param kind         the kind of directory
+     * @param title        the title (empty if there is none)
+     * @param location     the location relative to the course media directory
+     * @param lastModified the metadata file's last modification date when it was indexed
+     * @param size         the metadata file's size when it was indexed
+     * @param terms        a map from each term to its weight in this document
+     */
+    private record IndexedDocument(File dir, EDirKind kind, String title, String location, long lastModified,
+                                   long size, Map<String, Integer> terms) {
+    }
+}
@@ -0,0 +1,431 @@
+package dev.mathops.fx.coursebuilder;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A deterministic finite automaton compiled from a list of name rules, which tests whether a name is matched by any
+ * rule in a rule set.
+ *
+ * <p>
+ * Glob patterns support "*" (any run of characters, including none), "?" (any one character), "#" (any one ASCII
+ * digit), character classes like "[12]", "[A-Z]", or "[!0-9]", and "\" to match the next character literally.  All
+ * other characters match themselves, and patterns must be ASCII.
+ *
+ * <p>
+ * Every glob is treated as a sequence of positions, and the positions of all globs together form a nondeterministic
+ * automaton.  The subset construction turns that into one table of states, where each row gives the next state for
+ * each of 128 ASCII characters plus one symbol for all other characters.  Each combination of rule set and entry type
+ * (file or directory) has its own start state in the shared table, so matching a name costs one table lookup per
+ * character no matter how many rules there are, and stops early once no rule can match.
+ *
+ * <p>
+ * Instances are immutable and thread-safe.
+ */
+final class NameMatcher {
+
+    /** The symbol used for all characters outside the ASCII range. */
+    private static final int OTHER_SYMBOL = 128;
+
+    /** The number of symbols (the width of a row of the transition table). */
+    private static final int NUM_SYMBOLS = OTHER_SYMBOL + 1;
+
+    /** The state from which no name can match (the empty set of positions). */
+    private static final int DEAD_STATE = 0;
+
+    /** The limit on the number of states, as a guard against patterns whose automaton would be unreasonably large. */
+    private static final int MAX_STATES = 50_000;
+
+    /** The transition table, indexed by state * NUM_SYMBOLS + symbol. */
+    private final int[] transitions;
+
+    /** For each state, true if reaching the end of a name in that state means the name matched. */
+    private final boolean[] accepting;
+
+    /** The start state for each rule set and entry type, indexed by {@code startIndex}. */
+    private final int[] startStates;
+
+    /** The number of rules compiled. */
+    private final int numRules;
+
+    /**
+     * Constructs a new {@code NameMatcher}.
+     *
+     * @param theTransitions the transition table
+     * @param theAccepting   the accepting flag for each state
+     * @param theStartStates the start state for each rule set and entry type
+     * @param theNumRules    the number of rules compiled
+     */
+    private NameMatcher(final int[] theTransitions, final boolean[] theAccepting, final int[] theStartStates,
+                        final int theNumRules) {
+
+        super();
+
+        this.transitions = theTransitions;
+        this.accepting = theAccepting;
+        this.startStates = theStartStates;
+        this.numRules = theNumRules;
+    }
+
+    /**
+     * Gets the index of the start state for a rule set and entry type.
+     *
+     * @param ruleSet   the rule set
+     * @param directory true for directories; false for files
+     * @return the index into the start states array
+     */
+    private static int startIndex(final ERuleSet ruleSet, final boolean directory) {
+
+        return ruleSet.ordinal() * 2 + (directory ? 1 : 0);
+    }
+
+    /**
+     * Compiles a list of rules.
+     *
+     * @param rules the rules
+     * @return the matcher
+     * @throws IllegalArgumentException if a glob pattern is malformed, or the rules need too many states
+     */
+    static NameMatcher compile(final List<NameRule> rules) {
+
+        final Positions positions = new Positions();
+        final int numStarts = ERuleSet.values().length * 2;
+        final List<BitSet> startSets = new ArrayList<>(numStarts);
+        for (int i = 0; i < numStarts; ++i) {
+            startSets.add(new BitSet());
+        }
+
+        for (final NameRule rule : rules) {
+            final int first = positions.add(rule);
+            startSets.get(startIndex(rule.ruleSet(), rule.directory())).set(first);
+        }
+
+        final Map<BitSet, Integer> stateIds = new HashMap<>(100);
+        final List<BitSet> stateSets = new ArrayList<>(100);
+        final Deque<Integer> pending = new ArrayDeque<>(100);
+
+        intern(new BitSet(), stateIds, stateSets, pending);
+
+        final int[] startStates = new int[numStarts];
+        for (int i = 0; i < numStarts; ++i) {
+            final BitSet set = positions.closure(startSets.get(i));
+            startStates[i] = intern(set, stateIds, stateSets, pending);
+        }
+
+        final List<int[]> rows = new ArrayList<>(100);
+        while (!pending.isEmpty()) {
+            final int state = pending.poll().intValue();
+            final BitSet set = stateSets.get(state);
+            final int[] row = new int[NUM_SYMBOLS];
+
+            for (int symbol = 0; symbol < NUM_SYMBOLS; ++symbol) {
+                final BitSet next = positions.step(set, symbol);
+                row[symbol] = intern(next, stateIds, stateSets, pending);
+            }
+
+            while (rows.size() <= state) {
+                rows.add(null);
+            }
+            rows.set(state, row);
+        }
+
+        final int numStates = stateSets.size();
+        final int[] transitions = new int[numStates * NUM_SYMBOLS];
+        final boolean[] accepting = new boolean[numStates];
+        for (int state = 0; state < numStates; ++state) {
+            System.arraycopy(rows.get(state), 0, transitions, state * NUM_SYMBOLS, NUM_SYMBOLS);
+            accepting[state] = positions.isAccepting(stateSets.get(state));
+        }
+
+        return new NameMatcher(transitions, accepting, startStates, rules.size());
+    }
+
+    /**
+     * Gets the state for a set of positions, adding a new state (to be filled in later) if the set has not been seen.
+     *
+     * @param set       the set of positions
+     * @param stateIds  the map from each set seen so far to its state
+     * @param stateSets the set of positions for each state
+     * @param pending   the queue of states whose transitions have not yet been computed
+     * @return the state
+     * @throws IllegalArgumentException if there would be too many states
+     */
+    private static int intern(final BitSet set, final Map<BitSet, Integer> stateIds, final List<BitSet> stateSets,
+                              final Deque<Integer> pending) {
+
+        final Integer existing = stateIds.get(set);
+        final int result;
+
+        if (existing == null) {
+            result = stateSets.size();
+            if (result >= MAX_STATES) {
+                throw new IllegalArgumentException("Name rules need more than " + MAX_STATES + " states");
+            }
+            final Integer id = Integer.valueOf(result);
+            stateIds.put(set, id);
+            stateSets.add(set);
+            pending.add(id);
+        } else {
+            result = existing.intValue();
+        }
+
+        return result;
+    }
+
+    /**
+     * Tests whether a name is matched by any rule in a rule set.
+     *
+     * @param ruleSet   the rule set
+     * @param directory true if the name is that of a directory; false if a file
+     * @param name      the name
+     * @return true if the name matches
+     */
+    boolean matches(final ERuleSet ruleSet, final boolean directory, final String name) {
+
+        int state = this.startStates[startIndex(ruleSet, directory)];
+
+        final int len = name.length();
+        for (int i = 0; i < len && state != DEAD_STATE; ++i) {
+            final int ch = (int) name.charAt(i);
+            final int symbol = ch < OTHER_SYMBOL ? ch : OTHER_SYMBOL;
+            state = this.transitions[state * NUM_SYMBOLS + symbol];
+        }
+
+        return this.accepting[state];
+    }
+
+    /**
+     * Gets the number of rules compiled.
+     *
+     * @return the number of rules
+     */
+    int getNumRules() {
+
+        return this.numRules;
+    }
+
+    /**
+     * Gets the number of states in the automaton.
+     *
+     * @return the number of states
+     */
+    int getNumStates() {
+
+        return this.accepting.length;
+    }
+
+    /**
+     * The positions of all compiled globs, which are the states of the nondeterministic automaton.  Each glob of
+     * length n (counting a character class as one element) has n + 1 positions; the last is reached when the whole
+     * glob has been matched.
+     */
+    private static final class Positions {
+
+        /** For each position, true if the element there is "*". */
+        private final BitSet stars;
+
+        /** For each position, true if it is the final position of a glob. */
+        private final BitSet finals;
+
+        /** For each position that is not a star or a final position, the symbols its element matches. */
+        private final List<boolean[]> classes;
+
+        /**
+         * Constructs a new {@code Positions}.
+         */
+        Positions() {
+
+            super();
+
+            this.stars = new BitSet();
+            this.finals = new BitSet();
+            this.classes = new ArrayList<>(500);
+        }
+
+        /**
+         * Adds the positions for a rule's glob.
+         *
+         * @param rule the rule
+         * @return the first position of the glob
+         * @throws IllegalArgumentException if the glob is malformed
+         */
+        int add(final NameRule rule) {
+
+            final String glob = rule.glob();
+            final int first = this.classes.size();
+            final int len = glob.length();
+
+            if (len == 0) {
+                throw new IllegalArgumentException("Empty pattern on line " + rule.line());
+            }
+
+            int i = 0;
+            while (i < len) {
+                final char ch = glob.charAt(i);
+                final int pos = this.classes.size();
+
+                if (ch == '*') {
+                    this.stars.set(pos);
+                    this.classes.add(null);
+                    ++i;
+                } else if (ch == '?') {
+                    final boolean[] symbols = new boolean[NUM_SYMBOLS];
+                    Arrays.fill(symbols, true);
+                    this.classes.add(symbols);
+                    ++i;
+                } else if (ch == '#') {
+                    final boolean[] symbols = new boolean[NUM_SYMBOLS];
+                    Arrays.fill(symbols, '0', '9' + 1, true);
+                    this.classes.add(symbols);
+                    ++i;
+                } else if (ch == '[') {
+                    final boolean[] symbols = new boolean[NUM_SYMBOLS];
+                    i = parseClass(rule, i + 1, symbols);
+                    this.classes.add(symbols);
+                } else {
+                    int literal = (int) ch;
+                    if (ch == '\\') {
+                        if (i + 1 == len) {
+                            throw new IllegalArgumentException("Pattern ends with '\\' on line " + rule.line());
+                        }
+                        ++i;
+                        literal = (int) glob.charAt(i);
+                    }
+                    checkAscii(rule, literal);
+                    final boolean[] symbols = new boolean[NUM_SYMBOLS];
+                    symbols[literal] = true;
+                    this.classes.add(symbols);
+                    ++i;
+                }
+            }
+
+            this.finals.set(this.classes.size());
+            this.classes.add(null);
+
+            return first;
+        }
+
+        /**
+         * Parses a character class (after its opening bracket).
+         *
+         * @param rule    the rule whose glob is being parsed
+         * @param start   the index of the first character after the opening bracket
+         * @param symbols the array in which to set the symbols the class matches
+         * @return the index after the closing bracket
+         * @throws IllegalArgumentException if the class is malformed
+         */
+        private static int parseClass(final NameRule rule, final int start, final boolean[] symbols) {
+
+            final String glob = rule.glob();
+            final int len = glob.length();
+
+            int i = start;
+            final boolean negated = i < len && glob.charAt(i) == '!';
+            if (negated) {
+                ++i;
+            }
+
+            boolean empty = true;
+            while (i < len && glob.charAt(i) != ']') {
+                final int low = (int) glob.charAt(i);
+                checkAscii(rule, low);
+                int high = low;
+                if (i + 2 < len && glob.charAt(i + 1) == '-' && glob.charAt(i + 2) != ']') {
+                    high = (int) glob.charAt(i + 2);
+                    checkAscii(rule, high);
+                    if (high < low) {
+                        throw new IllegalArgumentException("Invalid range in pattern on line " + rule.line());
+                    }
+                    i += 3;
+                } else {
+                    ++i;
+                }
+                Arrays.fill(symbols, low, high + 1, true);
+                empty = false;
+            }
+
+            if (i == len || empty) {
+                throw new IllegalArgumentException("Invalid character class in pattern on line " + rule.line());
+            }
+
+            if (negated) {
+                for (int symbol = 0; symbol < NUM_SYMBOLS; ++symbol) {
+                    symbols[symbol] = !symbols[symbol];
+                }
+            }
+
+            return i + 1;
+        }
+
+        /**
+         * Checks that a pattern character is ASCII.
+         *
+         * @param rule the rule whose glob is being parsed
+         * @param ch   the character
+         * @throws IllegalArgumentException if the character is not ASCII
+         */
+        private static void checkAscii(final NameRule rule, final int ch) {
+
+            if (ch >= OTHER_SYMBOL) {
+                throw new IllegalArgumentException("Non-ASCII character in pattern on line " + rule.line());
+            }
+        }
+
+        /**
+         * Adds to a set of positions every position reachable from it without consuming a character (by matching a
+         * "*" with nothing).
+         *
+         * @param set the set of positions (updated in place)
+         * @return the set
+         */
+        BitSet closure(final BitSet set) {
+
+            for (int pos = set.nextSetBit(0); pos >= 0; pos = set.nextSetBit(pos + 1)) {
+                if (this.stars.get(pos)) {
+                    set.set(pos + 1);
+                }
+            }
+
+            return set;
+        }
+
+        /**
+         * Computes the set of positions reached from a set of positions by consuming one symbol.
+         *
+         * @param set    the set of positions
+         * @param symbol the symbol
+         * @return the new set of positions
+         */
+        BitSet step(final BitSet set, final int symbol) {
+
+            final BitSet next = new BitSet();
+
+            for (int pos = set.nextSetBit(0); pos >= 0; pos = set.nextSetBit(pos + 1)) {
+                if (this.stars.get(pos)) {
+                    next.set(pos);
+                } else if (!this.finals.get(pos) && this.classes.get(pos)[symbol]) {
+                    next.set(pos + 1);
+                }
+            }
+
+            return closure(next);
+        }
+
+        /**
+         * Tests whether a set of positions includes the final position of any glob.
+         *
+         * @param set the set of positions
+         * @return true if the set includes a final position
+         */
+        boolean isAccepting(final BitSet set) {
+
+            return set.intersects(this.finals);
+        }
+    }
+}
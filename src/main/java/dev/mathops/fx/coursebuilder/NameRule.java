@@ -0,0 +1,12 @@
+package dev.mathops.fx.coursebuilder;
+
+/**
+ * One rule from the course rules file: a glob pattern that names entries belonging to a rule set.
+ *
+ * @param ruleSet   the rule set
+ * @param directory true if the rule matches directories; false if it matches files
+ * @param glob      the glob pattern
+ * @param line      the line number in the rules file (for error messages)
+ */
+record NameRule(ERuleSet ruleSet, boolean directory, String glob, int line) {
+}
@@ -5,19 +5,51 @@ import javafx.geometry.Insets;
 import javafx.scene.Node;
 import javafx.scene.control.Tab;
 import javafx.scene.control.TabPane;
-import javafx.scene.layout.BorderPane;
 import javafx.scene.layout.FlowPane;
 import javafx.scene.layout.GridPane;
 import javafx.scene.layout.VBox;
 
 import java.io.File;
 import java.util.ArrayList;
-import java.util.Collection;
+import java.util.List;
 
 /**
  * The content of an "Objective" tab.
  */
-final class ObjectiveTabContent extends BorderPane {
+final class ObjectiveTabContent extends AbstractLazyTabContent {
+
+    /** The owning application. */
+    private final CourseBuilder owner;
+
+    /** The objective directory. */
+    private final CourseDir objectiveDir;
+
+    /** The location string (the location prefix with the objective directory name appended). */
+    private final String locationString;
+
+    /** The Information tab content. */
+    private final InformationTabContent info;
+
+    /** The Lessons tab content. */
+    private final LessonsTabContent lessons;
+
+    /** The Examples tab content. */
+    private final ExamplesTabContent examples;
+
+    /** The Explorations tab content. */
+    private final ExplorationsTabContent explorations;
+
+    /** The Applications tab content. */
+    private final ApplicationsTabContent applications;
+
+    /** The Handouts tab content. */
+    private final HandoutsTabContent handouts;
+
+    /** The Items tab content. */
+    private final ItemsTabContent items;
+
+    /** Unexpected files found in the objective directory. */
+    private final List<AbstractCourseEntry> extraFiles;
 
     /** The number of warnings found. */
     private int numWarnings;
@@ -25,22 +57,88 @@ final class ObjectiveTabContent extends BorderPane {
     /**
      * Constructs a new {@code ObjectiveTabContent}.
      *
-     * @param owner          the owning application
-     * @param objectiveDir   the containing directory
-     * @param locationPrefix the prefix for the location, like "02_subject.01_topic" (to this will be appended a dot and
-     *                       the filename of the containing directory)
-     * @param stats          statistics to update
+     * @param theOwner        the owning application
+     * @param theObjectiveDir the containing directory
+     * @param locationPrefix  the prefix for the location, like "02_subject.01_topic" (to this will be appended a dot
+     *                        and the filename of the containing directory)
+     * @param stats           statistics to update
      */
-    ObjectiveTabContent(final CourseBuilder owner, final File objectiveDir, final String locationPrefix,
+    ObjectiveTabContent(final CourseBuilder theOwner, final CourseDir theObjectiveDir, final String locationPrefix,
                         final ObjectiveStats stats) {
 
         super();
 
+        this.owner = theOwner;
+        this.objectiveDir = theObjectiveDir;
+        this.locationString = locationPrefix + "." + theObjectiveDir.getName();
+
+        final CourseDir examplesDir = theObjectiveDir.resolve(AppConstants.EXAMPLES_DIR);
+        final CourseDir explorationsDir = theObjectiveDir.resolve(AppConstants.EXPLORATIONS_DIR);
+        final CourseDir applicationsDir = theObjectiveDir.resolve(AppConstants.APPLICATIONS_DIR);
+        final CourseDir handoutsDir = theObjectiveDir.resolve(AppConstants.HANDOUTS_DIR);
+        final CourseDir itemsDir = theObjectiveDir.resolve(AppConstants.ITEMS_DIR);
+
+        this.lessons = new LessonsTabContent(theOwner, theObjectiveDir, 11, 19, "lesson");
+        stats.numLessons += this.lessons.getNumLessons();
+
+        this.examples = new ExamplesTabContent(theOwner, examplesDir, this.locationString);
+        stats.numExamples += this.examples.getNumExamples();
+
+        this.explorations = new ExplorationsTabContent(theOwner, explorationsDir, this.locationString);
+        stats.numExplorations += this.explorations.getNumExplorations();
+        stats.numExplorationLessons += this.explorations.getNumLessons();
+        stats.numExplorationExamples += this.explorations.getNumExamples();
+        stats.numHandouts += this.explorations.getNumHandouts();
+        stats.numItems += this.explorations.getNumItems();
+
+        this.applications = new ApplicationsTabContent(theOwner, applicationsDir, this.locationString);
+        stats.numApplications += this.applications.getNumApplications();
+        stats.numApplicationLessons += this.applications.getNumLessons();
+        stats.numApplicationExamples += this.applications.getNumExamples();
+        stats.numHandouts += this.applications.getNumHandouts();
+        stats.numItems += this.applications.getNumItems();
+
+        this.handouts = new HandoutsTabContent(theOwner, handoutsDir, this.locationString);
+        stats.numHandouts += this.handouts.getNumHandouts();
+
+        this.items = new ItemsTabContent(theOwner, itemsDir, this.locationString);
+        stats.numItems += this.items.getNumItems();
+
+        // Build the information pane last so it can see the populated objective statistics
+        this.info = new InformationTabContent(theOwner, theObjectiveDir, null, stats);
+
+        this.numWarnings = this.info.getNumWarnings() + this.lessons.getNumWarnings()
+                           + this.examples.getNumWarnings() + this.explorations.getNumWarnings()
+                           + this.applications.getNumWarnings() + this.handouts.getNumWarnings()
+                           + this.items.getNumWarnings();
+
+        // Find any unexpected files
+        this.extraFiles = new ArrayList<>(10);
+
+        if (theObjectiveDir.exists()) {
+            final List<AbstractCourseEntry> allFiles = theObjectiveDir.getEntries();
+            if (!allFiles.isEmpty()) {
+                for (final AbstractCourseEntry file : allFiles) {
+                    if (!CourseRules.isExpected(ERuleSet.OBJECTIVE, file)) {
+                        this.numWarnings += file.countFiles();
+                        this.extraFiles.add(file);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Builds the child nodes for this content.
+     */
+    @Override
+    void build() {
+
         setPadding(AppConstants.BUTTON_ROW_PADDING);
 
         // Top pane shows the location of the file we're viewing
-        final String locationString = locationPrefix + "." + objectiveDir.getName();
-        final FlowPane top = AppUtils.makeLocationFlow(owner, "Location:  ", locationString, objectiveDir);
+        final File objectiveFile = this.objectiveDir.getFile();
+        final FlowPane top = AppUtils.makeLocationFlow(this.owner, "Location:  ", this.locationString, objectiveFile);
         setTop(top);
 
         final TabPane tabPane = new TabPane();
@@ -49,122 +147,47 @@ final class ObjectiveTabContent extends BorderPane {
 
         final ObservableList<Tab> tabs = tabPane.getTabs();
 
-        final File examplesDir = new File(objectiveDir, AppConstants.EXAMPLES_DIR);
-        final File explorationsDir = new File(objectiveDir, AppConstants.EXPLORATIONS_DIR);
-        final File applicationsDir = new File(objectiveDir, AppConstants.APPLICATIONS_DIR);
-        final File handoutsDir = new File(objectiveDir, AppConstants.HANDOUTS_DIR);
-        final File itemsDir = new File(objectiveDir, AppConstants.ITEMS_DIR);
-
-        final LessonsTabContent lessons = new LessonsTabContent(owner, objectiveDir, 11, 19, "lesson");
-        final int numLessons = lessons.getNumLessons();
-        stats.numLessons += numLessons;
-
-        final ExamplesTabContent examples = new ExamplesTabContent(owner, examplesDir, locationString);
-        final int numExamples = examples.getNumExamples();
-        stats.numExamples += examples.getNumExamples();
-
-        final ExplorationsTabContent explorations = new ExplorationsTabContent(owner, explorationsDir, locationString);
-        final int numExplorations = explorations.getNumExplorations();
-        stats.numExplorations += numExplorations;
-        stats.numExplorationLessons += explorations.getNumLessons();
-        stats.numExplorationExamples += explorations.getNumExamples();
-        stats.numHandouts += explorations.getNumHandouts();
-        stats.numItems += explorations.getNumItems();
-
-        final ApplicationsTabContent applications = new ApplicationsTabContent(owner, applicationsDir, locationString);
-        final int numApplications = applications.getNumApplications();
-        stats.numApplications += numApplications;
-        stats.numApplicationLessons += applications.getNumLessons();
-        stats.numApplicationExamples += applications.getNumExamples();
-        stats.numHandouts += applications.getNumHandouts();
-        stats.numItems += applications.getNumItems();
-
-        final HandoutsTabContent handouts = new HandoutsTabContent(owner, handoutsDir, locationString);
-        final int numHandouts = handouts.getNumHandouts();
-        stats.numHandouts += numHandouts;
-
-        final ItemsTabContent items = new ItemsTabContent(owner, itemsDir, locationString);
-        final int numItems = items.getNumItems();
-        stats.numItems += numItems;
-
-        lessons.init();
-        examples.init();
-        explorations.init();
-        applications.init();
-        handouts.init();
-        items.init();
-
-        // Build the information pane last so it can see the populated objective statistics
-        final InformationTabContent info = new InformationTabContent(owner, objectiveDir, null, stats);
-        info.init();
-
-        final int infoWarnings = info.getNumWarnings();
-        final Tab objectiveInfoTab = AppUtils.makeTab("Information", info, AppConstants.INFO_ICON, infoWarnings);
-
-        final int lessonsWarnings = lessons.getNumWarnings();
-        final String lessonsTitle = "Content Lessons (" + numLessons + ")";
-        final Tab introTab = AppUtils.makeTab(lessonsTitle, lessons, AppConstants.LESSONS_ICON, lessonsWarnings);
+        final int infoWarnings = this.info.getNumWarnings();
+        final Tab objectiveInfoTab = AppUtils.makeLazyTab("Information", this.info, AppConstants.INFO_ICON,
+                infoWarnings);
 
-        final int exampleWarnings = examples.getNumWarnings();
-        final String examplesTitle = "Examples (" + numExamples + ")";
-        final Tab examplesTab = AppUtils.makeTab(examplesTitle, examples, AppConstants.EXAMPLES_ICON, exampleWarnings);
+        final int lessonsWarnings = this.lessons.getNumWarnings();
+        final String lessonsTitle = "Content Lessons (" + this.lessons.getNumLessons() + ")";
+        final Tab introTab = AppUtils.makeLazyTab(lessonsTitle, this.lessons, AppConstants.LESSONS_ICON,
+                lessonsWarnings);
 
-        final int expWarnings = explorations.getNumWarnings();
-        final String expTitle = "Explorations (" + numExplorations + ")";
-        final Tab expTab = AppUtils.makeTab(expTitle, explorations, AppConstants.EXPLORATIONS_ICON, expWarnings);
+        final int exampleWarnings = this.examples.getNumWarnings();
+        final String examplesTitle = "Examples (" + this.examples.getNumExamples() + ")";
+        final Tab examplesTab = AppUtils.makeLazyTab(examplesTitle, this.examples, AppConstants.EXAMPLES_ICON,
+                exampleWarnings);
 
-        final int appsWarnings = applications.getNumWarnings();
-        final String appsTitle = "Applications (" + numApplications + ")";
-        final Tab appsTab = AppUtils.makeTab(appsTitle, applications, AppConstants.APPLICATIONS_ICON, appsWarnings);
+        final int expWarnings = this.explorations.getNumWarnings();
+        final String expTitle = "Explorations (" + this.explorations.getNumExplorations() + ")";
+        final Tab expTab = AppUtils.makeLazyTab(expTitle, this.explorations, AppConstants.EXPLORATIONS_ICON,
+                expWarnings);
 
-        final int handoutsWarnings = handouts.getNumWarnings();
-        final String handoutsTitle = "Handouts (" + numHandouts + ")";
-        final Tab handoutsTab = AppUtils.makeTab(handoutsTitle, handouts, AppConstants.HANDOUTS_ICON, handoutsWarnings);
+        final int appsWarnings = this.applications.getNumWarnings();
+        final String appsTitle = "Applications (" + this.applications.getNumApplications() + ")";
+        final Tab appsTab = AppUtils.makeLazyTab(appsTitle, this.applications, AppConstants.APPLICATIONS_ICON,
+                appsWarnings);
 
-        final int itemsWarnings = items.getNumWarnings();
-        final String itemsTitle = "Items (" + numItems + ")";
-        final Tab itemsTab = AppUtils.makeTab(itemsTitle, items, AppConstants.ITEMS_ICON, itemsWarnings);
+        final int handoutsWarnings = this.handouts.getNumWarnings();
+        final String handoutsTitle = "Handouts (" + this.handouts.getNumHandouts() + ")";
+        final Tab handoutsTab = AppUtils.makeLazyTab(handoutsTitle, this.handouts, AppConstants.HANDOUTS_ICON,
+                handoutsWarnings);
 
-        this.numWarnings = infoWarnings + lessonsWarnings + exampleWarnings + expWarnings + appsWarnings
-                           + handoutsWarnings + itemsWarnings;
+        final int itemsWarnings = this.items.getNumWarnings();
+        final String itemsTitle = "Items (" + this.items.getNumItems() + ")";
+        final Tab itemsTab = AppUtils.makeLazyTab(itemsTitle, this.items, AppConstants.ITEMS_ICON, itemsWarnings);
 
         tabs.addAll(objectiveInfoTab, introTab, examplesTab, expTab, appsTab, handoutsTab, itemsTab);
 
-        // Present any unexpected files that remain
-        final Collection<File> extraFiles = new ArrayList<>(10);
-
-        if (objectiveDir.exists()) {
-            final File[] allFiles = objectiveDir.listFiles();
-            if (allFiles != null) {
-                for (final File file : allFiles) {
-                    final String name = file.getName();
-                    if (file.isDirectory()) {
-                        if (AppConstants.EXAMPLES_DIR.equals(name) || AppConstants.EXPLORATIONS_DIR.equals(name)
-                            || AppConstants.APPLICATIONS_DIR.equals(name) || AppConstants.HANDOUTS_DIR.equals(name)
-                            || AppConstants.ITEMS_DIR.equals(name) || AppUtils.isLessonDir(name)) {
-                            continue;
-                        }
-                    } else if (AppConstants.METADATA_FILE.equals(name)) {
-                        continue;
-                    }
-
-                    if (file.isDirectory()) {
-                        this.numWarnings += AppUtils.countFiles(file);
-                    } else {
-                        ++this.numWarnings;
-                    }
-
-                    extraFiles.add(file);
-                }
-            }
-        }
-
         final VBox bottom = new VBox();
         final ObservableList<Node> bottomChildren = bottom.getChildren();
         setBottom(bottom);
 
         // Present any unexpected files that remain
-        if (!extraFiles.isEmpty()) {
+        if (!this.extraFiles.isEmpty()) {
             final GridPane unexpectedPane = new GridPane();
             unexpectedPane.setPadding(new Insets(0.0, 0.0, 0.0, 20.0));
             unexpectedPane.setHgap(10.0);
@@ -172,9 +195,10 @@ final class ObjectiveTabContent extends BorderPane {
             final ObservableList<Node> unexpectedChildren = unexpectedPane.getChildren();
 
             int unexpectedRow = 0;
-            for (final File file : extraFiles) {
+            for (final AbstractCourseEntry file : this.extraFiles) {
                 final String name = file.getName();
-                AppUtils.addSimpleDocumentRow(file, name, unexpectedChildren, unexpectedRow);
+                final File target = file.getFile();
+                AppUtils.addSimpleDocumentRow(target, name, unexpectedChildren, unexpectedRow);
                 ++unexpectedRow;
             }
             bottomChildren.add(unexpectedPane);
@@ -182,11 +206,13 @@ final class ObjectiveTabContent extends BorderPane {
     }
 
     /**
-     * Initializes this panel.  Called after the constructor completes since this method uses "this" to add itself as a
-     * listener.
+     * Gets the name of the objective directory.
+     *
+     * @return the directory name
      */
-    void init() {
+    String getDirName() {
 
+        return this.objectiveDir.getName();
     }
 
     /**
@@ -194,6 +220,7 @@ final class ObjectiveTabContent extends BorderPane {
      *
      * @return the number of warnings
      */
+    @Override
     int getNumWarnings() {
 
         return this.numWarnings;
@@ -3,27 +3,18 @@ package dev.mathops.fx.coursebuilder;
 import javafx.collections.ObservableList;
 import javafx.scene.control.Tab;
 import javafx.scene.control.TabPane;
-import javafx.scene.layout.BorderPane;
 
-import java.io.File;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 
 /**
  * The content of an "Objectives" tab.
  */
-final class ObjectivesTabContent extends BorderPane {
+final class ObjectivesTabContent extends AbstractLazyTabContent {
 
-    /** Characters used as suffixes for objective subdirectories. */
-    private static final String SUFFIXES = "-ABCDEFGHIJKLMNOPQRST";
-
-    /** The owning application. */
-    private final CourseBuilder owner;
-
-    /** The containing directory. */
-    private final File containingDir;
-
-    /** The number of objectives found. */
-    private final int numObjectives;
+    /** The content of each objective tab (not yet materialized). */
+    private final List<ObjectiveTabContent> objectives;
 
     /** The number of warnings found. */
     private int numWarnings = 0;
@@ -39,81 +30,56 @@ final class ObjectivesTabContent extends BorderPane {
      *                         and the filename of the containing directory)
      * @param objectiveStats   a collection ot which to add all generated objective statistics objects
      */
-    ObjectivesTabContent(final CourseBuilder theOwner, final File theContainingDir, final int firstNumber,
+    ObjectivesTabContent(final CourseBuilder theOwner, final CourseDir theContainingDir, final int firstNumber,
                          final int lastNumber, final String locationPrefix,
                          final Collection<ObjectiveStats> objectiveStats) {
 
         super();
 
-        this.owner = theOwner;
-        this.containingDir = theContainingDir;
-
-        setPadding(AppConstants.BUTTON_ROW_PADDING);
-
-        // Objectives panel has no "Location" display since it always appears in some other panel that shows the
-        // location (and objectives are individual directories in that location).
-
-        // Center is a nested tab pane with all the objectives in the containing directory
-
-        final TabPane tabPane = new TabPane();
-        tabPane.getStyleClass().add(AppConstants.FLOATING_CLASS);
-        setCenter(tabPane);
-
         final String locationString = locationPrefix + "." + theContainingDir.getName();
 
-        final ObservableList<Tab> tabs = tabPane.getTabs();
+        this.objectives = new ArrayList<>(lastNumber - firstNumber + 1);
         int index = 1;
 
-        int numFound = 0;
         for (int i = firstNumber; i <= lastNumber; ++i) {
-            final String subdirectoryName = makeSubdirectoryName(i, index);
+            final String subdirectoryName = CourseRules.objectiveDirName(i, index);
             ++index;
 
-            final File subdir = new File(this.containingDir, subdirectoryName);
-            if (subdir.exists() && subdir.isDirectory()) {
+            final CourseDir subdir = theContainingDir.getSubdir(subdirectoryName);
+            if (subdir != null) {
                 final ObjectiveStats stats = new ObjectiveStats();
                 final ObjectiveTabContent content = new ObjectiveTabContent(theOwner, subdir, locationString, stats);
                 objectiveStats.add(stats);
-                final int contentWarnings = content.getNumWarnings();
-                final String subdirName = subdir.getName();
-                final Tab lessonTab = AppUtils.makeTab(subdirName, content, "objective.png", contentWarnings);
-                tabs.add(lessonTab);
-                this.numWarnings += contentWarnings;
-                ++numFound;
+                this.objectives.add(content);
+                this.numWarnings += content.getNumWarnings();
             }
         }
-
-        this.numObjectives = numFound;
     }
 
     /**
-     * Generates a lesson subdirectory name, of the form "11_standard_1".
-     *
-     * @param prefix the prefix number (this will be represented with 2 digits)
-     * @param suffix the suffix number
-     * @return the subdirectory name
+     * Builds the child nodes for this content.
      */
-    private static String makeSubdirectoryName(final int prefix, final int suffix) {
+    @Override
+    void build() {
 
-        final StringBuilder builder = new StringBuilder(13);
+        setPadding(AppConstants.BUTTON_ROW_PADDING);
 
-        if (prefix < 10) {
-            builder.append("0");
-        }
-        builder.append(prefix);
-        builder.append("_objective_");
-        final char suffixChar = SUFFIXES.charAt(suffix);
-        builder.append(suffixChar);
+        // Objectives panel has no "Location" display since it always appears in some other panel that shows the
+        // location (and objectives are individual directories in that location).
 
-        return builder.toString();
-    }
+        // Center is a nested tab pane with all the objectives in the containing directory
 
-    /**
-     * Initializes this panel.  Called after the constructor completes since this method uses "this" to add itself as a
-     * listener.
-     */
-    void init() {
+        final TabPane tabPane = new TabPane();
+        tabPane.getStyleClass().add(AppConstants.FLOATING_CLASS);
+        setCenter(tabPane);
 
+        final ObservableList<Tab> tabs = tabPane.getTabs();
+        for (final ObjectiveTabContent content : this.objectives) {
+            final int contentWarnings = content.getNumWarnings();
+            final String subdirName = content.getDirName();
+            final Tab lessonTab = AppUtils.makeLazyTab(subdirName, content, "objective.png", contentWarnings);
+            tabs.add(lessonTab);
+        }
     }
 
     /**
@@ -123,7 +89,7 @@ final class ObjectivesTabContent extends BorderPane {
      */
     int getNumObjectives() {
 
-        return this.numObjectives;
+        return this.objectives.size();
     }
 
     /**
@@ -131,6 +97,7 @@ final class ObjectivesTabContent extends BorderPane {
      *
      * @return the number of warnings
      */
+    @Override
     int getNumWarnings() {
 
         return this.numWarnings;
@@ -0,0 +1,572 @@
+package dev.mathops.fx.coursebuilder;
+
+import dev.mathops.commons.log.Log;
+import javafx.scene.image.PixelFormat;
+import javafx.scene.image.WritableImage;
+
+import java.awt.image.BufferedImage;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * A persistent cache of rendered PDF pages, used by {@code PdfPreview} so that previewing a PDF that was previewed
+ * before needs no PDFBox work: the page shapes and the rendered page images both come from the cache.
+ *
+ * <p>
+ * Entries are keyed by the PDF file's absolute path, size, and modification date (so an edited file misses), and, for
+ * page images, by the page index and render scale.  Each entry is one file in a "pages" directory under the user cache
+ * directory, named by a digest of its key; the key is also stored in the file and checked when it is read.  All values
+ * are big-endian, strings in modified UTF-8:
+ * <pre>
+ * Page shapes (".info"):               Page image (".page"):
+ *   int     MAGIC                        int     MAGIC
+ *   int     VERSION                      int     VERSION
+ *   String  key                          String  key
+ *   int     number of pages              int     width
+ *   double  height / width, per page     int     height
+ *                                        (deflated) ARGB pixels, row by row, 4 bytes each
+ * </pre>
+ *
+ * <p>
+ * Counts and dimensions read from a file are checked against sane limits before anything is allocated for them.  A
+ * file that cannot be read or fails a check is treated as a miss and deleted, so it is rewritten when the page is next
+ * rendered.
+ *
+ * <p>
+ * The total size of the cache files is limited (set with the system property "coursebuilder.pageCache.maxBytes").
+ * When it is exceeded, the least recently used files are deleted.  Use is tracked in memory, and recorded as each
+ * file's modification date so the order survives restarts.  Images are written on a low-priority background thread,
+ * so caching never delays rendering.  This class is thread-safe.
+ */
+enum PageImageCache {
+    ;
+
+    /** The system property that sets the maximum total size of the cache files, in bytes. */
+    private static final String MAX_BYTES_PROPERTY = "coursebuilder.pageCache.maxBytes";
+
+    /** The default maximum total size of the cache files, in bytes. */
+    private static final long DEFAULT_MAX_BYTES = 512L * 1024L * 1024L;
+
+    /** The maximum total size of the cache files, in bytes. */
+    private static final long MAX_BYTES = Math.max(1024L * 1024L,
+            Long.getLong(MAX_BYTES_PROPERTY, DEFAULT_MAX_BYTES).longValue());
+
+    /** A magic number that identifies a page cache file ("CBPC"). */
+    private static final int MAGIC = 0x43425043;
+
+    /** The file format version (increment when the format changes to invalidate old files). */
+    private static final int VERSION = 1;
+
+    /** The name of the subdirectory of the user cache directory that holds the cache files. */
+    private static final String DIR_NAME = "pages";
+
+    /** The suffix for page shape files. */
+    private static final String INFO_SUFFIX = ".info";
+
+    /** The suffix for page image files. */
+    private static final String PAGE_SUFFIX = ".page";
+
+    /** The suffix for files being written. */
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    /** The digest algorithm used to name files. */
+    private static final String ALGORITHM = "SHA-256";
+
+    /** The number of digest bytes used in a filename. */
+    private static final int NAME_BYTES = 16;
+
+    /** The largest number of pages accepted from a page shapes file. */
+    private static final int MAX_PAGES = 100_000;
+
+    /** The largest width or height accepted from a page image file, in pixels. */
+    private static final int MAX_DIMENSION = 16_384;
+
+    /** The largest number of pixels accepted from a page image file. */
+    private static final int MAX_PIXELS = 1 << 25;
+
+    /** A buffer size for reading and writing cache files. */
+    private static final int BUFFER_SIZE = 65536;
+
+    /** The executor on which page images are written. */
+    private static final ExecutorService WRITER = Executors.newSingleThreadExecutor(
+            new BackgroundWork.WorkerFactory("Page cache writer ", Thread.MIN_PRIORITY));
+
+    /** The object on which access to the index synchronizes. */
+    private static final Object LOCK = new Object();
+
+    /** The size of each cache file, by filename, in least-recently-used order (null until loaded; guarded by LOCK). */
+    private static Map<String, Long> index = null;
+
+    /** The total size of the cache files (guarded by LOCK). */
+    private static long totalBytes = 0L;
+
+    /**
+     * Gets the cached shapes of the pages of a PDF file.
+     *
+     * @param pdf          the PDF file
+     * @param size         the file size
+     * @param lastModified the file's last modification date
+     * @return the ratio of height to width of each page; null if not cached
+     */
+    static double[] getAspects(final File pdf, final long size, final long lastModified) {
+
+        final String key = documentKey(pdf, size, lastModified);
+        final File file = getFile(key, INFO_SUFFIX);
+        double[] result = null;
+
+        if (file != null && touch(file)) {
+            try (final InputStream in = new BufferedInputStream(Files.newInputStream(file.toPath()), BUFFER_SIZE)) {
+                final DataInputStream data = new DataInputStream(in);
+                readHeader(data, key);
+
+                final int numPages = data.readInt();
+                if (numPages < 0 || numPages > MAX_PAGES) {
+                    throw new IOException("Invalid page count: " + numPages);
+                }
+                final double[] aspects = new double[numPages];
+                for (int i = 0; i < numPages; ++i) {
+                    final double aspect = data.readDouble();
+                    if (!(aspect > 0.0 && aspect < Double.POSITIVE_INFINITY)) {
+                        throw new IOException("Invalid page shape: " + aspect);
+                    }
+                    aspects[i] = aspect;
+                }
+                result = aspects;
+            } catch (final NoSuchFileException ex) {
+                forget(file);
+            } catch (final IOException ex) {
+                Log.warning("Discarding unreadable cached page shapes", ex);
+                discard(file);
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Stores the shapes of the pages of a PDF file.
+     *
+     * @param pdf          the PDF file
+     * @param size         the file size
+     * @param lastModified the file's last modification date
+     * @param aspects      the ratio of height to width of each page
+     */
+    static void putAspects(final File pdf, final long size, final long lastModified, final double[] aspects) {
+
+        final String key = documentKey(pdf, size, lastModified);
+        final File file = getFile(key, INFO_SUFFIX);
+
+        if (file != null) {
+            final double[] copy = aspects.clone();
+            WRITER.execute(() -> write(file, key, false, data -> {
+                data.writeInt(copy.length);
+                for (final double aspect : copy) {
+                    data.writeDouble(aspect);
+                }
+            }));
+        }
+    }
+
+    /**
+     * Gets a cached page image.  May be called on any thread.
+     *
+     * @param pdf          the PDF file
+     * @param size         the file size
+     * @param lastModified the file's last modification date
+     * @param page         the zero-based page index
+     * @param scale        the render scale
+     * @return the image; null if not cached
+     */
+    static WritableImage getPage(final File pdf, final long size, final long lastModified, final int page,
+                                 final float scale) {
+
+        final String key = pageKey(pdf, size, lastModified, page, scale);
+        final File file = getFile(key, PAGE_SUFFIX);
+        WritableImage result = null;
+
+        if (file != null && touch(file)) {
+            try (final InputStream in = new BufferedInputStream(Files.newInputStream(file.toPath()), BUFFER_SIZE)) {
+                final DataInputStream header = new DataInputStream(in);
+                readHeader(header, key);
+
+                final ByteBuffer bytes;
+                final int width;
+                final int height;
+
+                // The data stream does not buffer, so the deflated body starts at the current position
+                try (final DataInputStream data = new DataInputStream(new InflaterInputStream(in))) {
+                    width = data.readInt();
+                    height = data.readInt();
+                    if (width < 1 || width > MAX_DIMENSION || height < 1 || height > MAX_DIMENSION
+                        || width * height > MAX_PIXELS) {
+                        throw new IOException("Invalid page image size: " + width + "x" + height);
+                    }
+                    bytes = ByteBuffer.allocate(width * height * 4);
+                    data.readFully(bytes.array());
+                }
+
+                // The pixels were written big-endian, which is the byte order of the buffer's int view
+                final WritableImage image = new WritableImage(width, height);
+                image.getPixelWriter().setPixels(0, 0, width, height, PixelFormat.getIntArgbInstance(),
+                        bytes.asIntBuffer(), width);
+                result = image;
+            } catch (final NoSuchFileException ex) {
+                forget(file);
+            } catch (final IOException ex) {
+                Log.warning("Discarding unreadable cached page image", ex);
+                discard(file);
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Stores a page image.  The pixels are copied on the calling thread, and the file is written in the background.
+     *
+     * @param pdf          the PDF file
+     * @param size         the file size
+     * @param lastModified the file's last modification date
+     * @param page         the zero-based page index
+     * @param scale        the render scale
+     * @param image        the rendered page image
+     */
+    static void putPage(final File pdf, final long size, final long lastModified, final int page, final float scale,
+                        final BufferedImage image) {
+
+        final String key = pageKey(pdf, size, lastModified, page, scale);
+        final File file = getFile(key, PAGE_SUFFIX);
+
+        if (file != null) {
+            final int width = image.getWidth();
+            final int height = image.getHeight();
+            final int[] pixels = image.getRGB(0, 0, width, height, null, 0, width);
+
+            WRITER.execute(() -> write(file, key, true, data -> {
+                data.writeInt(width);
+                data.writeInt(height);
+
+                final ByteBuffer bytes = ByteBuffer.allocate(pixels.length * 4);
+                bytes.asIntBuffer().put(pixels);
+                data.write(bytes.array());
+            }));
+        }
+    }
+
+    /**
+     * Reads and checks the header of a cache file.
+     *
+     * @param data the stream from which to read
+     * @param key  the expected key
+     * @throws IOException if the header could not be read or does not match
+     */
+    private static void readHeader(final DataInputStream data, final String key) throws IOException {
+
+        final int magic = data.readInt();
+        final int version = data.readInt();
+
+        if (magic != MAGIC || version != VERSION || !data.readUTF().equals(key)) {
+            throw new IOException("Page cache file is from another version or for another key");
+        }
+    }
+
+    /**
+     * Builds the key for a document.
+     *
+     * @param pdf          the PDF file
+     * @param size         the file size
+     * @param lastModified the file's last modification date
+     * @return the key
+     */
+    private static String documentKey(final File pdf, final long size, final long lastModified) {
+
+        return pdf.getAbsolutePath() + "|" + size + "|" + lastModified;
+    }
+
+    /**
+     * Builds the key for a page image.
+     *
+     * @param pdf          the PDF file
+     * @param size         the file size
+     * @param lastModified the file's last modification date
+     * @param page         the zero-based page index
+     * @param scale        the render scale
+     * @return the key
+     */
+    private static String pageKey(final File pdf, final long size, final long lastModified, final int page,
+                                  final float scale) {
+
+        return documentKey(pdf, size, lastModified) + "|" + page + "|" + Float.floatToIntBits(scale);
+    }
+
+    /**
+     * Gets the cache file for a key.
+     *
+     * @param key    the key
+     * @param suffix the filename suffix
+     * @return the file; null if the cache directory is not available
+     */
+    private static File getFile(final String key, final String suffix) {
+
+        final File dir = getDirectory();
+        File result = null;
+
+        if (dir != null) {
+            final MessageDigest md;
+            try {
+                md = MessageDigest.getInstance(ALGORITHM);
+            } catch (final NoSuchAlgorithmException ex) {
+                throw new IllegalStateException(ALGORITHM + " is not available", ex);
+            }
+
+            final byte[] digest = md.digest(key.getBytes(StandardCharsets.UTF_8));
+            final String name = HexFormat.of().formatHex(digest, 0, NAME_BYTES) + suffix;
+            result = new File(dir, name);
+        }
+
+        return result;
+    }
+
+    /**
+     * Gets the directory that holds the cache files, creating it if needed.
+     *
+     * @return the directory; null if the cache directory is not available
+     */
+    private static File getDirectory() {
+
+        final File cacheDir = AppUtils.getCacheDir();
+        File result = null;
+
+        if (cacheDir != null) {
+            final File dir = new File(cacheDir, DIR_NAME);
+            if ((dir.exists() || dir.mkdirs()) && dir.isDirectory()) {
+                result = dir;
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Loads the index from the cache directory, if not yet loaded.  Files are ordered by modification date, which
+     * records their last use.  Leftover temporary files are deleted.
+     *
+     * @param dir the directory that holds the cache files
+     * @return the index
+     */
+    private static Map<String, Long> getIndex(final File dir) {
+
+        synchronized (LOCK) {
+            if (index == null) {
+                index = new LinkedHashMap<>(1000, 0.75f, true);
+                totalBytes = 0L;
+
+                final File[] files = dir.listFiles();
+                if (files != null) {
+                    final long[] dates = new long[files.length];
+                    final Integer[] order = new Integer[files.length];
+                    for (int i = 0; i < files.length; ++i) {
+                        dates[i] = files[i].lastModified();
+                        order[i] = Integer.valueOf(i);
+                    }
+                    Arrays.sort(order, Comparator.comparingLong(i -> dates[i.intValue()]));
+
+                    for (final Integer i : order) {
+                        final File file = files[i.intValue()];
+                        final String name = file.getName();
+                        if (name.endsWith(TEMP_SUFFIX)) {
+                            deleteFile(file);
+                        } else if (file.isFile()) {
+                            final long length = file.length();
+                            index.put(name, Long.valueOf(length));
+                            totalBytes += length;
+                        }
+                    }
+                }
+            }
+
+            return index;
+        }
+    }
+
+    /**
+     * Records the use of a cache file, if it exists.
+     *
+     * @param file the file
+     * @return true if the file is in the cache
+     */
+    private static boolean touch(final File file) {
+
+        final boolean present;
+
+        synchronized (LOCK) {
+            present = getIndex(file.getParentFile()).get(file.getName()) != null;
+        }
+
+        if (present) {
+            file.setLastModified(System.currentTimeMillis());
+        }
+
+        return present;
+    }
+
+    /**
+     * Removes a file that no longer exists from the index.
+     *
+     * @param file the file
+     */
+    private static void forget(final File file) {
+
+        synchronized (LOCK) {
+            final Long length = getIndex(file.getParentFile()).remove(file.getName());
+            if (length != null) {
+                totalBytes -= length.longValue();
+            }
+        }
+    }
+
+    /**
+     * Removes a file that could not be read from the index and deletes it.
+     *
+     * @param file the file
+     */
+    private static void discard(final File file) {
+
+        forget(file);
+        deleteFile(file);
+    }
+
+    /**
+     * Writes a cache file, then adds it to the index and evicts the least recently used files if the cache is over
+     * its size limit.  The file is written to a temporary file that then replaces any existing file.  Runs on the
+     * writer thread.
+     *
+     * @param file     the file
+     * @param key      the key
+     * @param deflated true to deflate the body
+     * @param body     the writer of the body
+     */
+    private static void write(final File file, final String key, final boolean deflated, final BodyWriter body) {
+
+        final File tempFile = new File(file.getParentFile(), file.getName() + TEMP_SUFFIX);
+        final Path tempPath = tempFile.toPath();
+
+        try {
+            try (final OutputStream out = new BufferedOutputStream(Files.newOutputStream(tempPath), BUFFER_SIZE);
+                 final DataOutputStream header = new DataOutputStream(out)) {
+
+                header.writeInt(MAGIC);
+                header.writeInt(VERSION);
+                header.writeUTF(key);
+
+                if (deflated) {
+                    final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+                    try {
+                        final DeflaterOutputStream deflate = new DeflaterOutputStream(out, deflater, BUFFER_SIZE);
+                        final DataOutputStream data = new DataOutputStream(deflate);
+                        body.write(data);
+                        data.flush();
+                        deflate.finish();
+                    } finally {
+                        deflater.end();
+                    }
+                } else {
+                    body.write(header);
+                }
+            }
+
+            final Path path = file.toPath();
+            try {
+                Files.move(tempPath, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (final AtomicMoveNotSupportedException ex) {
+                Files.move(tempPath, path, StandardCopyOption.REPLACE_EXISTING);
+            }
+
+            add(file);
+        } catch (final IOException ex) {
+            Log.warning("Unable to write page cache file", ex);
+            deleteFile(tempFile);
+        }
+    }
+
+    /**
+     * Adds a newly written file to the index, then deletes the least recently used files until the cache is within
+     * its size limit.
+     *
+     * @param file the file
+     */
+    private static void add(final File file) {
+
+        final File dir = file.getParentFile();
+        final long length = file.length();
+
+        synchronized (LOCK) {
+            final Map<String, Long> map = getIndex(dir);
+            final Long previous = map.put(file.getName(), Long.valueOf(length));
+            totalBytes += length - (previous == null ? 0L : previous.longValue());
+
+            final Iterator<Map.Entry<String, Long>> iter = map.entrySet().iterator();
+            while (totalBytes > MAX_BYTES && iter.hasNext()) {
+                final Map.Entry<String, Long> eldest = iter.next();
+                iter.remove();
+                totalBytes -= eldest.getValue().longValue();
+                deleteFile(new File(dir, eldest.getKey()));
+            }
+        }
+    }
+
+    /**
+     * Deletes a file, logging a failure.
+     *
+     * @param file the file
+     */
+    private static void deleteFile(final File file) {
+
+        try {
+            Files.deleteIfExists(file.toPath());
+        } catch (final IOException ex) {
+            Log.warning("Unable to delete page cache file", ex);
+        }
+    }
+
+    /**
+     * Writes the body of a cache file.
+     */
+    @FunctionalInterface
+    private interface BodyWriter {
+
+        /**
+         * Writes the body.
+         *
+         * @param data the stream to which to write
+         * @throws IOException if the body could not be written
+         */
+        void write(DataOutputStream data) throws IOException;
+    }
+}
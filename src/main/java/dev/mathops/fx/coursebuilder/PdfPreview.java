@@ -0,0 +1,509 @@
+package dev.mathops.fx.coursebuilder;
+
+import dev.mathops.commons.log.Log;
+import javafx.application.Platform;
+import javafx.beans.property.ReadOnlyDoubleProperty;
+import javafx.beans.value.ChangeListener;
+import javafx.beans.value.ObservableValue;
+import javafx.embed.swing.SwingFXUtils;
+import javafx.geometry.Bounds;
+import javafx.scene.control.Label;
+import javafx.scene.control.ScrollPane;
+import javafx.scene.image.ImageView;
+import javafx.scene.image.WritableImage;
+import javafx.scene.layout.Region;
+import javafx.scene.layout.StackPane;
+import javafx.scene.layout.VBox;
+import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.rendering.PDFRenderer;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * A scrolling preview of a PDF file that renders pages in the background as they come into view.
+ *
+ * <p>
+ * The document is opened on a background thread, and a placeholder of the right shape is laid out for every page, so
+ * the scroll bar reflects the whole document at once.  Pages that intersect the viewport, plus a margin of pages above
+ * and below, are rendered on a single background thread (PDFBox documents may not be rendered concurrently), and
+ * page 1 is requested as soon as the placeholders are laid out.  A request for a page that has scrolled out of range
+ * by the time the render thread reaches it is skipped.
+ *
+ * <p>
+ * Rendered page images are kept in least-recently-viewed order, and when their total size exceeds a budget (set with
+ * the system property "coursebuilder.pdfPreview.maxBytes"), images of pages outside the wanted range are discarded,
+ * oldest first; they are rendered again if they come back into view.
+ *
+ * <p>
+ * Page shapes and rendered page images are kept in the {@code PageImageCache}, so a PDF that was previewed before is
+ * shown without opening the document at all; the document is opened only when a page is not in the cache.  Pages are
+ * rendered at a scale rounded to a quarter, so small changes to the width of the preview do not miss the cache.
+ *
+ * <p>
+ * All methods other than the render tasks run on the JavaFX application thread.  {@code close} must be called when
+ * the preview is discarded, so the document is closed.
+ */
+final class PdfPreview extends ScrollPane {
+
+    /** The system property that sets the memory budget for page images, in bytes. */
+    private static final String MAX_BYTES_PROPERTY = "coursebuilder.pdfPreview.maxBytes";
+
+    /** The default memory budget for page images, in bytes. */
+    private static final long DEFAULT_MAX_BYTES = 64L * 1024L * 1024L;
+
+    /** The memory budget for page images, in bytes. */
+    private static final long MAX_BYTES = Math.max(1024L * 1024L,
+            Long.getLong(MAX_BYTES_PROPERTY, DEFAULT_MAX_BYTES).longValue());
+
+    /** The number of pages above and below the viewport that are rendered ahead of time. */
+    private static final int MARGIN_PAGES = 1;
+
+    /** The space between pages. */
+    private static final double PAGE_GAP = 5.0;
+
+    /** The smallest scale at which a page is rendered (1.0 renders at 72 DPI). */
+    private static final float MIN_SCALE = 0.5f;
+
+    /** The largest scale at which a page is rendered. */
+    private static final float MAX_SCALE = 3.0f;
+
+    /** The steps per unit to which render scales are rounded. */
+    private static final float SCALE_STEPS = 4.0f;
+
+    /** The bytes per pixel of a page image. */
+    private static final long BYTES_PER_PIXEL = 4L;
+
+    /** The executor on which documents are opened, rendered, and closed. */
+    private static final ExecutorService RENDERER = Executors.newSingleThreadExecutor(
+            new BackgroundWork.WorkerFactory("PDF render ", Thread.NORM_PRIORITY));
+
+    /** The PDF file. */
+    private final File file;
+
+    /** The box that holds the page placeholders. */
+    private final VBox box;
+
+    /** The pages (empty until the document is opened). */
+    private final List<Page> pages;
+
+    /** The pages that have images, in least-recently-viewed order. */
+    private final Map<Integer, Page> rendered;
+
+    /** The total size of the page images, in bytes. */
+    private long renderedBytes = 0L;
+
+    /** The first page wanted (read by the render thread). */
+    private volatile int firstWanted = 0;
+
+    /** The last page wanted (read by the render thread). */
+    private volatile int lastWanted = 0;
+
+    /** True once the preview has been closed (read by the render thread). */
+    private volatile boolean closed = false;
+
+    /** The size of the PDF file when it was opened (used only on the render thread). */
+    private long fileSize = 0L;
+
+    /** The last modification date of the PDF file when it was opened (used only on the render thread). */
+    private long fileLastModified = 0L;
+
+    /** The open document (used only on the render thread). */
+    private PDDocument document = null;
+
+    /** The renderer for the open document (used only on the render thread). */
+    private PDFRenderer renderer = null;
+
+    /**
+     * Constructs a new {@code PdfPreview}.
+     *
+     * @param theFile the PDF file
+     */
+    PdfPreview(final File theFile) {
+
+        super();
+
+        this.file = theFile;
+        this.pages = new ArrayList<>(20);
+        this.rendered = new LinkedHashMap<>(16, 0.75f, true);
+
+        this.box = new VBox(PAGE_GAP);
+        setContent(this.box);
+        setFitToWidth(true);
+    }
+
+    /**
+     * Initializes this preview by starting to open the document in the background.  Called after the constructor
+     * completes since this method uses "this" to register listeners.
+     */
+    void init() {
+
+        final ViewportListener listener = new ViewportListener();
+        vvalueProperty().addListener(listener);
+        viewportBoundsProperty().addListener(listener);
+        this.box.heightProperty().addListener(listener);
+
+        RENDERER.execute(this::open);
+    }
+
+    /**
+     * Closes this preview.  Pending renders are skipped, and the document is closed on the render thread.
+     */
+    void close() {
+
+        this.closed = true;
+
+        for (final Page page : this.rendered.values()) {
+            page.view.setImage(null);
+        }
+        this.rendered.clear();
+        this.renderedBytes = 0L;
+
+        RENDERER.execute(this::closeDocument);
+    }
+
+    /**
+     * Gets the shape of each page, from the cache or by opening the document, then lays out the placeholders on the
+     * JavaFX application thread.  Runs on the render thread.
+     */
+    private void open() {
+
+        if (!this.closed) {
+            this.fileSize = this.file.length();
+            this.fileLastModified = this.file.lastModified();
+
+            try {
+                double[] aspects = PageImageCache.getAspects(this.file, this.fileSize, this.fileLastModified);
+
+                if (aspects == null) {
+                    aspects = readAspects();
+                    PageImageCache.putAspects(this.file, this.fileSize, this.fileLastModified, aspects);
+                }
+
+                final double[] pageAspects = aspects;
+                Platform.runLater(() -> layOutPages(pageAspects));
+            } catch (final IOException | RuntimeException ex) {
+                Log.warning("Failed to load PDF file.", ex);
+                Platform.runLater(() -> setContent(new Label("(Unable to load PDF file)")));
+            }
+        }
+    }
+
+    /**
+     * Opens the document, if it is not already open.  Runs on the render thread.
+     *
+     * @throws IOException if the document could not be opened
+     */
+    private void openDocument() throws IOException {
+
+        if (this.document == null) {
+            this.document = Loader.loadPDF(this.file);
+            this.renderer = new PDFRenderer(this.document);
+        }
+    }
+
+    /**
+     * Opens the document and reads the shape of each page.  Runs on the render thread.
+     *
+     * @return the ratio of height to width of each page
+     * @throws IOException if the document could not be opened
+     */
+    private double[] readAspects() throws IOException {
+
+        openDocument();
+
+        final int numPages = this.document.getNumberOfPages();
+        final double[] aspects = new double[numPages];
+        for (int i = 0; i < numPages; ++i) {
+            final PDPage page = this.document.getPage(i);
+            final PDRectangle crop = page.getCropBox();
+            final int rotation = page.getRotation();
+            final boolean sideways = rotation == 90 || rotation == 270;
+            final double width = (double) (sideways ? crop.getHeight() : crop.getWidth());
+            final double height = (double) (sideways ? crop.getWidth() : crop.getHeight());
+            aspects[i] = width > 0.0 ? height / width : 1.0;
+        }
+
+        return aspects;
+    }
+
+    /**
+     * Closes the document.  Runs on the render thread.
+     */
+    private void closeDocument() {
+
+        if (this.document != null) {
+            try {
+                this.document.close();
+            } catch (final IOException ex) {
+                Log.warning("Failed to close PDF file.", ex);
+            }
+            this.document = null;
+            this.renderer = null;
+        }
+    }
+
+    /**
+     * Lays out a placeholder for each page, then requests the pages in view.
+     *
+     * @param aspects the ratio of height to width of each page
+     */
+    private void layOutPages(final double[] aspects) {
+
+        if (!this.closed) {
+            final ReadOnlyDoubleProperty boxWidth = this.box.widthProperty();
+
+            for (int i = 0; i < aspects.length; ++i) {
+                final Page page = new Page(i);
+
+                page.view.setPreserveRatio(true);
+                page.view.fitWidthProperty().bind(boxWidth);
+
+                page.holder.setMinHeight(Region.USE_PREF_SIZE);
+                page.holder.prefHeightProperty().bind(boxWidth.multiply(aspects[i]));
+                page.holder.getChildren().addAll(page.label, page.view);
+
+                this.pages.add(page);
+                this.box.getChildren().add(page.holder);
+            }
+
+            updateWanted();
+        }
+    }
+
+    /**
+     * Determines the range of pages near the viewport, requests those that have no image, and discards images outside
+     * the range if the memory budget is exceeded.
+     */
+    private void updateWanted() {
+
+        final int numPages = this.pages.size();
+
+        if (!this.closed && numPages > 0) {
+            final double contentHeight = this.box.getHeight();
+            final double viewportHeight = getViewportBounds().getHeight();
+            final double top = getVvalue() * Math.max(0.0, contentHeight - viewportHeight);
+            final double bottom = top + viewportHeight;
+
+            int first = -1;
+            int last = 0;
+            for (int i = 0; i < numPages; ++i) {
+                final Bounds bounds = this.pages.get(i).holder.getBoundsInParent();
+                if (bounds.getMaxY() >= top && bounds.getMinY() <= bottom) {
+                    if (first < 0) {
+                        first = i;
+                    }
+                    last = i;
+                }
+            }
+
+            // Before the first layout pass, nothing intersects the viewport - start with page 1
+            if (first < 0) {
+                first = 0;
+                last = 0;
+            }
+
+            final int wantedFirst = Math.max(0, first - MARGIN_PAGES);
+            final int wantedLast = Math.min(numPages - 1, last + MARGIN_PAGES);
+            this.firstWanted = wantedFirst;
+            this.lastWanted = wantedLast;
+
+            final float scale = renderScale();
+            for (int i = first; i <= last; ++i) {
+                request(this.pages.get(i), scale);
+            }
+            for (int i = wantedFirst; i <= wantedLast; ++i) {
+                request(this.pages.get(i), scale);
+            }
+
+            trim();
+        }
+    }
+
+    /**
+     * Computes the scale at which to render pages so they fill the width of the viewport, rounded to a quarter.
+     *
+     * @return the scale (1.0 renders at 72 DPI)
+     */
+    private float renderScale() {
+
+        final double width = getViewportBounds().getWidth();
+
+        // A US Letter page is 612 points wide; pages of other widths are fitted by the image view
+        final float scale = width > 0.0 ? (float) (width / 612.0) : 1.0f;
+        final float rounded = (float) Math.round(scale * SCALE_STEPS) / SCALE_STEPS;
+
+        return Math.max(MIN_SCALE, Math.min(MAX_SCALE, rounded));
+    }
+
+    /**
+     * Requests a page be rendered, if it has no image and has not already been requested.  A page that has an image
+     * is marked as recently viewed.
+     *
+     * @param page  the page
+     * @param scale the scale at which to render
+     */
+    private void request(final Page page, final float scale) {
+
+        final Integer key = Integer.valueOf(page.index);
+
+        if (this.rendered.get(key) == null && !page.requested) {
+            page.requested = true;
+            RENDERER.execute(() -> render(page, scale));
+        }
+    }
+
+    /**
+     * Gets a page image from the cache, or renders it (opening the document if needed) and adds it to the cache, if
+     * the page is still wanted, then installs the image on the JavaFX application thread.  Runs on the render thread.
+     *
+     * @param page  the page
+     * @param scale the scale at which to render
+     */
+    private void render(final Page page, final float scale) {
+
+        final int index = page.index;
+
+        if (this.closed || index < this.firstWanted || index > this.lastWanted) {
+            Platform.runLater(() -> page.requested = false);
+        } else {
+            try {
+                WritableImage fxImage = PageImageCache.getPage(this.file, this.fileSize, this.fileLastModified, index,
+                        scale);
+
+                if (fxImage == null) {
+                    openDocument();
+                    final BufferedImage image = this.renderer.renderImage(index, scale);
+                    PageImageCache.putPage(this.file, this.fileSize, this.fileLastModified, index, scale, image);
+                    fxImage = SwingFXUtils.toFXImage(image, null);
+                }
+
+                final WritableImage pageImage = fxImage;
+                Platform.runLater(() -> install(page, pageImage));
+            } catch (final IOException | RuntimeException ex) {
+                Log.warning("Failed to render page ", index + 1, " of PDF file.", ex);
+                Platform.runLater(() -> page.label.setText("(Unable to render page " + (index + 1) + ")"));
+            }
+        }
+    }
+
+    /**
+     * Installs a rendered page image.
+     *
+     * @param page    the page
+     * @param fxImage the image
+     */
+    private void install(final Page page, final WritableImage fxImage) {
+
+        page.requested = false;
+
+        if (!this.closed) {
+            page.view.setImage(fxImage);
+            page.label.setVisible(false);
+            page.bytes = (long) fxImage.getWidth() * (long) fxImage.getHeight() * BYTES_PER_PIXEL;
+
+            this.rendered.put(Integer.valueOf(page.index), page);
+            this.renderedBytes += page.bytes;
+
+            trim();
+        }
+    }
+
+    /**
+     * Discards the images of the least recently viewed pages outside the wanted range until the total size of the
+     * images is within the memory budget.
+     */
+    private void trim() {
+
+        final Iterator<Page> iter = this.rendered.values().iterator();
+
+        while (this.renderedBytes > MAX_BYTES && iter.hasNext()) {
+            final Page page = iter.next();
+            if (page.index < this.firstWanted || page.index > this.lastWanted) {
+                iter.remove();
+                page.view.setImage(null);
+                page.label.setVisible(true);
+                this.renderedBytes -= page.bytes;
+                page.bytes = 0L;
+            }
+        }
+    }
+
+    /**
+     * A page placeholder and the image view that shows the page once it is rendered.
+     */
+    private static final class Page {
+
+        /** The zero-based page index. */
+        final int index;
+
+        /** The placeholder, sized to the page's shape. */
+        final StackPane holder;
+
+        /** The label shown until the page is rendered. */
+        final Label label;
+
+        /** The image view. */
+        final ImageView view;
+
+        /** True while a render of the page is queued. */
+        boolean requested = false;
+
+        /** The size of the page image, in bytes (0 if there is none). */
+        long bytes = 0L;
+
+        /**
+         * Constructs a new {@code Page}.
+         *
+         * @param theIndex the zero-based page index
+         */
+        Page(final int theIndex) {
+
+            super();
+
+            this.index = theIndex;
+            this.holder = new StackPane();
+            this.label = new Label("Page " + (theIndex + 1));
+            this.view = new ImageView();
+        }
+    }
+
+    /**
+     * A listener that updates the wanted pages when the viewport scrolls or changes size, or the content changes
+     * height.
+     */
+    private final class ViewportListener implements ChangeListener<Object> {
+
+        /**
+         * Constructs a new {@code ViewportListener}.
+         */
+        ViewportListener() {
+
+            super();
+        }
+
+        /**
+         * Called when the observed value changes.
+         *
+         * @param observable the observed value
+         * @param oldValue   the old value
+         * @param newValue   the new value
+         */
+        @Override
+        public void changed(final ObservableValue<?> observable, final Object oldValue, final Object newValue) {
+
+            updateWanted();
+        }
+    }
+}
@@ -0,0 +1,313 @@
+package dev.mathops.fx.coursebuilder;
+
+import dev.mathops.commons.log.Log;
+import javafx.application.Platform;
+import javafx.embed.swing.SwingFXUtils;
+import javafx.geometry.Insets;
+import javafx.scene.image.Image;
+import javafx.scene.layout.Region;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+/**
+ * Loads image files for previews and thumbnails in the background, decoded directly at the size at which they will be
+ * shown, and shares the decoded images through a bounded cache.
+ *
+ * <p>
+ * The dimensions of an image are read from its header, and the image is then decoded no larger than the requested
+ * size (images are never enlarged).  Formats JavaFX can decode (PNG, JPEG, GIF, and BMP) are decoded straight into a
+ * JavaFX {@code Image}, with smoothing, by a decoder that scales as it reads, so a full-resolution copy is never held
+ * in memory.  Other formats (like WebP, if an ImageIO plugin is installed) are read through ImageIO with subsampling,
+ * then smoothly scaled to the final size.
+ *
+ * <p>
+ * Images are cached by path, size, last modified time, and requested size, in least-recently-used order.  The size
+ * and last modified time are taken from the scanned {@code CourseFile}, so a request makes no file system query on
+ * the JavaFX application thread.  When an image is sized to fit a region, the region's size is rounded down to a
+ * multiple of {@code SIZE_BUCKET} pixels, so small changes in the region's size (as the window is resized) reuse the
+ * image already decoded.  When the total size of the decoded images exceeds a budget (set with the system property
+ * "coursebuilder.imageCache.maxBytes"), the oldest are discarded.  A request for an image that is still being decoded
+ * shares the decode already in progress.  All methods must be called on the JavaFX application thread.
+ */
+enum PreviewImages {
+    ;
+
+    /** The system property that sets the memory budget for cached images, in bytes. */
+    private static final String MAX_BYTES_PROPERTY = "coursebuilder.imageCache.maxBytes";
+
+    /** The default memory budget for cached images, in bytes. */
+    private static final long DEFAULT_MAX_BYTES = 64L * 1024L * 1024L;
+
+    /** The memory budget for cached images, in bytes. */
+    private static final long MAX_BYTES = Math.max(1024L * 1024L,
+            Long.getLong(MAX_BYTES_PROPERTY, DEFAULT_MAX_BYTES).longValue());
+
+    /** The width at which to load an image for a region that has not yet been laid out. */
+    private static final double DEFAULT_WIDTH = 800.0;
+
+    /** The height at which to load an image for a region that has not yet been laid out. */
+    private static final double DEFAULT_HEIGHT = 600.0;
+
+    /** The step to which the size of a region is rounded down when fitting an image to it, in pixels. */
+    private static final int SIZE_BUCKET = 64;
+
+    /** The number of bytes per pixel in a decoded image. */
+    private static final long BYTES_PER_PIXEL = 4L;
+
+    /** The file extensions of the formats JavaFX can decode directly. */
+    private static final String[] FX_EXTENSIONS = {".png", ".jpg", ".jpeg", ".gif", ".bmp"};
+
+    /** The cached images (or pending decodes), in least-recently-used order. */
+    private static final Map<Key, CompletableFuture<Image>> CACHE = new LinkedHashMap<>(50, 0.75f, true);
+
+    /**
+     * Loads an image in the background, no larger than the content area of the region in which it will be shown, and
+     * passes it to a consumer on the JavaFX application thread.  If the image cannot be loaded, null is passed to the
+     * consumer.  The content area's size is rounded down to a multiple of {@code SIZE_BUCKET} pixels.
+     *
+     * @param file     the scanned image file
+     * @param region   the region in which the image will be shown
+     * @param onLoaded the consumer to receive the image (or null)
+     */
+    static void load(final CourseFile file, final Region region, final Consumer<? super Image> onLoaded) {
+
+        final Insets insets = region.getInsets();
+        final double width = region.getWidth() - insets.getLeft() - insets.getRight();
+        final double height = region.getHeight() - insets.getTop() - insets.getBottom();
+
+        if (width > 0.0 && height > 0.0) {
+            load(file, bucket(width), bucket(height), onLoaded);
+        } else {
+            load(file, DEFAULT_WIDTH, DEFAULT_HEIGHT, onLoaded);
+        }
+    }
+
+    /**
+     * Loads an image in the background, no larger than a given size, and passes it to a consumer on the JavaFX
+     * application thread.  If the image cannot be loaded, null is passed to the consumer.
+     *
+     * @param file      the scanned image file
+     * @param maxWidth  the maximum width at which the image will be shown
+     * @param maxHeight the maximum height at which the image will be shown
+     * @param onLoaded  the consumer to receive the image (or null)
+     */
+    static void load(final CourseFile file, final double maxWidth, final double maxHeight,
+                     final Consumer<? super Image> onLoaded) {
+
+        final File imageFile = file.getFile();
+        final int width = Math.max(1, (int) Math.round(maxWidth));
+        final int height = Math.max(1, (int) Math.round(maxHeight));
+        final Key key = new Key(imageFile.getAbsolutePath(), file.getSize(), file.getLastModified(), width, height);
+
+        CompletableFuture<Image> future = CACHE.get(key);
+        if (future == null) {
+            future = BackgroundWork.submit(() -> decode(imageFile, width, height), image -> loaded(key, image));
+            CACHE.put(key, future);
+        }
+
+        future.whenComplete((image, ex) -> Platform.runLater(() -> onLoaded.accept(image)));
+    }
+
+    /**
+     * Rounds a size down to a multiple of {@code SIZE_BUCKET} pixels (sizes smaller than one step are only rounded to
+     * a whole number of pixels).
+     *
+     * @param size the size, in pixels
+     * @return the rounded size
+     */
+    private static double bucket(final double size) {
+
+        final int pixels = Math.max(1, (int) Math.round(size));
+
+        return (double) (pixels < SIZE_BUCKET ? pixels : pixels - pixels % SIZE_BUCKET);
+    }
+
+    /**
+     * Called on the JavaFX application thread when an image has been decoded.  Failed decodes are removed from the
+     * cache, so they are attempted again the next time, and the cache is trimmed to its budget.
+     *
+     * @param key   the key
+     * @param image the image (null if it could not be decoded)
+     */
+    private static void loaded(final Key key, final Image image) {
+
+        if (image == null) {
+            CACHE.remove(key);
+        } else {
+            trim();
+        }
+    }
+
+    /**
+     * Discards the least recently used images until the total size of the decoded images is within the budget.  The
+     * most recently used image is always kept, and decodes still in progress are not counted or discarded.
+     */
+    private static void trim() {
+
+        long total = 0L;
+        for (final CompletableFuture<Image> future : CACHE.values()) {
+            total += sizeOf(future);
+        }
+
+        final Iterator<CompletableFuture<Image>> iterator = CACHE.values().iterator();
+        int remaining = CACHE.size();
+        while (total > MAX_BYTES && remaining > 1) {
+            final CompletableFuture<Image> future = iterator.next();
+            final long bytes = sizeOf(future);
+            if (bytes > 0L) {
+                iterator.remove();
+                total -= bytes;
+            }
+            --remaining;
+        }
+    }
+
+    /**
+     * Gets the size of a decoded image.
+     *
+     * @param future the future that holds the image
+     * @return the size, in bytes (0 if the image is still being decoded, or could not be decoded)
+     */
+    private static long sizeOf(final CompletableFuture<Image> future) {
+
+        long bytes = 0L;
+
+        if (future.isDone() && !future.isCompletedExceptionally()) {
+            final Image image = future.join();
+            if (image != null) {
+                bytes = (long) image.getWidth() * (long) image.getHeight() * BYTES_PER_PIXEL;
+            }
+        }
+
+        return bytes;
+    }
+
+    /**
+     * Decodes an image file no larger than a given size.  This runs on a background thread.
+     *
+     * @param file      the image file
+     * @param maxWidth  the maximum width
+     * @param maxHeight the maximum height
+     * @return the image (null if the file could not be decoded)
+     */
+    private static Image decode(final File file, final int maxWidth, final int maxHeight) {
+
+        Image result = null;
+
+        try (final ImageInputStream in = ImageIO.createImageInputStream(file)) {
+            final Iterator<ImageReader> readers = in == null ? null : ImageIO.getImageReaders(in);
+
+            if (readers == null || !readers.hasNext()) {
+                Log.warning("Unable to decode image ", file.getAbsolutePath());
+            } else {
+                final ImageReader reader = readers.next();
+                try {
+                    reader.setInput(in, true, true);
+                    final int imageWidth = reader.getWidth(0);
+                    final int imageHeight = reader.getHeight(0);
+
+                    final double scale = Math.min(1.0, Math.min((double) maxWidth / (double) imageWidth,
+                            (double) maxHeight / (double) imageHeight));
+                    final int width = Math.max(1, (int) Math.round((double) imageWidth * scale));
+                    final int height = Math.max(1, (int) Math.round((double) imageHeight * scale));
+
+                    if (isFxFormat(file.getName())) {
+                        final Image image = new Image(file.toURI().toString(), (double) width, (double) height,
+                                false, true, false);
+                        if (image.isError()) {
+                            Log.warning("Unable to decode image ", file.getAbsolutePath(), image.getException());
+                        } else {
+                            result = image;
+                        }
+                    } else {
+                        final int subsampling = Math.max(1, Math.min(imageWidth / width, imageHeight / height));
+                        final ImageReadParam param = reader.getDefaultReadParam();
+                        param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+                        final BufferedImage read = reader.read(0, param);
+                        result = SwingFXUtils.toFXImage(scale(read, width, height), null);
+                    }
+                } finally {
+                    reader.dispose();
+                }
+            }
+        } catch (final IOException | RuntimeException ex) {
+            Log.warning("Unable to decode image ", file.getAbsolutePath(), ex);
+        }
+
+        return result;
+    }
+
+    /**
+     * Tests whether a file is in a format JavaFX can decode directly.
+     *
+     * @param name the filename
+     * @return true if JavaFX can decode the file
+     */
+    private static boolean isFxFormat(final String name) {
+
+        final String lower = name.toLowerCase(Locale.ROOT);
+
+        boolean fx = false;
+        for (final String ext : FX_EXTENSIONS) {
+            if (lower.endsWith(ext)) {
+                fx = true;
+                break;
+            }
+        }
+
+        return fx;
+    }
+
+    /**
+     * Smoothly scales an image to a given size, if it is not already that size.
+     *
+     * @param image  the image
+     * @param width  the width
+     * @param height the height
+     * @return the scaled image
+     */
+    private static BufferedImage scale(final BufferedImage image, final int width, final int height) {
+
+        BufferedImage result = image;
+
+        if (image.getWidth() != width || image.getHeight() != height) {
+            result = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+            final Graphics2D g2d = result.createGraphics();
+            try {
+                g2d.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                g2d.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+                g2d.drawImage(image, 0, 0, width, height, null);
+            } finally {
+                g2d.dispose();
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * The key under which an image is cached.
+     *
+     * @param path         the absolute path of the file
+     * @param size         the file size
+     * @param lastModified the file's last modified time
+     * @param maxWidth     the requested maximum width
+     * @param maxHeight    the requested maximum height
+     */
+    private record Key(String path, long size, long lastModified, int maxWidth, int maxHeight) {
+    }
+}
@@ -0,0 +1,99 @@
+package dev.mathops.fx.coursebuilder;
+
+import dev.mathops.commons.log.Log;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A benchmark that compares the concurrent deploy source scan ({@code DeploySourceScan}, on the {@code ScanExecutor})
+ * with the single-threaded recursion the media deploy used before it.  Run with the directory to scan as the only
+ * argument (the course media directory on a OneDrive share is the case of interest); the results are logged.
+ *
+ * <p>
+ * The two scans alternate for several rounds, so that both see the same state of any file system caches.  The limit on
+ * concurrent calls per volume can be varied with the "coursebuilder.scan.maxConcurrent" system property.
+ */
+final class ScanBenchmark {
+
+    /** The number of rounds. */
+    private static final int NUM_ROUNDS = 5;
+
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private ScanBenchmark() {
+
+        // No action
+    }
+
+    /**
+     * Recursively scans a directory on the calling thread to count the number of student-facing files and their total
+     * size (the media deploy's original scan).
+     *
+     * @param dir        the directory
+     * @param statistics a two-long array whose first entry will be set to the number of files to copy, and whose second
+     *                   entry will be set to the total file size
+     * @param dirsToCopy a list to which to add all directories to be copied
+     * @return true if any files were found to copy; false if not
+     */
+    private static boolean scanSequentially(final File dir, final long[] statistics,
+                                            final List<? super File> dirsToCopy) {
+
+        boolean found = false;
+
+        for (final DirEntry entry : DirectoryReader.list(dir)) {
+            if (entry.directory()) {
+                if (scanSequentially(entry.file(), statistics, dirsToCopy)) {
+                    found = true;
+                }
+            } else if (CourseRules.isMediaDeployed(entry.name())) {
+                ++statistics[0];
+                statistics[1] += entry.size();
+                found = true;
+            }
+        }
+        if (found) {
+            dirsToCopy.add(dir);
+        }
+
+        return found;
+    }
+
+    /**
+     * Runs the benchmark.
+     *
+     * @param args command-line arguments (the directory to scan)
+     */
+    public static void main(final String... args) {
+
+        if (args.length == 1) {
+            final File dir = new File(args[0]);
+            final String mode = ScanExecutor.isVirtual() ? "virtual threads" : "fork-join pool";
+
+            for (int round = 1; round <= NUM_ROUNDS; ++round) {
+                final long start1 = System.nanoTime();
+                final long[] statistics = new long[2];
+                final List<File> dirsToCopy = new ArrayList<>(100);
+                scanSequentially(dir, statistics, dirsToCopy);
+                final long sequential = (System.nanoTime() - start1) / 1_000_000L;
+
+                final long start2 = System.nanoTime();
+                final DeploySourceScan scan = DeploySourceScan.scan(dir, CourseRules::isMediaDeployed,
+                        name -> false);
+                final long concurrent = (System.nanoTime() - start2) / 1_000_000L;
+
+                final boolean same = statistics[0] == scan.getNumToCopy() && statistics[1] == scan.getBytesToCopy()
+                                     && dirsToCopy.size() == scan.getDirsToCopy().size();
+
+                Log.info("Round ", Integer.toString(round), ": single-threaded ", Long.toString(sequential),
+                        " ms, concurrent (", mode, ") ", Long.toString(concurrent), " ms; ",
+                        Long.toString(statistics[0]), " files in ", Integer.toString(dirsToCopy.size()),
+                        " directories", same ? "" : " (RESULTS DIFFER)");
+            }
+        } else {
+            Log.warning("Usage: ScanBenchmark <directory>");
+        }
+    }
+}
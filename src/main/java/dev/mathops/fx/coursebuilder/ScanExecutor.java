@@ -0,0 +1,227 @@
+package dev.mathops.fx.coursebuilder;
+
+import dev.mathops.commons.log.Log;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.nio.file.FileStore;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+
+/**
+ * The executor on which directory trees are scanned (by {@code CourseScanner} and the deploy tasks), with a limit on
+ * the number of concurrent file system calls made to each volume.
+ *
+ * <p>
+ * Scanning a course media directory on a OneDrive share is dominated by the latency of each call rather than by
+ * bandwidth, so the scan issues many blocking calls at once: each directory is scanned by its own task, which lists
+ * the directory, submits a task for each subdirectory, and waits for them.  When the runtime supports virtual threads
+ * (Java 21 and later), every task gets a virtual thread, so a waiting or blocked task costs almost nothing.  On older
+ * runtimes, a fork-join pool with several threads per processor is used instead (its workers help run other tasks while
+ * waiting for subtasks).
+ *
+ * <p>
+ * So that the file system is not flooded, each volume has a semaphore that bounds the number of directory listings and
+ * attribute queries in progress on it.  The default bound is read from the system property
+ * "coursebuilder.scan.maxConcurrent", and can be overridden for a particular volume with the property
+ * "coursebuilder.scan.maxConcurrent.{name}", where {name} is the name of the volume's {@code FileStore}.
+ *
+ * <p>
+ * This class is thread-safe.
+ */
+enum ScanExecutor {
+    ;
+
+    /** The system property that sets the default number of concurrent file system calls per volume. */
+    private static final String MAX_CONCURRENT_PROPERTY = "coursebuilder.scan.maxConcurrent";
+
+    /** The default number of concurrent file system calls per volume. */
+    private static final int DEFAULT_MAX_CONCURRENT = 32;
+
+    /** The number of fork-join pool threads per available processor, when virtual threads are not available. */
+    private static final int THREADS_PER_PROCESSOR = 4;
+
+    /** The executor. */
+    private static final ExecutorService EXECUTOR = makeExecutor();
+
+    /** The semaphore for each volume. */
+    private static final Map<FileStore, Semaphore> PERMITS = new ConcurrentHashMap<>(4);
+
+    /** The semaphore used for files whose volume cannot be determined. */
+    private static final Semaphore DEFAULT_PERMITS = new Semaphore(getMaxConcurrent(null));
+
+    /**
+     * Creates the executor: one that starts a virtual thread per task if the runtime supports that, or a fork-join
+     * pool if not.  The virtual-thread executor is located by reflection so the application still runs on Java 17.
+     *
+     * @return the executor
+     */
+    private static ExecutorService makeExecutor() {
+
+        ExecutorService result;
+
+        try {
+            final Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            result = (ExecutorService) factory.invoke(null);
+            Log.info("Scanning directories on virtual threads");
+        } catch (final NoSuchMethodException | IllegalAccessException | InvocationTargetException ex) {
+            final int numThreads = Runtime.getRuntime().availableProcessors() * THREADS_PER_PROCESSOR;
+            result = new ForkJoinPool(numThreads);
+            Log.info("Virtual threads are not available; scanning directories with ", numThreads, " threads");
+        }
+
+        return result;
+    }
+
+    /**
+     * Tests whether scans run on virtual threads.
+     *
+     * @return true if scans run on virtual threads; false if they run on a fork-join pool
+     */
+    static boolean isVirtual() {
+
+        return !(EXECUTOR instanceof ForkJoinPool);
+    }
+
+    /**
+     * Gets the semaphore that limits concurrent file system calls to the volume that holds a file.  A scan looks this
+     * up once, for the root of the tree it scans, and uses it for the whole tree.
+     *
+     * @param file the file
+     * @return the semaphore
+     */
+    static Semaphore permitsFor(final File file) {
+
+        final Path path = file.toPath();
+
+        Semaphore result;
+        try {
+            final FileStore store = Files.getFileStore(path);
+            result = PERMITS.computeIfAbsent(store, key -> new Semaphore(getMaxConcurrent(key.name())));
+        } catch (final IOException ex) {
+            result = DEFAULT_PERMITS;
+        }
+
+        return result;
+    }
+
+    /**
+     * Gets the configured number of concurrent file system calls for a volume.
+     *
+     * @param storeName the name of the volume's file store; {@code null} for the default
+     * @return the number of concurrent calls (at least 1)
+     */
+    private static int getMaxConcurrent(final String storeName) {
+
+        final int defaultValue = Integer.getInteger(MAX_CONCURRENT_PROPERTY, DEFAULT_MAX_CONCURRENT).intValue();
+
+        final int value;
+        if (storeName == null || storeName.isBlank()) {
+            value = defaultValue;
+        } else {
+            value = Integer.getInteger(MAX_CONCURRENT_PROPERTY + "." + storeName, defaultValue).intValue();
+        }
+
+        return Math.max(1, value);
+    }
+
+    /**
+     * Lists a directory with {@code DirectoryReader}, holding a permit from a volume's semaphore while doing so.
+     *
+     * @param dir     the directory
+     * @param permits the volume's semaphore
+     * @return the entries, in no particular order (empty if the directory does not exist or cannot be read)
+     */
+    static List<DirEntry> list(final File dir, final Semaphore permits) {
+
+        permits.acquireUninterruptibly();
+        try {
+            return DirectoryReader.list(dir);
+        } finally {
+            permits.release();
+        }
+    }
+
+    /**
+     * Gets the modification date of a file, holding a permit from a volume's semaphore while doing so.
+     *
+     * @param file    the file
+     * @param permits the volume's semaphore
+     * @return the modification date (0 if the file does not exist)
+     */
+    static long lastModified(final File file, final Semaphore permits) {
+
+        permits.acquireUninterruptibly();
+        try {
+            return file.lastModified();
+        } finally {
+            permits.release();
+        }
+    }
+
+    /**
+     * Submits a task.
+     *
+     * @param task the task
+     * @param <T>  the type of result
+     * @return the future for the task's result
+     */
+    static <T> Future<T> submit(final Callable<T> task) {
+
+        return EXECUTOR.submit(task);
+    }
+
+    /**
+     * Submits a task and waits for its result.
+     *
+     * @param task the task
+     * @param <T>  the type of result
+     * @return the result
+     */
+    static <T> T invoke(final Callable<T> task) {
+
+        final Future<T> future = EXECUTOR.submit(task);
+
+        return join(future);
+    }
+
+    /**
+     * Waits for the result of a submitted task.  An unchecked exception thrown by the task is rethrown.
+     *
+     * @param future the future for the task's result
+     * @param <T>    the type of result
+     * @return the result
+     * @throws CancellationException if the calling thread is interrupted while waiting
+     */
+    static <T> T join(final Future<T> future) {
+
+        try {
+            return future.get();
+        } catch (final InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Interrupted while waiting for a scan");
+        } catch (final ExecutionException ex) {
+            final Throwable cause = ex.getCause();
+            if (cause instanceof final RuntimeException runtime) {
+                throw runtime;
+            }
+            if (cause instanceof final Error error) {
+                throw error;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+}
@@ -0,0 +1,337 @@
+package dev.mathops.fx.coursebuilder;
+
+import dev.mathops.commons.log.Log;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Stores a compact binary snapshot of a scanned {@code CourseTree} in the user cache directory, and loads it on the
+ * next start so the application can present the course without waiting for a full scan of the course media directory.
+ *
+ * <p>
+ * The snapshot stores, for each directory, its last modification date, its files (name, size, and last modification
+ * date), and its subdirectories (recursively).  Names are stored relative to the parent directory, and directory kinds
+ * are not stored since they are re-derived from names on load.  A loaded snapshot should be passed to
+ * {@code CourseScanner.revalidate}, which re-lists only those directories whose modification dates have changed.
+ *
+ * <p>
+ * Snapshot format (all values big-endian, strings in modified UTF-8):
+ * <pre>
+ * int     MAGIC
+ * int     VERSION
+ * String  absolute path of the course media directory
+ * long    scan time
+ * DirRec  root directory record
+ * int     END_MARKER
+ *
+ * DirRec:
+ *   long    last modified
+ *   int     number of files, then for each: String name, long size, long last modified
+ *   int     number of subdirectories, then for each: String name, DirRec record
+ * </pre>
+ *
+ * <p>
+ * A snapshot that is truncated, has data after the end marker, or has counts, names, or nesting outside sane bounds is
+ * treated as corrupt and ignored, and the course media directory is scanned in full.
+ */
+enum ScanSnapshot {
+    ;
+
+    /** A magic number that identifies a snapshot file ("CBSS"). */
+    private static final int MAGIC = 0x43425353;
+
+    /** The snapshot format version (increment when the format changes to invalidate old snapshots). */
+    private static final int VERSION = 2;
+
+    /** A marker written after the root directory record ("CBSE"). */
+    private static final int END_MARKER = 0x43425345;
+
+    /** The largest number of files or subdirectories accepted in one directory record. */
+    private static final int MAX_ENTRIES = 100_000;
+
+    /** The deepest nesting of directory records accepted. */
+    private static final int MAX_DEPTH = 64;
+
+    /** A prefix for snapshot filenames. */
+    private static final String FILENAME_PREFIX = "scan_";
+
+    /** A suffix for snapshot filenames. */
+    private static final String FILENAME_SUFFIX = ".bin";
+
+    /** A buffer size for reading and writing snapshots. */
+    private static final int BUFFER_SIZE = 65536;
+
+    /** A lock held while a snapshot is saved, so saves from different threads do not overlap. */
+    private static final Object SAVE_LOCK = new Object();
+
+    /**
+     * Loads the snapshot for a course media directory, if one exists.
+     *
+     * @param courseMediaDir the course media directory
+     * @return the tree loaded from the snapshot; null if there is no valid snapshot
+     */
+    static CourseTree load(final File courseMediaDir) {
+
+        final File snapshotFile = getSnapshotFile(courseMediaDir);
+
+        return snapshotFile == null ? null : load(courseMediaDir, snapshotFile);
+    }
+
+    /**
+     * Loads a snapshot for a course media directory from a particular file.
+     *
+     * @param courseMediaDir the course media directory
+     * @param snapshotFile   the snapshot file
+     * @return the tree loaded from the snapshot; null if the file does not exist or is not a valid snapshot for the
+     *         directory
+     */
+    static CourseTree load(final File courseMediaDir, final File snapshotFile) {
+
+        CourseTree result = null;
+
+        if (snapshotFile.isFile()) {
+            final long start = System.currentTimeMillis();
+
+            final Path path = snapshotFile.toPath();
+            try (final InputStream in = Files.newInputStream(path);
+                 final DataInputStream data = new DataInputStream(new BufferedInputStream(in, BUFFER_SIZE))) {
+
+                final int magic = data.readInt();
+                final int version = data.readInt();
+                final String rootPath = data.readUTF();
+                final String expectedPath = courseMediaDir.getAbsolutePath();
+
+                if (magic == MAGIC && version == VERSION && rootPath.equals(expectedPath)) {
+                    final long scanTime = data.readLong();
+                    final CourseDir root = readDir(data, courseMediaDir, EDirKind.COURSE, 0);
+                    if (data.readInt() != END_MARKER || data.read() != -1) {
+                        throw new IOException("Scan snapshot has no end marker, or data after it");
+                    }
+                    result = new CourseTree(root, scanTime);
+
+                    final long end = System.currentTimeMillis();
+                    Log.info("Loaded snapshot of ", result.getNumDirectories(), " directories in ", end - start,
+                            " ms");
+                }
+            } catch (final IOException | RuntimeException ex) {
+                Log.warning("Unable to read scan snapshot; course media directory will be rescanned", ex);
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Reads a directory record.
+     *
+     * @param data  the input from which to read
+     * @param dir   the directory the record describes
+     * @param kind  the directory kind
+     * @param depth the nesting depth of the record (0 for the root)
+     * @return the directory node
+     * @throws IOException if there is an error reading the record, or it is corrupt
+     */
+    private static CourseDir readDir(final DataInputStream data, final File dir, final EDirKind kind,
+                                     final int depth) throws IOException {
+
+        if (depth > MAX_DEPTH) {
+            throw new IOException("Scan snapshot directories are nested too deeply");
+        }
+
+        final long lastModified = data.readLong();
+
+        final int numFiles = readCount(data);
+        final List<CourseFile> files = new ArrayList<>(numFiles);
+        for (int i = 0; i < numFiles; ++i) {
+            final String name = readName(data);
+            final long size = data.readLong();
+            final long fileLastModified = data.readLong();
+            final File file = new File(dir, name);
+            files.add(new CourseFile(file, size, fileLastModified));
+        }
+
+        final int numSubdirs = readCount(data);
+        final List<CourseDir> subdirs = new ArrayList<>(numSubdirs);
+        for (int i = 0; i < numSubdirs; ++i) {
+            final String name = readName(data);
+            final File subdir = new File(dir, name);
+            final EDirKind childKind = EDirKind.classify(kind, name);
+            subdirs.add(readDir(data, subdir, childKind, depth + 1));
+        }
+
+        return new CourseDir(dir, kind, lastModified, subdirs, files);
+    }
+
+    /**
+     * Reads the number of files or subdirectories in a directory record.
+     *
+     * @param data the input from which to read
+     * @return the count
+     * @throws IOException if there is an error reading the count, or it is out of bounds
+     */
+    private static int readCount(final DataInputStream data) throws IOException {
+
+        final int count = data.readInt();
+
+        if (count < 0 || count > MAX_ENTRIES) {
+            throw new IOException("Invalid entry count in scan snapshot: " + count);
+        }
+
+        return count;
+    }
+
+    /**
+     * Reads the name of a file or subdirectory in a directory record.
+     *
+     * @param data the input from which to read
+     * @return the name
+     * @throws IOException if there is an error reading the name, or it is not a single path element
+     */
+    private static String readName(final DataInputStream data) throws IOException {
+
+        final String name = data.readUTF();
+
+        if (name.isEmpty() || ".".equals(name) || "..".equals(name) || name.indexOf('/') >= 0
+            || name.indexOf(File.separatorChar) >= 0) {
+            throw new IOException("Invalid name in scan snapshot");
+        }
+
+        return name;
+    }
+
+    /**
+     * Saves a snapshot of a course tree.  The snapshot is written to a new temporary file that then replaces any
+     * existing snapshot, so a failed write never leaves a partial snapshot in place.  Saves are serialized, and each
+     * uses its own temporary file.
+     *
+     * @param tree the tree
+     */
+    static void save(final CourseTree tree) {
+
+        final File snapshotFile = getSnapshotFile(tree.getRoot().getFile());
+
+        if (snapshotFile != null) {
+            save(tree, snapshotFile);
+        }
+    }
+
+    /**
+     * Saves a snapshot of a course tree to a particular file.
+     *
+     * @param tree         the tree
+     * @param snapshotFile the snapshot file
+     */
+    static void save(final CourseTree tree, final File snapshotFile) {
+
+        final CourseDir root = tree.getRoot();
+        final File courseMediaDir = root.getFile();
+        final Path cachePath = snapshotFile.getParentFile().toPath();
+
+        synchronized (SAVE_LOCK) {
+            Path tempPath = null;
+            try {
+                tempPath = Files.createTempFile(cachePath, snapshotFile.getName(), ".tmp");
+
+                try (final OutputStream out = Files.newOutputStream(tempPath);
+                     final OutputStream buffered = new BufferedOutputStream(out, BUFFER_SIZE);
+                     final DataOutputStream data = new DataOutputStream(buffered)) {
+
+                    data.writeInt(MAGIC);
+                    data.writeInt(VERSION);
+                    data.writeUTF(courseMediaDir.getAbsolutePath());
+                    data.writeLong(tree.getScanTime());
+                    writeDir(data, root);
+                    data.writeInt(END_MARKER);
+                }
+
+                final Path snapshotPath = snapshotFile.toPath();
+                try {
+                    Files.move(tempPath, snapshotPath, StandardCopyOption.REPLACE_EXISTING,
+                            StandardCopyOption.ATOMIC_MOVE);
+                } catch (final AtomicMoveNotSupportedException ex) {
+                    Files.move(tempPath, snapshotPath, StandardCopyOption.REPLACE_EXISTING);
+                }
+            } catch (final IOException ex) {
+                Log.warning("Unable to write scan snapshot", ex);
+                deleteTempFile(tempPath);
+            }
+        }
+    }
+
+    /**
+     * Deletes the temporary file left by a failed save, if any.
+     *
+     * @param tempPath the path of the temporary file; null if none was created
+     */
+    private static void deleteTempFile(final Path tempPath) {
+
+        if (tempPath != null) {
+            try {
+                Files.deleteIfExists(tempPath);
+            } catch (final IOException ex) {
+                Log.warning("Unable to delete temporary snapshot file", ex);
+            }
+        }
+    }
+
+    /**
+     * Writes a directory record.
+     *
+     * @param data the output to which to write
+     * @param dir  the directory
+     * @throws IOException if there is an error writing the record
+     */
+    private static void writeDir(final DataOutputStream data, final CourseDir dir) throws IOException {
+
+        data.writeLong(dir.getLastModified());
+
+        final List<CourseFile> files = dir.getFiles();
+        data.writeInt(files.size());
+        for (final CourseFile file : files) {
+            data.writeUTF(file.getName());
+            data.writeLong(file.getSize());
+            data.writeLong(file.getLastModified());
+        }
+
+        final List<CourseDir> subdirs = dir.getSubdirs();
+        data.writeInt(subdirs.size());
+        for (final CourseDir subdir : subdirs) {
+            data.writeUTF(subdir.getName());
+            writeDir(data, subdir);
+        }
+    }
+
+    /**
+     * Gets the snapshot file for a course media directory.  The filename is derived from a hash of the absolute path
+     * of the course media directory, so each course directory gets its own snapshot.
+     *
+     * @param courseMediaDir the course media directory
+     * @return the snapshot file; null if the cache directory is not available
+     */
+    private static File getSnapshotFile(final File courseMediaDir) {
+
+        final File cacheDir = AppUtils.getCacheDir();
+        File result = null;
+
+        if (cacheDir != null) {
+            final String path = courseMediaDir.getAbsolutePath();
+            final String hash = Integer.toHexString(path.hashCode());
+            result = new File(cacheDir, FILENAME_PREFIX + hash + FILENAME_SUFFIX);
+        }
+
+        return result;
+    }
+}
@@ -0,0 +1,141 @@
+package dev.mathops.fx.coursebuilder;
+
+import javafx.beans.value.ChangeListener;
+import javafx.beans.value.ObservableValue;
+import javafx.collections.ObservableList;
+import javafx.event.ActionEvent;
+import javafx.event.EventHandler;
+import javafx.geometry.Side;
+import javafx.scene.control.ContextMenu;
+import javafx.scene.control.MenuItem;
+import javafx.scene.control.TextField;
+
+import java.io.File;
+import java.util.List;
+
+/**
+ * A text field that searches the text of all metadata files in the course as the user types, and shows the best
+ * matches in a drop-down list.  Choosing a match presents the directory it describes.
+ */
+final class SearchField extends TextField implements ChangeListener<String>, EventHandler<ActionEvent> {
+
+    /** The preferred width of the field. */
+    private static final double PREF_WIDTH = 320.0;
+
+    /** The maximum number of matches shown. */
+    private static final int MAX_HITS = 20;
+
+    /** The owning application. */
+    private final CourseBuilder owner;
+
+    /** The index to search. */
+    private final MetadataIndex index;
+
+    /** The drop-down list of matches. */
+    private final ContextMenu results;
+
+    /**
+     * Constructs a new {@code SearchField}.
+     *
+     * @param theOwner the owning application
+     * @param theIndex the index to search
+     */
+    SearchField(final CourseBuilder theOwner, final MetadataIndex theIndex) {
+
+        super();
+
+        this.owner = theOwner;
+        this.index = theIndex;
+        this.results = new ContextMenu();
+
+        setPrefWidth(PREF_WIDTH);
+        setPromptText("Search metadata...");
+    }
+
+    /**
+     * Initializes this field.  Called after the constructor completes since this method uses "this" to add itself as
+     * a listener.
+     */
+    void init() {
+
+        textProperty().addListener(this);
+        setOnAction(this);
+    }
+
+    /**
+     * Updates the prompt to show how many directories have been indexed.
+     *
+     * @param numIndexed the number of indexed directories
+     */
+    void setNumIndexed(final int numIndexed) {
+
+        setPromptText("Search metadata (" + numIndexed + " items)...");
+    }
+
+    /**
+     * Called when the text changes.
+     *
+     * @param observableValue the observable value
+     * @param oldValue        the old value
+     * @param newValue        the new value
+     */
+    @Override
+    public void changed(final ObservableValue<? extends String> observableValue, final String oldValue,
+                        final String newValue) {
+
+        showResults(newValue);
+    }
+
+    /**
+     * Called when the user presses Enter in the field (to show the matches again after the list was dismissed) or
+     * chooses a match from the list.
+     *
+     * @param actionEvent the action event
+     */
+    @Override
+    public void handle(final ActionEvent actionEvent) {
+
+        final Object source = actionEvent.getSource();
+
+        if (source instanceof final MenuItem item) {
+            final Object user = item.getUserData();
+            if (user instanceof final File dir) {
+                this.owner.showDirectory(dir);
+            }
+        } else {
+            final String text = getText();
+            showResults(text);
+        }
+    }
+
+    /**
+     * Searches for a query and shows the matches in the drop-down list (or hides the list if there are none).
+     *
+     * @param query the query
+     */
+    private void showResults(final String query) {
+
+        final List<SearchHit> hits = query == null ? List.of() : this.index.search(query, MAX_HITS);
+
+        final ObservableList<MenuItem> items = this.results.getItems();
+        items.clear();
+
+        if (hits.isEmpty()) {
+            this.results.hide();
+        } else {
+            for (final SearchHit hit : hits) {
+                final String title = hit.title();
+                final String location = hit.location();
+                final String text = title.isBlank() ? location : title + "  -  " + location;
+                final MenuItem item = new MenuItem(text);
+                item.setUserData(hit.dir());
+                item.setOnAction(this);
+                items.add(item);
+            }
+
+            if (!this.results.isShowing()) {
+                this.results.show(this, Side.BOTTOM, 0.0, 0.0);
+            }
+        }
+    }
+}
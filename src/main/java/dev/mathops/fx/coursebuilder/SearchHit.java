@@ -0,0 +1,16 @@
+package dev.mathops.fx.coursebuilder;
+
+import java.io.File;
+
+/**
+ * A directory whose metadata matched a search of the {@code MetadataIndex}.
+ *
+ * @param dir      the directory that holds the matching "metadata.json" file
+ * @param kind     the kind of directory
+ * @param title    the title from the metadata (empty if there is none)
+ * @param location the location of the directory relative to the course media directory, like
+ *                 "05_trig.01_angles.11_standard_1"
+ * @param score    the relevance score (higher is better)
+ */
+record SearchHit(File dir, EDirKind kind, String title, String location, double score) {
+}
@@ -5,22 +5,41 @@ import javafx.geometry.Insets;
 import javafx.scene.Node;
 import javafx.scene.control.Tab;
 import javafx.scene.control.TabPane;
-import javafx.scene.layout.BorderPane;
 import javafx.scene.layout.FlowPane;
 import javafx.scene.layout.GridPane;
 
 import java.io.File;
 import java.util.ArrayList;
-import java.util.Collection;
 import java.util.List;
 
 /**
  * The content of a "Skills Review" tab.
  */
-final class SkillsReviewTabContent extends BorderPane {
+final class SkillsReviewTabContent extends AbstractLazyTabContent {
 
-    /** The number of objectives found. */
-    private final int numObjectives;
+    /** The owning application. */
+    private final CourseBuilder owner;
+
+    /** The skills review directory. */
+    private final CourseDir skillsReviewDir;
+
+    /** The location string (the location prefix with the skills review directory name appended). */
+    private final String locationString;
+
+    /** The Introduction tab content. */
+    private final LessonsTabContent intro;
+
+    /** The Objectives tab content. */
+    private final ObjectivesTabContent objectives;
+
+    /** The Handouts tab content. */
+    private final HandoutsTabContent handouts;
+
+    /** The Assessments tab content. */
+    private final AssessmentsTabContent assessments;
+
+    /** Unexpected files found in the skills review directory. */
+    private final List<AbstractCourseEntry> unexpected;
 
     /** The number of warnings found. */
     private int numWarnings = 0;
@@ -28,20 +47,57 @@ final class SkillsReviewTabContent extends BorderPane {
     /**
      * Constructs a new {@code SkillsReviewTabContent}.
      *
-     * @param owner           the owning application
-     * @param skillsReviewDir the skills review directory
-     * @param locationPrefix  the prefix for the location, like "02_subject.01_topic" (to this will be appended a dot
-     *                        and the filename of the containing directory)
+     * @param theOwner           the owning application
+     * @param theSkillsReviewDir the skills review directory
+     * @param locationPrefix     the prefix for the location, like "02_subject.01_topic" (to this will be appended a
+     *                           dot and the filename of the containing directory)
      */
-    SkillsReviewTabContent(final CourseBuilder owner, final File skillsReviewDir, final String locationPrefix) {
+    SkillsReviewTabContent(final CourseBuilder theOwner, final CourseDir theSkillsReviewDir,
+                           final String locationPrefix) {
 
         super();
 
+        this.owner = theOwner;
+        this.skillsReviewDir = theSkillsReviewDir;
+        this.locationString = locationPrefix + "." + theSkillsReviewDir.getName();
+
+        final CourseDir handoutsDir = theSkillsReviewDir.resolve(AppConstants.HANDOUTS_DIR);
+        final CourseDir assessmentsDir = theSkillsReviewDir.resolve(AppConstants.ASSESSMENTS_DIR);
+
+        this.intro = new LessonsTabContent(theOwner, theSkillsReviewDir, 1, 9, "intro");
+        final List<ObjectiveStats> objectiveStatsList = new ArrayList<>(10);
+        this.objectives = new ObjectivesTabContent(theOwner, theSkillsReviewDir, 11, 29, locationPrefix,
+                objectiveStatsList);
+        this.handouts = new HandoutsTabContent(theOwner, handoutsDir, locationPrefix);
+        this.assessments = new AssessmentsTabContent(theOwner, assessmentsDir, locationPrefix);
+
+        this.numWarnings = this.intro.getNumWarnings() + this.objectives.getNumWarnings()
+                           + this.handouts.getNumWarnings() + this.assessments.getNumWarnings();
+
+        // Find extra files
+
+        final List<AbstractCourseEntry> allFiles = theSkillsReviewDir.getEntries();
+        this.unexpected = new ArrayList<>(allFiles.size());
+        for (final AbstractCourseEntry file : allFiles) {
+            if (!CourseRules.isExpected(ERuleSet.SKILLS_REVIEW, file)) {
+                this.numWarnings += file.countFiles();
+                this.unexpected.add(file);
+            }
+        }
+    }
+
+    /**
+     * Builds the child nodes for this content.
+     */
+    @Override
+    void build() {
+
         setPadding(AppConstants.PADDING);
 
         // Top pane shows the location of the file we're viewing
-        final String locationString = locationPrefix + "." + skillsReviewDir.getName();
-        final FlowPane top = AppUtils.makeLocationFlow(owner, "Location:  ", locationString, skillsReviewDir);
+        final File skillsReviewFile = this.skillsReviewDir.getFile();
+        final FlowPane top = AppUtils.makeLocationFlow(this.owner, "Location:  ", this.locationString,
+                skillsReviewFile);
         setTop(top);
 
         final TabPane tabPane = new TabPane();
@@ -50,96 +106,47 @@ final class SkillsReviewTabContent extends BorderPane {
 
         final ObservableList<Tab> tabs = tabPane.getTabs();
 
-        final File handoutsDir = new File(skillsReviewDir, AppConstants.HANDOUTS_DIR);
-        final File assessmentsDir = new File(skillsReviewDir, AppConstants.ASSESSMENTS_DIR);
-
-        final LessonsTabContent intro = new LessonsTabContent(owner, skillsReviewDir, 1, 9, "intro");
-        final List<ObjectiveStats> objectiveStatsList = new ArrayList<>(10);
-        final ObjectivesTabContent objectives = new ObjectivesTabContent(owner, skillsReviewDir, 11, 29,
-                locationPrefix, objectiveStatsList);
-        final HandoutsTabContent handouts = new HandoutsTabContent(owner, handoutsDir, locationPrefix);
-        final AssessmentsTabContent assessments = new AssessmentsTabContent(owner, assessmentsDir, locationPrefix);
-
-        intro.init();
-        objectives.init();
-        handouts.init();
-        assessments.init();
+        final int introWarnings = this.intro.getNumWarnings();
+        final String introTitle = "Introduction (" + this.intro.getNumLessons() + ")";
+        final Tab introTab = AppUtils.makeLazyTab(introTitle, this.intro, AppConstants.LESSONS_ICON, introWarnings);
 
-        this.numObjectives = objectives.getNumObjectives();
+        final int objWarnings = this.objectives.getNumWarnings();
+        final String objTitle = "Objectives (" + this.objectives.getNumObjectives() + ")";
+        final Tab objectivesTab = AppUtils.makeLazyTab(objTitle, this.objectives, AppConstants.OBJECTIVES_ICON,
+                objWarnings);
 
-        final int introWarnings = intro.getNumWarnings();
-        final String introTitle = "Introduction (" + intro.getNumLessons() + ")";
-        final Tab introTab = AppUtils.makeTab(introTitle, intro, AppConstants.LESSONS_ICON, introWarnings);
+        final int handoutsWarnings = this.handouts.getNumWarnings();
+        final String handoutsTitle = "Handouts (" + this.handouts.getNumHandouts() + ")";
+        final Tab handoutsTab = AppUtils.makeLazyTab(handoutsTitle, this.handouts, AppConstants.HANDOUTS_ICON,
+                handoutsWarnings);
 
-        final int objWarnings = objectives.getNumWarnings();
-        final String objTitle = "Objectives (" + objectives.getNumObjectives() + ")";
-        final Tab objectivesTab = AppUtils.makeTab(objTitle, objectives, AppConstants.OBJECTIVES_ICON, objWarnings);
-
-        final int handoutsWarnings = handouts.getNumWarnings();
-        final String handoutsTitle = "Handouts (" + handouts.getNumHandouts() + ")";
-        final Tab handoutsTab = AppUtils.makeTab(handoutsTitle, handouts, AppConstants.HANDOUTS_ICON, handoutsWarnings);
-
-        final int assessmentWarnings = assessments.getNumWarnings();
-        final String assessmentsTitle = "Assessments (" + assessments.getNumAssessments() + ")";
-        final Tab assessmentsTab = AppUtils.makeTab(assessmentsTitle, assessments, AppConstants.ASSESSMENTS_ICON,
-                assessmentWarnings);
-
-        this.numWarnings = introWarnings + objWarnings + handoutsWarnings + assessmentWarnings;
+        final int assessmentWarnings = this.assessments.getNumWarnings();
+        final String assessmentsTitle = "Assessments (" + this.assessments.getNumAssessments() + ")";
+        final Tab assessmentsTab = AppUtils.makeLazyTab(assessmentsTitle, this.assessments,
+                AppConstants.ASSESSMENTS_ICON, assessmentWarnings);
 
         tabs.addAll(introTab, objectivesTab, handoutsTab, assessmentsTab);
 
         // Show extra files found
+        if (!this.unexpected.isEmpty()) {
+            final GridPane unexpectedPane = new GridPane();
+            unexpectedPane.setPadding(new Insets(0.0, 0.0, 0.0, 20.0));
+            unexpectedPane.setHgap(10);
+            unexpectedPane.setVgap(4);
+            setBottom(unexpectedPane);
 
-        final File[] allFiles = skillsReviewDir.listFiles();
-        if (allFiles != null) {
-            final Collection<File> unexpected = new ArrayList<>(allFiles.length);
-            for (final File file : allFiles) {
-                final String name = file.getName();
-                if (file.isDirectory()) {
-                    if (AppConstants.HANDOUTS_DIR.equals(name) || AppConstants.ASSESSMENTS_DIR.equals(name)
-                        || AppUtils.isIntroDir(name) || AppUtils.isObjectiveDir(name)) {
-                        continue;
-                    }
-                } else if (name.equals(AppConstants.METADATA_FILE)) {
-                    continue;
-                }
-
-                if (file.isDirectory()) {
-                    this.numWarnings += AppUtils.countFiles(file);
-                } else {
-                    ++this.numWarnings;
-                }
-
-                unexpected.add(file);
-            }
+            final ObservableList<Node> unexpectedChildren = unexpectedPane.getChildren();
 
-            if (!unexpected.isEmpty()) {
-                final GridPane unexpectedPane = new GridPane();
-                unexpectedPane.setPadding(new Insets(0.0, 0.0, 0.0, 20.0));
-                unexpectedPane.setHgap(10);
-                unexpectedPane.setVgap(4);
-                setBottom(unexpectedPane);
-
-                final ObservableList<Node> unexpectedChildren = unexpectedPane.getChildren();
-
-                int unexpectedRow = 0;
-                for (final File file : unexpected) {
-                    final String name = file.getName();
-                    AppUtils.addSimpleDocumentRow(file, name, unexpectedChildren, unexpectedRow);
-                    ++unexpectedRow;
-                }
+            int unexpectedRow = 0;
+            for (final AbstractCourseEntry file : this.unexpected) {
+                final String name = file.getName();
+                final File target = file.getFile();
+                AppUtils.addSimpleDocumentRow(target, name, unexpectedChildren, unexpectedRow);
+                ++unexpectedRow;
             }
         }
     }
 
-    /**
-     * Initializes this panel.  Called after the constructor completes since this method uses "this" to add itself as a
-     * listener.
-     */
-    void init() {
-
-    }
-
     /**
      * Gets the number of objectives found.
      *
@@ -147,7 +154,7 @@ final class SkillsReviewTabContent extends BorderPane {
      */
     int getNumObjectives() {
 
-        return this.numObjectives;
+        return this.objectives.getNumObjectives();
     }
 
     /**
@@ -155,6 +162,7 @@ final class SkillsReviewTabContent extends BorderPane {
      *
      * @return the number of warnings
      */
+    @Override
     int getNumWarnings() {
 
         return this.numWarnings;
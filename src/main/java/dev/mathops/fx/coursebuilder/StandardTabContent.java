@@ -5,23 +5,60 @@ import javafx.geometry.Insets;
 import javafx.scene.Node;
 import javafx.scene.control.Tab;
 import javafx.scene.control.TabPane;
-import javafx.scene.layout.BorderPane;
 import javafx.scene.layout.FlowPane;
 import javafx.scene.layout.GridPane;
 import javafx.scene.layout.VBox;
 
 import java.io.File;
 import java.util.ArrayList;
-import java.util.Collection;
 import java.util.List;
 
 /**
  * The content of a "Standard" tab.
  */
-final class StandardTabContent extends BorderPane {
+final class StandardTabContent extends AbstractLazyTabContent {
 
-    /** The number of objectives in the standard. */
-    private final int numObjectives;
+    /** The owning application. */
+    private final CourseBuilder owner;
+
+    /** The standard directory. */
+    private final CourseDir standardDir;
+
+    /** The location string (the location prefix with the standard directory name appended). */
+    private final String locationString;
+
+    /** The Information tab content. */
+    private final InformationTabContent info;
+
+    /** The Introduction tab content. */
+    private final LessonsTabContent intro;
+
+    /** The Objectives tab content. */
+    private final ObjectivesTabContent objectives;
+
+    /** The Examples tab content. */
+    private final ExamplesTabContent examples;
+
+    /** The Explorations tab content. */
+    private final ExplorationsTabContent explorations;
+
+    /** The Applications tab content. */
+    private final ApplicationsTabContent applications;
+
+    /** The Handouts tab content. */
+    private final HandoutsTabContent handouts;
+
+    /** The Items tab content. */
+    private final ItemsTabContent items;
+
+    /** The Assessments tab content. */
+    private final AssessmentsTabContent assessments;
+
+    /** The Summary tab content. */
+    private final LessonsTabContent summary;
+
+    /** Unexpected files found in the standard directory. */
+    private final List<AbstractCourseEntry> extraFiles;
 
     /** The number of warnings found. */
     private int numWarnings = 0;
@@ -29,43 +66,33 @@ final class StandardTabContent extends BorderPane {
     /**
      * Constructs a new {@code StandardTabContent}.
      *
-     * @param owner          the owning application
-     * @param standardDir    the standard directory
+     * @param theOwner       the owning application
+     * @param theStandardDir the standard directory
      * @param locationPrefix the prefix for the location, like "02_subject.01_topic" (to this will be appended a dot and
      *                       the filename of the containing directory)
      * @param stats          statistics to update
      */
-    StandardTabContent(final CourseBuilder owner, final File standardDir, final String locationPrefix,
+    StandardTabContent(final CourseBuilder theOwner, final CourseDir theStandardDir, final String locationPrefix,
                        final StandardStats stats) {
 
         super();
 
-        setPadding(AppConstants.BUTTON_ROW_PADDING);
+        this.owner = theOwner;
+        this.standardDir = theStandardDir;
+        this.locationString = locationPrefix + "." + theStandardDir.getName();
 
-        // Top pane shows the location of the file we're viewing
-        final String locationString = locationPrefix + "." + standardDir.getName();
-        final FlowPane top = AppUtils.makeLocationFlow(owner, "Location:  ", locationString, standardDir);
-        setTop(top);
-
-        final TabPane tabPane = new TabPane();
-        tabPane.getStyleClass().add(AppConstants.FLOATING_CLASS);
-        setCenter(tabPane);
-
-        final ObservableList<Tab> tabs = tabPane.getTabs();
+        final CourseDir examplesDir = theStandardDir.resolve(AppConstants.EXAMPLES_DIR);
+        final CourseDir explorationsDir = theStandardDir.resolve(AppConstants.EXPLORATIONS_DIR);
+        final CourseDir applicationsDir = theStandardDir.resolve(AppConstants.APPLICATIONS_DIR);
+        final CourseDir handoutsDir = theStandardDir.resolve(AppConstants.HANDOUTS_DIR);
+        final CourseDir itemsDir = theStandardDir.resolve(AppConstants.ITEMS_DIR);
+        final CourseDir assessmentsDir = theStandardDir.resolve(AppConstants.ASSESSMENTS_DIR);
 
-        final File examplesDir = new File(standardDir, AppConstants.EXAMPLES_DIR);
-        final File explorationsDir = new File(standardDir, AppConstants.EXPLORATIONS_DIR);
-        final File applicationsDir = new File(standardDir, AppConstants.APPLICATIONS_DIR);
-        final File handoutsDir = new File(standardDir, AppConstants.HANDOUTS_DIR);
-        final File itemsDir = new File(standardDir, AppConstants.ITEMS_DIR);
-        final File assessmentsDir = new File(standardDir, AppConstants.ASSESSMENTS_DIR);
-
-        final LessonsTabContent intro = new LessonsTabContent(owner, standardDir, 1, 9, "intro");
-        final int numIntroLessons = intro.getNumLessons();
-        stats.numIntroLessons += numIntroLessons;
+        this.intro = new LessonsTabContent(theOwner, theStandardDir, 1, 9, "intro");
+        stats.numIntroLessons += this.intro.getNumLessons();
 
         final List<ObjectiveStats> objectiveStatsList = new ArrayList<>(10);
-        final ObjectivesTabContent objectives = new ObjectivesTabContent(owner, standardDir, 11, 29, locationPrefix,
+        this.objectives = new ObjectivesTabContent(theOwner, theStandardDir, 11, 29, locationPrefix,
                 objectiveStatsList);
         stats.numObjectives = objectiveStatsList.size();
         for (final ObjectiveStats objStats : objectiveStatsList) {
@@ -77,136 +104,132 @@ final class StandardTabContent extends BorderPane {
             stats.numItems += objStats.numItems;
         }
 
-        final ExamplesTabContent examples = new ExamplesTabContent(owner, examplesDir, locationPrefix);
-        final int numExamples = examples.getNumExamples();
-
-        final ExplorationsTabContent explorations = new ExplorationsTabContent(owner, explorationsDir, locationPrefix);
-        final int numExplorations = explorations.getNumExplorations();
-        stats.numExplorations += numExplorations;
-        stats.numExplorationLessons = explorations.getNumLessons();
-        stats.numExplorationExamples = explorations.getNumExamples();
-
-        final ApplicationsTabContent applications = new ApplicationsTabContent(owner, applicationsDir, locationPrefix);
-        final int numApplications = applications.getNumApplications();
-        stats.numApplications += numApplications;
-        stats.numApplicationLessons = applications.getNumLessons();
-        stats.numApplicationExamples = applications.getNumExamples();
-
-        final HandoutsTabContent handouts = new HandoutsTabContent(owner, handoutsDir, locationPrefix);
-        final int numHandouts = handouts.getNumHandouts();
-        stats.numHandouts += numHandouts;
-
-        final ItemsTabContent items = new ItemsTabContent(owner, itemsDir, locationPrefix);
-        final int numItems = items.getNumItems();
-        stats.numItems += numItems + explorations.getNumItems() + applications.getNumItems();
-
-        final AssessmentsTabContent assessments = new AssessmentsTabContent(owner, assessmentsDir, locationPrefix);
-        final int numAssessments = assessments.getNumAssessments();
-        stats.numAssessments += numAssessments;
-
-        final LessonsTabContent summary = new LessonsTabContent(owner, standardDir, 91, 99, "conclusion");
-        final int numSummaryLessons = summary.getNumLessons();
-        stats.numSummaryLessons += numSummaryLessons;
-
-        intro.init();
-        objectives.init();
-        examples.init();
-        explorations.init();
-        applications.init();
-        handouts.init();
-        items.init();
-        assessments.init();
-        summary.init();
+        this.examples = new ExamplesTabContent(theOwner, examplesDir, locationPrefix);
+
+        this.explorations = new ExplorationsTabContent(theOwner, explorationsDir, locationPrefix);
+        stats.numExplorations += this.explorations.getNumExplorations();
+        stats.numExplorationLessons = this.explorations.getNumLessons();
+        stats.numExplorationExamples = this.explorations.getNumExamples();
+
+        this.applications = new ApplicationsTabContent(theOwner, applicationsDir, locationPrefix);
+        stats.numApplications += this.applications.getNumApplications();
+        stats.numApplicationLessons = this.applications.getNumLessons();
+        stats.numApplicationExamples = this.applications.getNumExamples();
+
+        this.handouts = new HandoutsTabContent(theOwner, handoutsDir, locationPrefix);
+        stats.numHandouts += this.handouts.getNumHandouts();
+
+        this.items = new ItemsTabContent(theOwner, itemsDir, locationPrefix);
+        stats.numItems += this.items.getNumItems() + this.explorations.getNumItems()
+                          + this.applications.getNumItems();
+
+        this.assessments = new AssessmentsTabContent(theOwner, assessmentsDir, locationPrefix);
+        stats.numAssessments += this.assessments.getNumAssessments();
+
+        this.summary = new LessonsTabContent(theOwner, theStandardDir, 91, 99, "conclusion");
+        stats.numSummaryLessons += this.summary.getNumLessons();
 
         // Build the information pane last so it can see the populated standard statistics
-        final InformationTabContent info = new InformationTabContent(owner, standardDir, null, stats);
-        info.init();
+        this.info = new InformationTabContent(theOwner, theStandardDir, null, stats);
+
+        this.numWarnings = this.info.getNumWarnings() + this.intro.getNumWarnings()
+                           + this.objectives.getNumWarnings() + this.examples.getNumWarnings()
+                           + this.explorations.getNumWarnings() + this.applications.getNumWarnings()
+                           + this.handouts.getNumWarnings() + this.items.getNumWarnings()
+                           + this.assessments.getNumWarnings() + this.summary.getNumWarnings();
+
+        // Find any unexpected files
+        this.extraFiles = new ArrayList<>(10);
+
+        if (theStandardDir.exists()) {
+            final List<AbstractCourseEntry> allFiles = theStandardDir.getEntries();
+            if (!allFiles.isEmpty()) {
+                for (final AbstractCourseEntry file : allFiles) {
+                    if (!CourseRules.isExpected(ERuleSet.STANDARD, file)) {
+                        this.numWarnings += file.countFiles();
+                        this.extraFiles.add(file);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Builds the child nodes for this content.
+     */
+    @Override
+    void build() {
 
-        final int infoWarnings = info.getNumWarnings();
-        final Tab standardInfoTab = AppUtils.makeTab("Information", info, AppConstants.INFO_ICON, infoWarnings);
+        setPadding(AppConstants.BUTTON_ROW_PADDING);
 
-        final int introWarnings = intro.getNumWarnings();
-        final String introductionTitle = "Introduction (" + numIntroLessons + ")";
-        final Tab introTab = AppUtils.makeTab(introductionTitle, intro, AppConstants.LESSONS_ICON, introWarnings);
+        // Top pane shows the location of the file we're viewing
+        final File standardFile = this.standardDir.getFile();
+        final FlowPane top = AppUtils.makeLocationFlow(this.owner, "Location:  ", this.locationString, standardFile);
+        setTop(top);
 
-        this.numObjectives = objectives.getNumObjectives();
-        final int objectiveWarnings = objectives.getNumWarnings();
-        final String objectivesTitle = "Objectives (" + this.numObjectives + ")";
-        final Tab objectivesTab = AppUtils.makeTab(objectivesTitle, objectives, AppConstants.OBJECTIVES_ICON,
-                objectiveWarnings);
+        final TabPane tabPane = new TabPane();
+        tabPane.getStyleClass().add(AppConstants.FLOATING_CLASS);
+        setCenter(tabPane);
 
-        final int exampleWarnings = examples.getNumWarnings();
-        final String examplesTitle = "Examples (" + numExamples + ")";
-        final Tab examplesTab = AppUtils.makeTab(examplesTitle, examples, AppConstants.EXAMPLES_ICON, exampleWarnings);
+        final ObservableList<Tab> tabs = tabPane.getTabs();
 
-        final int expWarnings = explorations.getNumWarnings();
-        final String expTitle = "Explorations (" + numExplorations + ")";
-        final Tab expTab = AppUtils.makeTab(expTitle, explorations, AppConstants.EXPLORATIONS_ICON, expWarnings);
+        final int infoWarnings = this.info.getNumWarnings();
+        final Tab standardInfoTab = AppUtils.makeLazyTab("Information", this.info, AppConstants.INFO_ICON,
+                infoWarnings);
 
-        final int appWarnings = applications.getNumWarnings();
-        final String appsTitle = "Applications (" + numApplications + ")";
-        final Tab appsTab = AppUtils.makeTab(appsTitle, applications, AppConstants.APPLICATIONS_ICON, appWarnings);
+        final int introWarnings = this.intro.getNumWarnings();
+        final String introductionTitle = "Introduction (" + this.intro.getNumLessons() + ")";
+        final Tab introTab = AppUtils.makeLazyTab(introductionTitle, this.intro, AppConstants.LESSONS_ICON,
+                introWarnings);
 
-        final int handoutWarnings = applications.getNumWarnings();
-        final String handoutsTitle = "Handouts (" + numHandouts + ")";
-        final Tab handoutsTab = AppUtils.makeTab(handoutsTitle, handouts, AppConstants.HANDOUTS_ICON, handoutWarnings);
+        final int objectiveWarnings = this.objectives.getNumWarnings();
+        final String objectivesTitle = "Objectives (" + this.objectives.getNumObjectives() + ")";
+        final Tab objectivesTab = AppUtils.makeLazyTab(objectivesTitle, this.objectives, AppConstants.OBJECTIVES_ICON,
+                objectiveWarnings);
 
-        final int itemWarnings = applications.getNumWarnings();
-        final String itemsTitle = "Items (" + numItems + ")";
-        final Tab itemsTab = AppUtils.makeTab(itemsTitle, items, AppConstants.ITEMS_ICON, itemWarnings);
+        final int exampleWarnings = this.examples.getNumWarnings();
+        final String examplesTitle = "Examples (" + this.examples.getNumExamples() + ")";
+        final Tab examplesTab = AppUtils.makeLazyTab(examplesTitle, this.examples, AppConstants.EXAMPLES_ICON,
+                exampleWarnings);
 
-        final int assessmentWarnings = assessments.getNumWarnings();
-        final String assessmentsTitle = "Assessments (" + numAssessments + ")";
-        final Tab assessmentsTab = AppUtils.makeTab(assessmentsTitle, assessments, AppConstants.ASSESSMENTS_ICON,
-                assessmentWarnings);
+        final int expWarnings = this.explorations.getNumWarnings();
+        final String expTitle = "Explorations (" + this.explorations.getNumExplorations() + ")";
+        final Tab expTab = AppUtils.makeLazyTab(expTitle, this.explorations, AppConstants.EXPLORATIONS_ICON,
+                expWarnings);
 
-        final int summaryWarnings = assessments.getNumWarnings();
-        final String summaryTitle = "Summary (" + numSummaryLessons + ")";
-        final Tab summaryTab = AppUtils.makeTab(summaryTitle, summary, AppConstants.LESSONS_ICON, summaryWarnings);
+        final int appWarnings = this.applications.getNumWarnings();
+        final String appsTitle = "Applications (" + this.applications.getNumApplications() + ")";
+        final Tab appsTab = AppUtils.makeLazyTab(appsTitle, this.applications, AppConstants.APPLICATIONS_ICON,
+                appWarnings);
 
-        this.numWarnings = infoWarnings + introWarnings + objectiveWarnings + exampleWarnings + expWarnings
-                           + appWarnings + handoutWarnings + itemWarnings + assessmentWarnings + summaryWarnings;
+        final int handoutWarnings = this.handouts.getNumWarnings();
+        final String handoutsTitle = "Handouts (" + this.handouts.getNumHandouts() + ")";
+        final Tab handoutsTab = AppUtils.makeLazyTab(handoutsTitle, this.handouts, AppConstants.HANDOUTS_ICON,
+                handoutWarnings);
 
-        tabs.addAll(standardInfoTab, introTab, objectivesTab, examplesTab, expTab, appsTab, handoutsTab, itemsTab,
-                assessmentsTab, summaryTab);
+        final int itemWarnings = this.items.getNumWarnings();
+        final String itemsTitle = "Items (" + this.items.getNumItems() + ")";
+        final Tab itemsTab = AppUtils.makeLazyTab(itemsTitle, this.items, AppConstants.ITEMS_ICON, itemWarnings);
 
-        // Present any unexpected files that remain
-        final Collection<File> extraFiles = new ArrayList<>(10);
-
-        if (standardDir.exists()) {
-            final File[] allFiles = standardDir.listFiles();
-            if (allFiles != null) {
-                for (final File file : allFiles) {
-                    final String name = file.getName();
-                    if (file.isDirectory()) {
-                        if (AppConstants.EXAMPLES_DIR.equals(name) || AppConstants.EXPLORATIONS_DIR.equals(name)
-                            || AppConstants.APPLICATIONS_DIR.equals(name) || AppConstants.HANDOUTS_DIR.equals(name)
-                            || AppConstants.ITEMS_DIR.equals(name) || AppConstants.ASSESSMENTS_DIR.equals(name)
-                            || AppUtils.isIntroDir(name) || AppUtils.isObjectiveDir(name)
-                            || AppUtils.isConclusionDir(name)) {
-                            continue;
-                        }
-                    } else if (AppConstants.METADATA_FILE.equals(name)) {
-                        continue;
-                    }
+        final int assessmentWarnings = this.assessments.getNumWarnings();
+        final String assessmentsTitle = "Assessments (" + this.assessments.getNumAssessments() + ")";
+        final Tab assessmentsTab = AppUtils.makeLazyTab(assessmentsTitle, this.assessments,
+                AppConstants.ASSESSMENTS_ICON, assessmentWarnings);
 
-                    if (file.isDirectory()) {
-                        this.numWarnings += AppUtils.countFiles(file);
-                    } else {
-                        ++this.numWarnings;
-                    }
+        final int summaryWarnings = this.summary.getNumWarnings();
+        final String summaryTitle = "Summary (" + this.summary.getNumLessons() + ")";
+        final Tab summaryTab = AppUtils.makeLazyTab(summaryTitle, this.summary, AppConstants.LESSONS_ICON,
+                summaryWarnings);
 
-                    extraFiles.add(file);
-                }
-            }
-        }
+        tabs.addAll(standardInfoTab, introTab, objectivesTab, examplesTab, expTab, appsTab, handoutsTab, itemsTab,
+                assessmentsTab, summaryTab);
 
         final VBox bottom = new VBox();
         final ObservableList<Node> bottomChildren = bottom.getChildren();
         setBottom(bottom);
 
         // Present any unexpected files that remain
-        if (!extraFiles.isEmpty()) {
+        if (!this.extraFiles.isEmpty()) {
             final GridPane unexpectedPane = new GridPane();
             unexpectedPane.setPadding(new Insets(0.0, 0.0, 0.0, 20.0));
             unexpectedPane.setHgap(10);
@@ -214,9 +237,10 @@ final class StandardTabContent extends BorderPane {
             final ObservableList<Node> unexpectedChildren = unexpectedPane.getChildren();
 
             int unexpectedRow = 0;
-            for (final File file : extraFiles) {
+            for (final AbstractCourseEntry file : this.extraFiles) {
                 final String name = file.getName();
-                AppUtils.addSimpleDocumentRow(file, name, unexpectedChildren, unexpectedRow);
+                final File target = file.getFile();
+                AppUtils.addSimpleDocumentRow(target, name, unexpectedChildren, unexpectedRow);
                 ++unexpectedRow;
             }
             bottomChildren.add(unexpectedPane);
@@ -224,11 +248,13 @@ final class StandardTabContent extends BorderPane {
     }
 
     /**
-     * Initializes this panel.  Called after the constructor completes since this method uses "this" to add itself as a
-     * listener.
+     * Gets the name of the standard directory.
+     *
+     * @return the directory name
      */
-    void init() {
+    String getDirName() {
 
+        return this.standardDir.getName();
     }
 
     /**
@@ -238,7 +264,7 @@ final class StandardTabContent extends BorderPane {
      */
     int getNumObjectives() {
 
-        return this.numObjectives;
+        return this.objectives.getNumObjectives();
     }
 
     /**
@@ -246,6 +272,7 @@ final class StandardTabContent extends BorderPane {
      *
      * @return the number of warnings
      */
+    @Override
     int getNumWarnings() {
 
         return this.numWarnings;
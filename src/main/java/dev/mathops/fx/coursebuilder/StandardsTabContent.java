@@ -3,18 +3,19 @@ package dev.mathops.fx.coursebuilder;
 import javafx.collections.ObservableList;
 import javafx.scene.control.Tab;
 import javafx.scene.control.TabPane;
-import javafx.scene.layout.BorderPane;
 
 import java.io.File;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 
 /**
  * The content of a "Standards" tab.
  */
-final class StandardsTabContent extends BorderPane {
+final class StandardsTabContent extends AbstractLazyTabContent {
 
-    /** The number of standards found. */
-    private final int numStandards;
+    /** The content of each standard tab (not yet materialized). */
+    private final List<StandardTabContent> standards;
 
     /** The number of warnings found. */
     private int numWarnings = 0;
@@ -28,73 +29,53 @@ final class StandardsTabContent extends BorderPane {
      * @param lastNumber        the last possible numeric prefix for lesson subdirectories
      * @param standardStats     a collection ot which to add all generated standard statistics objects
      */
-    StandardsTabContent(final CourseBuilder theOwner, final File theTopicModuleDir, final int firstNumber,
+    StandardsTabContent(final CourseBuilder theOwner, final CourseDir theTopicModuleDir, final int firstNumber,
                         final int lastNumber, final Collection<StandardStats> standardStats) {
 
         super();
 
-        setPadding(AppConstants.BUTTON_ROW_PADDING);
-
-        // Center is a nested tab pane with all the lessons in the containing directory
-        final TabPane tabPane = new TabPane();
-        tabPane.getStyleClass().add(AppConstants.FLOATING_CLASS);
-        setCenter(tabPane);
-
-        final ObservableList<Tab> tabs = tabPane.getTabs();
+        this.standards = new ArrayList<>(lastNumber - firstNumber + 1);
         int index = 1;
-        int numFound = 0;
         for (int i = firstNumber; i <= lastNumber; ++i) {
-            final String subdirectoryName = makeSubdirectoryName(i, index);
+            final String subdirectoryName = CourseRules.standardDirName(i, index);
 
-            final File stsandardDir = new File(theTopicModuleDir, subdirectoryName);
-            if (stsandardDir.exists() && stsandardDir.isDirectory()) {
+            final CourseDir stsandardDir = theTopicModuleDir.getSubdir(subdirectoryName);
+            if (stsandardDir != null) {
+                final File topicModuleFile = theTopicModuleDir.getFile();
                 final String locationString =
-                        theTopicModuleDir.getParentFile().getName() + "." + theTopicModuleDir.getName();
+                        topicModuleFile.getParentFile().getName() + "." + theTopicModuleDir.getName();
                 final StandardStats stats = new StandardStats();
                 final StandardTabContent content = new StandardTabContent(theOwner, stsandardDir, locationString,
                         stats);
                 standardStats.add(stats);
-                final int contentWarnings = content.getNumWarnings();
-                final String dirName = stsandardDir.getName();
-                final Tab lessonTab = AppUtils.makeTab(dirName, content, "standard.png", contentWarnings);
-                tabs.add(lessonTab);
-                this.numWarnings += contentWarnings;
-                ++numFound;
+                this.standards.add(content);
+                this.numWarnings += content.getNumWarnings();
             }
 
             ++index;
         }
-
-        this.numStandards = numFound;
     }
 
     /**
-     * Generates a lesson subdirectory name, of the form "11_standard_1".
-     *
-     * @param prefix the prefix number (this will be represented with 2 digits)
-     * @param suffix the suffix number
-     * @return the subdirectory name
+     * Builds the child nodes for this content.
      */
-    private static String makeSubdirectoryName(final int prefix, final int suffix) {
-
-        final StringBuilder builder = new StringBuilder(13);
+    @Override
+    void build() {
 
-        if (prefix < 10) {
-            builder.append("0");
-        }
-        builder.append(prefix);
-        builder.append("_standard_");
-        builder.append(suffix);
-
-        return builder.toString();
-    }
+        setPadding(AppConstants.BUTTON_ROW_PADDING);
 
-    /**
-     * Initializes this panel.  Called after the constructor completes since this method uses "this" to add itself as a
-     * listener.
-     */
-    void init() {
+        // Center is a nested tab pane with all the lessons in the containing directory
+        final TabPane tabPane = new TabPane();
+        tabPane.getStyleClass().add(AppConstants.FLOATING_CLASS);
+        setCenter(tabPane);
 
+        final ObservableList<Tab> tabs = tabPane.getTabs();
+        for (final StandardTabContent content : this.standards) {
+            final int contentWarnings = content.getNumWarnings();
+            final String dirName = content.getDirName();
+            final Tab lessonTab = AppUtils.makeLazyTab(dirName, content, "standard.png", contentWarnings);
+            tabs.add(lessonTab);
+        }
     }
 
     /**
@@ -104,7 +85,7 @@ final class StandardsTabContent extends BorderPane {
      */
     int getNumStandards() {
 
-        return this.numStandards;
+        return this.standards.size();
     }
 
     /**
@@ -112,6 +93,7 @@ final class StandardsTabContent extends BorderPane {
      *
      * @return the number of warnings
      */
+    @Override
     int getNumWarnings() {
 
         return this.numWarnings;
@@ -0,0 +1,128 @@
+package dev.mathops.fx.coursebuilder;
+
+import javafx.collections.ObservableList;
+import javafx.geometry.HPos;
+import javafx.geometry.Insets;
+import javafx.scene.Node;
+import javafx.scene.control.Label;
+import javafx.scene.control.ScrollPane;
+import javafx.scene.layout.BorderPane;
+import javafx.scene.layout.GridPane;
+import javafx.scene.text.Font;
+import javafx.scene.text.FontWeight;
+
+import java.util.List;
+
+/**
+ * A pane that shows the number of lessons, examples, explorations, applications, handouts, items, and assessments in
+ * each subject and in the whole course.
+ *
+ * <p>
+ * The counts come from {@code CourseDir.getCounts}, which each directory node computes from its subdirectories when it
+ * is built, so updating the dashboard after a file system change only reads the subject nodes; nothing is recounted.
+ */
+final class StatsDashboard extends BorderPane {
+
+    /** The column headings. */
+    private static final String[] HEADINGS = {"Subject", "Lessons", "Examples", "Explorations", "Applications",
+            "Handouts", "Items", "Assessments"};
+
+    /** The minimum width of a count column. */
+    private static final double COUNT_WIDTH = 80.0;
+
+    /** The grid of counts. */
+    private final GridPane grid;
+
+    /** The label that shows when the counts were last updated. */
+    private final Label status;
+
+    /**
+     * Constructs a new {@code StatsDashboard}.
+     */
+    StatsDashboard() {
+
+        super();
+
+        setPadding(AppConstants.PADDING);
+
+        final Label heading = new Label("Course Statistics");
+        heading.setFont(new Font(15.0));
+        heading.setPadding(new Insets(0.0, 0.0, AppConstants.V_GAP, 0.0));
+        setTop(heading);
+
+        this.grid = new GridPane();
+        this.grid.setHgap(AppConstants.H_GAP * 2.0);
+        this.grid.setVgap(AppConstants.V_PAD);
+        setCenter(new ScrollPane(this.grid));
+
+        this.status = new Label();
+        this.status.setPadding(new Insets(AppConstants.V_GAP, 0.0, 0.0, 0.0));
+        setBottom(this.status);
+    }
+
+    /**
+     * Shows the counts from a course tree.  Called on the JavaFX application thread whenever a new tree is installed.
+     *
+     * @param tree the course tree
+     */
+    void update(final CourseTree tree) {
+
+        final ObservableList<Node> children = this.grid.getChildren();
+        children.clear();
+
+        final Font boldFont = Font.font("System", FontWeight.BOLD, 12.0);
+
+        for (int col = 0; col < HEADINGS.length; ++col) {
+            final Label label = new Label(HEADINGS[col]);
+            label.setFont(boldFont);
+            if (col > 0) {
+                label.setMinWidth(COUNT_WIDTH);
+                GridPane.setHalignment(label, HPos.RIGHT);
+            }
+            this.grid.add(label, col, 0);
+        }
+
+        int row = 1;
+        final List<CourseDir> subjects = tree.getSubjects();
+        for (final CourseDir subject : subjects) {
+            addRow(row, subject.getName(), subject.getCounts(), null);
+            ++row;
+        }
+
+        final CourseDir root = tree.getRoot();
+        addRow(row, "Whole course", root.getCounts(), boldFont);
+
+        final int numSubjects = subjects.size();
+        final int numDirectories = tree.getNumDirectories();
+        this.status.setText(numSubjects + " subjects, " + numDirectories + " directories");
+    }
+
+    /**
+     * Adds a row of counts to the grid.
+     *
+     * @param row    the row index
+     * @param name   the row name
+     * @param counts the counts
+     * @param font   the font for the row; {@code null} for the default font
+     */
+    private void addRow(final int row, final String name, final CourseCounts counts, final Font font) {
+
+        final int[] values = {counts.lessons(), counts.examples(), counts.explorations(), counts.applications(),
+                counts.handouts(), counts.items(), counts.assessments()};
+
+        final Label nameLabel = new Label(name);
+        if (font != null) {
+            nameLabel.setFont(font);
+        }
+        this.grid.add(nameLabel, 0, row);
+
+        for (int i = 0; i < values.length; ++i) {
+            final Label label = new Label(Integer.toString(values[i]));
+            if (font != null) {
+                label.setFont(font);
+            }
+            GridPane.setHalignment(label, HPos.RIGHT);
+            this.grid.add(label, i + 1, row);
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package dev.mathops.fx.coursebuilder;
+
+import dev.mathops.commons.log.Log;
+import javafx.event.ActionEvent;
+import javafx.event.EventHandler;
+import javafx.geometry.Insets;
+import javafx.geometry.Pos;
+import javafx.scene.control.Button;
+import javafx.scene.control.Label;
+import javafx.scene.control.TextArea;
+import javafx.scene.layout.BorderPane;
+import javafx.scene.layout.HBox;
+import javafx.scene.text.Font;
+import javafx.stage.FileChooser;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+
+/**
+ * A pane that presents a {@code StorageReport}: totals by file role, subject, and topic module, and the largest files,
+ * with a button to export the report as CSV.
+ */
+final class StoragePane extends BorderPane implements EventHandler<ActionEvent> {
+
+    /** The course media directory. */
+    private final File courseMediaDir;
+
+    /** The report. */
+    private final StorageReport storageReport;
+
+    /** The text of the report. */
+    private final TextArea text;
+
+    /**
+     * Constructs a new {@code StoragePane}.
+     *
+     * @param theCourseMediaDir the course media directory
+     * @param theReport         the report
+     */
+    StoragePane(final File theCourseMediaDir, final StorageReport theReport) {
+
+        super();
+
+        this.courseMediaDir = theCourseMediaDir;
+        this.storageReport = theReport;
+
+        setPadding(AppConstants.PADDING);
+
+        final Label heading = new Label("Storage Report");
+        heading.setFont(new Font(15.0));
+        heading.setPadding(new Insets(0.0, 0.0, AppConstants.V_GAP, 0.0));
+        setTop(heading);
+
+        this.text = new TextArea();
+        this.text.setEditable(false);
+        this.text.setFont(Font.font("Monospaced", 12.0));
+        this.text.setPrefColumnCount(110);
+        this.text.setPrefRowCount(36);
+        setCenter(this.text);
+    }
+
+    /**
+     * Initializes this pane.  Called after the constructor completes since this method uses "this" to add itself as a
+     * listener.
+     */
+    void init() {
+
+        final StorageReport.Tally total = this.storageReport.getTotal();
+        final Label summary = new Label(total.getFiles() + " files, " + AppUtils.formatBytes(total.getBytes())
+                                        + " (" + AppUtils.formatBytes(total.getDeployedBytes())
+                                        + " copied to the media server)");
+
+        final Button export = new Button("Export CSV...");
+        export.setOnAction(this);
+
+        final HBox bottom = new HBox(AppConstants.H_GAP, summary, export);
+        bottom.setAlignment(Pos.CENTER_LEFT);
+        bottom.setPadding(new Insets(AppConstants.V_GAP, 0.0, 0.0, 0.0));
+        setBottom(bottom);
+
+        final StringBuilder builder = new StringBuilder(10000);
+
+        builder.append("BY FILE ROLE\n");
+        for (final Map.Entry<EFileRole, StorageReport.Tally> entry : this.storageReport.getByRole().entrySet()) {
+            appendRow(builder, entry.getKey().name(), entry.getValue());
+        }
+
+        builder.append("\nBY SUBJECT\n");
+        for (final Map.Entry<String, StorageReport.Tally> entry : this.storageReport.getBySubject().entrySet()) {
+            appendRow(builder, entry.getKey(), entry.getValue());
+        }
+
+        builder.append("\nBY TOPIC MODULE\n");
+        for (final Map.Entry<String, StorageReport.Tally> entry : this.storageReport.getByTopic().entrySet()) {
+            appendRow(builder, entry.getKey(), entry.getValue());
+        }
+
+        builder.append("\nLARGEST FILES\n");
+        final Path root = this.courseMediaDir.toPath();
+        for (final CourseFile file : this.storageReport.getLargest()) {
+            final Path relative = root.relativize(file.getFile().toPath());
+            final String size = AppUtils.formatBytes(file.getSize());
+            builder.append(String.format("  %12s  %s%n", size, relative));
+        }
+
+        this.text.setText(builder.toString());
+    }
+
+    /**
+     * Appends a row for a total.
+     *
+     * @param builder the builder to which to append
+     * @param key     the row key
+     * @param tally   the total
+     */
+    private static void appendRow(final StringBuilder builder, final String key, final StorageReport.Tally tally) {
+
+        final String bytes = AppUtils.formatBytes(tally.getBytes());
+        final String deployed = AppUtils.formatBytes(tally.getDeployedBytes());
+        final Long files = Long.valueOf(tally.getFiles());
+
+        builder.append(String.format("  %-40s %8d files  %12s  (%s deployed)%n", key, files, bytes, deployed));
+    }
+
+    /**
+     * Called when the "Export CSV..." button is pressed.
+     *
+     * @param actionEvent the action event
+     */
+    @Override
+    public void handle(final ActionEvent actionEvent) {
+
+        final FileChooser chooser = new FileChooser();
+        chooser.setTitle("Export Storage Report");
+        chooser.setInitialFileName("storage_report.csv");
+        chooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("CSV files", "*.csv"));
+
+        final File target = chooser.showSaveDialog(getScene().getWindow());
+
+        if (target != null) {
+            final Path path = target.toPath();
+            try (final Writer writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8)) {
+                this.storageReport.writeCsv(writer, this.courseMediaDir);
+            } catch (final IOException ex) {
+                Log.warning("Unable to write storage report", ex);
+            }
+        }
+    }
+}
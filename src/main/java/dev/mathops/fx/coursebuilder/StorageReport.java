@@ -0,0 +1,319 @@
+package dev.mathops.fx.coursebuilder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+
+/**
+ * A report of where the bytes in a course media directory are: totals by file role, by subject, and by topic module,
+ * plus the largest individual files.  Each total also records how many of its bytes would be copied to the media
+ * server (the files {@code CourseRules.isMediaDeployed} accepts, which is the rule the media deploy uses to count
+ * the bytes it will copy).
+ *
+ * <p>
+ * The report is built in one walk of the course tree, visiting each file once.  Memory use is bounded by the number
+ * of roles, subjects, and topic modules plus the number of largest files requested, regardless of the number of files
+ * in the tree, since the largest files are tracked with a heap that never holds more than that number.
+ */
+final class StorageReport {
+
+    /** The name used for files that are not within any subject. */
+    private static final String NO_SUBJECT = "(course)";
+
+    /** The number of largest files to track. */
+    private final int maxLargest;
+
+    /** Totals by file role. */
+    private final Map<EFileRole, Tally> byRole;
+
+    /** Totals by subject name. */
+    private final Map<String, Tally> bySubject;
+
+    /** Totals by topic module, keyed by "subject/topic". */
+    private final Map<String, Tally> byTopic;
+
+    /** The overall total. */
+    private final Tally total;
+
+    /** The largest files seen (smallest at the head, so it can be removed when a larger file is found). */
+    private final PriorityQueue<CourseFile> largest;
+
+    /**
+     * Constructs a new {@code StorageReport}.
+     *
+     * @param theMaxLargest the number of largest files to track
+     */
+    private StorageReport(final int theMaxLargest) {
+
+        super();
+
+        this.maxLargest = Math.max(1, theMaxLargest);
+        this.byRole = new EnumMap<>(EFileRole.class);
+        this.bySubject = new TreeMap<>();
+        this.byTopic = new TreeMap<>();
+        this.total = new Tally();
+        this.largest = new PriorityQueue<>(this.maxLargest + 1, Comparator.comparingLong(CourseFile::getSize));
+    }
+
+    /**
+     * Builds the report for a course tree.
+     *
+     * @param tree       the course tree
+     * @param maxLargest the number of largest files to list
+     * @return the report
+     */
+    static StorageReport build(final CourseTree tree, final int maxLargest) {
+
+        final StorageReport report = new StorageReport(maxLargest);
+
+        final CourseDir root = tree.getRoot();
+        report.walk(root, NO_SUBJECT, null);
+
+        return report;
+    }
+
+    /**
+     * Adds the files in a directory and all its subdirectories to the totals.
+     *
+     * @param dir     the directory
+     * @param subject the subject name for files in the directory
+     * @param topic   the "subject/topic" key for files in the directory; null if not within a topic module
+     */
+    private void walk(final CourseDir dir, final String subject, final String topic) {
+
+        final Tally subjectTally = this.bySubject.computeIfAbsent(subject, key -> new Tally());
+        final Tally topicTally = topic == null ? null : this.byTopic.computeIfAbsent(topic, key -> new Tally());
+
+        for (final CourseFile file : dir.getFiles()) {
+            final String name = file.getName();
+            final long size = file.getSize();
+            final boolean deployed = CourseRules.isMediaDeployed(name);
+            final EFileRole role = FileClassifier.classify(name);
+
+            this.total.add(size, deployed);
+            this.byRole.computeIfAbsent(role, key -> new Tally()).add(size, deployed);
+            subjectTally.add(size, deployed);
+            if (topicTally != null) {
+                topicTally.add(size, deployed);
+            }
+
+            this.largest.add(file);
+            if (this.largest.size() > this.maxLargest) {
+                this.largest.poll();
+            }
+        }
+
+        for (final CourseDir subdir : dir.getSubdirs()) {
+            final EDirKind kind = subdir.getKind();
+            final String name = subdir.getName();
+
+            if (kind == EDirKind.SUBJECT) {
+                walk(subdir, name, null);
+            } else if (kind == EDirKind.TOPIC) {
+                walk(subdir, subject, subject + "/" + name);
+            } else {
+                walk(subdir, subject, topic);
+            }
+        }
+    }
+
+    /**
+     * Gets the overall total.
+     *
+     * @return the total
+     */
+    Tally getTotal() {
+
+        return this.total;
+    }
+
+    /**
+     * Gets the totals by file role.
+     *
+     * @return a map from role to total, in role order
+     */
+    Map<EFileRole, Tally> getByRole() {
+
+        return this.byRole;
+    }
+
+    /**
+     * Gets the totals by subject.
+     *
+     * @return a map from subject name to total, sorted by name
+     */
+    Map<String, Tally> getBySubject() {
+
+        return this.bySubject;
+    }
+
+    /**
+     * Gets the totals by topic module.
+     *
+     * @return a map from "subject/topic" to total, sorted by name
+     */
+    Map<String, Tally> getByTopic() {
+
+        return this.byTopic;
+    }
+
+    /**
+     * Gets the largest files.
+     *
+     * @return the files, largest first
+     */
+    List<CourseFile> getLargest() {
+
+        final List<CourseFile> result = new ArrayList<>(this.largest);
+        result.sort(Comparator.comparingLong(CourseFile::getSize).reversed());
+
+        return result;
+    }
+
+    /**
+     * Writes the report as CSV.  Every row has the same columns: the category ("total", "role", "subject", "topic",
+     * or "largest"), the key within the category, the number of files, the number of bytes, and the number of bytes
+     * that would be copied to the media server.  Paths of the largest files are relative to the course media
+     * directory.
+     *
+     * @param writer         the writer to which to write
+     * @param courseMediaDir the course media directory
+     * @throws IOException if there is an error writing
+     */
+    void writeCsv(final Writer writer, final File courseMediaDir) throws IOException {
+
+        writer.write("category,key,files,bytes,deployed_bytes\r\n");
+
+        writeCsvRow(writer, "total", "all files", this.total);
+        for (final Map.Entry<EFileRole, Tally> entry : this.byRole.entrySet()) {
+            writeCsvRow(writer, "role", entry.getKey().name(), entry.getValue());
+        }
+        for (final Map.Entry<String, Tally> entry : this.bySubject.entrySet()) {
+            writeCsvRow(writer, "subject", entry.getKey(), entry.getValue());
+        }
+        for (final Map.Entry<String, Tally> entry : this.byTopic.entrySet()) {
+            writeCsvRow(writer, "topic", entry.getKey(), entry.getValue());
+        }
+
+        final Path root = courseMediaDir.toPath();
+        for (final CourseFile file : getLargest()) {
+            final String relative = root.relativize(file.getFile().toPath()).toString();
+            final long size = file.getSize();
+            final long deployed = CourseRules.isMediaDeployed(file.getName()) ? size : 0L;
+            writer.write("largest," + csvEscape(relative) + ",1," + size + "," + deployed + "\r\n");
+        }
+    }
+
+    /**
+     * Writes one CSV row for a total.
+     *
+     * @param writer   the writer to which to write
+     * @param category the category
+     * @param key      the key within the category
+     * @param tally    the total
+     * @throws IOException if there is an error writing
+     */
+    private static void writeCsvRow(final Writer writer, final String category, final String key,
+                                    final Tally tally) throws IOException {
+
+        writer.write(category + "," + csvEscape(key) + "," + tally.getFiles() + "," + tally.getBytes() + ","
+                     + tally.getDeployedBytes() + "\r\n");
+    }
+
+    /**
+     * Escapes a value for CSV: a value that contains a comma, quote, or line break is enclosed in quotes, with quotes
+     * doubled.
+     *
+     * @param value the value
+     * @return the escaped value
+     */
+    private static String csvEscape(final String value) {
+
+        final String result;
+
+        if (value.indexOf(',') >= 0 || value.indexOf('"') >= 0 || value.indexOf('\n') >= 0
+            || value.indexOf('\r') >= 0) {
+            result = "\"" + value.replace("\"", "\"\"") + "\"";
+        } else {
+            result = value;
+        }
+
+        return result;
+    }
+
+    /**
+     * A running total of files and bytes.
+     */
+    static final class Tally {
+
+        /** The number of files. */
+        private long files = 0L;
+
+        /** The number of bytes. */
+        private long bytes = 0L;
+
+        /** The number of bytes in files that would be copied to the media server. */
+        private long deployedBytes = 0L;
+
+        /**
+         * Constructs a new {@code Tally}.
+         */
+        Tally() {
+
+            super();
+        }
+
+        /**
+         * Adds a file.
+         *
+         * @param size     the file size
+         * @param deployed true if the file would be copied to the media server
+         */
+        void add(final long size, final boolean deployed) {
+
+            ++this.files;
+            this.bytes += size;
+            if (deployed) {
+                this.deployedBytes += size;
+            }
+        }
+
+        /**
+         * Gets the number of files.
+         *
+         * @return the number of files
+         */
+        long getFiles() {
+
+            return this.files;
+        }
+
+        /**
+         * Gets the number of bytes.
+         *
+         * @return the number of bytes
+         */
+        long getBytes() {
+
+            return this.bytes;
+        }
+
+        /**
+         * Gets the number of bytes in files that would be copied to the media server.
+         *
+         * @return the number of bytes
+         */
+        long getDeployedBytes() {
+
+            return this.deployedBytes;
+        }
+    }
+}
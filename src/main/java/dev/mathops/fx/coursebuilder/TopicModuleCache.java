@@ -0,0 +1,368 @@
+package dev.mathops.fx.coursebuilder;
+
+import dev.mathops.commons.log.Log;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * A least-recently-used cache of topic module panes, bounded by both the number of panes and their estimated memory
+ * use.  Evicted panes are disposed (media players stopped, images released).
+ *
+ * <p>
+ * The cache counts hits, misses, evictions, and prefetches so its limits can be tuned; the counters are logged with
+ * each eviction, and the owner logs a summary when the application exits.  Limits are read from the system
+ * properties "coursebuilder.topicCache.maxEntries" and "coursebuilder.topicCache.maxBytes" if present.
+ *
+ * <p>
+ * This class is not thread-safe; it should be used only on the JavaFX application thread.
+ */
+final class TopicModuleCache {
+
+    /** The system property that sets the maximum number of panes. */
+    private static final String MAX_ENTRIES_PROPERTY = "coursebuilder.topicCache.maxEntries";
+
+    /** The system property that sets the maximum estimated memory use, in bytes. */
+    private static final String MAX_BYTES_PROPERTY = "coursebuilder.topicCache.maxBytes";
+
+    /** The default maximum number of panes. */
+    private static final int DEFAULT_MAX_ENTRIES = 12;
+
+    /** The default maximum estimated memory use, in bytes. */
+    private static final long DEFAULT_MAX_BYTES = 512L * 1024L * 1024L;
+
+    /** The maximum number of panes. */
+    private final int maxEntries;
+
+    /** The maximum estimated memory use, in bytes. */
+    private final long maxBytes;
+
+    /** The cached panes, in access order (least recently used first). */
+    private final LinkedHashMap<File, TopicModulePane> panes;
+
+    /** The most recent size estimate for each cached pane. */
+    private final Map<File, Long> estimates;
+
+    /** The sum of all size estimates. */
+    private long totalBytes = 0L;
+
+    /** The number of requests satisfied from the cache. */
+    private long hits = 0L;
+
+    /** The number of requests that required a pane to be built. */
+    private long misses = 0L;
+
+    /** The number of panes evicted to stay within limits. */
+    private long evictions = 0L;
+
+    /** The number of panes built speculatively by {@code prefetch}. */
+    private long prefetches = 0L;
+
+    /**
+     * Constructs a new {@code TopicModuleCache} with limits taken from system properties or defaults.
+     */
+    TopicModuleCache() {
+
+        this(Integer.getInteger(MAX_ENTRIES_PROPERTY, DEFAULT_MAX_ENTRIES).intValue(),
+                Long.getLong(MAX_BYTES_PROPERTY, DEFAULT_MAX_BYTES).longValue());
+    }
+
+    /**
+     * Constructs a new {@code TopicModuleCache}.
+     *
+     * @param theMaxEntries the maximum number of panes (at least 1)
+     * @param theMaxBytes   the maximum estimated memory use, in bytes
+     */
+    TopicModuleCache(final int theMaxEntries, final long theMaxBytes) {
+
+        this.maxEntries = Math.max(1, theMaxEntries);
+        this.maxBytes = theMaxBytes;
+        this.panes = new LinkedHashMap<>(this.maxEntries * 2, 0.75f, true);
+        this.estimates = new HashMap<>(this.maxEntries * 2);
+    }
+
+    /**
+     * Gets the pane for a topic module directory, building it if it is not cached.  The pane becomes the most
+     * recently used, and the cache then evicts least recently used panes as needed to stay within its limits (the
+     * pane being returned is never evicted).
+     *
+     * <p>
+     * Since panes grow as their tabs are materialized, the size of the previous most recently used pane is
+     * re-estimated here as well, before limits are checked.
+     *
+     * @param dir     the topic module directory
+     * @param factory a function that builds a pane for the directory
+     * @return the pane
+     */
+    TopicModulePane get(final File dir, final Function<? super File, TopicModulePane> factory) {
+
+        refreshNewestEstimate();
+
+        TopicModulePane pane = this.panes.get(dir);
+
+        if (pane == null) {
+            ++this.misses;
+            pane = factory.apply(dir);
+            this.panes.put(dir, pane);
+        } else {
+            ++this.hits;
+        }
+        updateEstimate(dir, pane);
+
+        evictToLimits();
+
+        return pane;
+    }
+
+    /**
+     * Builds and caches a pane for a topic module directory the user is likely to ask for next, evicting least
+     * recently used panes (but never the most recently used one, which is the pane being shown) as needed to make room
+     * within the cache limits.  Unlike {@code get}, this does not count as a hit or miss and does not change which pane
+     * is most recently used.
+     *
+     * @param dir     the topic module directory
+     * @param factory a function that builds a pane for the directory
+     * @return true if a pane was built and cached; false if one was already cached or there was no room even after
+     *         evicting everything but the most recently used pane
+     */
+    boolean prefetch(final File dir, final Function<? super File, TopicModulePane> factory) {
+
+        boolean added = false;
+
+        if (!this.panes.containsKey(dir)) {
+            File newest = null;
+            for (final File key : this.panes.keySet()) {
+                newest = key;
+            }
+
+            final int keptEntries = newest == null ? 0 : 1;
+            final Long newestEstimate = newest == null ? null : this.estimates.get(newest);
+            final long keptBytes = newestEstimate == null ? 0L : newestEstimate.longValue();
+
+            if (keptEntries < this.maxEntries) {
+                final TopicModulePane pane = factory.apply(dir);
+                final long estimate = pane.estimateBytes();
+
+                if (keptBytes + estimate <= this.maxBytes) {
+                    final Iterator<Map.Entry<File, TopicModulePane>> iterator = this.panes.entrySet().iterator();
+                    while (this.panes.size() > keptEntries && (this.panes.size() >= this.maxEntries
+                                                               || this.totalBytes + estimate > this.maxBytes)) {
+                        evictEldest(iterator);
+                    }
+
+                    this.panes.put(dir, pane);
+                    this.estimates.put(dir, Long.valueOf(estimate));
+                    this.totalBytes += estimate;
+                    ++this.prefetches;
+                    added = true;
+
+                    if (newest != null) {
+                        // Accessing the previous newest entry makes it most recently used again
+                        this.panes.get(newest);
+                    }
+                } else {
+                    pane.dispose();
+                }
+            }
+        }
+
+        return added;
+    }
+
+    /**
+     * Gets the cached pane for a topic module directory without affecting access order or counters.
+     *
+     * @param dir the topic module directory
+     * @return the pane; {@code null} if none is cached
+     */
+    TopicModulePane peek(final File dir) {
+
+        // "get" on an access-ordered map counts as an access, but iterating its entries does not
+        TopicModulePane pane = null;
+
+        for (final Map.Entry<File, TopicModulePane> entry : this.panes.entrySet()) {
+            if (entry.getKey().equals(dir)) {
+                pane = entry.getValue();
+                break;
+            }
+        }
+
+        return pane;
+    }
+
+    /**
+     * Removes and disposes of the pane for a topic module directory, if present.
+     *
+     * @param dir the topic module directory
+     */
+    void remove(final File dir) {
+
+        final TopicModulePane pane = this.panes.remove(dir);
+
+        if (pane != null) {
+            final Long estimate = this.estimates.remove(dir);
+            if (estimate != null) {
+                this.totalBytes -= estimate.longValue();
+            }
+            pane.dispose();
+        }
+    }
+
+    /**
+     * Gets the directories of all cached panes.
+     *
+     * @return a copy of the list of directories, least recently used first
+     */
+    List<File> getDirectories() {
+
+        return new ArrayList<>(this.panes.keySet());
+    }
+
+    /**
+     * Re-estimates the size of the most recently used pane, which is the one most likely to have grown since it was
+     * last estimated (because the user has been opening its tabs).
+     */
+    private void refreshNewestEstimate() {
+
+        Map.Entry<File, TopicModulePane> newest = null;
+        for (final Map.Entry<File, TopicModulePane> entry : this.panes.entrySet()) {
+            newest = entry;
+        }
+
+        if (newest != null) {
+            updateEstimate(newest.getKey(), newest.getValue());
+        }
+    }
+
+    /**
+     * Updates the size estimate of a cached pane.
+     *
+     * @param dir  the topic module directory
+     * @param pane the pane
+     */
+    private void updateEstimate(final File dir, final TopicModulePane pane) {
+
+        final long estimate = pane.estimateBytes();
+        final Long old = this.estimates.put(dir, Long.valueOf(estimate));
+
+        if (old != null) {
+            this.totalBytes -= old.longValue();
+        }
+        this.totalBytes += estimate;
+    }
+
+    /**
+     * Evicts least recently used panes until the cache is within its limits, always keeping the most recently used.
+     */
+    private void evictToLimits() {
+
+        final Iterator<Map.Entry<File, TopicModulePane>> iterator = this.panes.entrySet().iterator();
+
+        while (this.panes.size() > 1 && (this.panes.size() > this.maxEntries || this.totalBytes > this.maxBytes)) {
+            evictEldest(iterator);
+        }
+    }
+
+    /**
+     * Evicts and disposes of the next pane from an iterator over the cached panes in access order.
+     *
+     * @param iterator the iterator, which must have a next entry
+     */
+    private void evictEldest(final Iterator<Map.Entry<File, TopicModulePane>> iterator) {
+
+        final Map.Entry<File, TopicModulePane> eldest = iterator.next();
+        final File dir = eldest.getKey();
+        final TopicModulePane pane = eldest.getValue();
+        iterator.remove();
+
+        final Long estimate = this.estimates.remove(dir);
+        if (estimate != null) {
+            this.totalBytes -= estimate.longValue();
+        }
+        pane.dispose();
+        ++this.evictions;
+
+        Log.info("Evicted topic module pane for ", dir.getName(), "; ", this);
+    }
+
+    /**
+     * Gets the number of cached panes.
+     *
+     * @return the number of panes
+     */
+    int size() {
+
+        return this.panes.size();
+    }
+
+    /**
+     * Gets the sum of the size estimates of all cached panes.
+     *
+     * @return the estimated memory use, in bytes
+     */
+    long getEstimatedBytes() {
+
+        return this.totalBytes;
+    }
+
+    /**
+     * Gets the number of requests satisfied from the cache.
+     *
+     * @return the number of hits
+     */
+    long getHits() {
+
+        return this.hits;
+    }
+
+    /**
+     * Gets the number of requests that required a pane to be built.
+     *
+     * @return the number of misses
+     */
+    long getMisses() {
+
+        return this.misses;
+    }
+
+    /**
+     * Gets the number of panes evicted to stay within limits.
+     *
+     * @return the number of evictions
+     */
+    long getEvictions() {
+
+        return this.evictions;
+    }
+
+    /**
+     * Gets the number of panes built speculatively by {@code prefetch}.
+     *
+     * @return the number of prefetches
+     */
+    long getPrefetches() {
+
+        return this.prefetches;
+    }
+
+    /**
+     * Generates a summary of the cache state and counters.
+     *
+     * @return the summary
+     */
+    @Override
+    public String toString() {
+
+        final long kb = this.totalBytes / 1024L;
+
+        return "TopicModuleCache{size=" + this.panes.size() + "/" + this.maxEntries + ", estimatedKB=" + kb
+               + ", hits=" + this.hits + ", misses=" + this.misses + ", evictions=" + this.evictions
+               + ", prefetches=" + this.prefetches + "}";
+    }
+}
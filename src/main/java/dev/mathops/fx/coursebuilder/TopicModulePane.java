@@ -3,6 +3,7 @@ package dev.mathops.fx.coursebuilder;
 import javafx.collections.ObservableList;
 import javafx.geometry.Insets;
 import javafx.scene.Node;
+import javafx.scene.Parent;
 import javafx.scene.control.Label;
 import javafx.scene.control.Tab;
 import javafx.scene.control.TabPane;
@@ -15,29 +16,79 @@ import javafx.scene.text.Font;
 import java.io.File;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 /**
  * A pane that presents the contents of a topic module directory.
  */
 class TopicModulePane extends BorderPane {
 
-    /** The number of warnings found. */
+    /** A rough estimate of the memory used by the pane itself, apart from its tab contents. */
+    private static final long PANE_OVERHEAD_BYTES = 256L * 1024L;
+
+    /** The owning application. */
+    private final CourseBuilder owner;
+
+    /** The topic module directory. */
+    private final File topicModuleDir;
+
+    /** The location string. */
+    private final String locationString;
+
+    /** The background work for each tab whose content has not yet been completed. */
+    private final Map<Tab, PendingWork> pendingWork;
+
+    /** True if tab contents are being built at low priority (for a pane that was prefetched). */
+    private boolean lowPriority;
+
+    /** The number of tabs whose content is still being computed in the background. */
+    private int numPending = 0;
+
+    /** The number of warnings found so far. */
     private int numWarnings = 0;
 
+    /** The index of the top-level tab whose completion will finish a deferred selection. */
+    private int deferredTabIndex = -1;
+
+    /** A selection to finish when the top-level tab at {@code deferredTabIndex} is completed; null if none. */
+    private Runnable deferredSelection = null;
+
     /**
      * Constructs a new {@code TopicModulePane}.
      *
-     * @param owner          the owning application
-     * @param topicModuleDir the topic module directory
+     * <p>
+     * Tabs are created immediately with placeholder content, and the content of each tab (with its counts and
+     * warnings, which require walking all its descendant directories and loading their metadata) is constructed on a
+     * background thread.  As each finishes, its tab title, warning badge, and content are filled in, and when all
+     * have finished, the total warning count is shown in the "Topic Module:" header.
+     *
+     * <p>
+     * A pane prefetched before the user asks for it builds its tab contents at low priority; {@code promote} moves
+     * work that has not yet started to normal priority when the pane is shown.
+     *
+     * @param theOwner       the owning application
+     * @param topicModule    the topic module directory
+     * @param theLowPriority true to build tab contents at low priority
      */
-    TopicModulePane(final CourseBuilder owner, final File topicModuleDir) {
+    TopicModulePane(final CourseBuilder theOwner, final CourseDir topicModule, final boolean theLowPriority) {
 
         super();
 
-        final String locationPrefix = topicModuleDir.getParentFile().getName();
-        final String topicPrefix = locationPrefix + "." + topicModuleDir.getName();
-        final String locationString = locationPrefix + "." + topicModuleDir.getName();
+        this.owner = theOwner;
+        this.topicModuleDir = topicModule.getFile();
+        this.pendingWork = new LinkedHashMap<>(10);
+        this.lowPriority = theLowPriority;
+
+        final String locationPrefix = this.topicModuleDir.getParentFile().getName();
+        final String topicPrefix = locationPrefix + "." + this.topicModuleDir.getName();
+        this.locationString = topicPrefix;
 
         final TabPane tabPane = new TabPane();
         tabPane.getStyleClass().add(AppConstants.FLOATING_CLASS);
@@ -45,124 +96,200 @@ class TopicModulePane extends BorderPane {
 
         final ObservableList<Tab> tabs = tabPane.getTabs();
 
-        final File skillsReviewDir = new File(topicModuleDir, AppConstants.SKILLS_REVIEW_DIR);
-        final File explorationsDir = new File(topicModuleDir, AppConstants.EXPLORATIONS_DIR);
-        final File applicationsDir = new File(topicModuleDir, AppConstants.APPLICATIONS_DIR);
-        final File handoutsDir = new File(topicModuleDir, AppConstants.HANDOUTS_DIR);
-
-        final LessonsTabContent intro = new LessonsTabContent(owner, topicModuleDir, 1, 9, "intro");
-        final SkillsReviewTabContent review = new SkillsReviewTabContent(owner, skillsReviewDir, topicPrefix);
-        final List<StandardStats> standardStatsList = new ArrayList<>(3);
-        final StandardsTabContent standards = new StandardsTabContent(owner, topicModuleDir, 11, 29,
-                standardStatsList);
-        final ExplorationsTabContent explorations = new ExplorationsTabContent(owner, explorationsDir, topicPrefix);
-        final ApplicationsTabContent apps = new ApplicationsTabContent(owner, applicationsDir, topicPrefix);
-        final HandoutsTabContent handouts = new HandoutsTabContent(owner, handoutsDir, topicPrefix);
-        final LessonsTabContent summary = new LessonsTabContent(owner, topicModuleDir, 91, 99, "conclusion");
-
-        intro.init();
-        review.init();
-        standards.init();
-        explorations.init();
-        apps.init();
-        handouts.init();
-        summary.init();
-
-        final InformationTabContent info = new InformationTabContent(owner, topicModuleDir, "Outline.docx");
-        info.init();
-
-        final int infoWarnings = info.getNumWarnings();
-        final Tab moduleInfoTab = AppUtils.makeTab("Information", info, AppConstants.INFO_ICON, infoWarnings);
-
-        final int introWarnings = intro.getNumWarnings();
-        final String introTitle = "Introduction (" + intro.getNumLessons() + ")";
-        final Tab introTab = AppUtils.makeTab(introTitle, intro, AppConstants.LESSONS_ICON, introWarnings);
-
-        final int reviewWarnings = review.getNumWarnings();
-        final String reviewTitle = "Skills Review (" + review.getNumObjectives() + ")";
-        final Tab reviewTab = AppUtils.makeTab(reviewTitle, review, AppConstants.SKILLS_REVIEW_ICON,
-                reviewWarnings);
-
-        final int stdsWarnings = standards.getNumWarnings();
-        final String stdTitle = "Standards (" + standards.getNumStandards() + ")";
-        final Tab stdTab = AppUtils.makeTab(stdTitle, standards, AppConstants.STANDARDS_ICON, stdsWarnings);
-
-        final int expWarnings = explorations.getNumWarnings();
-        final String expTitle = "Explorations (" + explorations.getNumExplorations() + ")";
-        final Tab expTab = AppUtils.makeTab(expTitle, explorations, AppConstants.EXPLORATIONS_ICON, expWarnings);
-
-        final int appWarnings = apps.getNumWarnings();
-        final String appsTitle = "Applications (" + apps.getNumApplications() + ")";
-        final Tab appsTab = AppUtils.makeTab(appsTitle, apps, AppConstants.APPLICATIONS_ICON, appWarnings);
-
-        final int handoutWarnings = handouts.getNumWarnings();
-        final String handoutsTitle = "Handouts (" + handouts.getNumHandouts() + ")";
-        final Tab handoutsTab = AppUtils.makeTab(handoutsTitle, handouts, AppConstants.HANDOUTS_ICON,
-                handoutWarnings);
-
-        final int summaryWarnings = summary.getNumWarnings();
-        final String summaryTitle = "Summary (" + summary.getNumLessons() + ")";
-        final Tab summaryTab = AppUtils.makeTab(summaryTitle, summary, AppConstants.LESSONS_ICON, summaryWarnings);
-
-        this.numWarnings = infoWarnings + introWarnings + reviewWarnings + stdsWarnings + expWarnings + appWarnings
-                           + handoutWarnings + summaryWarnings;
-
-        tabs.addAll(moduleInfoTab, introTab, reviewTab, stdTab, expTab, appsTab, handoutsTab, summaryTab);
-
-        // Show extra files found
-        final Node unexpected = buildUnexpectedFilesList(topicModuleDir);
+        final CourseDir skillsReviewDir = topicModule.resolve(AppConstants.SKILLS_REVIEW_DIR);
+        final CourseDir explorationsDir = topicModule.resolve(AppConstants.EXPLORATIONS_DIR);
+        final CourseDir applicationsDir = topicModule.resolve(AppConstants.APPLICATIONS_DIR);
+        final CourseDir handoutsDir = topicModule.resolve(AppConstants.HANDOUTS_DIR);
+
+        addPendingTab(tabs, "Information", AppConstants.INFO_ICON,
+                () -> new InformationTabContent(theOwner, topicModule, CourseRules.OUTLINE_FILE),
+                content -> "Information");
+
+        addPendingTab(tabs, "Introduction", AppConstants.LESSONS_ICON,
+                () -> new LessonsTabContent(theOwner, topicModule, 1, 9, "intro"),
+                content -> "Introduction (" + content.getNumLessons() + ")");
+
+        addPendingTab(tabs, "Skills Review", AppConstants.SKILLS_REVIEW_ICON,
+                () -> new SkillsReviewTabContent(theOwner, skillsReviewDir, topicPrefix),
+                content -> "Skills Review (" + content.getNumObjectives() + ")");
+
+        addPendingTab(tabs, "Standards", AppConstants.STANDARDS_ICON,
+                () -> new StandardsTabContent(theOwner, topicModule, 11, 29, new ArrayList<>(3)),
+                content -> "Standards (" + content.getNumStandards() + ")");
+
+        addPendingTab(tabs, "Explorations", AppConstants.EXPLORATIONS_ICON,
+                () -> new ExplorationsTabContent(theOwner, explorationsDir, topicPrefix),
+                content -> "Explorations (" + content.getNumExplorations() + ")");
+
+        addPendingTab(tabs, "Applications", AppConstants.APPLICATIONS_ICON,
+                () -> new ApplicationsTabContent(theOwner, applicationsDir, topicPrefix),
+                content -> "Applications (" + content.getNumApplications() + ")");
+
+        addPendingTab(tabs, "Handouts", AppConstants.HANDOUTS_ICON,
+                () -> new HandoutsTabContent(theOwner, handoutsDir, topicPrefix),
+                content -> "Handouts (" + content.getNumHandouts() + ")");
+
+        addPendingTab(tabs, "Summary", AppConstants.LESSONS_ICON,
+                () -> new LessonsTabContent(theOwner, topicModule, 91, 99, "conclusion"),
+                content -> "Summary (" + content.getNumLessons() + ")");
+
+        // Show extra files found (this uses only the scanned tree, so it is done immediately)
+        final Node unexpected = buildUnexpectedFilesList(topicModule);
         if (unexpected != null) {
             setBottom(unexpected);
         }
 
-        // Build the "top" panel last since we want to display an error count
+        updateHeader();
+    }
+
+    /**
+     * Adds a tab whose content is constructed on a background thread.
+     *
+     * @param tabs          the list to which to add the tab
+     * @param title         the title to show while the content is being constructed
+     * @param icon          the icon filename
+     * @param factory       a supplier that constructs the content (called on a background thread)
+     * @param titleFunction a function that generates the final title (with counts) from the content
+     * @param <T>           the type of content
+     */
+    private <T extends AbstractLazyTabContent> void addPendingTab(final Collection<? super Tab> tabs,
+                                                                  final String title, final String icon,
+                                                                  final Supplier<T> factory,
+                                                                  final Function<? super T, String> titleFunction) {
+
+        final Tab tab = AppUtils.makePendingTab(title, icon);
+        final int index = tabs.size();
+        tabs.add(tab);
+        ++this.numPending;
+
+        final Consumer<T> onResult = content -> {
+            this.pendingWork.remove(tab);
+            final String fullTitle = titleFunction.apply(content);
+            final int contentWarnings = content.getNumWarnings();
+            AppUtils.completeLazyTab(tab, fullTitle, content, icon, contentWarnings);
+            tabCompleted(index, contentWarnings);
+        };
+
+        submitTabWork(tab, factory, onResult, this.lowPriority);
+    }
+
+    /**
+     * Submits the background work that constructs a tab's content, recording it so it can be promoted or cancelled.
+     *
+     * @param tab      the tab
+     * @param factory  a supplier that constructs the content
+     * @param onResult the consumer that completes the tab (on the JavaFX application thread)
+     * @param low      true to run the work at low priority
+     * @param <T>      the type of content
+     */
+    private <T extends AbstractLazyTabContent> void submitTabWork(final Tab tab, final Supplier<T> factory,
+                                                                  final Consumer<? super T> onResult,
+                                                                  final boolean low) {
+
+        final AtomicBoolean started = new AtomicBoolean(false);
+        final Supplier<T> work = () -> {
+            started.set(true);
+            return factory.get();
+        };
+
+        final CompletableFuture<T> future = low ? BackgroundWork.submitLowPriority(work, onResult)
+                : BackgroundWork.submit(work, onResult);
+
+        final Runnable resubmit = () -> submitTabWork(tab, factory, onResult, false);
+        this.pendingWork.put(tab, new PendingWork(future, started, resubmit));
+    }
+
+    /**
+     * Moves any tab work still queued at low priority to normal priority.  Called when a prefetched pane is shown.
+     * Work that has already started is left to finish where it is.
+     */
+    void promote() {
+
+        if (this.lowPriority) {
+            this.lowPriority = false;
+
+            for (final PendingWork work : new ArrayList<>(this.pendingWork.values())) {
+                if (!work.started().get() && work.future().cancel(false)) {
+                    work.resubmit().run();
+                }
+            }
+        }
+    }
+
+    /**
+     * Tests whether the contents of all tabs have been completed.
+     *
+     * @return true if no tab content is still being constructed
+     */
+    boolean isComplete() {
+
+        return this.numPending == 0;
+    }
+
+    /**
+     * Called on the JavaFX application thread when the content of a tab has been completed.
+     *
+     * @param index           the index of the tab
+     * @param contentWarnings the number of warnings in the tab's content
+     */
+    private void tabCompleted(final int index, final int contentWarnings) {
+
+        --this.numPending;
+        this.numWarnings += contentWarnings;
+
+        if (this.numPending == 0) {
+            updateHeader();
+        }
+
+        if (this.deferredSelection != null && this.deferredTabIndex == index) {
+            final Runnable selection = this.deferredSelection;
+            this.deferredSelection = null;
+            selection.run();
+        }
+    }
+
+    /**
+     * Builds the "Topic Module:" header, with a warning count if all tabs have been completed, or a "pending"
+     * annotation if not.
+     */
+    private void updateHeader() {
+
         final FlowPane row0;
-        if (this.numWarnings == 0) {
-            row0 = AppUtils.makeLocationFlow(owner, "Topic Module: ", locationString, topicModuleDir);
-        } else {
-            final Node annotation = AppUtils.makeWarningAnnotation(this.numWarnings);
+
+        if (this.numPending > 0 || this.numWarnings > 0) {
+            final Node annotation = this.numPending > 0 ? AppUtils.makePendingAnnotation()
+                    : AppUtils.makeWarningAnnotation(this.numWarnings);
             final BorderPane box = new BorderPane();
             box.setPadding(AppConstants.PADDING);
             box.setBottom(annotation);
 
-            row0 = AppUtils.makeLocationFlow(owner, "Topic Module: ", locationString, topicModuleDir, box);
+            row0 = AppUtils.makeLocationFlow(this.owner, "Topic Module: ", this.locationString, this.topicModuleDir,
+                    box);
+        } else {
+            row0 = AppUtils.makeLocationFlow(this.owner, "Topic Module: ", this.locationString, this.topicModuleDir);
         }
+
         setTop(row0);
     }
 
     /**
      * Creates a node that displays a list of unexpected files found.
      *
-     * @param topicModuleDir the topic module directory
+     * @param topicModule the topic module directory
      * @return the node (null if there were no unexpected files)
      */
-    private Node buildUnexpectedFilesList(final File topicModuleDir) {
+    private Node buildUnexpectedFilesList(final CourseDir topicModule) {
 
-        final File[] allFiles = topicModuleDir.listFiles();
+        final List<AbstractCourseEntry> allFiles = topicModule.getEntries();
         Node result = null;
 
-        if (allFiles != null) {
-            final Collection<File> unexpected = new ArrayList<>(allFiles.length);
-            for (final File file : allFiles) {
-                final String name = file.getName();
-                if (file.isDirectory()) {
-                    if (AppConstants.SKILLS_REVIEW_DIR.equals(name) || AppConstants.EXPLORATIONS_DIR.equals(name)
-                        || AppConstants.APPLICATIONS_DIR.equals(name) || AppConstants.HANDOUTS_DIR.equals(name)
-                        || AppUtils.isIntroDir(name) || AppUtils.isStandardDir(name)
-                        || AppUtils.isConclusionDir(name)) {
-                        continue;
-                    }
-                } else if (name.equals(AppConstants.METADATA_FILE) || "Outline.docx".equals(name)
-                           || "thumb.png".equals(name) || "thumb.jpg".equals(name) || "thumb.jpeg".equals(name)) {
-                    continue;
-                }
-
-                if (file.isDirectory()) {
-                    this.numWarnings += AppUtils.countFiles(file);
-                } else {
-                    ++this.numWarnings;
+        if (!allFiles.isEmpty()) {
+            final Collection<AbstractCourseEntry> unexpected = new ArrayList<>(allFiles.size());
+            for (final AbstractCourseEntry file : allFiles) {
+                if (!CourseRules.isExpected(ERuleSet.TOPIC, file)) {
+                    this.numWarnings += file.countFiles();
+                    unexpected.add(file);
                 }
-                unexpected.add(file);
             }
 
             if (!unexpected.isEmpty()) {
@@ -184,9 +311,10 @@ class TopicModulePane extends BorderPane {
                 final ObservableList<Node> unexpectedChildren = unexpectedGrid.getChildren();
 
                 int unexpectedRow = 0;
-                for (final File file : unexpected) {
+                for (final AbstractCourseEntry file : unexpected) {
                     final String name = file.getName();
-                    AppUtils.addSimpleDocumentRow(file, name, unexpectedChildren, unexpectedRow);
+                    final File target = file.getFile();
+                    AppUtils.addSimpleDocumentRow(target, name, unexpectedChildren, unexpectedRow);
                     ++unexpectedRow;
                 }
 
@@ -199,6 +327,245 @@ class TopicModulePane extends BorderPane {
         return result;
     }
 
+    /**
+     * Estimates the memory used by this pane, including all tab contents that have been materialized and the images
+     * they hold.
+     *
+     * @return the estimated size, in bytes
+     */
+    long estimateBytes() {
+
+        long total = PANE_OVERHEAD_BYTES;
+
+        final Collection<AbstractLazyTabContent> contents = new ArrayList<>(50);
+        collectContents(this, contents);
+        for (final AbstractLazyTabContent content : contents) {
+            total += content.estimateBytes();
+        }
+
+        return total;
+    }
+
+    /**
+     * Releases resources held by this pane (background work not yet finished is cancelled, media players are stopped
+     * and disposed, and images are released).  Called when the pane is evicted from the cache, on the JavaFX
+     * application thread.
+     */
+    void dispose() {
+
+        for (final PendingWork work : this.pendingWork.values()) {
+            work.future().cancel(false);
+        }
+        this.pendingWork.clear();
+
+        final Collection<AbstractLazyTabContent> contents = new ArrayList<>(50);
+        collectContents(this, contents);
+        for (final AbstractLazyTabContent content : contents) {
+            content.dispose();
+        }
+    }
+
+    /**
+     * Collects all tab contents within a node by searching for tab panes.  Contents that have not been materialized
+     * have no children, so the search does not descend into tabs that have never been shown.
+     *
+     * @param node     the node to search
+     * @param contents the collection to which to add contents
+     */
+    private static void collectContents(final Node node, final Collection<? super AbstractLazyTabContent> contents) {
+
+        if (node instanceof final TabPane tabPane) {
+            for (final Tab tab : tabPane.getTabs()) {
+                final Node content = tab.getContent();
+                if (content instanceof final AbstractLazyTabContent lazy) {
+                    contents.add(lazy);
+                }
+                if (content != null) {
+                    collectContents(content, contents);
+                }
+            }
+        } else if (node instanceof final Parent parent) {
+            for (final Node child : parent.getChildrenUnmodifiable()) {
+                collectContents(child, contents);
+            }
+        }
+    }
+
+    /**
+     * Gets the path of selected tabs, from the topic module's tab pane down through any nested tab panes.
+     *
+     * @return the list of selected tab indexes, outermost first
+     */
+    List<Integer> getSelectedTabPath() {
+
+        final List<Integer> path = new ArrayList<>(6);
+
+        Node node = getCenter();
+        while (node instanceof final TabPane tabPane) {
+            final int index = tabPane.getSelectionModel().getSelectedIndex();
+            if (index < 0) {
+                break;
+            }
+            path.add(Integer.valueOf(index));
+
+            final Node content = tabPane.getTabs().get(index).getContent();
+            node = content instanceof final BorderPane pane ? pane.getCenter() : null;
+        }
+
+        return path;
+    }
+
+    /**
+     * Selects a path of tabs, as returned by {@code getSelectedTabPath}, stopping at the first index that no longer
+     * exists.  Each selection materializes its tab's content, which creates the nested tab pane for the next index.
+     * If the selected top-level tab is still pending, the rest of the path is selected when it completes.
+     *
+     * @param path the list of tab indexes to select, outermost first
+     */
+    void selectTabPath(final Collection<Integer> path) {
+
+        Node node = getCenter();
+        for (final Integer index : path) {
+            if (!(node instanceof final TabPane tabPane)) {
+                break;
+            }
+            final int i = index.intValue();
+            final ObservableList<Tab> tabs = tabPane.getTabs();
+            if (i >= tabs.size()) {
+                break;
+            }
+            tabPane.getSelectionModel().select(i);
+
+            final Node content = tabs.get(i).getContent();
+            if (tabPane == getCenter() && !(content instanceof AbstractLazyTabContent)) {
+                // The tab's content is still being constructed - finish selecting the path when it is complete
+                final List<Integer> copy = new ArrayList<>(path);
+                deferSelection(i, () -> selectTabPath(copy));
+                break;
+            }
+            node = content instanceof final BorderPane pane ? pane.getCenter() : null;
+        }
+    }
+
+    /**
+     * Selects a path of tabs by title, stopping at the first title that is not found.  A tab matches a title if its
+     * text is the title, or the title followed by a count in parentheses (like "Standards (3)").  If the selected
+     * top-level tab is still pending, the rest of the path is selected when it completes.
+     *
+     * @param titles the tab titles to select, outermost first
+     */
+    void selectTabTitles(final List<String> titles) {
+
+        Node node = getCenter();
+        for (final String title : titles) {
+            if (!(node instanceof final TabPane tabPane)) {
+                break;
+            }
+            final ObservableList<Tab> tabs = tabPane.getTabs();
+            final int numTabs = tabs.size();
+            final String countedTitle = title + " (";
+            int found = -1;
+            for (int i = 0; i < numTabs; ++i) {
+                final String text = tabs.get(i).getText();
+                if (title.equals(text) || (text != null && text.startsWith(countedTitle))) {
+                    found = i;
+                    break;
+                }
+            }
+            if (found < 0) {
+                break;
+            }
+            tabPane.getSelectionModel().select(found);
+
+            final Node content = tabs.get(found).getContent();
+            if (tabPane == getCenter() && !(content instanceof AbstractLazyTabContent)) {
+                // The tab's content is still being constructed - finish selecting when it is complete
+                final List<String> copy = new ArrayList<>(titles);
+                deferSelection(found, () -> selectTabTitles(copy));
+                break;
+            }
+            node = content instanceof final BorderPane pane ? pane.getCenter() : null;
+        }
+    }
+
+    /**
+     * Records a selection to finish when a pending top-level tab is completed, replacing any earlier one.
+     *
+     * @param index     the index of the pending top-level tab
+     * @param selection the selection to finish
+     */
+    private void deferSelection(final int index, final Runnable selection) {
+
+        this.deferredTabIndex = index;
+        this.deferredSelection = selection;
+    }
+
+    /**
+     * Generates the titles of the tabs that lead from a topic module pane to the content that presents a directory
+     * within the topic module, for use with {@code selectTabTitles}.  Each directory between the topic module and the
+     * target contributes the title of the tab that holds its kind of content (like "Standards" or "Examples") and, for
+     * numbered or individual directories, the directory name.  Directories that have an "Information" tab (the topic
+     * module itself, standards, objectives, explorations, and applications) end with that tab.
+     *
+     * @param tree   the course tree
+     * @param target the target directory
+     * @return the tab titles, outermost first (empty if the target is not within a topic module)
+     */
+    static List<String> tabTitlesFor(final CourseTree tree, final File target) {
+
+        final List<CourseDir> chain = new ArrayList<>(10);
+        CourseDir dir = tree.find(target);
+        while (dir != null && dir.getKind() != EDirKind.TOPIC) {
+            chain.add(0, dir);
+            final File parent = dir.getFile().getParentFile();
+            dir = parent == null ? null : tree.find(parent);
+        }
+
+        final List<String> titles = new ArrayList<>(chain.size() * 2 + 1);
+
+        if (dir != null) {
+            for (final CourseDir entry : chain) {
+                final String name = entry.getName();
+                switch (entry.getKind()) {
+                    case SKILLS_REVIEW -> titles.add("Skills Review");
+                    case STANDARD -> {
+                        titles.add("Standards");
+                        titles.add(name);
+                    }
+                    case OBJECTIVE -> {
+                        titles.add("Objectives");
+                        titles.add(name);
+                    }
+                    case LESSON -> {
+                        if (AppUtils.isIntroDir(name)) {
+                            titles.add("Introduction");
+                        } else if (AppUtils.isConclusionDir(name)) {
+                            titles.add("Summary");
+                        } else {
+                            titles.add("Content Lessons");
+                        }
+                        titles.add(name);
+                    }
+                    case EXAMPLES -> titles.add("Examples");
+                    case EXPLORATIONS -> titles.add("Explorations");
+                    case APPLICATIONS -> titles.add("Applications");
+                    case HANDOUTS -> titles.add("Handouts");
+                    case ITEMS -> titles.add("Items");
+                    case ASSESSMENTS -> titles.add("Assessments");
+                    default -> titles.add(name);
+                }
+            }
+
+            final EDirKind targetKind = chain.isEmpty() ? EDirKind.TOPIC : chain.get(chain.size() - 1).getKind();
+            if (targetKind == EDirKind.TOPIC || targetKind == EDirKind.STANDARD || targetKind == EDirKind.OBJECTIVE
+                || targetKind == EDirKind.EXPLORATION || targetKind == EDirKind.APPLICATION) {
+                titles.add("Information");
+            }
+        }
+
+        return titles;
+    }
+
     /**
      * Called on the JavaFX
      */
@@ -206,4 +573,14 @@ class TopicModulePane extends BorderPane {
 
         // TODO:
     }
+
+    /**
+     * The background work constructing one tab's content.
+     *
+     * @param future   the future for the work
+     * @param started  set when the work starts running
+     * @param resubmit an action that submits the same work again at normal priority
+     */
+    private record PendingWork(CompletableFuture<?> future, AtomicBoolean started, Runnable resubmit) {
+    }
 }
@@ -0,0 +1,425 @@
+package dev.mathops.fx.coursebuilder;
+
+import dev.mathops.commons.log.Log;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+
+/**
+ * A headless tool that compares two copies of a course media directory (for example, the copy made for a new term and
+ * the one it was cloned from) and writes a JSON report of what diverged, by subject, topic module, standard, and
+ * example.
+ *
+ * <p>
+ * Each tree is taken from its scan snapshot when one exists (revalidated against the file system), or scanned
+ * otherwise, and the two trees are loaded in parallel.  The trees are then aligned by relative path without touching
+ * the file system.  A file whose size and modification date match in both copies is taken as unchanged, and one whose
+ * size differs as changed, so neither is read.  Only files with the same size but different modification dates are
+ * hashed, on the {@code ScanExecutor}, holding a permit from each volume's semaphore while each file is read.  Digests
+ * are kept in each copy's {@code AssetHashCache}, so a rerun hashes only files that changed since the last run.
+ *
+ * <p>
+ * Usage (through {@code Launcher}):
+ * <pre>
+ *   --compare &lt;old course media directory&gt; &lt;new course media directory&gt; [--report &lt;report file&gt;]
+ * </pre>
+ * The report is written to standard output if no report file is given.  The exit code is 0 if the copies match, 1 if
+ * they differ, and 2 if the arguments were invalid or the report could not be written.
+ */
+final class TreeComparer {
+
+    /** The command-line option that selects comparison mode. */
+    static final String COMPARE_OPTION = "--compare";
+
+    /** The command-line option that sets the report file. */
+    private static final String REPORT_OPTION = "--report";
+
+    /** The exit code when the copies match. */
+    private static final int EXIT_SAME = 0;
+
+    /** The exit code when the copies differ. */
+    private static final int EXIT_DIFFERENT = 1;
+
+    /** The exit code when the arguments were invalid or the report could not be written. */
+    private static final int EXIT_ERROR = 2;
+
+    /** The kinds of directory to which differences are attributed. */
+    private static final Set<EDirKind> UNIT_KINDS = EnumSet.of(EDirKind.SUBJECT, EDirKind.TOPIC, EDirKind.STANDARD,
+            EDirKind.EXAMPLE);
+
+    /** The old tree. */
+    private final CourseTree oldTree;
+
+    /** The new tree. */
+    private final CourseTree newTree;
+
+    /** The number of files present in both trees. */
+    private int numCommon = 0;
+
+    /** The number of files present in both trees with the same size but different modification dates. */
+    private int numCandidates = 0;
+
+    /** The number of files hashed (not found in a cache). */
+    private int numHashed = 0;
+
+    /**
+     * Constructs a new {@code TreeComparer}.
+     *
+     * @param theOldTree the old tree
+     * @param theNewTree the new tree
+     */
+    TreeComparer(final CourseTree theOldTree, final CourseTree theNewTree) {
+
+        super();
+
+        this.oldTree = theOldTree;
+        this.newTree = theNewTree;
+    }
+
+    /**
+     * Runs the comparison from the command line.
+     *
+     * @param args the command-line arguments (the first is {@code COMPARE_OPTION})
+     * @return the process exit code
+     */
+    static int run(final String... args) {
+
+        File oldDir = null;
+        File newDir = null;
+        File reportFile = null;
+        boolean valid = true;
+
+        for (int i = 1; i < args.length && valid; ++i) {
+            final String arg = args[i];
+            if (REPORT_OPTION.equals(arg) && i + 1 < args.length) {
+                ++i;
+                reportFile = new File(args[i]);
+            } else if (oldDir == null && !arg.startsWith("--")) {
+                oldDir = new File(arg);
+            } else if (newDir == null && !arg.startsWith("--")) {
+                newDir = new File(arg);
+            } else {
+                valid = false;
+            }
+        }
+
+        int exitCode = EXIT_ERROR;
+
+        if (valid && oldDir != null && oldDir.isDirectory() && newDir != null && newDir.isDirectory()) {
+            final long start = System.currentTimeMillis();
+
+            final File oldCourseDir = oldDir;
+            final Future<CourseTree> oldFuture = ScanExecutor.submit(() -> CourseValidator.loadTree(oldCourseDir));
+            final CourseTree newTree = CourseValidator.loadTree(newDir);
+            final CourseTree oldTree = ScanExecutor.join(oldFuture);
+
+            final TreeComparer comparer = new TreeComparer(oldTree, newTree);
+            final List<TreeDifference> differences = comparer.compare();
+            final long elapsed = System.currentTimeMillis() - start;
+
+            final String report = comparer.makeReport(differences, elapsed);
+            if (CourseValidator.writeReport(report, reportFile)) {
+                exitCode = differences.isEmpty() ? EXIT_SAME : EXIT_DIFFERENT;
+            }
+        } else {
+            Log.warning("Usage: ", COMPARE_OPTION, " <old course media directory> <new course media directory> [",
+                    REPORT_OPTION, " <file>]");
+        }
+
+        return exitCode;
+    }
+
+    /**
+     * Compares the trees.  The digest caches for both copies are loaded first and saved afterward.
+     *
+     * @return the units that differ, in tree order (each unit before the units it contains)
+     */
+    List<TreeDifference> compare() {
+
+        final long start = System.currentTimeMillis();
+
+        final File oldRoot = this.oldTree.getRoot().getFile();
+        final File newRoot = this.newTree.getRoot().getFile();
+
+        final Side oldSide = new Side(AssetHashCache.load(oldRoot), ScanExecutor.permitsFor(oldRoot));
+        final Side newSide = new Side(AssetHashCache.load(newRoot), ScanExecutor.permitsFor(newRoot));
+
+        final List<Unit> units = new ArrayList<>(100);
+        final List<Candidate> candidates = new ArrayList<>(100);
+        compareDirs(this.oldTree.getRoot(), this.newTree.getRoot(), "", null, oldSide, newSide, units, candidates);
+        this.numCandidates = candidates.size();
+
+        for (final Candidate candidate : candidates) {
+            final String oldDigest = ScanExecutor.join(candidate.oldDigest());
+            final String newDigest = ScanExecutor.join(candidate.newDigest());
+
+            if (oldDigest == null || !oldDigest.equals(newDigest)) {
+                candidate.unit().files.add(new FileDifference(candidate.path(), EChangeKind.MODIFIED));
+            }
+        }
+
+        this.numHashed = oldSide.cache().getNumHashed() + newSide.cache().getNumHashed();
+
+        oldSide.cache().retain(this.oldTree);
+        oldSide.cache().save();
+        newSide.cache().retain(this.newTree);
+        newSide.cache().save();
+
+        final List<TreeDifference> differences = new ArrayList<>(units.size());
+        for (final Unit unit : units) {
+            if (unit.change != EChangeKind.MODIFIED || !unit.files.isEmpty()) {
+                unit.files.sort(Comparator.comparing(FileDifference::path));
+                differences.add(new TreeDifference(unit.path, unit.kind, unit.change, List.copyOf(unit.files)));
+            }
+        }
+
+        final long end = System.currentTimeMillis();
+        Log.info("Found ", differences.size(), " differing units in ", end - start, " ms (", this.numCommon,
+                " files in both copies, ", this.numCandidates, " with different dates, ", this.numHashed,
+                " hashed)");
+
+        return differences;
+    }
+
+    /**
+     * Compares a directory in the old tree with the directory at the same path in the new tree, and all directories
+     * below them.
+     *
+     * @param oldDir     the old directory (null if it exists only in the new tree)
+     * @param newDir     the new directory (null if it exists only in the old tree)
+     * @param path       the relative path of the directory
+     * @param parent     the unit that contains the directory (null for the course media directory)
+     * @param oldSide    the hashing context for the old tree
+     * @param newSide    the hashing context for the new tree
+     * @param units      the list to which to add units
+     * @param candidates the list to which to add files being hashed
+     */
+    private void compareDirs(final CourseDir oldDir, final CourseDir newDir, final String path, final Unit parent,
+                             final Side oldSide, final Side newSide, final Collection<? super Unit> units,
+                             final Collection<? super Candidate> candidates) {
+
+        final EDirKind kind = newDir == null ? oldDir.getKind() : newDir.getKind();
+
+        Unit unit = parent;
+        if (parent == null || UNIT_KINDS.contains(kind)) {
+            final EChangeKind change = oldDir == null ? EChangeKind.ADDED
+                    : (newDir == null ? EChangeKind.DELETED : EChangeKind.MODIFIED);
+            unit = new Unit(path, kind, change);
+            units.add(unit);
+        }
+
+        compareFiles(oldDir, newDir, path, unit, oldSide, newSide, candidates);
+
+        final Map<String, CourseDir> oldSubdirs = new HashMap<>(10);
+        if (oldDir != null) {
+            for (final CourseDir sub : oldDir.getSubdirs()) {
+                if (sub.exists()) {
+                    oldSubdirs.put(sub.getName(), sub);
+                }
+            }
+        }
+
+        if (newDir != null) {
+            for (final CourseDir sub : newDir.getSubdirs()) {
+                if (sub.exists()) {
+                    final String name = sub.getName();
+                    final CourseDir oldSub = oldSubdirs.remove(name);
+                    compareDirs(oldSub, sub, childPath(path, name), unit, oldSide, newSide, units, candidates);
+                }
+            }
+        }
+
+        for (final CourseDir oldSub : oldSubdirs.values()) {
+            compareDirs(oldSub, null, childPath(path, oldSub.getName()), unit, oldSide, newSide, units, candidates);
+        }
+    }
+
+    /**
+     * Compares the files in a directory in the old tree with those in the directory at the same path in the new
+     * tree.  Files whose sizes match but whose modification dates differ are submitted for hashing.
+     *
+     * @param oldDir     the old directory (null if it exists only in the new tree)
+     * @param newDir     the new directory (null if it exists only in the old tree)
+     * @param path       the relative path of the directory
+     * @param unit       the unit to which differences are attributed
+     * @param oldSide    the hashing context for the old tree
+     * @param newSide    the hashing context for the new tree
+     * @param candidates the list to which to add files being hashed
+     */
+    private void compareFiles(final CourseDir oldDir, final CourseDir newDir, final String path, final Unit unit,
+                              final Side oldSide, final Side newSide, final Collection<? super Candidate> candidates) {
+
+        final Map<String, CourseFile> oldFiles = new HashMap<>(20);
+        if (oldDir != null) {
+            for (final CourseFile file : oldDir.getFiles()) {
+                oldFiles.put(file.getName(), file);
+            }
+        }
+
+        if (newDir != null) {
+            for (final CourseFile newFile : newDir.getFiles()) {
+                final String name = newFile.getName();
+                final String filePath = childPath(path, name);
+                final CourseFile oldFile = oldFiles.remove(name);
+
+                if (oldFile == null) {
+                    unit.files.add(new FileDifference(filePath, EChangeKind.ADDED));
+                } else {
+                    ++this.numCommon;
+                    if (oldFile.getSize() != newFile.getSize()) {
+                        unit.files.add(new FileDifference(filePath, EChangeKind.MODIFIED));
+                    } else if (oldFile.getLastModified() != newFile.getLastModified()) {
+                        // A file that cannot be hashed (or was deleted after the scan) gets a null digest, and is
+                        // reported as modified
+                        final Future<String> oldDigest = ScanExecutor.submit(
+                                () -> oldSide.cache().digest(oldFile, oldSide.permits()));
+                        final Future<String> newDigest = ScanExecutor.submit(
+                                () -> newSide.cache().digest(newFile, newSide.permits()));
+                        candidates.add(new Candidate(unit, filePath, oldDigest, newDigest));
+                    }
+                }
+            }
+        }
+
+        for (final CourseFile oldFile : oldFiles.values()) {
+            unit.files.add(new FileDifference(childPath(path, oldFile.getName()), EChangeKind.DELETED));
+        }
+    }
+
+    /**
+     * Builds the relative path of a child of a directory.
+     *
+     * @param path the relative path of the directory (empty for the course media directory)
+     * @param name the child name
+     * @return the relative path of the child
+     */
+    private static String childPath(final String path, final String name) {
+
+        return path.isEmpty() ? name : path + "/" + name;
+    }
+
+    /**
+     * Generates the JSON report.
+     *
+     * @param differences the units that differ
+     * @param elapsedMs   the elapsed time, in milliseconds
+     * @return the report
+     */
+    String makeReport(final Collection<TreeDifference> differences, final long elapsedMs) {
+
+        int numFiles = 0;
+        for (final TreeDifference difference : differences) {
+            numFiles += difference.files().size();
+        }
+
+        final StringBuilder builder = new StringBuilder(300 + differences.size() * 100 + numFiles * 80);
+
+        builder.append("{\n  \"oldDir\": ");
+        AppUtils.appendJsonString(builder, this.oldTree.getRoot().getFile().getAbsolutePath());
+        builder.append(",\n  \"newDir\": ");
+        AppUtils.appendJsonString(builder, this.newTree.getRoot().getFile().getAbsolutePath());
+        builder.append(",\n  \"elapsedMs\": ").append(elapsedMs);
+        builder.append(",\n  \"numCommonFiles\": ").append(this.numCommon);
+        builder.append(",\n  \"numCandidates\": ").append(this.numCandidates);
+        builder.append(",\n  \"numHashed\": ").append(this.numHashed);
+        builder.append(",\n  \"numUnits\": ").append(differences.size());
+        builder.append(",\n  \"numFiles\": ").append(numFiles);
+        builder.append(",\n  \"units\": [");
+
+        boolean first = true;
+        for (final TreeDifference difference : differences) {
+            builder.append(first ? "\n    {\"kind\": " : ",\n    {\"kind\": ");
+            AppUtils.appendJsonString(builder, difference.kind().name().toLowerCase(Locale.ROOT));
+            builder.append(", \"path\": ");
+            AppUtils.appendJsonString(builder, difference.path());
+            builder.append(", \"change\": ");
+            AppUtils.appendJsonString(builder, difference.change().name().toLowerCase(Locale.ROOT));
+            builder.append(", \"added\": ").append(difference.count(EChangeKind.ADDED));
+            builder.append(", \"modified\": ").append(difference.count(EChangeKind.MODIFIED));
+            builder.append(", \"deleted\": ").append(difference.count(EChangeKind.DELETED));
+            builder.append(", \"files\": [");
+
+            boolean firstFile = true;
+            for (final FileDifference file : difference.files()) {
+                builder.append(firstFile ? "\n      {\"change\": " : ",\n      {\"change\": ");
+                AppUtils.appendJsonString(builder, file.change().name().toLowerCase(Locale.ROOT));
+                builder.append(", \"path\": ");
+                AppUtils.appendJsonString(builder, file.path());
+                builder.append('}');
+                firstFile = false;
+            }
+
+            builder.append(firstFile ? "]}" : "\n    ]}");
+            first = false;
+        }
+
+        builder.append(first ? "]\n}\n" : "\n  ]\n}\n");
+
+        return builder.toString();
+    }
+
+    /**
+     * A unit being built during a comparison.
+     */
+    private static final class Unit {
+
+        /** The relative path of the unit directory. */
+        final String path;
+
+        /** The kind of unit directory. */
+        final EDirKind kind;
+
+        /** The change to the unit. */
+        final EChangeKind change;
+
+        /** The files attributed to the unit that differ. */
+        final List<FileDifference> files;
+
+        /**
+         * Constructs a new {@code Unit}.
+         *
+         * @param thePath   the relative path of the unit directory
+         * @param theKind   the kind of unit directory
+         * @param theChange the change to the unit
+         */
+        Unit(final String thePath, final EDirKind theKind, final EChangeKind theChange) {
+
+            super();
+
+            this.path = thePath;
+            this.kind = theKind;
+            this.change = theChange;
+            this.files = new ArrayList<>(10);
+        }
+    }
+
+    /**
+     * The digest cache and semaphore for one of the two trees.
+     *
+     * @param cache   the digest cache
+     * @param permits the semaphore that limits concurrent file system calls to the tree's volume
+     */
+    private record Side(AssetHashCache cache, Semaphore permits) {
+    }
+
+    /**
+     * A file present in both trees with the same size but different modification dates, being hashed.
+     *
+     * @param unit      the unit to which the file is attributed
+     * @param path      the relative path of the file
+     * @param oldDigest the future digest of the old file
+     * @param newDigest the future digest of the new file
+     */
+    private record Candidate(Unit unit, String path, Future<String> oldDigest, Future<String> newDigest) {
+    }
+}
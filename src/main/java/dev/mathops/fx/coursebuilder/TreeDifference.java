@@ -0,0 +1,37 @@
+package dev.mathops.fx.coursebuilder;
+
+import java.util.List;
+
+/**
+ * A unit of a course (a subject, topic module, standard, or example) that differs between two copies of a course
+ * media directory, with the files attributed to it.  A file is attributed to the nearest unit that contains it, so
+ * the files of a standard are not repeated under its topic module.
+ *
+ * @param path   the path of the unit directory relative to the course media directory, with '/' separators (empty
+ *               for the course media directory itself)
+ * @param kind   the kind of unit directory
+ * @param change ADDED if the unit exists only in the new copy, DELETED if it exists only in the old copy, MODIFIED if
+ *               it exists in both but some of its files differ
+ * @param files  the files that differ, sorted by path
+ */
+record TreeDifference(String path, EDirKind kind, EChangeKind change, List<FileDifference> files) {
+
+    /**
+     * Counts the files with a particular kind of change.
+     *
+     * @param fileChange the kind of change
+     * @return the number of files
+     */
+    int count(final EChangeKind fileChange) {
+
+        int result = 0;
+
+        for (final FileDifference file : this.files) {
+            if (file.change() == fileChange) {
+                ++result;
+            }
+        }
+
+        return result;
+    }
+}
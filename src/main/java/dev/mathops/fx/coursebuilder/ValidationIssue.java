@@ -0,0 +1,14 @@
+package dev.mathops.fx.coursebuilder;
+
+import java.io.File;
+
+/**
+ * An issue found by the {@code CourseValidator}.
+ *
+ * @param kind     the kind of issue
+ * @param file     the file or directory the issue concerns
+ * @param warnings the number of warnings the issue contributes (for an unexpected directory, this can be the number
+ *                 of files within it, matching the counts shown in the user interface)
+ */
+record ValidationIssue(EIssueKind kind, File file, int warnings) {
+}
@@ -0,0 +1,319 @@
+package dev.mathops.fx.coursebuilder;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for the {@code ChangeJournal} class: recording changes between trees, replaying the journal file, and the
+ * handling of gaps and incomplete deploys.
+ */
+final class ChangeJournalTest {
+
+    /** A deploy target name. */
+    private static final String TARGET = "web:/deploy";
+
+    /** Another deploy target name. */
+    private static final String OTHER_TARGET = "media:/deploy";
+
+    /** A temporary directory for the course and the journal file. */
+    @TempDir
+    File tempDir;
+
+    /** The course media directory. */
+    private File courseDir;
+
+    /** The journal file. */
+    private File journalFile;
+
+    /**
+     * Creates a small course media directory.
+     *
+     * @throws IOException if a file cannot be written
+     */
+    @BeforeEach
+    void setUp() throws IOException {
+
+        this.courseDir = new File(this.tempDir, "course");
+        this.journalFile = new File(this.tempDir, "journal.bin");
+
+        writeFile("01_algebra/metadata.json", "{}");
+        writeFile("01_algebra/01_linear/metadata.json", "{}");
+        writeFile("01_algebra/01_linear/thumb.png", "png");
+        writeFile("02_trig/metadata.json", "{}");
+    }
+
+    /**
+     * Writes a file in the course media directory, with a modification date that differs from any earlier version.
+     *
+     * @param path    the path relative to the course media directory
+     * @param content the content
+     * @throws IOException if the file cannot be written
+     */
+    private void writeFile(final String path, final String content) throws IOException {
+
+        final File file = new File(this.courseDir, path);
+        final File parent = file.getParentFile();
+        assertTrue(parent.isDirectory() || parent.mkdirs());
+
+        final long previous = file.lastModified();
+        Files.writeString(file.toPath(), content, StandardCharsets.UTF_8);
+        assertTrue(file.setLastModified(Math.max(previous + 10_000L, System.currentTimeMillis())));
+        touchParent(file);
+    }
+
+    /**
+     * Advances the modification date of a file's directory, so a revalidation would see the directory as changed.
+     *
+     * @param file the file
+     */
+    private static void touchParent(final File file) {
+
+        final File parent = file.getParentFile();
+        assertTrue(parent.setLastModified(parent.lastModified() + 10_000L));
+    }
+
+    /**
+     * Gets the kinds of a list of changes, keyed by path.
+     *
+     * @param changes the changes
+     * @return the map from path to change kind
+     */
+    private static Map<String, EChangeKind> kinds(final List<JournalEntry> changes) {
+
+        final Map<String, EChangeKind> result = new HashMap<>(changes.size() * 2);
+        for (final JournalEntry entry : changes) {
+            result.put(entry.path(), entry.kind());
+        }
+
+        return result;
+    }
+
+    /**
+     * Completes a deploy to a target.
+     *
+     * @param journal the journal
+     * @param target  the target
+     */
+    private static void deploy(final ChangeJournal journal, final String target) {
+
+        final long start = journal.beginDeploy();
+        journal.endDeploy(target, start, true);
+    }
+
+    /** Tests that changes are unknown for a target that has never been deployed to. */
+    @Test
+    void testNoDeploy() {
+
+        final ChangeJournal journal = new ChangeJournal(this.courseDir, this.journalFile);
+
+        assertNull(journal.getChangesSince(TARGET));
+        assertTrue(journal.getDeploys().isEmpty());
+    }
+
+    /**
+     * Tests that added, modified, and deleted files are recorded after a deploy, with relative paths.
+     *
+     * @throws IOException if a file cannot be written
+     */
+    @Test
+    void testRecordChanges() throws IOException {
+
+        final ChangeJournal journal = new ChangeJournal(this.courseDir, this.journalFile);
+        final CourseTree base = CourseScanner.scan(this.courseDir);
+
+        deploy(journal, TARGET);
+        final List<JournalEntry> none = journal.getChangesSince(TARGET);
+        assertNotNull(none);
+        assertTrue(none.isEmpty());
+
+        writeFile("01_algebra/01_linear/thumb.png", "a larger png");
+        writeFile("01_algebra/01_linear/11_standard_1/metadata.json", "{}");
+        final File deleted = new File(this.courseDir, "02_trig/metadata.json");
+        assertTrue(deleted.delete());
+        touchParent(deleted);
+
+        final CourseTree updated = CourseScanner.scan(this.courseDir);
+        journal.record(base, updated, true);
+
+        final Map<String, EChangeKind> kinds = kinds(journal.getChangesSince(TARGET));
+        assertEquals(3, kinds.size());
+        assertEquals(EChangeKind.MODIFIED, kinds.get("01_algebra/01_linear/thumb.png"));
+        assertEquals(EChangeKind.ADDED, kinds.get("01_algebra/01_linear/11_standard_1/metadata.json"));
+        assertEquals(EChangeKind.DELETED, kinds.get("02_trig/metadata.json"));
+    }
+
+    /**
+     * Tests that identical trees record no changes.
+     */
+    @Test
+    void testRecordSameTree() {
+
+        final ChangeJournal journal = new ChangeJournal(this.courseDir, this.journalFile);
+        final CourseTree tree = CourseScanner.scan(this.courseDir);
+
+        deploy(journal, TARGET);
+        journal.record(tree, tree, true);
+
+        assertTrue(journal.getChangesSince(TARGET).isEmpty());
+    }
+
+    /**
+     * Tests that changes recorded before a deploy are not reported to that deploy's target, but are still reported to
+     * a target deployed to earlier.
+     *
+     * @throws IOException if a file cannot be written
+     */
+    @Test
+    void testChangesSinceEachDeploy() throws IOException {
+
+        final ChangeJournal journal = new ChangeJournal(this.courseDir, this.journalFile);
+        final CourseTree base = CourseScanner.scan(this.courseDir);
+
+        deploy(journal, OTHER_TARGET);
+        writeFile("02_trig/thumb.png", "png");
+        final CourseTree updated = CourseScanner.scan(this.courseDir);
+        journal.record(base, updated, true);
+        deploy(journal, TARGET);
+
+        assertTrue(journal.getChangesSince(TARGET).isEmpty());
+        assertEquals(List.of("02_trig/thumb.png"),
+                journal.getChangesSince(OTHER_TARGET).stream().map(JournalEntry::path).toList());
+    }
+
+    /**
+     * Tests that a deploy that does not complete does not advance the target's deploy mark.
+     *
+     * @throws IOException if a file cannot be written
+     */
+    @Test
+    void testIncompleteDeploy() throws IOException {
+
+        final ChangeJournal journal = new ChangeJournal(this.courseDir, this.journalFile);
+        final CourseTree base = CourseScanner.scan(this.courseDir);
+
+        deploy(journal, TARGET);
+        writeFile("02_trig/thumb.png", "png");
+        journal.record(base, CourseScanner.scan(this.courseDir), true);
+
+        final long start = journal.beginDeploy();
+        journal.endDeploy(TARGET, start, false);
+
+        assertEquals(1, journal.getChangesSince(TARGET).size());
+    }
+
+    /**
+     * Tests that a change made while a deploy runs is reported to the next deploy to the same target.
+     *
+     * @throws IOException if a file cannot be written
+     */
+    @Test
+    void testChangeDuringDeploy() throws IOException {
+
+        final ChangeJournal journal = new ChangeJournal(this.courseDir, this.journalFile);
+        final CourseTree base = CourseScanner.scan(this.courseDir);
+
+        final long start = journal.beginDeploy();
+        writeFile("02_trig/thumb.png", "png");
+        journal.record(base, CourseScanner.scan(this.courseDir), true);
+        journal.endDeploy(TARGET, start, true);
+
+        assertEquals(List.of("02_trig/thumb.png"),
+                journal.getChangesSince(TARGET).stream().map(JournalEntry::path).toList());
+    }
+
+    /**
+     * Tests that a new journal replays the deploys and changes written by an earlier one.
+     *
+     * @throws IOException if a file cannot be written
+     */
+    @Test
+    void testReplay() throws IOException {
+
+        final ChangeJournal journal = new ChangeJournal(this.courseDir, this.journalFile);
+        final CourseTree base = CourseScanner.scan(this.courseDir);
+
+        deploy(journal, TARGET);
+        writeFile("01_algebra/01_linear/thumb.png", "a larger png");
+        writeFile("02_trig/thumb.png", "png");
+        journal.record(base, CourseScanner.scan(this.courseDir), true);
+
+        final ChangeJournal replayed = new ChangeJournal(this.courseDir, this.journalFile);
+
+        assertEquals(journal.getChangesSince(TARGET), replayed.getChangesSince(TARGET));
+        assertEquals(journal.getDeploys(), replayed.getDeploys());
+        assertEquals(2, replayed.getChangesSince(TARGET).size());
+    }
+
+    /**
+     * Tests that a journal file written for a different course media directory is discarded.
+     */
+    @Test
+    void testReplayOtherDirectory() {
+
+        final ChangeJournal journal = new ChangeJournal(this.courseDir, this.journalFile);
+        deploy(journal, TARGET);
+
+        final File otherDir = new File(this.tempDir, "other");
+        final ChangeJournal other = new ChangeJournal(otherDir, this.journalFile);
+
+        assertNull(other.getChangesSince(TARGET));
+    }
+
+    /**
+     * Tests that a revalidation records a gap even when it returns the same tree (it may have missed files rewritten
+     * in place), after which changes since earlier deploys are unknown, in this journal and after a replay.
+     */
+    @Test
+    void testGapAfterRevalidation() {
+
+        final ChangeJournal journal = new ChangeJournal(this.courseDir, this.journalFile);
+        final CourseTree tree = CourseScanner.scan(this.courseDir);
+
+        deploy(journal, TARGET);
+        journal.record(tree, tree, false);
+
+        assertNull(journal.getChangesSince(TARGET));
+        assertNull(new ChangeJournal(this.courseDir, this.journalFile).getChangesSince(TARGET));
+    }
+
+    /**
+     * Tests that a deploy after a gap makes changes known again for its target, but not for a target last deployed to
+     * before the gap.
+     *
+     * @throws IOException if a file cannot be written
+     */
+    @Test
+    void testDeployAfterGap() throws IOException {
+
+        final ChangeJournal journal = new ChangeJournal(this.courseDir, this.journalFile);
+        final CourseTree base = CourseScanner.scan(this.courseDir);
+
+        deploy(journal, OTHER_TARGET);
+        journal.record(base, base, false);
+        deploy(journal, TARGET);
+
+        writeFile("02_trig/thumb.png", "png");
+        journal.record(base, CourseScanner.scan(this.courseDir), true);
+
+        assertEquals(1, journal.getChangesSince(TARGET).size());
+        assertNull(journal.getChangesSince(OTHER_TARGET));
+
+        final ChangeJournal replayed = new ChangeJournal(this.courseDir, this.journalFile);
+        assertEquals(1, replayed.getChangesSince(TARGET).size());
+        assertNull(replayed.getChangesSince(OTHER_TARGET));
+    }
+}
@@ -0,0 +1,95 @@
+package dev.mathops.fx.coursebuilder;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for the {@code CourseModelExport} class.  Trees are built in memory, so names that cannot be created on every
+ * file system can be used, and no metadata files are read.
+ */
+final class CourseModelExportTest {
+
+    /** The scan time of the test tree. */
+    private static final long SCAN_TIME = 1_700_000_000_000L;
+
+    /** A temporary directory for the exported file. */
+    @TempDir
+    File tempDir;
+
+    /**
+     * Builds a course tree with one subject that has a topic (containing deployed files, a file that is not deployed,
+     * and a directory of kind {@code OTHER}), and one subject with nothing in it.  The first subject's name contains a
+     * quote and a control character, which must be escaped.
+     *
+     * @return the tree
+     */
+    private static CourseTree makeTree() {
+
+        final File root = new File("course");
+        final File subject1 = new File(root, "01_\"algebra\"\u0001");
+        final File topic = new File(subject1, "01_linear");
+        final File scratch = new File(topic, "scratch");
+        final File subject2 = new File(root, "02_empty");
+
+        final CourseDir scratchDir = new CourseDir(scratch, EDirKind.OTHER, 0L, List.of(),
+                List.of(new CourseFile(new File(scratch, "final.mp4"), 99L, 0L)));
+        final CourseDir topicDir = new CourseDir(topic, EDirKind.TOPIC, 0L, List.of(scratchDir),
+                List.of(new CourseFile(new File(topic, "final.mp4"), 1234L, 0L),
+                        new CourseFile(new File(topic, "notes.pdf"), 55L, 0L),
+                        new CourseFile(new File(topic, "Outline.docx"), 77L, 0L)));
+        final CourseDir subject1Dir = new CourseDir(subject1, EDirKind.SUBJECT, 0L, List.of(topicDir),
+                List.of(new CourseFile(new File(subject1, "thumb.png"), 10L, 0L)));
+        final CourseDir subject2Dir = new CourseDir(subject2, EDirKind.SUBJECT, 0L, List.of(), List.of());
+        final CourseDir rootDir = new CourseDir(root, EDirKind.COURSE, 0L, List.of(subject1Dir, subject2Dir),
+                List.of(new CourseFile(new File(root, "readme.txt"), 5L, 0L)));
+
+        return new CourseTree(rootDir, SCAN_TIME);
+    }
+
+    /**
+     * Tests the exported structure: deployed files are listed with their sizes, other files and {@code OTHER}
+     * directories are omitted, empty file and child lists are omitted, and names are escaped.
+     */
+    @Test
+    void testBuild() {
+
+        final String expected = "{\"format\":\"coursebuilder.courseModel\",\"version\":1,\"scanTime\":" + SCAN_TIME
+                                + ",\"root\":{\"n\":\"course\",\"k\":\"course\",\"c\":["
+                                + "{\"n\":\"01_\\\"algebra\\\"\\u0001\",\"k\":\"subject\","
+                                + "\"f\":[[\"thumb.png\",10]],\"c\":["
+                                + "{\"n\":\"01_linear\",\"k\":\"topic\","
+                                + "\"f\":[[\"final.mp4\",1234],[\"notes.pdf\",55]]}"
+                                + "]},"
+                                + "{\"n\":\"02_empty\",\"k\":\"subject\"}"
+                                + "]}}\n";
+
+        assertEquals(expected, CourseModelExport.build(makeTree()));
+    }
+
+    /**
+     * Tests that the model is written to the target directory, with no temporary file left behind.
+     *
+     * @throws IOException if the written file cannot be read
+     */
+    @Test
+    void testWrite() throws IOException {
+
+        final CourseTree tree = makeTree();
+
+        assertTrue(CourseModelExport.write(tree, this.tempDir));
+
+        final File written = new File(this.tempDir, CourseModelExport.FILENAME);
+        assertEquals(CourseModelExport.build(tree), Files.readString(written.toPath(), StandardCharsets.UTF_8));
+        assertArrayEquals(new String[]{CourseModelExport.FILENAME}, this.tempDir.list());
+    }
+}
@@ -0,0 +1,165 @@
+package dev.mathops.fx.coursebuilder;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for the {@code CourseRules} class: parsing the rules file, and agreement of the bundled deploy rules with the
+ * hand-written tests they replaced.
+ */
+final class CourseRulesTest {
+
+    /** The prefixes from which test filenames are generated. */
+    private static final String[] PREFIXES = {"context_", "worksheet_", "practice_", "answers_", "solution_",
+            "solutions_", "final", "notes", "example", "thumb", "metadata", "slides", "video", ""};
+
+    /** The middle parts from which test filenames are generated. */
+    private static final String[] MIDDLES = {"", "00", "07", "42", "99", "1", "123", "ab", "a1", "1a", ".v2"};
+
+    /** The extensions from which test filenames are generated. */
+    private static final String[] EXTENSIONS = {"", ".pdf", ".PDF", ".mp4", ".txt", ".vtt", ".json", ".png", ".jpg",
+            ".jpeg", ".docx", ".pdf.bak"};
+
+    /**
+     * Generates test filenames from every combination of prefix, middle, and extension.
+     *
+     * @return the names
+     */
+    private static List<String> names() {
+
+        final List<String> names = new ArrayList<>(PREFIXES.length * MIDDLES.length * EXTENSIONS.length);
+
+        for (final String prefix : PREFIXES) {
+            for (final String middle : MIDDLES) {
+                for (final String ext : EXTENSIONS) {
+                    names.add(prefix + middle + ext);
+                }
+            }
+        }
+
+        return names;
+    }
+
+    /**
+     * The test for student-facing files that the media deploy used before the rules file existed.
+     *
+     * @param name the filename
+     * @return true if the file is student-facing
+     */
+    private static boolean isStudentFacing(final String name) {
+
+        return "final.mp4".equals(name) || "final.txt".equals(name) || "example.pdf".equals(name)
+               || "notes.pdf".equals(name)
+               || (name.endsWith(".pdf") && (isNumbered(name, "context_") || isNumbered(name, "worksheet_")
+                                             || isNumbered(name, "practice_") || isNumbered(name, "answers_")
+                                             || isNumbered(name, "solution_")));
+    }
+
+    /**
+     * Tests whether a name known to end with ".pdf" is a prefix followed by two digits and ".pdf".
+     *
+     * @param name   the name
+     * @param prefix the prefix
+     * @return true if the name matches
+     */
+    private static boolean isNumbered(final String name, final String prefix) {
+
+        final int len = prefix.length();
+
+        return name.length() == len + 6 && name.startsWith(prefix)
+               && AppUtils.isAsciiDigit(name.charAt(len)) && AppUtils.isAsciiDigit(name.charAt(len + 1));
+    }
+
+    /**
+     * The test for web content that the web deploy used before the rules file existed.
+     *
+     * @param name the filename
+     * @return true if the file is web content
+     */
+    private static boolean isWebContent(final String name) {
+
+        return "final.vtt".equals(name) || "metadata.json".equals(name) || "thumb.png".equals(name)
+               || "thumb.jpg".equals(name) || "thumb.jpeg".equals(name);
+    }
+
+    /** Tests that the media deploy rules select exactly the files the media deploy selected before. */
+    @Test
+    void testMediaDeployMatchesBaseline() {
+
+        int numDeployed = 0;
+        for (final String name : names()) {
+            final boolean expected = isStudentFacing(name);
+            assertEquals(expected, CourseRules.isMediaDeployed(name), name);
+            if (expected) {
+                ++numDeployed;
+            }
+        }
+
+        assertTrue(numDeployed > 20);
+    }
+
+    /** Tests that the web deploy rules select exactly the files the web deploy selected before. */
+    @Test
+    void testWebDeployMatchesBaseline() {
+
+        for (final String name : names()) {
+            assertEquals(isWebContent(name), CourseRules.isWebDeployed(name), name);
+        }
+    }
+
+    /** Tests the expected entries of a few directory kinds from the bundled rules. */
+    @Test
+    void testExpectedEntries() {
+
+        assertTrue(CourseRules.matches(ERuleSet.TOPIC, true, "11_standard_1"));
+        assertTrue(CourseRules.matches(ERuleSet.TOPIC, true, "01_intro_1"));
+        assertFalse(CourseRules.matches(ERuleSet.TOPIC, true, "31_standard_1"));
+        assertFalse(CourseRules.matches(ERuleSet.TOPIC, false, "11_standard_1"));
+        assertTrue(CourseRules.matches(ERuleSet.TOPIC, false, CourseRules.OUTLINE_FILE));
+        assertTrue(CourseRules.matches(ERuleSet.STANDARD, true, "11_objective_B"));
+        assertTrue(CourseRules.matches(ERuleSet.EXAMPLE, false, "video.2.mp4"));
+        assertTrue(CourseRules.matches(ERuleSet.EXAMPLE, false, "drawing_01.webp"));
+        assertFalse(CourseRules.matches(ERuleSet.LESSON, false, "drawing_01.webp"));
+        assertTrue(CourseRules.matches(ERuleSet.LESSON, false, "notes.v2.docx"));
+    }
+
+    /** Tests parsing sections, comments, blank lines, and rules with several patterns. */
+    @Test
+    void testParseRules() {
+
+        final String text = """
+                # A comment
+
+                [TOPIC]
+                dir   0#_intro_#  [12]#_standard_#
+                  file metadata.json
+                [ LESSON ]
+                file  notes.pdf
+                """;
+
+        final List<NameRule> rules = CourseRules.parseRules(text);
+
+        assertEquals(List.of(new NameRule(ERuleSet.TOPIC, true, "0#_intro_#", 4),
+                new NameRule(ERuleSet.TOPIC, true, "[12]#_standard_#", 4),
+                new NameRule(ERuleSet.TOPIC, false, "metadata.json", 5),
+                new NameRule(ERuleSet.LESSON, false, "notes.pdf", 7)), rules);
+    }
+
+    /** Tests that malformed rules files are rejected. */
+    @Test
+    void testParseMalformed() {
+
+        assertThrows(IllegalArgumentException.class, () -> CourseRules.parseRules("[TOPIC\nfile a"));
+        assertThrows(IllegalArgumentException.class, () -> CourseRules.parseRules("[NO_SUCH_SET]\nfile a"));
+        assertThrows(IllegalArgumentException.class, () -> CourseRules.parseRules("file a"));
+        assertThrows(IllegalArgumentException.class, () -> CourseRules.parseRules("[TOPIC]\nfiles a"));
+        assertThrows(IllegalArgumentException.class, () -> CourseRules.parseRules("[TOPIC]\nfile"));
+    }
+}
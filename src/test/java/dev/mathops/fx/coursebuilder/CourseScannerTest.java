@@ -0,0 +1,177 @@
+package dev.mathops.fx.coursebuilder;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for the {@code CourseScanner} class, mainly that an incremental update re-lists only the changed directories,
+ * gives new nodes only to them and their ancestors, and shares every other node with the previous tree.
+ */
+final class CourseScannerTest {
+
+    /** A temporary directory. */
+    @TempDir
+    File tempDir;
+
+    /** The course media directory. */
+    private File courseDir;
+
+    /**
+     * Creates a course media directory with two subjects, the first with two topics.
+     *
+     * @throws IOException if a file cannot be written
+     */
+    @BeforeEach
+    void setUp() throws IOException {
+
+        this.courseDir = new File(this.tempDir, "course");
+
+        writeFile("01_algebra/metadata.json");
+        writeFile("01_algebra/01_linear/metadata.json");
+        writeFile("01_algebra/01_linear/11_standard_1/metadata.json");
+        writeFile("01_algebra/02_quadratic/metadata.json");
+        writeFile("02_trig/metadata.json");
+        writeFile("02_trig/01_angles/metadata.json");
+    }
+
+    /**
+     * Writes a small file in the course media directory.
+     *
+     * @param path the path relative to the course media directory
+     * @throws IOException if the file cannot be written
+     */
+    private void writeFile(final String path) throws IOException {
+
+        final File file = new File(this.courseDir, path);
+        final File parent = file.getParentFile();
+        assertTrue(parent.isDirectory() || parent.mkdirs());
+
+        Files.writeString(file.toPath(), "{}", StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Gets a directory in the course media directory.
+     *
+     * @param path the path relative to the course media directory
+     * @return the directory
+     */
+    private File dir(final String path) {
+
+        return new File(this.courseDir, path);
+    }
+
+    /**
+     * Finds the node for a directory in a tree.
+     *
+     * @param tree the tree
+     * @param path the path relative to the course media directory
+     * @return the node
+     */
+    private CourseDir node(final CourseTree tree, final String path) {
+
+        final CourseDir node = tree.find(dir(path));
+        assertNotNull(node, path);
+
+        return node;
+    }
+
+    /** Tests that a scan finds every directory and file (files are counted along with directories). */
+    @Test
+    void testScan() {
+
+        final CourseTree tree = CourseScanner.scan(this.courseDir);
+
+        assertEquals(7, tree.getNumDirectories());
+        assertEquals(13, tree.getRoot().countFiles());
+        assertEquals(List.of("01_algebra", "02_trig"),
+                tree.getRoot().getSubdirs().stream().map(CourseDir::getName).sorted().toList());
+    }
+
+    /**
+     * Tests that updating one changed directory gives new nodes to it and its ancestors only, and shares all other
+     * nodes with the previous tree.
+     *
+     * @throws IOException if a file cannot be written
+     */
+    @Test
+    void testUpdateSharesUnchangedNodes() throws IOException {
+
+        final CourseTree before = CourseScanner.scan(this.courseDir);
+        writeFile("01_algebra/01_linear/thumb.png");
+
+        final CourseTree after = CourseScanner.update(before, Set.of(dir("01_algebra/01_linear")));
+
+        assertNotSame(before, after);
+        assertNotSame(before.getRoot(), after.getRoot());
+        assertNotSame(node(before, "01_algebra"), node(after, "01_algebra"));
+        assertNotSame(node(before, "01_algebra/01_linear"), node(after, "01_algebra/01_linear"));
+
+        assertSame(node(before, "01_algebra/01_linear/11_standard_1"),
+                node(after, "01_algebra/01_linear/11_standard_1"));
+        assertSame(node(before, "01_algebra/02_quadratic"), node(after, "01_algebra/02_quadratic"));
+        assertSame(node(before, "02_trig"), node(after, "02_trig"));
+
+        assertTrue(node(after, "01_algebra/01_linear").hasFile("thumb.png"));
+        assertEquals(14, after.getRoot().countFiles());
+    }
+
+    /**
+     * Tests that a subdirectory created in a changed directory is scanned with its contents, and that a deleted one is
+     * removed.
+     *
+     * @throws IOException if a file cannot be written
+     */
+    @Test
+    void testUpdateAddedAndDeletedDirectories() throws IOException {
+
+        final CourseTree before = CourseScanner.scan(this.courseDir);
+
+        writeFile("02_trig/02_triangles/11_standard_1/metadata.json");
+        final File deleted = dir("01_algebra/02_quadratic");
+        assertTrue(new File(deleted, "metadata.json").delete());
+        assertTrue(deleted.delete());
+
+        final CourseTree after = CourseScanner.update(before, Set.of(dir("02_trig"), dir("01_algebra")));
+
+        assertTrue(node(after, "02_trig/02_triangles/11_standard_1").hasFile("metadata.json"));
+        assertNull(after.find(deleted));
+        assertSame(node(before, "02_trig/01_angles"), node(after, "02_trig/01_angles"));
+        assertSame(node(before, "01_algebra/01_linear"), node(after, "01_algebra/01_linear"));
+        assertEquals(8, after.getNumDirectories());
+    }
+
+    /** Tests that an update for directories outside the tree returns the previous tree itself. */
+    @Test
+    void testUpdateOutsideTree() {
+
+        final CourseTree before = CourseScanner.scan(this.courseDir);
+
+        final CourseTree after = CourseScanner.update(before, Set.of(new File(this.tempDir, "elsewhere")));
+
+        assertSame(before, after);
+    }
+
+    /** Tests that revalidating an unchanged tree returns the previous tree itself. */
+    @Test
+    void testRevalidateUnchanged() {
+
+        final CourseTree before = CourseScanner.scan(this.courseDir);
+
+        assertSame(before, CourseScanner.revalidate(before));
+    }
+}
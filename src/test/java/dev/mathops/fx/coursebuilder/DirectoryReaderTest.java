@@ -0,0 +1,103 @@
+package dev.mathops.fx.coursebuilder;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for the {@code DirectoryReader} class.
+ */
+final class DirectoryReaderTest {
+
+    /** A temporary directory to list. */
+    @TempDir
+    File tempDir;
+
+    /**
+     * Lists the temporary directory, keyed by entry name.
+     *
+     * @return the entries
+     */
+    private Map<String, DirEntry> listByName() {
+
+        final List<DirEntry> entries = DirectoryReader.list(this.tempDir);
+        final Map<String, DirEntry> result = new HashMap<>(entries.size());
+        for (final DirEntry entry : entries) {
+            result.put(entry.name(), entry);
+        }
+
+        return result;
+    }
+
+    /**
+     * Tests that the entries of a directory are listed with their types, sizes, and modification dates, without
+     * descending into subdirectories.
+     *
+     * @throws IOException if a file cannot be written
+     */
+    @Test
+    void testList() throws IOException {
+
+        final File file = new File(this.tempDir, "a.txt");
+        Files.writeString(file.toPath(), "hello", StandardCharsets.UTF_8);
+        final File subdir = new File(this.tempDir, "sub");
+        assertTrue(subdir.mkdir());
+        Files.writeString(new File(subdir, "b.txt").toPath(), "nested", StandardCharsets.UTF_8);
+
+        final Map<String, DirEntry> entries = listByName();
+
+        assertEquals(2, entries.size());
+        final DirEntry fileEntry = entries.get("a.txt");
+        assertEquals(file, fileEntry.file());
+        assertFalse(fileEntry.directory());
+        assertEquals(5L, fileEntry.size());
+        assertEquals(file.lastModified(), fileEntry.lastModified());
+        assertTrue(entries.get("sub").directory());
+    }
+
+    /**
+     * Tests that symbolic links are followed, and broken links are omitted.
+     *
+     * @throws IOException if a file or link cannot be created
+     */
+    @Test
+    void testLinks() throws IOException {
+
+        final File target = new File(this.tempDir, "target");
+        assertTrue(target.mkdir());
+        Files.createSymbolicLink(new File(this.tempDir, "link").toPath(), target.toPath());
+        Files.createSymbolicLink(new File(this.tempDir, "broken").toPath(), new File(this.tempDir, "gone").toPath());
+
+        final Map<String, DirEntry> entries = listByName();
+
+        assertEquals(2, entries.size());
+        assertTrue(entries.get("link").directory());
+        assertFalse(entries.containsKey("broken"));
+    }
+
+    /**
+     * Tests that a directory that does not exist, or a path that is a file, lists as empty.
+     *
+     * @throws IOException if a file cannot be written
+     */
+    @Test
+    void testNotADirectory() throws IOException {
+
+        final File file = new File(this.tempDir, "a.txt");
+        Files.writeString(file.toPath(), "hello", StandardCharsets.UTF_8);
+
+        assertTrue(DirectoryReader.list(new File(this.tempDir, "missing")).isEmpty());
+        assertTrue(DirectoryReader.list(file).isEmpty());
+    }
+}
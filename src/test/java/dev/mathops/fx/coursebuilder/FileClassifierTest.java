@@ -0,0 +1,99 @@
+package dev.mathops.fx.coursebuilder;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Tests for the {@code FileClassifier} class.
+ */
+final class FileClassifierTest {
+
+    /** Names paired with the roles they should be assigned (at least one name for each role). */
+    private static final Map<String, EFileRole> EXAMPLES = Map.ofEntries(
+            Map.entry("metadata.json", EFileRole.METADATA),
+            Map.entry("Outline.docx", EFileRole.OUTLINE),
+            Map.entry("thumb.png", EFileRole.THUMBNAIL),
+            Map.entry("thumb.jpeg", EFileRole.THUMBNAIL),
+            Map.entry("example.docx", EFileRole.EXAMPLE_SOURCE),
+            Map.entry("example.pdf", EFileRole.EXAMPLE_PDF),
+            Map.entry("item_spec.docx", EFileRole.ITEM_SPEC),
+            Map.entry("data.xlsx", EFileRole.DATA_XLSX),
+            Map.entry("drawing_01.svg", EFileRole.DRAWING_SVG),
+            Map.entry("drawing_01.xml", EFileRole.DRAWING_XML),
+            Map.entry("drawing_01.png", EFileRole.DRAWING_PNG),
+            Map.entry("drawing_01.jpg", EFileRole.DRAWING_JPG),
+            Map.entry("drawing_a.b.jpeg", EFileRole.DRAWING_JPG),
+            Map.entry("drawing_01.webp", EFileRole.DRAWING_WEBP),
+            Map.entry("image_01.svg", EFileRole.IMAGE_SVG),
+            Map.entry("image_01.png", EFileRole.IMAGE_PNG),
+            Map.entry("image_01.jpeg", EFileRole.IMAGE_JPG),
+            Map.entry("image_01.webp", EFileRole.IMAGE_WEBP),
+            Map.entry("image_01.xcf", EFileRole.IMAGE_XCF),
+            Map.entry("slides.pptx", EFileRole.SLIDES_PPTX),
+            Map.entry("slides.2.pptx", EFileRole.SLIDES_PPTX),
+            Map.entry("slides.pdf", EFileRole.SLIDES_PDF),
+            Map.entry("camera.mp4", EFileRole.RAW_MP4),
+            Map.entry("screen.2.mp4", EFileRole.RAW_MP4),
+            Map.entry("video.mp4", EFileRole.RAW_MP4),
+            Map.entry("camera.wav", EFileRole.RAW_WAV),
+            Map.entry("final.mp4", EFileRole.FINAL_MP4),
+            Map.entry("final.vtt", EFileRole.FINAL_VTT),
+            Map.entry("final.txt", EFileRole.FINAL_TXT),
+            Map.entry("final.2.prproj", EFileRole.FINAL_PRPROJ),
+            Map.entry("notes.pdf", EFileRole.NOTES_PDF),
+            Map.entry("notes.docx", EFileRole.NOTES_DOCX),
+            Map.entry("notes.pptx", EFileRole.NOTES_PPTX),
+            Map.entry("context_01.pdf", EFileRole.CONTEXT_PDF),
+            Map.entry("worksheet_12.pdf", EFileRole.WORKSHEET_PDF),
+            Map.entry("practice_99.pdf", EFileRole.PRACTICE_PDF),
+            Map.entry("answers_00.pdf", EFileRole.ANSWERS_PDF),
+            Map.entry("solution_03.pdf", EFileRole.SOLUTIONS_PDF),
+            Map.entry("01_intro_1", EFileRole.INTRO_DIR),
+            Map.entry("11_lesson_2", EFileRole.LESSON_DIR),
+            Map.entry("21_standard_3", EFileRole.STANDARD_DIR),
+            Map.entry("12_objective_C", EFileRole.OBJECTIVE_DIR),
+            Map.entry("91_conclusion_1", EFileRole.CONCLUSION_DIR));
+
+    /** Names that should not be recognized. */
+    private static final String[] UNRECOGNIZED = {"", "x", "Metadata.json", "thumb.gif", "example.txt",
+            "drawing_01.xcf", "drawing", "image_01.xml", "slides.docx", "camera.mov", "screen", "video.txt",
+            "final.wav", "final", "notes.txt", "context_1.pdf", "context_001.pdf", "context_ab.pdf", "context_01.docx",
+            "worksheet_01.PDF", "practice_1x.pdf", "answers_01.pdfx", "solutions_01.pdf", "solution_01.docx",
+            "01_intro_", "11_intro_1", "01_intro_x", "31_lesson_1", "11_lesson_a", "01_lesson_1", "11_standard_x",
+            "31_standard_1", "11_objective_1", "31_objective_A", "11_conclusion_1", "91_conclusion_x", "1x_intro_1",
+            "99", "9_conclusion_1"};
+
+    /** Tests each recognized name. */
+    @Test
+    void testRecognized() {
+
+        for (final Map.Entry<String, EFileRole> entry : EXAMPLES.entrySet()) {
+            assertEquals(entry.getValue(), FileClassifier.classify(entry.getKey()), entry.getKey());
+        }
+    }
+
+    /** Tests that every role other than {@code OTHER} has an example above. */
+    @Test
+    void testEveryRoleCovered() {
+
+        final Set<EFileRole> roles = EnumSet.allOf(EFileRole.class);
+        roles.remove(EFileRole.OTHER);
+        roles.removeAll(EXAMPLES.values());
+
+        assertEquals(Set.of(), roles);
+    }
+
+    /** Tests names that are similar to recognized names but should not be recognized. */
+    @Test
+    void testUnrecognized() {
+
+        for (final String name : UNRECOGNIZED) {
+            assertEquals(EFileRole.OTHER, FileClassifier.classify(name), name);
+        }
+    }
+}
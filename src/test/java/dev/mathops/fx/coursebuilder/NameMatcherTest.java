@@ -0,0 +1,161 @@
+package dev.mathops.fx.coursebuilder;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for the {@code NameMatcher} class: the glob syntax, the separation of rule sets and entry types, and the
+ * rejection of malformed patterns.
+ */
+final class NameMatcherTest {
+
+    /**
+     * Compiles file rules in the {@code EXAMPLE} rule set.
+     *
+     * @param globs the glob patterns
+     * @return the matcher
+     */
+    private static NameMatcher compile(final String... globs) {
+
+        final List<NameRule> rules = new ArrayList<>(globs.length);
+        for (int i = 0; i < globs.length; ++i) {
+            rules.add(new NameRule(ERuleSet.EXAMPLE, false, globs[i], i + 1));
+        }
+
+        return NameMatcher.compile(rules);
+    }
+
+    /**
+     * Tests whether a file name is matched by the {@code EXAMPLE} rule set.
+     *
+     * @param matcher the matcher
+     * @param name    the name
+     * @return true if the name matches
+     */
+    private static boolean matches(final NameMatcher matcher, final String name) {
+
+        return matcher.matches(ERuleSet.EXAMPLE, false, name);
+    }
+
+    /** Tests that literal characters match only themselves, and only the whole name. */
+    @Test
+    void testLiteral() {
+
+        final NameMatcher matcher = compile("final.mp4");
+
+        assertTrue(matches(matcher, "final.mp4"));
+        assertFalse(matches(matcher, "final.mp"));
+        assertFalse(matches(matcher, "final.mp44"));
+        assertFalse(matches(matcher, "Final.mp4"));
+        assertFalse(matches(matcher, "xfinal.mp4"));
+        assertFalse(matches(matcher, ""));
+    }
+
+    /** Tests that "*" matches any run of characters, including none and non-ASCII characters. */
+    @Test
+    void testStar() {
+
+        final NameMatcher matcher = compile("slides.*.pdf", "drawing_*");
+
+        assertTrue(matches(matcher, "slides.v2.pdf"));
+        assertTrue(matches(matcher, "slides..pdf"));
+        assertTrue(matches(matcher, "slides.a.b.pdf"));
+        assertTrue(matches(matcher, "slides.été.pdf"));
+        assertFalse(matches(matcher, "slides.pdf"));
+        assertTrue(matches(matcher, "drawing_"));
+        assertTrue(matches(matcher, "drawing_01.svg"));
+        assertFalse(matches(matcher, "drawing"));
+    }
+
+    /** Tests that "?" matches exactly one character and "#" exactly one ASCII digit. */
+    @Test
+    void testSingleCharacters() {
+
+        final NameMatcher matcher = compile("a?c", "worksheet_##.pdf");
+
+        assertTrue(matches(matcher, "abc"));
+        assertTrue(matches(matcher, "aéc"));
+        assertFalse(matches(matcher, "ac"));
+        assertFalse(matches(matcher, "abbc"));
+        assertTrue(matches(matcher, "worksheet_07.pdf"));
+        assertFalse(matches(matcher, "worksheet_7.pdf"));
+        assertFalse(matches(matcher, "worksheet_007.pdf"));
+        assertFalse(matches(matcher, "worksheet_0a.pdf"));
+        assertFalse(matches(matcher, "worksheet_0٣.pdf"));
+    }
+
+    /** Tests character classes, ranges, and negated classes. */
+    @Test
+    void testClasses() {
+
+        final NameMatcher matcher = compile("[12]#_objective_[A-Z]", "x[!0-9]");
+
+        assertTrue(matches(matcher, "11_objective_A"));
+        assertTrue(matches(matcher, "29_objective_Z"));
+        assertFalse(matches(matcher, "31_objective_A"));
+        assertFalse(matches(matcher, "11_objective_a"));
+        assertTrue(matches(matcher, "xa"));
+        assertTrue(matches(matcher, "xé"));
+        assertFalse(matches(matcher, "x5"));
+    }
+
+    /** Tests that "\" makes the next character literal. */
+    @Test
+    void testEscape() {
+
+        final NameMatcher matcher = compile("a\\*b", "\\#1");
+
+        assertTrue(matches(matcher, "a*b"));
+        assertFalse(matches(matcher, "axb"));
+        assertTrue(matches(matcher, "#1"));
+        assertFalse(matches(matcher, "11"));
+    }
+
+    /** Tests that rules apply only to their own rule set and entry type. */
+    @Test
+    void testRuleSetsAndTypes() {
+
+        final List<NameRule> rules = List.of(new NameRule(ERuleSet.TOPIC, true, "0#_intro_#", 1),
+                new NameRule(ERuleSet.TOPIC, false, "metadata.json", 2),
+                new NameRule(ERuleSet.LESSON, false, "notes.pdf", 3));
+        final NameMatcher matcher = NameMatcher.compile(rules);
+
+        assertTrue(matcher.matches(ERuleSet.TOPIC, true, "01_intro_1"));
+        assertFalse(matcher.matches(ERuleSet.TOPIC, false, "01_intro_1"));
+        assertFalse(matcher.matches(ERuleSet.STANDARD, true, "01_intro_1"));
+        assertTrue(matcher.matches(ERuleSet.TOPIC, false, "metadata.json"));
+        assertFalse(matcher.matches(ERuleSet.TOPIC, true, "metadata.json"));
+        assertTrue(matcher.matches(ERuleSet.LESSON, false, "notes.pdf"));
+        assertFalse(matcher.matches(ERuleSet.TOPIC, false, "notes.pdf"));
+        assertEquals(3, matcher.getNumRules());
+    }
+
+    /** Tests that a rule set with no rules matches nothing. */
+    @Test
+    void testEmptyRuleSet() {
+
+        final NameMatcher matcher = NameMatcher.compile(List.of());
+
+        assertFalse(matcher.matches(ERuleSet.WEB_DEPLOY, false, "metadata.json"));
+        assertFalse(matcher.matches(ERuleSet.WEB_DEPLOY, false, ""));
+    }
+
+    /** Tests that malformed patterns are rejected. */
+    @Test
+    void testMalformed() {
+
+        assertThrows(IllegalArgumentException.class, () -> compile(""));
+        assertThrows(IllegalArgumentException.class, () -> compile("abc\\"));
+        assertThrows(IllegalArgumentException.class, () -> compile("a[bc"));
+        assertThrows(IllegalArgumentException.class, () -> compile("a[]"));
+        assertThrows(IllegalArgumentException.class, () -> compile("a[z-a]"));
+        assertThrows(IllegalArgumentException.class, () -> compile("café"));
+    }
+}
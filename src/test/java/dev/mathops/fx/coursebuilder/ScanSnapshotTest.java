@@ -0,0 +1,207 @@
+package dev.mathops.fx.coursebuilder;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for the {@code ScanSnapshot} class: a saved tree loads back unchanged, and a corrupt snapshot loads as no
+ * snapshot rather than failing.
+ */
+final class ScanSnapshotTest {
+
+    /** A temporary directory for the course and the snapshot file. */
+    @TempDir
+    File tempDir;
+
+    /** The course media directory. */
+    private File courseDir;
+
+    /** The snapshot file. */
+    private File snapshotFile;
+
+    /**
+     * Creates a small course media directory.
+     *
+     * @throws IOException if a file cannot be written
+     */
+    @BeforeEach
+    void setUp() throws IOException {
+
+        this.courseDir = new File(this.tempDir, "course");
+        this.snapshotFile = new File(this.tempDir, "snapshot.bin");
+
+        writeFile("01_algebra/metadata.json", "{}");
+        writeFile("01_algebra/01_linear/metadata.json", "{\"title\": \"Linear\"}");
+        writeFile("01_algebra/01_linear/11_standard_1/thumb.png", "png");
+        writeFile("02_trig/metadata.json", "{}");
+    }
+
+    /**
+     * Writes a file in the course media directory.
+     *
+     * @param path    the path relative to the course media directory
+     * @param content the content
+     * @throws IOException if the file cannot be written
+     */
+    private void writeFile(final String path, final String content) throws IOException {
+
+        final File file = new File(this.courseDir, path);
+        final File parent = file.getParentFile();
+        assertTrue(parent.isDirectory() || parent.mkdirs());
+
+        Files.writeString(file.toPath(), content, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Saves a snapshot of the course media directory and reads back its bytes.
+     *
+     * @return the snapshot bytes
+     * @throws IOException if the snapshot cannot be read
+     */
+    private byte[] saveSnapshot() throws IOException {
+
+        ScanSnapshot.save(CourseScanner.scan(this.courseDir), this.snapshotFile);
+
+        return Files.readAllBytes(this.snapshotFile.toPath());
+    }
+
+    /**
+     * Gets the offset of the root directory's file count in a snapshot of the course media directory (after the
+     * magic number, version, path, scan time, and the root's modification date).
+     *
+     * @return the offset
+     */
+    private int rootFileCountOffset() {
+
+        final byte[] path = this.courseDir.getAbsolutePath().getBytes(StandardCharsets.UTF_8);
+
+        return 4 + 4 + 2 + path.length + 8 + 8;
+    }
+
+    /**
+     * Tests that two directory nodes describe the same directories and files.
+     *
+     * @param expected the expected node
+     * @param actual   the actual node
+     */
+    private static void assertSameContent(final CourseDir expected, final CourseDir actual) {
+
+        assertEquals(expected.getFile(), actual.getFile());
+        assertEquals(expected.getKind(), actual.getKind());
+        assertEquals(expected.getLastModified(), actual.getLastModified());
+
+        final List<CourseFile> expectedFiles = expected.getFiles();
+        final List<CourseFile> actualFiles = actual.getFiles();
+        assertEquals(expectedFiles.size(), actualFiles.size());
+        for (int i = 0; i < expectedFiles.size(); ++i) {
+            assertEquals(expectedFiles.get(i).getFile(), actualFiles.get(i).getFile());
+            assertEquals(expectedFiles.get(i).getSize(), actualFiles.get(i).getSize());
+            assertEquals(expectedFiles.get(i).getLastModified(), actualFiles.get(i).getLastModified());
+        }
+
+        final List<CourseDir> expectedSubdirs = expected.getSubdirs();
+        final List<CourseDir> actualSubdirs = actual.getSubdirs();
+        assertEquals(expectedSubdirs.size(), actualSubdirs.size());
+        for (int i = 0; i < expectedSubdirs.size(); ++i) {
+            assertSameContent(expectedSubdirs.get(i), actualSubdirs.get(i));
+        }
+    }
+
+    /** Tests that a saved tree loads back with the same directories, files, sizes, dates, and kinds. */
+    @Test
+    void testRoundTrip() {
+
+        final CourseTree tree = CourseScanner.scan(this.courseDir);
+        ScanSnapshot.save(tree, this.snapshotFile);
+
+        final CourseTree loaded = ScanSnapshot.load(this.courseDir, this.snapshotFile);
+
+        assertNotNull(loaded);
+        assertEquals(tree.getScanTime(), loaded.getScanTime());
+        assertEquals(tree.getNumDirectories(), loaded.getNumDirectories());
+        assertSameContent(tree.getRoot(), loaded.getRoot());
+        assertEquals(EDirKind.TOPIC, loaded.find(new File(this.courseDir, "01_algebra/01_linear")).getKind());
+    }
+
+    /** Tests that a snapshot of a different course media directory is not loaded. */
+    @Test
+    void testOtherDirectory() {
+
+        ScanSnapshot.save(CourseScanner.scan(this.courseDir), this.snapshotFile);
+
+        assertNull(ScanSnapshot.load(new File(this.tempDir, "other"), this.snapshotFile));
+    }
+
+    /**
+     * Tests that truncated snapshots, and snapshots with data after the end marker, are not loaded.
+     *
+     * @throws IOException if the snapshot cannot be read or written
+     */
+    @Test
+    void testTruncatedOrExtended() throws IOException {
+
+        final byte[] bytes = saveSnapshot();
+
+        for (final int length : new int[]{0, 3, rootFileCountOffset() + 2, bytes.length - 4, bytes.length - 1,
+                bytes.length + 1}) {
+            Files.write(this.snapshotFile.toPath(), Arrays.copyOf(bytes, length));
+            assertNull(ScanSnapshot.load(this.courseDir, this.snapshotFile), Integer.toString(length));
+        }
+    }
+
+    /**
+     * Tests that snapshots with negative or huge entry counts are not loaded (and do not try to allocate for them).
+     *
+     * @throws IOException if the snapshot cannot be read or written
+     */
+    @Test
+    void testCorruptCounts() throws IOException {
+
+        final byte[] bytes = saveSnapshot();
+        final int fileCountOffset = rootFileCountOffset();
+        final int subdirCountOffset = fileCountOffset + 4;
+        assertEquals(0, ByteBuffer.wrap(bytes).getInt(fileCountOffset));
+        assertEquals(2, ByteBuffer.wrap(bytes).getInt(subdirCountOffset));
+
+        for (final int offset : new int[]{fileCountOffset, subdirCountOffset}) {
+            for (final int count : new int[]{-1, Integer.MIN_VALUE, Integer.MAX_VALUE, 100_001}) {
+                final byte[] corrupt = bytes.clone();
+                ByteBuffer.wrap(corrupt).putInt(offset, count);
+                Files.write(this.snapshotFile.toPath(), corrupt);
+                assertNull(ScanSnapshot.load(this.courseDir, this.snapshotFile), offset + ": " + count);
+            }
+        }
+    }
+
+    /**
+     * Tests that a snapshot whose bytes have been overwritten with garbage is not loaded, wherever the garbage starts.
+     *
+     * @throws IOException if the snapshot cannot be read or written
+     */
+    @Test
+    void testGarbage() throws IOException {
+
+        final byte[] bytes = saveSnapshot();
+
+        for (int start = rootFileCountOffset(); start < bytes.length; start += 7) {
+            final byte[] corrupt = bytes.clone();
+            Arrays.fill(corrupt, start, corrupt.length, (byte) 0xA5);
+            Files.write(this.snapshotFile.toPath(), corrupt);
+            assertNull(ScanSnapshot.load(this.courseDir, this.snapshotFile), Integer.toString(start));
+        }
+    }
+}